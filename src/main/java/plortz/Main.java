@@ -20,6 +20,7 @@ import plortz.benchmark.Benchmark;
 import plortz.ui.ConsoleUI;
 import plortz.ui.GraphicalUI;
 import plortz.ui.UserInterface;
+import plortz.util.Parallel;
 
 /**
  * The starting point of the application.
@@ -57,6 +58,10 @@ public class Main {
                 output_timing = true;
             } else if (arg.equals("--benchmark")) {
                 run_benchmarks = true;
+            } else if (arg.startsWith("--threads=")) {
+                if (!parseThreads(arg.substring("--threads=".length()))) {
+                    return false;
+                }
             } else {
                 System.out.println("Unknown argument '" + arg + "'");
                 return false;
@@ -65,12 +70,22 @@ public class Main {
         return true;
     }
     
+    private static boolean parseThreads(String threads) {
+        try {
+            Parallel.setThreads(Integer.parseInt(threads));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid number of threads '" + threads + "'");
+            return false;
+        }
+        return true;
+    }
+    
     private static void runBenchmarks() {
         var tests = Benchmark.getAllTests();
         for (var test : tests) {
             System.out.print(test.getName() + ": ");
             System.out.flush();
-            var t = test.run(20, 20);
+            var t = test.run();
             System.out.println(t);
         }
     }
@@ -19,6 +19,19 @@ package plortz.benchmark;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import plortz.terrain.Terrain;
+import plortz.tool.ApplyFilter;
+import plortz.tool.FractalNoise;
+import plortz.tool.PerlinNoise;
+import plortz.tool.SheetErosion;
+import plortz.tool.SimplexNoise;
+import plortz.tool.WarpedNoise;
+import plortz.tool.filters.AverageSmoothingFilter;
+import plortz.tool.filters.EdgeDetectingSmoothingFilter;
+import plortz.tool.noise.Fractal;
+import plortz.tool.noise.GradientNoise;
+import plortz.tool.noise.HashedGradientNoise;
+import plortz.util.MersenneTwister;
 
 /**
  * Abstract base class for performance tests.
@@ -39,9 +52,69 @@ public abstract class Benchmark {
         tests.add(new AppendAtEndWithFastInsertList(addcount));
         tests.add(new InsertAtStartWithArrayList(addcount));
         tests.add(new InsertAtStartWithFastInsertList(addcount));
+        final int terrain_size = 4097;
+        for (Terrain.StorageType storage_type : new Terrain.StorageType[] { Terrain.StorageType.COLUMNS, Terrain.StorageType.CHUNKED }) {
+            tests.add(new ToolBenchmark("ApplyFilter average 3", storage_type, terrain_size, () -> new ApplyFilter(new AverageSmoothingFilter(3))));
+            tests.add(new ToolBenchmark("ApplyFilter edgy 5", storage_type, terrain_size, () -> new ApplyFilter(new EdgeDetectingSmoothingFilter(5))));
+            tests.add(new ToolBenchmark("SheetErosion", storage_type, terrain_size, () -> new SheetErosion(new MersenneTwister(0))));
+        }
+        tests.add(new ToolBenchmark("PerlinNoise", Terrain.StorageType.COLUMNS, 2049, () -> new PerlinNoise(1.0, 1.0 / 64.0, new MersenneTwister(0))));
+        for (int octaves : new int[] { 1, 6 }) {
+            tests.add(new ToolBenchmark("FractalNoise " + octaves + " octaves", Terrain.StorageType.COLUMNS, 2049,
+                                        () -> new FractalNoise(1.0, 1.0 / 64.0, Fractal.Type.FBM, octaves, new MersenneTwister(0))));
+            tests.add(new ToolBenchmark("SimplexNoise " + octaves + " octaves", Terrain.StorageType.COLUMNS, 2049,
+                                        () -> new SimplexNoise(1.0, 1.0 / 64.0, Fractal.Type.FBM, octaves, new MersenneTwister(0))));
+        }
+        tests.add(new ToolBenchmark("WarpedNoise 6 octaves", Terrain.StorageType.COLUMNS, 2049,
+                                    () -> new WarpedNoise(1.0, 1.0 / 64.0, 32.0, Fractal.Type.FBM, 6, new MersenneTwister(0))));
+        addNoiseBenchmarks(tests);
+        for (RegionQueryBenchmark.Method method : RegionQueryBenchmark.Method.values()) {
+            tests.add(new RegionQueryBenchmark(method, terrain_size, 1000, 512));
+        }
+        for (int threads : getThreadCounts()) {
+            for (Terrain.StorageType storage_type : new Terrain.StorageType[] { Terrain.StorageType.OBJECTS, Terrain.StorageType.COLUMNS }) {
+                addTerrainBenchmarks(tests, storage_type, threads);
+            }
+        }
         return tests;
     }        
     
+    /**
+     * Return the numbers of threads to benchmark: the powers of two below the number of processors, and the number of processors.
+     * 
+     * @return The numbers of threads.
+     */
+    private static List<Integer> getThreadCounts() {
+        List<Integer> counts = new ArrayList<>();
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(processors);
+        return counts;
+    }
+    
+    private static void addNoiseBenchmarks(List<Benchmark> tests) {
+        tests.add(new NoiseBenchmark("GradientNoise", new GradientNoise(new MersenneTwister(0)), 2049, 1.0 / 64.0));
+        tests.add(new NoiseBenchmark("HashedGradientNoise", new HashedGradientNoise(0), 2049, 1.0 / 64.0));
+        tests.add(new NoiseBenchmark("SimplexNoise", new plortz.tool.noise.SimplexNoise(0), 2049, 1.0 / 64.0));
+    }
+    
+    private static void addTerrainBenchmarks(List<Benchmark> tests, Terrain.StorageType storage_type, int threads) {
+        for (TerrainBenchmark.Operation operation : TerrainBenchmark.Operation.values()) {
+            tests.add(new TerrainBenchmark(operation, storage_type, 2049, threads));
+        }
+    }
+    
+    /**
+     * Run this test for the default number of times and return the shortest execution time.
+     * 
+     * @return The shortest execution time.
+     */
+    public final long run() {
+        return this.run(this.getWarmUps(), this.getIterations());
+    }
+    
     /**
      * Run this test for the given number of times and return the shortest execution time.
      * 
@@ -52,6 +125,7 @@ public abstract class Benchmark {
     public final long run(int warm_ups, int iterations) {
         this.runWarmUps(warm_ups);
         var times = this.runTests(iterations);
+        this.tearDown();
         // Return the shortest time:
         List<Long> tmp = new ArrayList<>(); // for mergesort
         for (var i : times) {
@@ -89,10 +163,34 @@ public abstract class Benchmark {
         return times;
     }
 
+    /**
+     * Return the default number of warm-up runs.
+     * 
+     * @return The number of warm-up runs.
+     */
+    protected int getWarmUps() {
+        return 20;
+    }
+    
+    /**
+     * Return the default number of measured runs.
+     * 
+     * @return The number of measured runs.
+     */
+    protected int getIterations() {
+        return 20;
+    }
+
     /**
      * Prepare for a test run.
      */
     protected abstract void setUp();
+    
+    /**
+     * Release the resources after all the test runs.
+     */
+    protected void tearDown() {
+    }
 
     /**
      * Run one test.
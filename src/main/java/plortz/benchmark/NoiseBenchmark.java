@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.benchmark;
+
+import plortz.tool.noise.Noise;
+
+/**
+ * Benchmark evaluating a noise function over a square grid, one row at a time.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class NoiseBenchmark extends Benchmark {
+    
+    private final String   name;
+    private final Noise    noise;
+    private final int      size;
+    private final double   step;
+    private double[]       row;
+    
+    /**
+     * Constructor.
+     * 
+     * @param name  The name of the noise.
+     * @param noise The noise.
+     * @param size  The width and length of the grid.
+     * @param step  The distance between the samples.
+     */
+    public NoiseBenchmark(String name, Noise noise, int size, double step) {
+        this.name  = name;
+        this.noise = noise;
+        this.size  = size;
+        this.step  = step;
+        this.row   = null;
+    }
+    
+    @Override
+    protected int getWarmUps() {
+        return 2;
+    }
+    
+    @Override
+    protected int getIterations() {
+        return 3;
+    }
+
+    @Override
+    protected void setUp() {
+        if (this.row == null) {
+            this.row = new double[this.size];
+        }
+    }
+
+    @Override
+    protected void execute() {
+        for (int y = 0; y < this.size; y++) {
+            this.noise.fillRow(0.0, y * this.step, this.step, this.row, 0, this.size);
+        }
+    }
+    
+    @Override
+    protected void tearDown() {
+        this.row = null;
+    }
+
+    @Override
+    public String getName() {
+        return this.name + ": " + this.size + "x" + this.size + " samples";
+    }
+}
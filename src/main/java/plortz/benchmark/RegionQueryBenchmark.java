@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.benchmark;
+
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.tool.RandomNoise;
+import plortz.util.MersenneTwister;
+import plortz.util.Rectangle;
+
+/**
+ * Benchmark finding the lowest altitude in random rectangles of a large terrain,
+ * either by scanning the tiles or by using the altitude pyramid of the terrain.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class RegionQueryBenchmark extends Benchmark {
+    
+    /**
+     * The method used to answer the queries.
+     */
+    public enum Method {
+        /**
+         * Read the altitudes of the rectangle and scan them.
+         */
+        SCAN,
+        /**
+         * Use Terrain.getAltitudePyramid().
+         */
+        PYRAMID
+    };
+    
+    private final Method      method;
+    private final int         size;
+    private final int         max_query_size;
+    private final Rectangle[] queries;
+    private Terrain           terrain;
+    private double[]          buffer;
+    private double            result;
+    
+    /**
+     * Constructor.
+     * 
+     * @param method         The method used to answer the queries.
+     * @param size           The width and length of the terrain.
+     * @param query_count    The number of queries per run.
+     * @param max_query_size The maximum width and length of the rectangles.
+     */
+    public RegionQueryBenchmark(Method method, int size, int query_count, int max_query_size) {
+        this.method         = method;
+        this.size           = size;
+        this.max_query_size = max_query_size;
+        this.queries        = new Rectangle[query_count];
+        MersenneTwister random = new MersenneTwister(0);
+        for (int i = 0; i < query_count; i++) {
+            int width  = random.nextInt(max_query_size) + 1;
+            int length = random.nextInt(max_query_size) + 1;
+            this.queries[i] = new Rectangle(random.nextInt(size - width + 1), random.nextInt(size - length + 1), width, length);
+        }
+        this.terrain = null;
+        this.buffer  = null;
+    }
+    
+    @Override
+    protected int getWarmUps() {
+        return 1;
+    }
+    
+    @Override
+    protected int getIterations() {
+        return 3;
+    }
+
+    @Override
+    protected void setUp() {
+        if (this.terrain == null) {
+            this.terrain = new Terrain(this.size, this.size, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+            new RandomNoise(10.0, new MersenneTwister(0)).apply(this.terrain);
+            this.buffer = new double[this.max_query_size * this.max_query_size];
+            // Build the pyramid outside of the measurement:
+            this.terrain.getAltitudePyramid().getMin(new Rectangle(0, 0, 1, 1));
+        }
+    }
+
+    @Override
+    protected void execute() {
+        double min = Double.POSITIVE_INFINITY;
+        for (Rectangle query : this.queries) {
+            if (this.method == Method.PYRAMID) {
+                min = Math.min(min, this.terrain.getAltitudePyramid().getMin(query));
+            } else {
+                min = Math.min(min, this.scan(query));
+            }
+        }
+        this.result = min;
+    }
+    
+    private double scan(Rectangle query) {
+        this.terrain.getAltitudes(query.getX(), query.getY(), query.getWidth(), query.getLength(), this.buffer, false);
+        double min = this.buffer[0];
+        for (int i = 1; i < query.getWidth() * query.getLength(); i++) {
+            min = Math.min(min, this.buffer[i]);
+        }
+        return min;
+    }
+    
+    @Override
+    protected void tearDown() {
+        this.terrain = null;
+        this.buffer  = null;
+    }
+
+    @Override
+    public String getName() {
+        return "Lowest tile in " + this.queries.length + " rectangles up to " + this.max_query_size + "x" + this.max_query_size
+                + ": " + this.method.name().toLowerCase() + " " + this.size + "x" + this.size;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.benchmark;
+
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.util.Parallel;
+
+/**
+ * Benchmark of the terrain operations processing all the tiles, with the given number of threads.
+ * <p>
+ * Running the same operation with different numbers of threads shows how the operation scales.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainBenchmark extends Benchmark {
+    
+    /**
+     * The operation to benchmark.
+     */
+    public enum Operation {
+        /**
+         * Construct a new terrain.
+         */
+        CREATE,
+        /**
+         * Copy the terrain using the copy constructor.
+         */
+        COPY,
+        /**
+         * Raise the bottom soil layer of every tile using zeroBottomSoilLayer().
+         */
+        ZERO_BOTTOM_SOIL_LAYER
+    };
+    
+    private final Operation           operation;
+    private final Terrain.StorageType storage_type;
+    private final int                 size;
+    private final int                 threads;
+    private final int                 default_threads;
+    private Terrain                   terrain;
+    private Terrain                   result;
+    
+    /**
+     * Constructor.
+     * 
+     * @param operation    The operation to benchmark.
+     * @param storage_type The storage type of the terrain.
+     * @param size         The width and length of the terrain.
+     * @param threads      The number of threads to use.
+     */
+    public TerrainBenchmark(Operation operation, Terrain.StorageType storage_type, int size, int threads) {
+        this.operation       = operation;
+        this.storage_type    = storage_type;
+        this.size            = size;
+        this.threads         = threads;
+        this.default_threads = Parallel.getThreads();
+        this.terrain         = null;
+        this.result          = null;
+    }
+    
+    @Override
+    protected int getWarmUps() {
+        return 1;
+    }
+    
+    @Override
+    protected int getIterations() {
+        return 3;
+    }
+
+    @Override
+    protected void setUp() {
+        Parallel.setThreads(this.threads);
+        this.result = null;
+        if (this.operation != Operation.CREATE && this.terrain == null) {
+            this.terrain = new Terrain(this.size, this.size, SoilLayer.Type.DIRT, this.storage_type);
+        }
+        if (this.operation == Operation.ZERO_BOTTOM_SOIL_LAYER) {
+            // Make one tile negative to have all the tiles raised:
+            this.terrain.getTile(0, 0).getBottomSoil().setAmount(-1.0);
+        }
+    }
+
+    @Override
+    protected void execute() {
+        switch (this.operation) {
+            case CREATE:
+                this.result = new Terrain(this.size, this.size, SoilLayer.Type.DIRT, this.storage_type);
+                break;
+            case COPY:
+                this.result = new Terrain(this.terrain);
+                break;
+            default:
+                this.terrain.zeroBottomSoilLayer();
+                break;
+        }
+    }
+    
+    @Override
+    protected void tearDown() {
+        this.terrain = null;
+        this.result  = null;
+        Parallel.setThreads(this.default_threads);
+    }
+
+    @Override
+    public String getName() {
+        return "Terrain " + this.operation.name().toLowerCase() + ": " + this.storage_type.name().toLowerCase() + " " + this.size + "x" + this.size
+                + ", " + this.threads + " thread" + (this.threads == 1 ? "" : "s");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.benchmark;
+
+import java.util.function.Supplier;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.tool.RandomNoise;
+import plortz.tool.Tool;
+import plortz.util.MersenneTwister;
+
+/**
+ * Benchmark applying a tool to a large terrain.
+ * <p>
+ * The terrain is created with random noise on the first run, and reused for the following runs.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ToolBenchmark extends Benchmark {
+    
+    private final String              name;
+    private final Terrain.StorageType storage_type;
+    private final int                 size;
+    private final Supplier<Tool>      tool_factory;
+    private Terrain                   terrain;
+    
+    /**
+     * Constructor.
+     * 
+     * @param name         The name of the tool.
+     * @param storage_type The storage type of the terrain.
+     * @param size         The width and length of the terrain.
+     * @param tool_factory Creates the tool for each run.
+     */
+    public ToolBenchmark(String name, Terrain.StorageType storage_type, int size, Supplier<Tool> tool_factory) {
+        this.name         = name;
+        this.storage_type = storage_type;
+        this.size         = size;
+        this.tool_factory = tool_factory;
+        this.terrain      = null;
+    }
+    
+    @Override
+    protected int getWarmUps() {
+        return 1;
+    }
+    
+    @Override
+    protected int getIterations() {
+        return 3;
+    }
+
+    @Override
+    protected void setUp() {
+        if (this.terrain == null) {
+            this.terrain = new Terrain(this.size, this.size, SoilLayer.Type.DIRT, this.storage_type);
+            new RandomNoise(10.0, new MersenneTwister(0)).apply(this.terrain);
+        }
+    }
+
+    @Override
+    protected void execute() {
+        this.tool_factory.get().apply(this.terrain);
+    }
+    
+    @Override
+    protected void tearDown() {
+        this.terrain = null;
+    }
+
+    @Override
+    public String getName() {
+        return this.name + ": " + this.storage_type.name().toLowerCase() + " " + this.size + "x" + this.size;
+    }
+}
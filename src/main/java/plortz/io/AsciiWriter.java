@@ -47,10 +47,12 @@ public class AsciiWriter extends Writer {
         ByteArrayOutputStream bs = new ByteArrayOutputStream();
         
         Vector minmax = terrain.getAltitudeRange();
+        double[] altitudes = new double[terrain.getWidth() * terrain.getLength()];
+        terrain.getAltitudes(altitudes, true);
         
         for (int y = 0; y < terrain.getLength(); y++) {
             for (int x = 0; x < terrain.getWidth(); x++) {
-                double altitude = terrain.getTile(x, y).getAltitude(true);
+                double altitude = altitudes[x + y * terrain.getWidth()];
                 if (normalize) {
                     altitude -= minmax.getX();
                     altitude /= (minmax.getY() - minmax.getX());
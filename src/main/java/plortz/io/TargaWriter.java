@@ -19,7 +19,6 @@ package plortz.io;
 import java.io.ByteArrayOutputStream;
 import plortz.util.Vector;
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
 
 /**
  * Writes a Truevision TGA image file of the terrain.
@@ -33,6 +32,8 @@ public class TargaWriter extends Writer {
     private final boolean heights;
     private final boolean colors;
     private Vector        minmax;
+    private double[]      altitudes; // Snapshot of the terrain altitudes, including water.
+    private double[]      water;     // Snapshot of the terrain water depths.
     
     /**
      * Constructor.
@@ -55,7 +56,13 @@ public class TargaWriter extends Writer {
             throw new IllegalArgumentException("Targa file can not exceed the size of 65535 pixels.");
         }
 
-        this.minmax = terrain.getAltitudeRange();
+        this.minmax    = terrain.getAltitudeRange();
+        this.altitudes = new double[terrain.getWidth() * terrain.getLength()];
+        terrain.getAltitudes(this.altitudes, true);
+        if (this.colors) {
+            this.water = new double[this.altitudes.length];
+            terrain.getWaterDepths(this.water);
+        }
 
         byte[] header = this.getHeader(terrain);
         byte[] body;
@@ -70,6 +77,8 @@ public class TargaWriter extends Writer {
         bs.writeBytes(header);
         bs.writeBytes(body);
 
+        this.altitudes = null;
+        this.water     = null;
         return bs.toByteArray();
     }
 
@@ -97,7 +106,7 @@ public class TargaWriter extends Writer {
         if (!this.heights) {
             return 1.0;
         }
-        double altitude = terrain.getTile(x, y).getAltitude(true);
+        double altitude = this.altitudes[x + y * terrain.getWidth()];
         altitude -= this.minmax.getX();
         altitude /= (this.minmax.getY() - this.minmax.getX());
         return altitude;
@@ -117,11 +126,10 @@ public class TargaWriter extends Writer {
     
     private int getImageRGB(Terrain terrain, int x, int y) {
         Vector rgb;
-        Tile tile = terrain.getTile(x, y);
-        if (tile.getWater() > 0.0) {
+        if (this.water[x + y * terrain.getWidth()] > 0.0) {
             rgb = new Vector(0, 0, 1);
         } else {
-            rgb = tile.getTopSoil().getRGB();
+            rgb = terrain.getTile(x, y).getTopSoil().getRGB();
         }
         double altitude = 0.1 + 0.9 * this.getAltitude(terrain, x, y);
         rgb = rgb.multiply(altitude * 255.0);
@@ -16,6 +16,8 @@
  */
 package plortz.observer;
 
+import plortz.util.Rectangle;
+
 /**
  * Observer pattern, the listening object.
  * 
@@ -26,4 +28,16 @@ public interface Observer {
      * Called whenever the subject state is changed.
      */
     void update();
+    
+    /**
+     * Called whenever the subject state is changed, with the region of the subject that changed.
+     * <p>
+     * Observers able to process only the changed region override this,
+     * by default the change is handled like any other change.
+     * 
+     * @param region The changed region, empty if nothing changed.
+     */
+    default void update(Rectangle region) {
+        this.update();
+    }
 }
@@ -16,28 +16,32 @@
  */
 package plortz.observer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import plortz.util.Rectangle;
 
 /**
  * Observer pattern, the subject object.
+ * <p>
+ * The observers can be added and removed from any thread, also while the observers are being notified.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class Subject {
-    private final List<Observer> observers;
+    private final CopyOnWriteArrayList<Observer> observers;
     
     public Subject() {
-        this.observers = new ArrayList<>();
+        this.observers = new CopyOnWriteArrayList<>();
     }
     
     /**
      * Add a new observer to listen for state changes.
+     * <p>
+     * Adding an observer that is already listening does nothing.
      * 
      * @param observer The observer to receive the notifications about state changes
      */
     public void addObserver(Observer observer) {
-        this.observers.add(observer);
+        this.observers.addIfAbsent(observer);
     }
     
     /**
@@ -55,4 +59,13 @@ public class Subject {
     public void notifyObservers() {
         this.observers.forEach(observer -> observer.update());
     }
+    
+    /**
+     * Notify all observers about a state change limited to the given region.
+     * 
+     * @param region The changed region.
+     */
+    public void notifyObservers(Rectangle region) {
+        this.observers.forEach(observer -> observer.update(region));
+    }
 }
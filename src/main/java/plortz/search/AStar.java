@@ -84,8 +84,9 @@ public class AStar extends PathFinder {
             double neighbor_cost = heuristic.estimateCost(current.position, neighbor_pos);
             if (existing != null) {
                 // Some path to the neighbor already exists.
-                if (neighbor_cost < existing.cost) {
-                    // This current new path is faster, so use it instead:
+                if (existing.open && neighbor_cost < existing.cost) {
+                    // This current new path is faster, so use it instead.
+                    // The closed components are never changed, that could make the path loop back to them:
                     existing.source = current;
                     existing.cost   = neighbor_cost;
                 }
@@ -18,8 +18,9 @@ package plortz.search;
 
 import java.util.ArrayList;
 import java.util.List;
+import plortz.util.BitGrid;
+import plortz.util.LongArrayList;
 import plortz.util.Position;
-import plortz.util.Static2dArray;
 
 /**
  * Performs a flood fill discovering the filled area and the borders around it.
@@ -32,6 +33,10 @@ public class FloodFill {
     
     /**
      * Callback functions used with FloodFill.
+     * <p>
+     * The flood fill calls the coordinate versions of the methods,
+     * by default they create a position object and call the position versions.
+     * Callbacks called for large areas should override the coordinate versions to avoid creating the objects.
      */
     public interface FloodFillCallback {
         /**
@@ -49,19 +54,41 @@ public class FloodFill {
          * @param position The position to fill.
          */
         public void fill(Position position);
+        
+        /**
+         * Check whether the given position should be filled.
+         * 
+         * @param x The x-coordinate of the position, inside the filled area.
+         * @param y The y-coordinate of the position, inside the filled area.
+         * @return  True if the given position should be filled.
+         */
+        public default boolean isPositionIn(int x, int y) {
+            return this.isPositionIn(new Position(x, y));
+        }
+        
+        /**
+         * Called when a position is filled.
+         * <p>
+         * This will be called at most one time per position.
+         * @param x The x-coordinate of the position to fill.
+         * @param y The y-coordinate of the position to fill.
+         */
+        public default void fill(int x, int y) {
+            this.fill(new Position(x, y));
+        }
     }
     
-    private Static2dArray<Boolean> filled;
-    private Static2dArray<Boolean> borders;
-    private List<Position>         queue;
-    private int                    width;
-    private int                    length;
+    private BitGrid       filled;
+    private BitGrid       borders; // Built from the filled positions by getBorders().
+    private LongArrayList queue; // The positions packed with Position.pack().
+    private int           width;
+    private int           length;
     
-    private boolean checkPosition(Position position, FloodFillCallback callback) {
-        if (!this.filled.isValidPosition(position)) {
+    private boolean checkPosition(int x, int y, FloodFillCallback callback) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.length) {
             return false;
         }
-        return callback.isPositionIn(position);
+        return callback.isPositionIn(x, y);
     }
     
     /**
@@ -82,19 +109,50 @@ public class FloodFill {
      * @return The positions of the border elements.
      */
     public List<Position> getBorders() {
+        if (this.borders == null || this.borders.getWidth() != this.width || this.borders.getLength() != this.length) {
+            this.borders = new BitGrid(this.width, this.length);
+        } else {
+            this.borders.clear();
+        }
+        for (int i = this.filled.nextSetIndex(0); i >= 0; i = this.filled.nextSetIndex(i + 1)) {
+            this.setBorders(i % this.width, i / this.width);
+        }
         List<Position> rv = new ArrayList<>();
-        for (int y = 0; y < this.length; y++) {
-            for (int x = 0; x < this.width; x++) {
-                if (this.borders.get(x, y) != null) {
-                    if (this.filled.get(x, y) == null) {
-                        rv.add(new Position(x, y));
-                    }
-                }
-            }
+        for (int i = this.borders.nextSetIndex(0); i >= 0; i = this.borders.nextSetIndex(i + 1)) {
+            rv.add(new Position(i % this.width, i / this.width));
         }
         return rv;
     }
     
+    /**
+     * Set the positions around the given filled position as borders, unless they are filled.
+     * 
+     * @param x The x-coordinate of the filled position.
+     * @param y The y-coordinate of the filled position.
+     */
+    private void setBorders(int x, int y) {
+        // Skip diagonal:
+        int index = x + y * this.width;
+        if (x > 0) {
+            this.setBorder(index - 1);
+        }
+        if (x + 1 < this.width) {
+            this.setBorder(index + 1);
+        }
+        if (y > 0) {
+            this.setBorder(index - this.width);
+        }
+        if (y + 1 < this.length) {
+            this.setBorder(index + this.width);
+        }
+    }
+    
+    private void setBorder(int index) {
+        if (!this.filled.get(index)) {
+            this.borders.set(index, true);
+        }
+    }
+    
     /**
      * Flood fill area inside a 2d rectangle space, does not extend in diagonal directions.
      * <p>
@@ -104,6 +162,9 @@ public class FloodFill {
      * <li>Uses a queue to find the next scanline to scan.
      * <li>When processing a scanline, lines above and below are checked if they can be filled.
      * <li>The newly found fillable areas are then added to the queue.
+     * <li>The filled positions are kept in a bit grid and the queue in a primitive array, no objects are created per position.
+     * <li>The borders are found from the filled positions only when getBorders() is called.
+     * <li>The arrays are reused by the next fill of the same size.
      * </ul>
      * 
      * @see <a href="https://en.wikipedia.org/wiki/Flood_fill#Scanline_fill">https://en.wikipedia.org/wiki/Flood_fill#Scanline_fill</a>
@@ -115,88 +176,56 @@ public class FloodFill {
     public void fill(int width, int length, Position start, FloodFillCallback callback) {
         this.width   = width;
         this.length  = length;
-        this.filled  = new Static2dArray<>(width, length);
-        this.borders = new Static2dArray<>(width, length);
-        this.queue   = new ArrayList<>();
+        if (this.filled != null && this.filled.getWidth() == width && this.filled.getLength() == length) {
+            this.filled.clear();
+            this.queue.clear();
+        } else {
+            this.filled  = new BitGrid(width, length);
+            this.queue   = new LongArrayList();
+        }
         
-        this.queue.add(start);
+        this.queue.add(Position.pack(start.getX(), start.getY()));
         while (!this.queue.isEmpty()) {
-            Position current = this.queue.get(this.queue.size() - 1);
-            this.queue.remove(this.queue.size() - 1);
+            long current = this.queue.removeLast();
+            int x = Position.unpackX(current);
+            int y = Position.unpackY(current);
             // Fill this scanline to the left:
-            this.fillScanlineHalf(current, -1, callback);
+            this.fillScanlineHalf(x, y, -1, callback);
             // Fill this scanline to the right:
-            this.fillScanlineHalf(current,  1, callback);
+            this.fillScanlineHalf(x, y,  1, callback);
         }
     }
     
     /**
      * Fill half of the given scanline, either left or right from the given starting position.
      * 
-     * @param start     Starting position.
+     * @param start_x   The x-coordinate of the starting position.
+     * @param y         The y-coordinate of the scanline.
      * @param direction Direction, either -1 for left, or +1 for right.
      * @param callback  The callback object.
      */
-    private void fillScanlineHalf(Position start, int direction, FloodFillCallback callback) {
+    private void fillScanlineHalf(int start_x, int y, int direction, FloodFillCallback callback) {
         boolean above_filling = false;
         boolean below_filling = false;
-        for (int x = 0; x < this.width; x++) {
-            int dx = x * direction;
-            Position curpos = new Position(start, dx, 0);
-
-            if (!this.checkPosition(curpos, callback)) {
-                break;
-            }
-            
-            if (this.filled.get(curpos) == null) {
-                this.filled.set(curpos, true);
-                this.setBorders(curpos);
-                callback.fill(curpos);
+        for (int x = start_x; this.checkPosition(x, y, callback); x += direction) {
+            int index = x + y * this.width;
+            if (!this.filled.get(index)) {
+                this.filled.set(index, true);
+                callback.fill(x, y);
             }
 
-            final var above = this.checkPosition(new Position(start, dx, -1), callback);
-            final var below = this.checkPosition(new Position(start, dx,  1), callback);
+            final boolean above = this.checkPosition(x, y - 1, callback);
+            final boolean below = this.checkPosition(x, y + 1, callback);
 
-            if (!above_filling && above) {
-                final var above_pos = new Position(start, dx, -1);
-                if (this.filled.get(above_pos) == null) {
-                    this.queue.add(above_pos);
-                }
+            if (!above_filling && above && !this.filled.get(index - this.width)) {
+                this.queue.add(Position.pack(x, y - 1));
             }
-            if (!below_filling && below) {
-                final var below_pos = new Position(start, dx, 1);
-                if (this.filled.get(below_pos) == null) {
-                    this.queue.add(below_pos);
-                }
+            if (!below_filling && below && !this.filled.get(index + this.width)) {
+                this.queue.add(Position.pack(x, y + 1));
             }
 
             above_filling = above;
             below_filling = below;
         }
     }
-
-    /**
-     * Set the tiles around the given position as borders.
-     * Will be later used in getBorders().
-     * 
-     * @param around The filled position whose borders needs to be set.
-     */
-    private void setBorders(Position around) {
-        for (int dy = -1; dy <= 1; dy++) {
-            for (int dx = -1; dx <= 1; dx++) {
-                if (dx == 0 && dy == 0) {
-                    continue;
-                }
-                if (dx != 0 && dy != 0) { // Skip diagonal
-                    continue;
-                }
-                final int x = around.getX() + dx;
-                final int y = around.getY() + dy;
-                if (!this.borders.isValidPosition(x, y)) {
-                    continue;
-                }
-                this.borders.set(x, y, true);
-            }
-        }
-    }
 }
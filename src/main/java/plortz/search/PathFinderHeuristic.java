@@ -40,6 +40,8 @@ public abstract class PathFinderHeuristic {
 
     /**
      * Check if it is valid to move to the given position.
+     * <p>
+     * The target position object may be reused for the next call, so the implementations must not keep a reference to it.
      * 
      * @param from The position where we're coming from.
      * @param to   The target position.
@@ -57,23 +59,22 @@ public abstract class PathFinderHeuristic {
 
     /**
      * Return all possible neighbors for the given position.
+     * <p>
+     * The candidates are checked using a single reused position object,
+     * new position objects are created only for the valid neighbors.
      * 
      * @param current The position whose neighbors are returned.
      * @return        The neighbors of the current position.
      */
     public List<Position> getNeighbors(Position current) {
-        List<Position> neighbors = new ArrayList<>();
-        for (int dy = -1; dy <= 1; dy++) {
-            for (int dx = -1; dx <= 1; dx++) {
-                if (dx == 0 && dy == 0) {
-                    continue;
-                }
-                Position pos = new Position(current, dx, dy);
-                if (this.isValidNextDestination(current, pos)) {
-                    neighbors.add(pos);
-                }
+        List<Position> neighbors = new ArrayList<>(8);
+        Position candidate = new Position(current);
+        Position.forEachNeighbor(current.getX(), current.getY(), true, (x, y) -> {
+            candidate.set(x, y);
+            if (this.isValidNextDestination(current, candidate)) {
+                neighbors.add(new Position(candidate));
             }
-        }
+        });
         return neighbors;
     }
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Position;
+import plortz.util.Rectangle;
+
+/**
+ * Min/max/average pyramid over the altitudes of a terrain, for fast queries over rectangles.
+ * <p>
+ * The cells of the lowest level cover 4x4 tiles, and each level above halves the resolution,
+ * up to a single cell covering the whole terrain. A query over a rectangle uses the largest cells
+ * fully inside the rectangle, and reads the tiles directly only along the edges of the rectangle,
+ * so the cost depends on the perimeter of the rectangle instead of its area.
+ * <p>
+ * The pyramid is kept up to date using the change tracking of the terrain: before each query
+ * the cells of the chunks modified since the previous query are calculated again.
+ * The altitudes do not include the water.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class AltitudePyramid {
+    private static final int BASE_BITS = 2; // The cells of the lowest level are 1 << BASE_BITS tiles wide.
+    
+    private final TileStorage   tiles;
+    private final ChangeTracker changes;
+    private final int           consumer;
+    private final int[]         level_width;
+    private final int[]         level_length;
+    private final double[][]    mins;
+    private final double[][]    maxs;
+    private final double[][]    sums;
+    private final double[]      buffer;
+    
+    /**
+     * The result of a query, combined from the cells and tiles.
+     */
+    private static class Summary {
+        double sum   = 0.0;
+        long   count = 0;
+    }
+    
+    AltitudePyramid(TileStorage tiles, ChangeTracker changes) {
+        this.tiles    = tiles;
+        this.changes  = changes;
+        this.consumer = changes.addConsumer();
+        int levels = 1;
+        while ((tiles.getWidth() - 1) >> (BASE_BITS + levels - 1) > 0 || (tiles.getLength() - 1) >> (BASE_BITS + levels - 1) > 0) {
+            levels++;
+        }
+        this.level_width  = new int[levels];
+        this.level_length = new int[levels];
+        this.mins = new double[levels][];
+        this.maxs = new double[levels][];
+        this.sums = new double[levels][];
+        for (int level = 0; level < levels; level++) {
+            int cell_size = 1 << (BASE_BITS + level);
+            this.level_width[level]  = (tiles.getWidth() + cell_size - 1) / cell_size;
+            this.level_length[level] = (tiles.getLength() + cell_size - 1) / cell_size;
+            this.mins[level] = new double[this.level_width[level] * this.level_length[level]];
+            this.maxs[level] = new double[this.mins[level].length];
+            this.sums[level] = new double[this.mins[level].length];
+        }
+        this.buffer = new double[Terrain.CHUNK_SIZE * Terrain.CHUNK_SIZE];
+    }
+    
+    /**
+     * Return the number of levels, the cells of the level n cover 4 * 2^n x 4 * 2^n tiles.
+     * 
+     * @return The number of levels.
+     */
+    public int getLevelCount() {
+        return this.mins.length;
+    }
+    
+    /**
+     * Return the lowest altitude inside the rectangle.
+     * <p>
+     * The parts of the rectangle outside the terrain are ignored.
+     * The cells whose lowest altitude is not lower than the lowest altitude found so far are skipped,
+     * so usually only a few of the tiles along the edges of the rectangle are read.
+     * 
+     * @param area The rectangle.
+     * @return     The lowest altitude, positive infinity if the rectangle does not contain any tiles.
+     */
+    public synchronized double getMin(Rectangle area) {
+        return this.queryExtreme(this.mins, 1.0, area);
+    }
+    
+    /**
+     * Return the highest altitude inside the rectangle.
+     * 
+     * @param area The rectangle.
+     * @return     The highest altitude, negative infinity if the rectangle does not contain any tiles.
+     */
+    public synchronized double getMax(Rectangle area) {
+        return -this.queryExtreme(this.maxs, -1.0, area);
+    }
+    
+    /**
+     * Return the average altitude inside the rectangle.
+     * 
+     * @param area The rectangle.
+     * @return     The average altitude, NaN if the rectangle does not contain any tiles.
+     */
+    public synchronized double getAverage(Rectangle area) {
+        this.update();
+        Summary   summary = new Summary();
+        Rectangle clipped = this.clip(area);
+        if (!clipped.isEmpty()) {
+            this.querySum(this.mins.length - 1, 0, 0, clipped, summary);
+        }
+        return summary.sum / summary.count;
+    }
+    
+    /**
+     * Return true if any tile inside the rectangle is higher than the given altitude.
+     * 
+     * @param area     The rectangle.
+     * @param altitude The altitude.
+     * @return         True if any tile is above the altitude.
+     */
+    public boolean isAnyAbove(Rectangle area, double altitude) {
+        return this.getMax(area) > altitude;
+    }
+    
+    /**
+     * Return the position of the lowest tile inside the rectangle.
+     * <p>
+     * If several tiles have the lowest altitude, any one of them is returned.
+     * 
+     * @param area The rectangle.
+     * @return     The position of the lowest tile, null if the rectangle does not contain any tiles.
+     */
+    public synchronized Position findLowest(Rectangle area) {
+        double min = this.getMin(area);
+        if (min == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return this.find(this.mins.length - 1, 0, 0, this.clip(area), min);
+    }
+    
+    private Rectangle clip(Rectangle area) {
+        return area.intersection(new Rectangle(0, 0, this.tiles.getWidth(), this.tiles.getLength()));
+    }
+    
+    private Rectangle getCell(int level, int cx, int cy) {
+        int bits = BASE_BITS + level;
+        int x    = cx << bits;
+        int y    = cy << bits;
+        return new Rectangle(x, y, Math.min(1 << bits, this.tiles.getWidth() - x), Math.min(1 << bits, this.tiles.getLength() - y));
+    }
+    
+    /**
+     * Return the lowest value of sign * altitude inside the rectangle.
+     * 
+     * @param values The mins for the lowest altitude, the maxs for the highest.
+     * @param sign   1 for the lowest altitude, -1 for the highest.
+     * @param area   The rectangle.
+     * @return       The lowest value of sign * altitude.
+     */
+    private double queryExtreme(double[][] values, double sign, Rectangle area) {
+        this.update();
+        Rectangle clipped = this.clip(area);
+        if (clipped.isEmpty()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return this.queryExtreme(values, sign, this.mins.length - 1, 0, 0, clipped, Double.POSITIVE_INFINITY);
+    }
+    
+    private double queryExtreme(double[][] values, double sign, int level, int cx, int cy, Rectangle area, double best) {
+        int bits = BASE_BITS + level;
+        int x0   = Math.max(cx << bits, area.getX());
+        int y0   = Math.max(cy << bits, area.getY());
+        int x1   = Math.min((cx + 1) << bits, area.getX() + area.getWidth());
+        int y1   = Math.min((cy + 1) << bits, area.getY() + area.getLength());
+        if (x0 >= x1 || y0 >= y1) {
+            return best;
+        }
+        double value = sign * values[level][cx + cy * this.level_width[level]];
+        if (value >= best) {
+            return best; // Nothing in this cell can be better.
+        }
+        if (this.isWholeCell(level, cx, cy, x0, y0, x1, y1)) {
+            return value;
+        }
+        if (level == 0) {
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    best = Math.min(best, sign * this.tiles.getAltitude(this.tiles.getIndex(x, y), false));
+                }
+            }
+            return best;
+        }
+        for (int i = 0; i < 4; i++) {
+            best = this.queryExtreme(values, sign, level - 1, cx * 2 + (i & 1), cy * 2 + (i >> 1), area, best);
+        }
+        return best;
+    }
+    
+    private void querySum(int level, int cx, int cy, Rectangle area, Summary summary) {
+        int bits = BASE_BITS + level;
+        int x0   = Math.max(cx << bits, area.getX());
+        int y0   = Math.max(cy << bits, area.getY());
+        int x1   = Math.min((cx + 1) << bits, area.getX() + area.getWidth());
+        int y1   = Math.min((cy + 1) << bits, area.getY() + area.getLength());
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        if (this.isWholeCell(level, cx, cy, x0, y0, x1, y1)) {
+            summary.sum   += this.sums[level][cx + cy * this.level_width[level]];
+            summary.count += (long) (x1 - x0) * (y1 - y0);
+        } else if (level == 0) {
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    summary.sum += this.tiles.getAltitude(this.tiles.getIndex(x, y), false);
+                }
+            }
+            summary.count += (long) (x1 - x0) * (y1 - y0);
+        } else {
+            for (int i = 0; i < 4; i++) {
+                this.querySum(level - 1, cx * 2 + (i & 1), cy * 2 + (i >> 1), area, summary);
+            }
+        }
+    }
+    
+    /**
+     * Return true if the given part of the cell covers the whole cell, the cells at the edges of the terrain are smaller.
+     */
+    private boolean isWholeCell(int level, int cx, int cy, int x0, int y0, int x1, int y1) {
+        int bits = BASE_BITS + level;
+        return x0 == cx << bits && y0 == cy << bits
+                && x1 == Math.min((cx + 1) << bits, this.tiles.getWidth())
+                && y1 == Math.min((cy + 1) << bits, this.tiles.getLength());
+    }
+    
+    private Position find(int level, int cx, int cy, Rectangle area, double altitude) {
+        Rectangle part = this.getCell(level, cx, cy).intersection(area);
+        if (part.isEmpty() || this.mins[level][cx + cy * this.level_width[level]] > altitude) {
+            return null;
+        }
+        if (level == 0) {
+            for (int i = 0; i < part.getWidth() * part.getLength(); i++) {
+                int x = part.getX() + i % part.getWidth();
+                int y = part.getY() + i / part.getWidth();
+                if (this.tiles.getAltitude(this.tiles.getIndex(x, y), false) == altitude) {
+                    return new Position(x, y);
+                }
+            }
+            return null;
+        }
+        Position found = null;
+        for (int i = 0; i < 4 && found == null; i++) {
+            found = this.find(level - 1, cx * 2 + (i & 1), cy * 2 + (i >> 1), area, altitude);
+        }
+        return found;
+    }
+    
+    /**
+     * Calculate again the cells covering the chunks modified since the previous update.
+     */
+    private void update() {
+        this.changes.forEachChanged(this.consumer, (x, y, width, length) -> {
+            this.updateBaseCells(x, y, width, length);
+            for (int level = 1; level < this.mins.length; level++) {
+                int bits = BASE_BITS + level;
+                for (int cy = y >> bits; cy <= (y + length - 1) >> bits; cy++) {
+                    for (int cx = x >> bits; cx <= (x + width - 1) >> bits; cx++) {
+                        this.combine(level, cx, cy);
+                    }
+                }
+            }
+        });
+    }
+    
+    private void updateBaseCells(int x, int y, int width, int length) {
+        double[] min = this.mins[0];
+        double[] max = this.maxs[0];
+        double[] sum = this.sums[0];
+        for (int cy = y >> BASE_BITS; cy <= (y + length - 1) >> BASE_BITS; cy++) {
+            for (int cx = x >> BASE_BITS; cx <= (x + width - 1) >> BASE_BITS; cx++) {
+                int i = cx + cy * this.level_width[0];
+                min[i] = Double.POSITIVE_INFINITY;
+                max[i] = Double.NEGATIVE_INFINITY;
+                sum[i] = 0.0;
+            }
+        }
+        this.tiles.getAltitudes(x, y, width, length, this.buffer, false);
+        for (int dy = 0; dy < length; dy++) {
+            int row = ((y + dy) >> BASE_BITS) * this.level_width[0];
+            for (int dx = 0; dx < width; dx++) {
+                int    i        = row + ((x + dx) >> BASE_BITS);
+                double altitude = this.buffer[dx + dy * width];
+                min[i]  = Math.min(min[i], altitude);
+                max[i]  = Math.max(max[i], altitude);
+                sum[i] += altitude;
+            }
+        }
+    }
+    
+    private void combine(int level, int cx, int cy) {
+        int    below = level - 1;
+        int    i     = cx + cy * this.level_width[level];
+        double min   = Double.POSITIVE_INFINITY;
+        double max   = Double.NEGATIVE_INFINITY;
+        double sum   = 0.0;
+        for (int y = cy * 2; y < Math.min(cy * 2 + 2, this.level_length[below]); y++) {
+            for (int x = cx * 2; x < Math.min(cx * 2 + 2, this.level_width[below]); x++) {
+                int j = x + y * this.level_width[below];
+                min  = Math.min(min, this.mins[below][j]);
+                max  = Math.max(max, this.maxs[below][j]);
+                sum += this.sums[below][j];
+            }
+        }
+        this.mins[level][i] = min;
+        this.maxs[level][i] = max;
+        this.sums[level][i] = sum;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import plortz.util.Rectangle;
+
+/**
+ * Keeps track of the chunks of a terrain modified since they were last processed.
+ * <p>
+ * The storages mark every tile they write, the marks are kept per chunk of CHUNK_SIZE x CHUNK_SIZE tiles,
+ * so marking is a single store. Marking from multiple threads is safe, all the writes store the same value.
+ * <p>
+ * Several consumers can follow the changes independently, each consumer has its own bit in the marks,
+ * and clears only its own bit. The change notifications of the terrain are the consumer NOTIFICATIONS.
+ * The consumers set and clear their bits with atomic bitwise operations, so a chunk marked by another thread
+ * at the same time is not lost, it stays marked for the next call.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class ChangeTracker {
+    /**
+     * The consumer used for the change notifications.
+     */
+    static final int NOTIFICATIONS = 0;
+    
+    private static final int       CHUNK_BITS    = Integer.numberOfTrailingZeros(Terrain.CHUNK_SIZE);
+    private static final int       MAX_CONSUMERS = Byte.SIZE;
+    private static final byte      ALL_CHANGED   = (byte) 0xff;
+    private static final VarHandle MARKS         = MethodHandles.arrayElementVarHandle(byte[].class);
+    
+    private final int    width;
+    private final int    length;
+    private final int    chunks_x;
+    private final byte[] changed;
+    private int          consumers;
+    
+    ChangeTracker(int width, int length) {
+        this.width     = width;
+        this.length    = length;
+        this.chunks_x  = (width + Terrain.CHUNK_SIZE - 1) >> CHUNK_BITS;
+        this.changed   = new byte[this.chunks_x * ((length + Terrain.CHUNK_SIZE - 1) >> CHUNK_BITS)];
+        this.consumers = NOTIFICATIONS + 1;
+    }
+    
+    /**
+     * Register a new consumer, all the chunks are initially changed for the new consumer.
+     * 
+     * @return The consumer.
+     */
+    synchronized int addConsumer() {
+        if (this.consumers >= MAX_CONSUMERS) {
+            throw new IllegalStateException("Too many change tracker consumers.");
+        }
+        int consumer = this.consumers++;
+        for (int i = 0; i < this.changed.length; i++) {
+            MARKS.getAndBitwiseOr(this.changed, i, (byte) (1 << consumer));
+        }
+        return consumer;
+    }
+    
+    /**
+     * Mark the tile at the given position as changed.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    void markChanged(int x, int y) {
+        this.changed[this.getChunkIndex(x, y)] = ALL_CHANGED;
+    }
+    
+    /**
+     * Mark all the tiles of the given chunk as changed.
+     * 
+     * @param chunk The index of the chunk, see getChunkIndex().
+     */
+    void markChunkChanged(int chunk) {
+        this.changed[chunk] = ALL_CHANGED;
+    }
+    
+    /**
+     * Mark all the tiles as changed.
+     */
+    void markAllChanged() {
+        for (int i = 0; i < this.changed.length; i++) {
+            this.changed[i] = ALL_CHANGED;
+        }
+    }
+    
+    int getChunkCount() {
+        return this.changed.length;
+    }
+    
+    /**
+     * Return the index of the chunk containing the given position, the chunks are in row-major order.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The index of the chunk.
+     */
+    int getChunkIndex(int x, int y) {
+        return (x >> CHUNK_BITS) + (y >> CHUNK_BITS) * this.chunks_x;
+    }
+    
+    /**
+     * Call the visitor for each chunk changed since the last call for the consumer, and clear the marks of the consumer.
+     * <p>
+     * The chunks are visited in row-major order, and the chunks at the right and bottom edges
+     * are smaller if the terrain size is not a multiple of CHUNK_SIZE.
+     * 
+     * @param consumer The consumer.
+     * @param visitor  The visitor.
+     */
+    void forEachChanged(int consumer, ChunkVisitor visitor) {
+        int bit = 1 << consumer;
+        for (int i = 0; i < this.changed.length; i++) {
+            if (this.clearMark(i, bit)) {
+                int x = (i % this.chunks_x) << CHUNK_BITS;
+                int y = (i / this.chunks_x) << CHUNK_BITS;
+                visitor.visit(x, y, Math.min(Terrain.CHUNK_SIZE, this.width - x), Math.min(Terrain.CHUNK_SIZE, this.length - y));
+            }
+        }
+    }
+    
+    /**
+     * Clear the bit of a consumer from the marks of a chunk.
+     * 
+     * @param chunk The index of the chunk.
+     * @param bit   The bit of the consumer.
+     * @return      True if the bit was set.
+     */
+    private boolean clearMark(int chunk, int bit) {
+        if ((this.changed[chunk] & bit) == 0) {
+            return false;
+        }
+        byte marks = (byte) MARKS.getAndBitwiseAnd(this.changed, chunk, (byte) ~bit);
+        return (marks & bit) != 0;
+    }
+    
+    /**
+     * Return the bounding rectangle of the chunks changed since the previous notification, and clear the marks.
+     * <p>
+     * The rectangle is aligned to the chunk boundaries and clipped to the terrain.
+     * 
+     * @return The changed region, empty if nothing has changed.
+     */
+    Rectangle takeChangedRegion() {
+        Rectangle[] region = { Rectangle.EMPTY };
+        this.forEachChanged(NOTIFICATIONS, (x, y, width, length) -> {
+            region[0] = region[0].union(new Rectangle(x, y, width, length));
+        });
+        return region[0];
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import plortz.util.Rectangle;
+
+/**
+ * Keeps track of the owners of the chunks of a terrain, for applying tools concurrently on disjoint regions.
+ * <p>
+ * The chunks are the CHUNK_SIZE x CHUNK_SIZE chunks of the change tracking. Locking a region takes
+ * the ownership of every chunk the region touches with a compare-and-set, in row-major order.
+ * If any of the chunks is already owned, the chunks taken so far are released and the lock fails,
+ * so no thread ever waits for another.
+ * <p>
+ * The chunks are marked changed when they are released, so the consumers of the change tracker
+ * process them again even if they raced with the writes of the owner.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class ChunkOwnership {
+    private static final int FREE  = 0;
+    private static final int OWNED = 1;
+    
+    private final ChangeTracker      changes;
+    private final int                width;
+    private final int                length;
+    private final AtomicIntegerArray owners;
+    private final AtomicInteger      locks;
+    
+    ChunkOwnership(ChangeTracker changes, int width, int length) {
+        this.changes = changes;
+        this.width   = width;
+        this.length  = length;
+        this.owners  = new AtomicIntegerArray(changes.getChunkCount());
+        this.locks   = new AtomicInteger(0);
+    }
+    
+    /**
+     * Try to take the ownership of all the chunks touched by the given area.
+     * 
+     * @param area The area, it is clipped to the terrain.
+     * @return     The lock, or null if any of the chunks is owned by another lock.
+     */
+    RegionLock tryLock(Rectangle area) {
+        Rectangle clipped = area.intersection(new Rectangle(0, 0, this.width, this.length));
+        int[] chunks = this.getChunks(clipped);
+        for (int i = 0; i < chunks.length; i++) {
+            if (!this.owners.compareAndSet(chunks[i], FREE, OWNED)) {
+                for (int j = 0; j < i; j++) {
+                    this.owners.set(chunks[j], FREE);
+                }
+                return null;
+            }
+        }
+        this.locks.incrementAndGet();
+        return new RegionLock(this, clipped, chunks);
+    }
+    
+    /**
+     * Mark the chunks of the lock changed, and release them.
+     * 
+     * @param chunks The chunks of the lock.
+     */
+    void unlock(int[] chunks) {
+        for (int chunk : chunks) {
+            this.changes.markChunkChanged(chunk);
+            this.owners.set(chunk, FREE);
+        }
+        this.locks.decrementAndGet();
+    }
+    
+    /**
+     * Return true if any region is locked.
+     * 
+     * @return True if any region is locked.
+     */
+    boolean isAnyLocked() {
+        return this.locks.get() > 0;
+    }
+    
+    /**
+     * Return the indices of the chunks touched by the area, in row-major order.
+     */
+    private int[] getChunks(Rectangle area) {
+        if (area.isEmpty()) {
+            return new int[0];
+        }
+        int first_x = area.getX() / Terrain.CHUNK_SIZE;
+        int first_y = area.getY() / Terrain.CHUNK_SIZE;
+        int last_x  = (area.getX() + area.getWidth() - 1) / Terrain.CHUNK_SIZE;
+        int last_y  = (area.getY() + area.getLength() - 1) / Terrain.CHUNK_SIZE;
+        int[] chunks = new int[(last_x - first_x + 1) * (last_y - first_y + 1)];
+        int i = 0;
+        for (int cy = first_y; cy <= last_y; cy++) {
+            for (int cx = first_x; cx <= last_x; cx++) {
+                chunks[i++] = this.changes.getChunkIndex(cx * Terrain.CHUNK_SIZE, cy * Terrain.CHUNK_SIZE);
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+/**
+ * Interface for processing a terrain one chunk at a time, see Terrain.forEachChunk().
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public interface ChunkVisitor {
+    
+    /**
+     * Process one chunk.
+     * 
+     * @param x      The x-coordinate of the top-left corner of the chunk.
+     * @param y      The y-coordinate of the top-left corner of the chunk.
+     * @param width  The width of the chunk.
+     * @param length The length of the chunk.
+     */
+    void visit(int x, int y, int width, int length);
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Position;
+
+/**
+ * Column tile storage where the tiles are stored in square chunks instead of rows.
+ * <p>
+ * The terrain is divided into chunks of Terrain.CHUNK_SIZE x Terrain.CHUNK_SIZE tiles,
+ * the chunks at the right and bottom edges are smaller if the terrain size is not a multiple of the chunk size.
+ * The tiles of a chunk are stored in consecutive indices in row-major order within the chunk,
+ * and the chunks follow each other in row-major order.
+ * <p>
+ * With row-major storage, the tiles above and below a tile are a whole row apart in the arrays.
+ * With chunks, a small neighborhood of a tile is usually within the same chunk, and always within
+ * a few neighboring chunks, which is much more cache-friendly on wide terrains.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class ChunkedTileStorage extends ColumnTileStorage {
+    private static final int CHUNK_MASK = Terrain.CHUNK_SIZE - 1;
+    
+    /**
+     * Constructor.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     */
+    ChunkedTileStorage(int width, int length, SoilLayer.Type bottom_layer) {
+        super(width, length, bottom_layer);
+    }
+    
+    private ChunkedTileStorage(ChunkedTileStorage source) {
+        super(source);
+    }
+
+    @Override
+    public TileStorage copy() {
+        return new ChunkedTileStorage(this);
+    }
+    
+    /**
+     * Return the index of the tile at the given position.
+     * <p>
+     * All chunks above the chunk row of the tile are full rows of chunks (chunk_y * width tiles),
+     * all chunks on the left side of the chunk are as high as the chunk (chunk_x * chunk_length tiles).
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The index.
+     */
+    @Override
+    public int getIndex(int x, int y) {
+        int chunk_x = x & ~CHUNK_MASK;
+        int chunk_y = y & ~CHUNK_MASK;
+        int chunk_width  = Math.min(Terrain.CHUNK_SIZE, this.getWidth() - chunk_x);
+        int chunk_length = Math.min(Terrain.CHUNK_SIZE, this.getLength() - chunk_y);
+        return chunk_y * this.getWidth() + chunk_x * chunk_length + (x & CHUNK_MASK) + (y & CHUNK_MASK) * chunk_width;
+    }
+    
+    @Override
+    public Position getPosition(int index) {
+        int chunk_y      = index / (Terrain.CHUNK_SIZE * this.getWidth()) * Terrain.CHUNK_SIZE;
+        int chunk_length = Math.min(Terrain.CHUNK_SIZE, this.getLength() - chunk_y);
+        int offset       = index - chunk_y * this.getWidth();
+        int chunk_x      = offset / (Terrain.CHUNK_SIZE * chunk_length) * Terrain.CHUNK_SIZE;
+        int chunk_width  = Math.min(Terrain.CHUNK_SIZE, this.getWidth() - chunk_x);
+        offset -= chunk_x * chunk_length;
+        return new Position(chunk_x + offset % chunk_width, chunk_y + offset / chunk_width);
+    }
+
+    /**
+     * Mark the chunk of the tile as changed, the chunk is found from the index without the position of the tile.
+     */
+    @Override
+    protected void markChanged(int index) {
+        ChangeTracker changes = this.getChangeTracker();
+        if (changes != null) {
+            int chunk_y      = index / (Terrain.CHUNK_SIZE * this.getWidth()) * Terrain.CHUNK_SIZE;
+            int chunk_length = Math.min(Terrain.CHUNK_SIZE, this.getLength() - chunk_y);
+            int chunk_x      = (index - chunk_y * this.getWidth()) / (Terrain.CHUNK_SIZE * chunk_length) * Terrain.CHUNK_SIZE;
+            changes.markChunkChanged(changes.getChunkIndex(chunk_x, chunk_y));
+        }
+    }
+
+    @Override
+    protected int getRunLength(int x, int y, int max) {
+        return Math.min(max, Terrain.CHUNK_SIZE - (x & CHUNK_MASK));
+    }
+}
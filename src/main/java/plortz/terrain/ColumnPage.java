@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Arrays;
+
+/**
+ * The data of ColumnTileStorage.PAGE_SIZE tiles of a ColumnTileStorage, the last page of the storage can be smaller.
+ * <p>
+ * The soil layer counts and types are kept here, the subclasses store
+ * the altitudes, water and soil amounts in the precision they choose.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+abstract class ColumnPage {
+    final byte[] layer_counts; // Unsigned.
+    byte[][]     layer_types;  // Planes of soil type ordinals.
+    boolean      shared;       // True if the page may be used by other storages.
+    
+    /**
+     * Constructor, every tile has a bottom layer of one unit and no water.
+     * 
+     * @param size         The number of tiles.
+     * @param bottom_layer The soil type of the bottom layer.
+     */
+    protected ColumnPage(int size, SoilLayer.Type bottom_layer) {
+        this.layer_counts = new byte[size];
+        this.layer_types  = new byte[1][size];
+        this.shared       = false;
+        Arrays.fill(this.layer_counts, (byte) 1);
+        Arrays.fill(this.layer_types[0], (byte) bottom_layer.ordinal());
+    }
+    
+    /**
+     * Copy constructor.
+     * 
+     * @param source The page to copy.
+     */
+    protected ColumnPage(ColumnPage source) {
+        this.layer_counts = source.layer_counts.clone();
+        this.layer_types  = new byte[source.layer_types.length][];
+        this.shared       = false;
+        for (int i = 0; i < this.layer_types.length; i++) {
+            this.layer_types[i] = source.layer_types[i].clone();
+        }
+    }
+    
+    /**
+     * Return the number of soil layers of the tile.
+     * 
+     * @param i The index of the tile within the page.
+     * @return  The number of layers.
+     */
+    protected final int getLayerCount(int i) {
+        return this.layer_counts[i] & 0xff;
+    }
+    
+    /**
+     * Make sure there are planes for at least the given number of layers.
+     * <p>
+     * Synchronized because the tiles of the same page can be modified from multiple threads.
+     * 
+     * @param count The number of layers.
+     */
+    final synchronized void ensurePlanes(int count) {
+        if (count <= this.layer_types.length) {
+            return;
+        }
+        byte[][] types = Arrays.copyOf(this.layer_types, count);
+        for (int l = this.layer_types.length; l < count; l++) {
+            types[l] = new byte[this.layer_counts.length];
+        }
+        this.addAmountPlanes(count);
+        this.layer_types = types;
+    }
+    
+    /**
+     * Return a copy of the page, not shared.
+     * 
+     * @return The copy.
+     */
+    abstract ColumnPage copy();
+    
+    /**
+     * Grow the planes of the soil amounts to the given number of layers, called synchronized.
+     * 
+     * @param count The number of layers, more than there are now.
+     */
+    protected abstract void addAmountPlanes(int count);
+    
+    abstract double getAmount(int layer, int i);
+    
+    abstract void setAmount(int layer, int i, double amount);
+    
+    abstract double getWater(int i);
+    
+    abstract void setWater(int i, double water);
+    
+    /**
+     * Return the altitude of the tile without the water.
+     * 
+     * @param i The index of the tile within the page.
+     * @return  The altitude.
+     */
+    abstract double getAltitude(int i);
+    
+    /**
+     * Recalculate the altitude of the tile from its soil layers.
+     * 
+     * @param i The index of the tile within the page.
+     */
+    abstract void updateAltitude(int i);
+    
+    /**
+     * Copy the altitudes of consecutive tiles.
+     * 
+     * @param offset     The index of the first tile within the page.
+     * @param altitudes  The destination.
+     * @param position   The position in the destination.
+     * @param count      The number of tiles.
+     * @param with_water Include the water.
+     */
+    abstract void getAltitudes(int offset, double[] altitudes, int position, int count, boolean with_water);
+}
+
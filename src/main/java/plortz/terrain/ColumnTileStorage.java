@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import plortz.util.Parallel;
+
+/**
+ * Tile storage keeping the tile data in primitive arrays (structure of arrays).
+ * <p>
+ * Each field is stored in its own array indexed by the tile index, by default x + y * width.
+ * The arrays are split into pages of PAGE_SIZE tiles, the page of a tile is index / PAGE_SIZE.
+ * The soil layers are stored as planes, the plane n holds the n:th soil layer of every tile of the page.
+ * The planes are allocated when the first tile of the page needs them, so a page where every tile has
+ * only a single soil layer uses one plane.
+ * The surface altitude (sum of all the soil layers) is maintained in its own array.
+ * The pages of a new storage are created in parallel.
+ * <p>
+ * Copying the storage is copy-on-write: the copy shares the pages with the source,
+ * and a shared page is copied when either storage modifies it for the first time.
+ * So a copy costs only the pages that are modified afterwards.
+ * <p>
+ * The precision of the stored values is up to the pages, this storage uses double precision pages.
+ * <p>
+ * The tiles returned by this storage are lightweight views into the arrays.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class ColumnTileStorage extends TileStorage {
+    /**
+     * The number of tiles in a page, the same as the number of tiles in a chunk.
+     */
+    static final int PAGE_SIZE = Terrain.CHUNK_SIZE * Terrain.CHUNK_SIZE;
+    private static final int PAGE_BITS = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    
+    private static final SoilLayer.Type[] TYPES = SoilLayer.Type.values();
+    private static final int MAX_LAYERS = 0xff;
+    
+    private final ColumnPage[] pages;
+    
+    /**
+     * Constructor.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     */
+    ColumnTileStorage(int width, int length, SoilLayer.Type bottom_layer) {
+        this(width, length, size -> new DoublePage(size, bottom_layer));
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param width    Width (x-axis).
+     * @param length   Length (y-axis).
+     * @param new_page Creates a new page of the given number of tiles.
+     */
+    protected ColumnTileStorage(int width, int length, IntFunction<ColumnPage> new_page) {
+        super(width, length);
+        this.pages = new ColumnPage[(this.size() + PAGE_MASK) >> PAGE_BITS];
+        Parallel.forEachBand(this.pages.length, Terrain.MIN_PARALLEL_TILES / PAGE_SIZE, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                this.pages[i] = new_page.apply(Math.min(PAGE_SIZE, this.size() - i * PAGE_SIZE));
+            }
+        });
+    }
+    
+    /**
+     * Copy constructor, the pages are shared until modified.
+     * 
+     * @param source The storage to copy.
+     */
+    protected ColumnTileStorage(ColumnTileStorage source) {
+        super(source.getWidth(), source.getLength());
+        this.pages = source.pages.clone();
+        for (ColumnPage page : this.pages) {
+            page.shared = true;
+        }
+    }
+
+    @Override
+    public TileStorage copy() {
+        return new ColumnTileStorage(this);
+    }
+
+    @Override
+    public boolean isCopyOnWrite() {
+        return true;
+    }
+
+    @Override
+    public Tile getTile(int index) {
+        return new StoredTile(this, index);
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        this.copyFrom(index, tile);
+    }
+
+    @Override
+    public int getLayerCount(int index) {
+        return this.pages[index >> PAGE_BITS].layer_counts[index & PAGE_MASK] & 0xff;
+    }
+
+    @Override
+    public SoilLayer.Type getLayerType(int index, int layer) {
+        return TYPES[this.pages[index >> PAGE_BITS].layer_types[layer][index & PAGE_MASK]];
+    }
+
+    @Override
+    public double getLayerAmount(int index, int layer) {
+        return this.pages[index >> PAGE_BITS].getAmount(layer, index & PAGE_MASK);
+    }
+
+    @Override
+    public void setLayerAmount(int index, int layer, double amount) {
+        ColumnPage page = this.getWritablePage(index);
+        page.setAmount(layer, index & PAGE_MASK, amount);
+        page.updateAltitude(index & PAGE_MASK);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void insertLayer(int index, int layer, SoilLayer.Type type, double amount) {
+        int count = this.getLayerCount(index);
+        if (count >= MAX_LAYERS) {
+            throw new IllegalStateException("Too many soil layers.");
+        }
+        ColumnPage page = this.getWritablePage(index);
+        int        i    = index & PAGE_MASK;
+        page.ensurePlanes(count + 1);
+        for (int l = count; l > layer; l--) {
+            page.layer_types[l][i] = page.layer_types[l - 1][i];
+            page.setAmount(l, i, page.getAmount(l - 1, i));
+        }
+        page.layer_types[layer][i] = (byte) type.ordinal();
+        page.setAmount(layer, i, amount);
+        page.layer_counts[i] = (byte) (count + 1);
+        page.updateAltitude(i);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void removeTopLayer(int index) {
+        int        count = this.getLayerCount(index);
+        ColumnPage page  = this.getWritablePage(index);
+        page.setAmount(count - 1, index & PAGE_MASK, 0.0);
+        page.layer_counts[index & PAGE_MASK] = (byte) (count - 1);
+        page.updateAltitude(index & PAGE_MASK);
+        this.markChanged(index);
+    }
+
+    @Override
+    public double getWater(int index) {
+        return this.pages[index >> PAGE_BITS].getWater(index & PAGE_MASK);
+    }
+
+    @Override
+    public void setWater(int index, double water) {
+        this.getWritablePage(index).setWater(index & PAGE_MASK, water);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void adjustTopSoilAmount(int index, double change) {
+        // The same as Tile.adjustTopSoilAmount(), without going through a Tile view.
+        int    top    = this.getLayerCount(index) - 1;
+        double amount = this.getLayerAmount(index, top) + change;
+        if (amount > 0.0 || top == 0) {
+            this.setLayerAmount(index, top, amount);
+        } else {
+            this.removeTopLayer(index);
+        }
+    }
+
+    @Override
+    public double getAltitude(int index, boolean with_water) {
+        ColumnPage page = this.pages[index >> PAGE_BITS];
+        double     alt  = page.getAltitude(index & PAGE_MASK);
+        double     w    = page.getWater(index & PAGE_MASK);
+        if (with_water && w > 0.0) {
+            alt += w;
+        }
+        return alt;
+    }
+    
+    /**
+     * Return the number of tiles starting from (x, y) along the row that are stored in consecutive indices.
+     * 
+     * @param x   The x-coordinate.
+     * @param y   The y-coordinate.
+     * @param max The maximum length to return.
+     * @return    The length of the run, at most max.
+     */
+    protected int getRunLength(int x, int y, int max) {
+        return max;
+    }
+    
+    @Override
+    public void getAltitudes(int x, int y, int width, int length, double[] altitudes, boolean with_water) {
+        for (int dy = 0; dy < length; dy++) {
+            int dx = 0;
+            while (dx < width) {
+                int run = this.getRunLength(x + dx, y + dy, width - dx);
+                this.copyAltitudes(this.getIndex(x + dx, y + dy), altitudes, dx + dy * width, run, with_water);
+                dx += run;
+            }
+        }
+    }
+    
+    private void copyAltitudes(int index, double[] altitudes, int position, int count, boolean with_water) {
+        while (count > 0) {
+            int offset = index & PAGE_MASK;
+            int n      = Math.min(count, PAGE_SIZE - offset);
+            this.pages[index >> PAGE_BITS].getAltitudes(offset, altitudes, position, n, with_water);
+            index    += n;
+            position += n;
+            count    -= n;
+        }
+    }
+    
+    @Override
+    public void getAltitudes(float[] altitudes, boolean with_water) {
+        for (int y = 0; y < this.getLength(); y++) {
+            int x = 0;
+            while (x < this.getWidth()) {
+                int run   = this.getRunLength(x, y, this.getWidth() - x);
+                int index = this.getIndex(x, y);
+                for (int i = 0; i < run; i++) {
+                    altitudes[x + i + y * this.getWidth()] = (float) this.getAltitude(index + i, with_water);
+                }
+                x += run;
+            }
+        }
+    }
+    
+    @Override
+    public void getWaterDepths(double[] depths) {
+        for (int y = 0; y < this.getLength(); y++) {
+            int x = 0;
+            while (x < this.getWidth()) {
+                int run   = this.getRunLength(x, y, this.getWidth() - x);
+                int index = this.getIndex(x, y);
+                for (int i = 0; i < run; i++) {
+                    depths[x + i + y * this.getWidth()] = Math.max(this.getWater(index + i), 0.0);
+                }
+                x += run;
+            }
+        }
+    }
+    
+    /**
+     * Return the page of the tile for modifying, a shared page is copied first.
+     * 
+     * @param index The index of the tile.
+     * @return      The page, not shared with any other storage.
+     */
+    private ColumnPage getWritablePage(int index) {
+        ColumnPage page = this.pages[index >> PAGE_BITS];
+        if (page.shared) {
+            page = this.unsharePage(index >> PAGE_BITS);
+        }
+        return page;
+    }
+    
+    /**
+     * Replace a shared page with a copy.
+     * <p>
+     * Synchronized because the tiles of the same page can be modified from multiple threads.
+     * 
+     * @param number The number of the page.
+     * @return       The page.
+     */
+    private synchronized ColumnPage unsharePage(int number) {
+        if (this.pages[number].shared) {
+            this.pages[number] = this.pages[number].copy();
+        }
+        return this.pages[number];
+    }
+    
+    /**
+     * Page storing the values in double precision.
+     */
+    private static final class DoublePage extends ColumnPage {
+        private final double[] altitudes; // Sum of the soil layers.
+        private final double[] water;
+        private double[][]     layer_amounts;
+        
+        DoublePage(int size, SoilLayer.Type bottom_layer) {
+            super(size, bottom_layer);
+            this.altitudes     = new double[size];
+            this.water         = new double[size];
+            this.layer_amounts = new double[1][size];
+            Arrays.fill(this.altitudes, 1.0);
+            Arrays.fill(this.water, -1.0);
+            Arrays.fill(this.layer_amounts[0], 1.0);
+        }
+        
+        DoublePage(DoublePage source) {
+            super(source);
+            this.altitudes     = source.altitudes.clone();
+            this.water         = source.water.clone();
+            this.layer_amounts = new double[source.layer_amounts.length][];
+            for (int i = 0; i < this.layer_amounts.length; i++) {
+                this.layer_amounts[i] = source.layer_amounts[i].clone();
+            }
+        }
+
+        @Override
+        ColumnPage copy() {
+            return new DoublePage(this);
+        }
+
+        @Override
+        protected void addAmountPlanes(int count) {
+            double[][] amounts = Arrays.copyOf(this.layer_amounts, count);
+            for (int l = this.layer_amounts.length; l < count; l++) {
+                amounts[l] = new double[this.altitudes.length];
+            }
+            this.layer_amounts = amounts;
+        }
+
+        @Override
+        double getAmount(int layer, int i) {
+            return this.layer_amounts[layer][i];
+        }
+
+        @Override
+        void setAmount(int layer, int i, double amount) {
+            this.layer_amounts[layer][i] = amount;
+        }
+
+        @Override
+        double getWater(int i) {
+            return this.water[i];
+        }
+
+        @Override
+        void setWater(int i, double water) {
+            this.water[i] = water;
+        }
+
+        @Override
+        double getAltitude(int i) {
+            return this.altitudes[i];
+        }
+        
+        /**
+         * Recalculate the altitude of the tile.
+         * <p>
+         * The sum is calculated in the same order as Tile.getAltitude() to get identical results.
+         * 
+         * @param i The index of the tile within the page.
+         */
+        @Override
+        void updateAltitude(int i) {
+            double alt = 0.0;
+            for (int l = 0; l < this.getLayerCount(i); l++) {
+                alt += this.layer_amounts[l][i];
+            }
+            this.altitudes[i] = alt;
+        }
+
+        @Override
+        void getAltitudes(int offset, double[] altitudes, int position, int count, boolean with_water) {
+            if (!with_water) {
+                System.arraycopy(this.altitudes, offset, altitudes, position, count);
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                altitudes[position + i] = this.altitudes[offset + i] + Math.max(this.water[offset + i], 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Arrays;
+
+/**
+ * Tile storage keeping the tile data in flat single-precision arrays.
+ * <p>
+ * The layout and the copy-on-write paging are the same as with ColumnTileStorage, but the altitudes,
+ * water heights and soil amounts are stored as floats, halving the memory usage and the memory bandwidth
+ * of the tools. The values written are rounded to the nearest float.
+ * <p>
+ * The cached altitude is the sum of the soil layers calculated in double precision
+ * and rounded once, so it does not accumulate rounding errors from the previous sums.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class FloatColumnTileStorage extends ColumnTileStorage {
+    /**
+     * Constructor.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     */
+    FloatColumnTileStorage(int width, int length, SoilLayer.Type bottom_layer) {
+        super(width, length, size -> new FloatPage(size, bottom_layer));
+    }
+    
+    private FloatColumnTileStorage(FloatColumnTileStorage source) {
+        super(source);
+    }
+
+    @Override
+    public TileStorage copy() {
+        return new FloatColumnTileStorage(this);
+    }
+    
+    /**
+     * Page storing the values in single precision.
+     */
+    private static final class FloatPage extends ColumnPage {
+        private final float[] altitudes; // Sum of the soil layers.
+        private final float[] water;
+        private float[][]     layer_amounts;
+        
+        FloatPage(int size, SoilLayer.Type bottom_layer) {
+            super(size, bottom_layer);
+            this.altitudes     = new float[size];
+            this.water         = new float[size];
+            this.layer_amounts = new float[1][size];
+            Arrays.fill(this.altitudes, 1.0f);
+            Arrays.fill(this.water, -1.0f);
+            Arrays.fill(this.layer_amounts[0], 1.0f);
+        }
+        
+        FloatPage(FloatPage source) {
+            super(source);
+            this.altitudes     = source.altitudes.clone();
+            this.water         = source.water.clone();
+            this.layer_amounts = new float[source.layer_amounts.length][];
+            for (int i = 0; i < this.layer_amounts.length; i++) {
+                this.layer_amounts[i] = source.layer_amounts[i].clone();
+            }
+        }
+
+        @Override
+        ColumnPage copy() {
+            return new FloatPage(this);
+        }
+
+        @Override
+        protected void addAmountPlanes(int count) {
+            float[][] amounts = Arrays.copyOf(this.layer_amounts, count);
+            for (int l = this.layer_amounts.length; l < count; l++) {
+                amounts[l] = new float[this.altitudes.length];
+            }
+            this.layer_amounts = amounts;
+        }
+
+        @Override
+        double getAmount(int layer, int i) {
+            return this.layer_amounts[layer][i];
+        }
+
+        @Override
+        void setAmount(int layer, int i, double amount) {
+            this.layer_amounts[layer][i] = (float) amount;
+        }
+
+        @Override
+        double getWater(int i) {
+            return this.water[i];
+        }
+
+        @Override
+        void setWater(int i, double water) {
+            this.water[i] = (float) water;
+        }
+
+        @Override
+        double getAltitude(int i) {
+            return this.altitudes[i];
+        }
+
+        @Override
+        void updateAltitude(int i) {
+            double alt = 0.0;
+            for (int l = 0; l < this.getLayerCount(i); l++) {
+                alt += this.layer_amounts[l][i];
+            }
+            this.altitudes[i] = (float) alt;
+        }
+
+        @Override
+        void getAltitudes(int offset, double[] altitudes, int position, int count, boolean with_water) {
+            for (int i = 0; i < count; i++) {
+                double alt = this.altitudes[offset + i];
+                if (with_water) {
+                    alt += Math.max(this.water[offset + i], 0.0f);
+                }
+                altitudes[position + i] = alt;
+            }
+        }
+    }
+}
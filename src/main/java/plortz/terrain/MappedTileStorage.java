@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tile storage keeping the tile data in a memory-mapped file, outside of the Java heap.
+ * <p>
+ * The layout of the file is the same as the layout of ColumnTileStorage:
+ * a header followed by the planes for altitudes, water, soil layer amounts,
+ * soil layer counts and soil layer types, each plane indexed by x + y * width.
+ * Unlike ColumnTileStorage, the number of soil layers is limited by the maximum
+ * given when the file is created, and the planes for all the layers are always present.
+ * <p>
+ * All values are stored in little-endian byte order.
+ * A single mapping can not exceed 2 GB, so the file is mapped in segments.
+ * The segment size is a multiple of 8 and all the double planes start at offsets
+ * that are multiples of 8, so a value never spans two segments.
+ * <p>
+ * The operating system pages the data in and out as needed, so the terrain can be much larger than the heap.
+ * The file is kept up to date by the operating system, flush() forces the changes to the disk.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class MappedTileStorage extends TileStorage {
+    private static final SoilLayer.Type[] TYPES = SoilLayer.Type.values();
+    private static final int  MAGIC        = 0x504c545a; // "PLTZ"
+    private static final int  VERSION      = 1;
+    private static final int  HEADER_SIZE  = 64;
+    private static final int  SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    
+    private final int                max_layers;
+    private final MappedByteBuffer[] segments;
+    private final long               altitudes_offset; // Sum of the soil layers.
+    private final long               water_offset;
+    private final long               amounts_offset;
+    private final long               counts_offset;
+    private final long               types_offset;
+    private final long               file_size;
+    
+    private MappedTileStorage(Path file, int width, int length, int max_layers) throws IOException {
+        super(width, length);
+        if (max_layers < 1 || max_layers > 0xff) {
+            throw new IllegalArgumentException("The maximum number of soil layers must be in range [1, 255].");
+        }
+        long n = (long) width * (long) length;
+        this.max_layers       = max_layers;
+        this.altitudes_offset = HEADER_SIZE;
+        this.water_offset     = this.altitudes_offset + n * Double.BYTES;
+        this.amounts_offset   = this.water_offset + n * Double.BYTES;
+        this.counts_offset    = this.amounts_offset + n * Double.BYTES * max_layers;
+        this.types_offset     = this.counts_offset + n;
+        this.file_size        = this.types_offset + n * max_layers;
+        this.segments         = new MappedByteBuffer[(int) ((this.file_size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < this.segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(SEGMENT_SIZE, this.file_size - start));
+                this.segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+    
+    /**
+     * Create a new file, and return the storage for it.
+     * <p>
+     * Existing file is overwritten.
+     * 
+     * @param file         The file.
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     * @param max_layers   The maximum number of soil layers for a tile.
+     * @return             The new storage.
+     * @throws IOException If the file can not be created.
+     */
+    static MappedTileStorage create(Path file, int width, int length, SoilLayer.Type bottom_layer, int max_layers) throws IOException {
+        Files.deleteIfExists(file);
+        MappedTileStorage storage = new MappedTileStorage(file, width, length, max_layers);
+        ByteBuffer header = storage.segments[0];
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, width);
+        header.putInt(12, length);
+        header.putInt(16, max_layers);
+        for (int i = 0; i < storage.size(); i++) {
+            storage.putDouble(storage.altitudes_offset + (long) i * Double.BYTES, 1.0);
+            storage.putDouble(storage.water_offset + (long) i * Double.BYTES, -1.0);
+            storage.putDouble(storage.amounts_offset + (long) i * Double.BYTES, 1.0);
+            storage.putByte(storage.counts_offset + i, (byte) 1);
+            storage.putByte(storage.types_offset + i, (byte) bottom_layer.ordinal());
+        }
+        return storage;
+    }
+    
+    /**
+     * Create a new temporary file, and return the storage for it.
+     * <p>
+     * The file is deleted when the program exits.
+     * The maximum number of soil layers is Terrain.DEFAULT_MAPPED_MAX_LAYERS.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     * @return             The new storage.
+     */
+    static MappedTileStorage createTemporary(int width, int length, SoilLayer.Type bottom_layer) {
+        try {
+            return create(createTemporaryFile(), width, length, bottom_layer, Terrain.DEFAULT_MAPPED_MAX_LAYERS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static Path createTemporaryFile() throws IOException {
+        Path file = Files.createTempFile("plortz", ".terrain");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+    
+    /**
+     * Open an existing file created with create().
+     * 
+     * @param file The file.
+     * @return     The storage for the file.
+     * @throws IOException If the file can not be opened, or is not a terrain file.
+     */
+    static MappedTileStorage open(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(header, 0);
+        }
+        if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a terrain file: " + file);
+        }
+        MappedTileStorage storage = new MappedTileStorage(file, header.getInt(8), header.getInt(12), header.getInt(16));
+        if (Files.size(file) != storage.file_size) {
+            throw new IOException("Corrupted terrain file: " + file);
+        }
+        return storage;
+    }
+    
+    /**
+     * Return a full copy of this storage in a new temporary file of the same size.
+     * <p>
+     * The copy is not backed by the original file, and the temporary file is deleted when the JVM exits.
+     * Copying is as expensive as writing the whole file, so TerrainHistory does not copy mapped terrains.
+     * 
+     * @return The copy.
+     */
+    @Override
+    public TileStorage copy() {
+        MappedTileStorage copy;
+        try {
+            copy = new MappedTileStorage(createTemporaryFile(), this.getWidth(), this.getLength(), this.max_layers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < this.segments.length; i++) {
+            ByteBuffer src = this.segments[i].duplicate();
+            ByteBuffer dst = copy.segments[i].duplicate();
+            src.clear();
+            dst.clear();
+            dst.put(src);
+        }
+        return copy;
+    }
+    
+    /**
+     * The mapped buffers are not thread-safe.
+     * 
+     * @return False.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+    
+    @Override
+    public void flush() {
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public Tile getTile(int index) {
+        return new StoredTile(this, index);
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        this.copyFrom(index, tile);
+    }
+
+    @Override
+    public int getLayerCount(int index) {
+        return this.getByte(this.counts_offset + index) & 0xff;
+    }
+
+    @Override
+    public SoilLayer.Type getLayerType(int index, int layer) {
+        return TYPES[this.getByte(this.getTypeOffset(index, layer))];
+    }
+
+    @Override
+    public double getLayerAmount(int index, int layer) {
+        return this.getDouble(this.getAmountOffset(index, layer));
+    }
+
+    @Override
+    public void setLayerAmount(int index, int layer, double amount) {
+        this.putDouble(this.getAmountOffset(index, layer), amount);
+        this.updateAltitude(index);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void insertLayer(int index, int layer, SoilLayer.Type type, double amount) {
+        int count = this.getLayerCount(index);
+        if (count >= this.max_layers) {
+            throw new IllegalStateException("Too many soil layers.");
+        }
+        for (int i = count; i > layer; i--) {
+            this.putByte(this.getTypeOffset(index, i), this.getByte(this.getTypeOffset(index, i - 1)));
+            this.putDouble(this.getAmountOffset(index, i), this.getDouble(this.getAmountOffset(index, i - 1)));
+        }
+        this.putByte(this.getTypeOffset(index, layer), (byte) type.ordinal());
+        this.putDouble(this.getAmountOffset(index, layer), amount);
+        this.putByte(this.counts_offset + index, (byte) (count + 1));
+        this.updateAltitude(index);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void removeTopLayer(int index) {
+        int count = this.getLayerCount(index);
+        this.putDouble(this.getAmountOffset(index, count - 1), 0.0);
+        this.putByte(this.counts_offset + index, (byte) (count - 1));
+        this.updateAltitude(index);
+        this.markChanged(index);
+    }
+
+    @Override
+    public double getWater(int index) {
+        return this.getDouble(this.water_offset + (long) index * Double.BYTES);
+    }
+
+    @Override
+    public void setWater(int index, double water) {
+        this.putDouble(this.water_offset + (long) index * Double.BYTES, water);
+        this.markChanged(index);
+    }
+
+    @Override
+    public double getAltitude(int index, boolean with_water) {
+        double alt = this.getDouble(this.altitudes_offset + (long) index * Double.BYTES);
+        if (with_water) {
+            double water = this.getWater(index);
+            if (water > 0.0) {
+                alt += water;
+            }
+        }
+        return alt;
+    }
+    
+    /**
+     * Recalculate the altitude of the tile.
+     * <p>
+     * The sum is calculated in the same order as Tile.getAltitude() to get identical results.
+     * 
+     * @param index The index of the tile.
+     */
+    private void updateAltitude(int index) {
+        double alt = 0.0;
+        for (int i = 0; i < this.getLayerCount(index); i++) {
+            alt += this.getLayerAmount(index, i);
+        }
+        this.putDouble(this.altitudes_offset + (long) index * Double.BYTES, alt);
+    }
+    
+    private long getAmountOffset(int index, int layer) {
+        return this.amounts_offset + ((long) layer * this.size() + index) * Double.BYTES;
+    }
+    
+    private long getTypeOffset(int index, int layer) {
+        return this.types_offset + (long) layer * this.size() + index;
+    }
+    
+    private double getDouble(long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getDouble((int) (offset & (SEGMENT_SIZE - 1)));
+    }
+    
+    private void putDouble(long offset, double value) {
+        this.segments[(int) (offset >>> SEGMENT_BITS)].putDouble((int) (offset & (SEGMENT_SIZE - 1)), value);
+    }
+    
+    private byte getByte(long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & (SEGMENT_SIZE - 1)));
+    }
+    
+    private void putByte(long offset, byte value) {
+        this.segments[(int) (offset >>> SEGMENT_BITS)].put((int) (offset & (SEGMENT_SIZE - 1)), value);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Parallel;
+import plortz.util.Position;
+import plortz.util.Static2dArray;
+
+/**
+ * Tile storage holding a separate Tile object for each tile.
+ * <p>
+ * This is the default storage, it allows the tiles to be replaced with any Tile objects.
+ * Tiles of the other storages are views to their storage, so they are copied instead.
+ * The tiles are created and copied in parallel row bands.
+ * The tiles report their own changes, so each tile is given the change tracker of the storage.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class ObjectTileStorage extends TileStorage {
+    private final Static2dArray<Tile> tiles;
+    
+    /**
+     * Constructor.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     */
+    ObjectTileStorage(int width, int length, SoilLayer.Type bottom_layer) {
+        super(width, length);
+        this.tiles = new Static2dArray<>(width, length);
+        Parallel.forEachBand(length, Terrain.MIN_PARALLEL_TILES / Math.max(width, 1), (start, end) -> {
+            for (int y = start; y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    this.tiles.set(x, y, new Tile(new Position(x, y), bottom_layer, 1.0));
+                }
+            }
+        });
+    }
+    
+    private ObjectTileStorage(ObjectTileStorage source) {
+        super(source.getWidth(), source.getLength());
+        this.tiles = new Static2dArray<>(source.getWidth(), source.getLength());
+        Parallel.forEachBand(this.size(), Terrain.MIN_PARALLEL_TILES, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                this.tiles.set(i, new Tile(source.tiles.get(i)));
+            }
+        });
+    }
+
+    @Override
+    public TileStorage copy() {
+        return new ObjectTileStorage(this);
+    }
+
+    @Override
+    void setChangeTracker(ChangeTracker changes) {
+        super.setChangeTracker(changes);
+        Parallel.forEachBand(this.size(), Terrain.MIN_PARALLEL_TILES, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                this.tiles.get(i).setChangeTracker(changes);
+            }
+        });
+    }
+
+    @Override
+    public Tile getTile(int index) {
+        return this.tiles.get(index);
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        if (tile instanceof StoredTile) {
+            tile = new Tile(tile); // A view to another storage, copy the soil and the water.
+        }
+        this.tiles.set(index, tile);
+        tile.setPosition(new Position(index % this.getWidth(), index / this.getWidth()));
+        tile.setChangeTracker(this.getChangeTracker());
+        this.markChanged(index);
+    }
+
+    @Override
+    public int getLayerCount(int index) {
+        return this.tiles.get(index).getLayerCount();
+    }
+
+    @Override
+    public SoilLayer.Type getLayerType(int index, int layer) {
+        return this.tiles.get(index).getLayerType(layer);
+    }
+
+    @Override
+    public double getLayerAmount(int index, int layer) {
+        return this.tiles.get(index).getLayerAmount(layer);
+    }
+
+    @Override
+    public void setLayerAmount(int index, int layer, double amount) {
+        this.tiles.get(index).setLayerAmount(layer, amount);
+    }
+
+    @Override
+    public void insertLayer(int index, int layer, SoilLayer.Type type, double amount) {
+        this.tiles.get(index).insertLayer(layer, type, amount);
+    }
+
+    @Override
+    public void removeTopLayer(int index) {
+        this.tiles.get(index).removeTopLayer();
+    }
+
+    @Override
+    public double getWater(int index) {
+        return this.tiles.get(index).getWater();
+    }
+
+    @Override
+    public void setWater(int index, double water) {
+        this.tiles.get(index).setWater(water);
+    }
+
+    @Override
+    public double getAltitude(int index, boolean with_water) {
+        return this.tiles.get(index).getAltitude(with_water);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Rectangle;
+
+/**
+ * The ownership of a region of a terrain, returned by TerrainConcurrency.tryLock().
+ * <p>
+ * While the lock is held, no other lock of the same terrain can own any of the chunks the region touches,
+ * so the owner can modify the tiles of the region concurrently with the owners of the other regions.
+ * The change notifications of the terrain are postponed while any region is locked.
+ * Closing the lock releases the region, closing it again does nothing.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public final class RegionLock implements AutoCloseable {
+    private final ChunkOwnership ownership;
+    private final Rectangle      area;
+    private final int[]          chunks;
+    private boolean              released;
+    
+    RegionLock(ChunkOwnership ownership, Rectangle area, int[] chunks) {
+        this.ownership = ownership;
+        this.area      = area;
+        this.chunks    = chunks;
+        this.released  = false;
+    }
+    
+    /**
+     * Return the locked area, clipped to the terrain.
+     * 
+     * @return The area.
+     */
+    public Rectangle getArea() {
+        return this.area;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (!this.released) {
+            this.released = true;
+            this.ownership.unlock(this.chunks);
+        }
+    }
+}
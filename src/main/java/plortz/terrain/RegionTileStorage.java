@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Rectangle;
+
+/**
+ * Tile storage presenting a rectangular region of another storage, without copying the data.
+ * <p>
+ * The tile at (x, y) of the region is the tile at (region_x + x, region_y + y) of the source storage,
+ * the indices of the region are in row-major order. All the reads and writes go directly to the source,
+ * the writes are reported to the change trackers of both the source and the region.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class RegionTileStorage extends TileStorage {
+    private final TileStorage         source;
+    private final int                 region_x;
+    private final int                 region_y;
+    private final Terrain.StorageType storage_type; // The type of the source, used for the copies.
+    
+    /**
+     * Constructor.
+     * 
+     * @param source       The source storage.
+     * @param region       The region, must be inside the source.
+     * @param storage_type The storage type of the source.
+     */
+    RegionTileStorage(TileStorage source, Rectangle region, Terrain.StorageType storage_type) {
+        super(region.getWidth(), region.getLength());
+        this.source       = source;
+        this.region_x     = region.getX();
+        this.region_y     = region.getY();
+        this.storage_type = storage_type;
+    }
+    
+    /**
+     * Return the index in the source storage of the tile at the given index of the region.
+     * 
+     * @param index The index in the region.
+     * @return      The index in the source.
+     */
+    private int toSource(int index) {
+        return this.source.getIndex(this.region_x + index % this.getWidth(), this.region_y + index / this.getWidth());
+    }
+
+    /**
+     * Return a copy of the region as a standalone storage of the same type as the source.
+     * 
+     * @return The copy.
+     */
+    @Override
+    public TileStorage copy() {
+        TileStorage copy = TileStorage.create(this.getWidth(), this.getLength(), SoilLayer.Type.CLIFF, this.storage_type);
+        for (int i = 0; i < this.size(); i++) {
+            copy.setTile(i, new Tile(this.getTile(i)));
+        }
+        return copy;
+    }
+
+    @Override
+    public void flush() {
+        this.source.flush();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return this.source.isThreadSafe();
+    }
+
+    @Override
+    public Tile getTile(int index) {
+        return new StoredTile(this, index);
+    }
+
+    @Override
+    public void setTile(int index, Tile tile) {
+        this.copyFrom(index, tile);
+    }
+
+    @Override
+    public int getLayerCount(int index) {
+        return this.source.getLayerCount(this.toSource(index));
+    }
+
+    @Override
+    public SoilLayer.Type getLayerType(int index, int layer) {
+        return this.source.getLayerType(this.toSource(index), layer);
+    }
+
+    @Override
+    public double getLayerAmount(int index, int layer) {
+        return this.source.getLayerAmount(this.toSource(index), layer);
+    }
+
+    @Override
+    public void setLayerAmount(int index, int layer, double amount) {
+        this.source.setLayerAmount(this.toSource(index), layer, amount);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void insertLayer(int index, int layer, SoilLayer.Type type, double amount) {
+        this.source.insertLayer(this.toSource(index), layer, type, amount);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void removeTopLayer(int index) {
+        this.source.removeTopLayer(this.toSource(index));
+        this.markChanged(index);
+    }
+
+    @Override
+    public double getWater(int index) {
+        return this.source.getWater(this.toSource(index));
+    }
+
+    @Override
+    public void setWater(int index, double water) {
+        this.source.setWater(this.toSource(index), water);
+        this.markChanged(index);
+    }
+
+    @Override
+    public double getAltitude(int index, boolean with_water) {
+        return this.source.getAltitude(this.toSource(index), with_water);
+    }
+
+    @Override
+    public void adjustTopSoilAmount(int index, double change) {
+        this.source.adjustTopSoilAmount(this.toSource(index), change);
+        this.markChanged(index);
+    }
+
+    @Override
+    public void getAltitudes(int x, int y, int width, int length, double[] altitudes, boolean with_water) {
+        this.source.getAltitudes(this.region_x + x, this.region_y + y, width, length, altitudes, with_water);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import plortz.util.Rectangle;
+
+/**
+ * Spliterator over bands of full rows, see TerrainConcurrency.rowBands().
+ * <p>
+ * The bands are rectangles of the given number of rows, the last band may be shorter.
+ * Splitting divides the remaining bands in halves.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class RowBandSpliterator implements Spliterator<Rectangle> {
+    private final int width;
+    private final int band_rows;
+    private int       row; // The first row of the next band.
+    private final int end_row;
+    
+    /**
+     * Constructor.
+     * 
+     * @param width     The width of the rows.
+     * @param start_row The first row.
+     * @param end_row   The row after the last row.
+     * @param band_rows The number of rows per band, at least 1.
+     */
+    RowBandSpliterator(int width, int start_row, int end_row, int band_rows) {
+        this.width     = width;
+        this.band_rows = band_rows;
+        this.row       = start_row;
+        this.end_row   = end_row;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Rectangle> action) {
+        if (this.row >= this.end_row) {
+            return false;
+        }
+        int rows = Math.min(this.band_rows, this.end_row - this.row);
+        action.accept(new Rectangle(0, this.row, this.width, rows));
+        this.row += rows;
+        return true;
+    }
+
+    @Override
+    public Spliterator<Rectangle> trySplit() {
+        long bands = this.estimateSize();
+        if (bands < 2) {
+            return null;
+        }
+        int middle = this.row + (int) (bands / 2) * this.band_rows;
+        Spliterator<Rectangle> first = new RowBandSpliterator(this.width, this.row, middle, this.band_rows);
+        this.row = middle;
+        return first;
+    }
+
+    @Override
+    public long estimateSize() {
+        return (this.end_row - this.row + this.band_rows - 1) / this.band_rows;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
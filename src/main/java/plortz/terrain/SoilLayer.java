@@ -60,12 +60,14 @@ public class SoilLayer {
     
     /**
      * Copy constructor.
+     * <p>
+     * The copy does not belong to any tile.
      * 
      * @param source The source SoilLayer to copy from.
      */
     public SoilLayer(SoilLayer source) {
-        this.type   = source.type;
-        this.amount = source.amount;
+        this.type   = source.getType();
+        this.amount = source.getAmount();
     }
     
     public Type getType() {
@@ -81,7 +83,7 @@ public class SoilLayer {
     }
     
     public void adjustAmount(double adjustment) {
-        this.amount += adjustment;
+        this.setAmount(this.amount + adjustment);
     }
     
     /**
@@ -93,8 +95,8 @@ public class SoilLayer {
      * @return        The angle of repose, in degrees.
      */
     public double getAngleOfRepose(boolean kinetic) {
-        double aor = this.type.getAngleOfRepose();
-        if (kinetic && this.type != Type.CLIFF) {
+        double aor = this.getType().getAngleOfRepose();
+        if (kinetic && this.getType() != Type.CLIFF) {
             aor *= 0.75;
         }
         return aor;
@@ -106,6 +108,6 @@ public class SoilLayer {
      * @return A vector containing the red, green, and blue values in [0, 1].
      */
     public Vector getRGB() {
-        return this.type.getRGB();
+        return this.getType().getRGB();
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Arrays;
+
+/**
+ * Compact stack of soil layers used by Tile.
+ * <p>
+ * The soil types are stored as their ordinals in bytes, and the amounts as plain doubles.
+ * Most tiles have only a few layers, so the first INLINE_LAYERS layers are stored in fields,
+ * the layers above them are stored in arrays allocated when needed.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+final class SoilLayerStack {
+    private static final SoilLayer.Type[] TYPES = SoilLayer.Type.values();
+    private static final int INLINE_LAYERS = 3;
+    
+    private int      count;
+    private byte     type0;
+    private byte     type1;
+    private byte     type2;
+    private double   amount0;
+    private double   amount1;
+    private double   amount2;
+    private byte[]   more_types;   // The layers above the inline layers, null if not needed.
+    private double[] more_amounts;
+    
+    /**
+     * Constructor.
+     * 
+     * @param type   The soil type of the bottom layer.
+     * @param amount The amount of soil in the bottom layer.
+     */
+    SoilLayerStack(SoilLayer.Type type, double amount) {
+        this.count        = 1;
+        this.type0        = (byte) type.ordinal();
+        this.amount0      = amount;
+        this.more_types   = null;
+        this.more_amounts = null;
+    }
+    
+    /**
+     * Return the number of layers.
+     * 
+     * @return The number of layers.
+     */
+    int size() {
+        return this.count;
+    }
+    
+    SoilLayer.Type getType(int layer) {
+        return TYPES[this.getTypeOrdinal(layer)];
+    }
+    
+    double getAmount(int layer) {
+        switch (layer) {
+            case 0:
+                return this.amount0;
+            case 1:
+                return this.amount1;
+            case 2:
+                return this.amount2;
+            default:
+                return this.more_amounts[layer - INLINE_LAYERS];
+        }
+    }
+    
+    void setAmount(int layer, double amount) {
+        switch (layer) {
+            case 0:
+                this.amount0 = amount;
+                break;
+            case 1:
+                this.amount1 = amount;
+                break;
+            case 2:
+                this.amount2 = amount;
+                break;
+            default:
+                this.more_amounts[layer - INLINE_LAYERS] = amount;
+                break;
+        }
+    }
+    
+    /**
+     * Insert a new layer, the layers at and above the given index are moved up.
+     * 
+     * @param layer  The index of the new layer.
+     * @param type   The soil type of the new layer.
+     * @param amount The amount of soil in the new layer.
+     */
+    void insert(int layer, SoilLayer.Type type, double amount) {
+        this.ensureCapacity(this.count + 1);
+        for (int i = this.count; i > layer; i--) {
+            this.set(i, this.getTypeOrdinal(i - 1), this.getAmount(i - 1));
+        }
+        this.set(layer, (byte) type.ordinal(), amount);
+        this.count++;
+    }
+    
+    /**
+     * Remove the top-most layer.
+     */
+    void removeTop() {
+        this.count--;
+        this.set(this.count, (byte) 0, 0.0);
+    }
+    
+    /**
+     * Return the sum of the amounts of all the layers, summed from the bottom up.
+     * 
+     * @return The sum.
+     */
+    double getSum() {
+        double sum = 0.0;
+        for (int i = 0; i < this.count; i++) {
+            sum += this.getAmount(i);
+        }
+        return sum;
+    }
+    
+    private byte getTypeOrdinal(int layer) {
+        switch (layer) {
+            case 0:
+                return this.type0;
+            case 1:
+                return this.type1;
+            case 2:
+                return this.type2;
+            default:
+                return this.more_types[layer - INLINE_LAYERS];
+        }
+    }
+    
+    private void set(int layer, byte type, double amount) {
+        switch (layer) {
+            case 0:
+                this.type0 = type;
+                break;
+            case 1:
+                this.type1 = type;
+                break;
+            case 2:
+                this.type2 = type;
+                break;
+            default:
+                this.more_types[layer - INLINE_LAYERS] = type;
+                break;
+        }
+        this.setAmount(layer, amount);
+    }
+    
+    private void ensureCapacity(int capacity) {
+        int needed = capacity - INLINE_LAYERS;
+        if (needed <= 0 || (this.more_types != null && this.more_types.length >= needed)) {
+            return;
+        }
+        int size = Math.max(needed, this.more_types == null ? 2 : this.more_types.length * 2);
+        this.more_types   = this.more_types == null ? new byte[size] : Arrays.copyOf(this.more_types, size);
+        this.more_amounts = this.more_amounts == null ? new double[size] : Arrays.copyOf(this.more_amounts, size);
+    }
+}
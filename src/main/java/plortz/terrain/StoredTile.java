@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Position;
+
+/**
+ * Lightweight Tile view into a TileStorage.
+ * <p>
+ * The view holds no data of its own, all the reads and writes go directly to the storage.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class StoredTile extends Tile {
+    private final TileStorage storage;
+    private final int         index;
+    
+    StoredTile(TileStorage storage, int index) {
+        super();
+        this.storage = storage;
+        this.index   = index;
+    }
+
+    @Override
+    int getLayerCount() {
+        return this.storage.getLayerCount(this.index);
+    }
+
+    @Override
+    SoilLayer.Type getLayerType(int layer) {
+        return this.storage.getLayerType(this.index, layer);
+    }
+
+    @Override
+    double getLayerAmount(int layer) {
+        return this.storage.getLayerAmount(this.index, layer);
+    }
+
+    @Override
+    void setLayerAmount(int layer, double amount) {
+        this.storage.setLayerAmount(this.index, layer, amount);
+    }
+
+    @Override
+    void insertLayer(int layer, SoilLayer.Type type, double amount) {
+        this.storage.insertLayer(this.index, layer, type, amount);
+    }
+
+    @Override
+    void removeTopLayer() {
+        this.storage.removeTopLayer(this.index);
+    }
+
+    @Override
+    public Position getPosition() {
+        return this.storage.getPosition(this.index);
+    }
+
+    /**
+     * The position of a view is defined by the storage, and can not be changed.
+     * 
+     * @param position Not used.
+     */
+    @Override
+    public void setPosition(Position position) {
+        throw new UnsupportedOperationException("not supported");
+    }
+
+    @Override
+    public double getAltitude(boolean with_water) {
+        return this.storage.getAltitude(this.index, with_water);
+    }
+
+    @Override
+    public void setWater(double water_height) {
+        this.storage.setWater(this.index, water_height);
+    }
+
+    @Override
+    public double getWater() {
+        return this.storage.getWater(this.index);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof StoredTile)) {
+            return false;
+        }
+        StoredTile other = (StoredTile) obj;
+        return this.storage == other.storage && this.index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.index;
+    }
+}
@@ -18,24 +18,91 @@ package plortz.terrain;
 
 import plortz.util.Position;
 import java.security.InvalidParameterException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.Spliterator;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
 import plortz.util.Vector;
 import plortz.observer.Observer;
 import plortz.observer.Subject;
-import plortz.util.Static2dArray;
 
 
 /**
  * Container of the terrain data.
  * <p>
  * The terrain is a 2d grid of Tiles.
+ * The tiles are kept in a storage engine chosen when the terrain is created, see StorageType.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class Terrain implements Iterable<Tile> {
-    private final Static2dArray<Tile> tiles;
-    private final Subject             on_change;
-    double                            sea_level;
+    
+    /**
+     * Enum listing the available storage engines for the tile data.
+     */
+    public enum StorageType {
+        /**
+         * Each tile is a separate Tile object, tiles can be replaced with any Tile objects.
+         */
+        OBJECTS,
+        /**
+         * The tile data is kept in flat primitive arrays, the tiles are lightweight views into the arrays.
+         * Uses considerably less memory and is faster to access for large terrains.
+         */
+        COLUMNS,
+        /**
+         * Like COLUMNS, but the tiles are stored in square chunks of CHUNK_SIZE x CHUNK_SIZE tiles instead of rows.
+         * Faster for tools accessing the neighborhoods of the tiles on wide terrains.
+         */
+        CHUNKED,
+        /**
+         * Like COLUMNS, but the altitudes, water heights and soil amounts are stored in single precision.
+         * Uses about half the memory of COLUMNS, the values are rounded to the nearest float when written.
+         */
+        FLOAT,
+        /**
+         * The tile data is kept in a memory-mapped file outside of the Java heap, see createMapped() and openMapped().
+         * The number of soil layers per tile is limited.
+         */
+        MAPPED
+    };
+    
+    /**
+     * The width and length of the chunks used with CHUNKED storage, and by forEachChunk().
+     */
+    public static final int CHUNK_SIZE = 64;
+    
+    /**
+     * The maximum number of soil layers per tile used for the memory-mapped terrains when not given explicitly.
+     */
+    public static final int DEFAULT_MAPPED_MAX_LAYERS = 8;
+    
+    /**
+     * The minimum number of tiles processed by a single thread when the tiles are processed in parallel.
+     */
+    static final int MIN_PARALLEL_TILES = 64 * 1024;
+    
+    private final TileStorage        tiles;
+    private final StorageType        storage_type;
+    private final Subject            on_change;
+    private final ChangeTracker      changes;
+    private final TerrainConcurrency concurrency;
+    private final TerrainStatistics  statistics;
+    private AltitudePyramid          pyramid;
+    double                           sea_level;
+    
+    /**
+     * Construct a new terrain with the bottom layers soil type and the storage engine given.
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     * @param storage_type The storage engine to use.
+     */
+    public Terrain(int width, int length, SoilLayer.Type bottom_layer, StorageType storage_type) {
+        this(TileStorage.create(width, length, bottom_layer, storage_type), storage_type);
+    }
     
     /**
      * Construct a new terrain with the bottom layers soil type given.
@@ -44,14 +111,7 @@ public class Terrain implements Iterable<Tile> {
      * @param bottom_layer The soil type of the bottom layer.
      */
     public Terrain(int width, int length, SoilLayer.Type bottom_layer) {
-        this.tiles  = new Static2dArray<>(width, length);
-        for (int y = 0; y < length; y++) {
-            for (int x = 0; x < width; x++) {
-                this.tiles.set(x, y, new Tile(new Position(x, y), bottom_layer, 1.0));
-            }
-        }
-        this.on_change = new Subject();
-        this.sea_level = -1;
+        this(width, length, bottom_layer, StorageType.OBJECTS);
     }
     
     /**
@@ -63,16 +123,92 @@ public class Terrain implements Iterable<Tile> {
         this(width, length, SoilLayer.Type.CLIFF);
     }
     
+    private Terrain(TileStorage tiles, StorageType storage_type) {
+        this.tiles        = tiles;
+        this.storage_type = storage_type;
+        this.on_change    = new Subject();
+        this.changes      = new ChangeTracker(tiles.getWidth(), tiles.getLength());
+        this.concurrency  = new TerrainConcurrency(this, tiles, this.changes);
+        this.statistics   = new TerrainStatistics(tiles, this.changes);
+        this.pyramid      = null;
+        this.sea_level    = -1;
+        this.tiles.setChangeTracker(this.changes);
+    }
+    
+    /**
+     * Create a new terrain stored in a memory-mapped file.
+     * <p>
+     * The file is overwritten if it exists. The terrain data is written to the file as the terrain is modified,
+     * and the terrain can be later opened with openMapped().
+     * 
+     * @param file         The file.
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     * @param max_layers   The maximum number of soil layers per tile, in range [1, 255].
+     * @return             The new terrain.
+     * @throws IOException If the file can not be created.
+     */
+    public static Terrain createMapped(Path file, int width, int length, SoilLayer.Type bottom_layer, int max_layers) throws IOException {
+        return new Terrain(MappedTileStorage.create(file, width, length, bottom_layer, max_layers), StorageType.MAPPED);
+    }
+    
+    /**
+     * Open a terrain stored in a memory-mapped file created with createMapped().
+     * <p>
+     * The tile data is not read at this point, it is paged in by the operating system as it is accessed.
+     * 
+     * @param file The file.
+     * @return     The terrain.
+     * @throws IOException If the file can not be opened or is not a terrain file.
+     */
+    public static Terrain openMapped(Path file) throws IOException {
+        return new Terrain(MappedTileStorage.open(file), StorageType.MAPPED);
+    }
+    
     /**
      * Copy constructor.
+     * <p>
+     * With copy-on-write storages the copy shares the data with the source until either one is modified,
+     * see isCopyOnWrite(). The observers are not copied.
+     * 
      * @param source The source terrain to copy from.
      */
     public Terrain(Terrain source) {
-        this.tiles  = new Static2dArray<>(source.getWidth(), source.getLength());
-        for (int i = 0; i < this.tiles.getWidth() * this.tiles.getLength(); i++) {
-            this.tiles.set(i, new Tile(source.tiles.get(i)));
+        this(source.tiles.copy(), source.storage_type);
+        this.sea_level = source.sea_level;
+    }
+    
+    /**
+     * Return a terrain presenting the given region of this terrain, without copying the data.
+     * <p>
+     * The tile at (x, y) of the region is the tile at (region.getX() + x, region.getY() + y) of this terrain,
+     * so any tool can be restricted to the region by applying it to the returned terrain.
+     * The changes made through the region are reported to the observers of this terrain on the next changed().
+     * The changes made directly to this terrain are visible in the region, but are not reported to the region.
+     * 
+     * @param region The region, must be inside this terrain.
+     * @return       The region as a terrain.
+     */
+    public Terrain getRegion(Rectangle region) {
+        if (region.isEmpty() || !region.intersection(new Rectangle(0, 0, this.getWidth(), this.getLength())).equals(region)) {
+            throw new IndexOutOfBoundsException("The region is not inside the terrain.");
         }
-        this.on_change = new Subject();
+        Terrain view = new Terrain(new RegionTileStorage(this.tiles, region, this.storage_type), this.storage_type);
+        view.sea_level = this.sea_level;
+        return view;
+    }
+    
+    /**
+     * Return true if copying this terrain is cheap, the copy and the source share the data until modified.
+     * <p>
+     * The column, chunked and float storages are copy-on-write in pages of CHUNK_SIZE * CHUNK_SIZE tiles,
+     * so a copy costs only the pages modified afterwards.
+     * 
+     * @return True if the storage is copy-on-write.
+     */
+    public boolean isCopyOnWrite() {
+        return this.tiles.isCopyOnWrite();
     }
 
     /**
@@ -83,6 +219,24 @@ public class Terrain implements Iterable<Tile> {
     public Iterator<Tile> iterator() {
         return this.tiles.iterator();
     }
+    
+    /**
+     * Return a spliterator over all the tiles in row-major order, it splits the tiles at the row boundaries.
+     * @return The spliterator.
+     */
+    @Override
+    public Spliterator<Tile> spliterator() {
+        return new TileSpliterator(this.tiles, 0, this.tiles.size());
+    }
+    
+    /**
+     * Return the parallel streams and the region locks of this terrain.
+     * 
+     * @return The concurrency helper of this terrain.
+     */
+    public TerrainConcurrency getConcurrency() {
+        return this.concurrency;
+    }
 
     /**
      * Register an observer to be called whenever this terrain object is changed.
@@ -95,9 +249,15 @@ public class Terrain implements Iterable<Tile> {
     
     /**
      * Cause all the onChange listeners to be called.
+     * <p>
+     * The listeners receive the bounding rectangle of the chunks modified since the previous call,
+     * the rectangle is empty if nothing was modified. The call does nothing while any region is locked,
+     * the changes are reported by the first call after all the regions are released.
      */
     public void changed() {
-        this.on_change.notifyObservers();
+        if (!this.concurrency.isAnyLocked()) {
+            this.on_change.notifyObservers(this.changes.takeChangedRegion());
+        }
     }
     
     public int getWidth() {
@@ -112,14 +272,14 @@ public class Terrain implements Iterable<Tile> {
         if (!this.tiles.isValidPosition(x, y)) {
             return null;
         }
-        return this.tiles.get(x, y);
+        return this.tiles.getTile(this.tiles.getIndex(x, y));
     }
     
     public Tile getTile(Position position) {
         if (!this.tiles.isValidPosition(position)) {
             return null;
         }
-        return this.tiles.get(position);
+        return this.getTile(position.getX(), position.getY());
     }
     
     public double getSeaLevel() {
@@ -127,27 +287,34 @@ public class Terrain implements Iterable<Tile> {
     }
     
     public void setSeaLevel(double sea_level) {
-        // If the new sea level is lower, remove all current sea first:
-        if (sea_level < this.sea_level) {
-            for (var tile : this.tiles) {
-                if (tile.getAltitude(true) <= this.sea_level) {
-                    tile.setWater(-1);
-                }
-            }
-        }
+        // If the new sea level is lower, all current sea is removed first, see TileStorage.applySeaLevel():
+        double old_level = this.sea_level;
         this.sea_level = sea_level;
-        if (this.sea_level > 0.0) {
-            for (var tile : this.tiles) {
-                final double water = this.sea_level - tile.getAltitude(false);
-                if (water > 0.0) {
-                    tile.setWater(water);
-                }
-            }
-        }
+        Parallel.run(() -> this.concurrency.rowBands().forEach(band -> this.tiles.applySeaLevel(band, old_level, sea_level)));
+    }
+    
+    /**
+     * Return the storage engine used by this terrain.
+     * @return The storage type.
+     */
+    public StorageType getStorageType() {
+        return this.storage_type;
+    }
+    
+    /**
+     * Write any pending changes to the backing file of a memory-mapped terrain.
+     * <p>
+     * Does nothing for terrains not stored in a file.
+     */
+    public void flush() {
+        this.tiles.flush();
     }
     
     /**
      * Replace the tile at the given position.
+     * <p>
+     * With the COLUMNS storage, or when the tile belongs to such a terrain, the contents of the tile are copied into the terrain.
+     * 
      * @param position The position of the tile.
      * @param tile     The new tile for the given position.
      */
@@ -155,8 +322,7 @@ public class Terrain implements Iterable<Tile> {
         if (tile == null || !this.tiles.isValidPosition(position)) {
             throw new InvalidParameterException();
         }
-        this.tiles.set(position, tile);
-        tile.setPosition(position);
+        this.tiles.setTile(this.tiles.getIndex(position.getX(), position.getY()), tile);
         this.changed();
     }
 
@@ -182,27 +348,137 @@ public class Terrain implements Iterable<Tile> {
     
     /**
      * Returns a vector containing the minimum and maximum altitude of the terrain.
+     * <p>
+     * The range is maintained incrementally, see getStatistics().
      * 
      * @return Vector whose X -component contains the minimum altitude, and Y contains the maximum.
      */
     public Vector getAltitudeRange() {
-        double min = this.tiles.get(0).getAltitude(false);
-        double max = this.tiles.get(0).getAltitude(false);
-        
-        for (int i = 0; i < this.tiles.getWidth() * this.tiles.getLength(); i++) {
-            double alt = this.tiles.get(i).getAltitude(false);
-            if (alt < min) {
-                min = alt;
-            }
-            if (alt > max) {
-                max = alt;
-            }
+        return this.statistics.getRange();
+    }
+    
+    /**
+     * Return the altitude statistics of this terrain.
+     * <p>
+     * The statistics are updated when queried, only the chunks modified since the previous query are processed.
+     * 
+     * @return The statistics.
+     */
+    public TerrainStatistics getStatistics() {
+        return this.statistics;
+    }
+    
+    /**
+     * Return the min/max/average pyramid of the altitudes, for queries over rectangles.
+     * <p>
+     * The pyramid is created on the first call, and kept up to date afterwards.
+     * 
+     * @return The pyramid.
+     */
+    public synchronized AltitudePyramid getAltitudePyramid() {
+        if (this.pyramid == null) {
+            this.pyramid = new AltitudePyramid(this.tiles, this.changes);
         }
-        
-        return new Vector(min, max);
+        return this.pyramid;
     }
     
 
+    /**
+     * Fill the given array with the altitudes of all the tiles.
+     * <p>
+     * The altitude of the tile at (x, y) is stored at index x + y * width.
+     * 
+     * @param altitudes  The destination array, must hold at least width * length elements.
+     * @param with_water If true, the water is included in the altitudes.
+     */
+    public void getAltitudes(double[] altitudes, boolean with_water) {
+        this.tiles.checkArraySize(altitudes.length);
+        this.tiles.getAltitudes(altitudes, with_water);
+    }
+    
+    /**
+     * Fill the given array with the altitudes of all the tiles.
+     * <p>
+     * The altitude of the tile at (x, y) is stored at index x + y * width.
+     * 
+     * @param altitudes  The destination array, must hold at least width * length elements.
+     * @param with_water If true, the water is included in the altitudes.
+     */
+    public void getAltitudes(float[] altitudes, boolean with_water) {
+        this.tiles.checkArraySize(altitudes.length);
+        this.tiles.getAltitudes(altitudes, with_water);
+    }
+    
+    /**
+     * Fill the given array with the water depths of all the tiles.
+     * <p>
+     * The depth of the tile at (x, y) is stored at index x + y * width, tiles without water have zero depth.
+     * 
+     * @param depths The destination array, must hold at least width * length elements.
+     */
+    public void getWaterDepths(double[] depths) {
+        this.tiles.checkArraySize(depths.length);
+        this.tiles.getWaterDepths(depths);
+    }
+    
+    /**
+     * Adjust the top soil amounts of all the tiles, see applyAltitudeDeltas(Rectangle, double[]).
+     * 
+     * @param deltas The changes, the change for the tile at (x, y) at index x + y * width.
+     */
+    public void applyAltitudeDeltas(double[] deltas) {
+        this.applyAltitudeDeltas(new Rectangle(0, 0, this.getWidth(), this.getLength()), deltas);
+    }
+    
+    /**
+     * Adjust the top soil amounts of the tiles in the given rectangle.
+     * <p>
+     * The change for the tile at (area.getX() + dx, area.getY() + dy) is read from index dx + dy * area.getWidth(),
+     * and applied as with Tile.adjustTopSoilAmount().
+     * 
+     * @param area   The rectangle, must be inside the terrain.
+     * @param deltas The changes, must hold at least area.getWidth() * area.getLength() elements.
+     */
+    public void applyAltitudeDeltas(Rectangle area, double[] deltas) {
+        this.tiles.checkRectangle(area.getX(), area.getY(), area.getWidth(), area.getLength(), deltas.length);
+        this.tiles.applyAltitudeDeltas(area, deltas);
+    }
+    
+    /**
+     * Fill the given array with the altitudes of the tiles in the given rectangle.
+     * <p>
+     * The altitude of the tile at (x + dx, y + dy) is stored at index dx + dy * width.
+     * 
+     * @param x          The x-coordinate of the top-left corner of the rectangle.
+     * @param y          The y-coordinate of the top-left corner of the rectangle.
+     * @param width      The width of the rectangle.
+     * @param length     The length of the rectangle.
+     * @param altitudes  The destination array, must hold at least width * length elements.
+     * @param with_water If true, the water is included in the altitudes.
+     */
+    public void getAltitudes(int x, int y, int width, int length, double[] altitudes, boolean with_water) {
+        this.tiles.checkRectangle(x, y, width, length, altitudes.length);
+        this.tiles.getAltitudes(x, y, width, length, altitudes, with_water);
+    }
+    
+    /**
+     * Call the visitor for each chunk of the terrain.
+     * <p>
+     * The terrain is divided into chunks of CHUNK_SIZE x CHUNK_SIZE tiles, the chunks at the right and bottom
+     * edges are smaller if the terrain size is not a multiple of CHUNK_SIZE.
+     * Processing the terrain chunk by chunk keeps the neighborhoods of the tiles in the cache,
+     * especially with the CHUNKED storage.
+     * 
+     * @param visitor The visitor.
+     */
+    public void forEachChunk(ChunkVisitor visitor) {
+        for (int y = 0; y < this.getLength(); y += CHUNK_SIZE) {
+            for (int x = 0; x < this.getWidth(); x += CHUNK_SIZE) {
+                visitor.visit(x, y, Math.min(CHUNK_SIZE, this.getWidth() - x), Math.min(CHUNK_SIZE, this.getLength() - y));
+            }
+        }
+    }
+    
     /**
      * Raise the bottom soil layer so that it doesn't contain negative amounts.
      * <p>
@@ -212,20 +488,10 @@ public class Terrain implements Iterable<Tile> {
      * This method fixes the situation by adding to the bottom layer of all tiles.
      * 
      * All tools that have the potential to adjust the soil amounts with a negative amount must call this afterwards.
+     * <p>
+     * The tiles are processed in parallel if the storage allows it.
      */
     public void zeroBottomSoilLayer() {
-        double minamount = 0.0;
-        for (int i = 0; i < this.tiles.getWidth() * this.tiles.getLength(); i++) {
-            double amt = this.tiles.get(i).getBottomSoil().getAmount();
-            if (amt < minamount) {
-                minamount = amt;
-            }
-        }
-        if (minamount < 0.0) {
-            minamount = -minamount;
-            for (int i = 0; i < this.tiles.getWidth() * this.tiles.getLength(); i++) {
-                this.tiles.get(i).getBottomSoil().adjustAmount(minamount);
-            }
-        }
+        this.tiles.zeroBottomSoilLayer(this.tiles.isThreadSafe() ? MIN_PARALLEL_TILES : this.tiles.size());
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
+
+/**
+ * The parallel streams and the region locks of a terrain.
+ * <p>
+ * The streams are parallel when the storage of the terrain is thread safe and Parallel has more
+ * than one thread. Their terminal operations should be run with Parallel.run(), so they use the
+ * pool of Parallel and the thread count set on the command line applies to them.
+ * <p>
+ * The region locks let independent tools modify disjoint areas of the terrain concurrently,
+ * see ConcurrentTools and Tool.getFootprint().
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainConcurrency {
+    private final Terrain        terrain;
+    private final TileStorage    tiles;
+    private final ChunkOwnership ownership;
+    
+    TerrainConcurrency(Terrain terrain, TileStorage tiles, ChangeTracker changes) {
+        this.terrain   = terrain;
+        this.tiles     = tiles;
+        this.ownership = new ChunkOwnership(changes, tiles.getWidth(), tiles.getLength());
+    }
+    
+    /**
+     * Return true if the tiles of the terrain can be modified from multiple threads at the same time.
+     * <p>
+     * The memory-mapped storage is not thread safe.
+     * 
+     * @return True if the storage is thread safe.
+     */
+    public boolean isThreadSafe() {
+        return this.tiles.isThreadSafe();
+    }
+    
+    /**
+     * Return a stream over all the tiles.
+     * <p>
+     * The stream is parallel if the storage and Parallel allow it.
+     * Use Parallel.run() for the terminal operation.
+     * 
+     * @return The stream.
+     */
+    public Stream<Tile> parallelStream() {
+        return StreamSupport.stream(this.terrain.spliterator(), this.isParallel());
+    }
+    
+    /**
+     * Return a stream of bands of full rows covering the terrain.
+     * <p>
+     * Each band has at least Terrain.MIN_PARALLEL_TILES tiles, except when the terrain is smaller.
+     * The stream is parallel like parallelStream().
+     * 
+     * @return The stream of the bands.
+     */
+    public Stream<Rectangle> rowBands() {
+        int rows = Math.max(1, Terrain.MIN_PARALLEL_TILES / Math.max(this.tiles.getWidth(), 1));
+        return StreamSupport.stream(new RowBandSpliterator(this.tiles.getWidth(), 0, this.tiles.getLength(), rows), this.isParallel());
+    }
+    
+    /**
+     * Try to lock the given area, for modifying it concurrently with the other locked areas, see Tool.getFootprint().
+     * <p>
+     * The locks are taken per chunk of CHUNK_SIZE x CHUNK_SIZE tiles, so the areas touching the same chunk
+     * can not be locked at the same time. The call does not wait for the other locks.
+     * 
+     * @param area The area, it is clipped to the terrain.
+     * @return     The lock to close when done, or null if any of the chunks of the area is locked.
+     */
+    public RegionLock tryLock(Rectangle area) {
+        return this.ownership.tryLock(area);
+    }
+    
+    /**
+     * Return true if any area of the terrain is locked.
+     * 
+     * @return True if any area is locked.
+     */
+    boolean isAnyLocked() {
+        return this.ownership.isAnyLocked();
+    }
+    
+    private boolean isParallel() {
+        return this.tiles.isThreadSafe() && Parallel.getThreads() > 1;
+    }
+}
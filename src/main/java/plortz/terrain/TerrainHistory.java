@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo and redo history of a terrain, kept as terrain snapshots.
+ * <p>
+ * A snapshot of the terrain is saved before each modification.
+ * With copy-on-write storages a snapshot costs only the pages modified after it, see Terrain.isCopyOnWrite().
+ * Other storages would have to be copied fully before every modification, so their history is kept only
+ * if full copies have been enabled with setFullCopies(), and the terrain has at most MAX_FULL_COPY_TILES tiles.
+ * Memory-mapped terrains are never copied, a copy would be a new temporary file of the same size.
+ * When a snapshot is not saved, the history is cleared.
+ * <p>
+ * The snapshots are held through soft references, so the garbage collector can release the oldest
+ * snapshots when the memory is running low. The history ends at the first released snapshot.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainHistory {
+    /**
+     * The maximum number of undo levels.
+     */
+    public static final int MAX_SNAPSHOTS = 20;
+    
+    /**
+     * The maximum number of tiles in a terrain that is not copy-on-write for the snapshots to be saved.
+     */
+    public static final int MAX_FULL_COPY_TILES = 1024 * 1024;
+    
+    private final Deque<SoftReference<Terrain>> undo;
+    private final Deque<SoftReference<Terrain>> redo;
+    private boolean                             full_copies;
+    
+    public TerrainHistory() {
+        this.undo        = new ArrayDeque<>();
+        this.redo        = new ArrayDeque<>();
+        this.full_copies = false;
+    }
+    
+    /**
+     * Set whether the terrains that are not copy-on-write are copied fully for the history.
+     * 
+     * @param full_copies True to copy the terrains of at most MAX_FULL_COPY_TILES tiles, false to keep no history for them.
+     */
+    public void setFullCopies(boolean full_copies) {
+        this.full_copies = full_copies;
+    }
+    
+    /**
+     * Return true if the terrains that are not copy-on-write are copied fully for the history.
+     * 
+     * @return True if full copies are enabled.
+     */
+    public boolean getFullCopies() {
+        return this.full_copies;
+    }
+    
+    /**
+     * Save a snapshot of the terrain before it is modified.
+     * <p>
+     * Clears the redo history. If the terrain can not be copied cheaply and full copies are not allowed for it,
+     * the whole history is cleared instead, as the older snapshots could not be returned to.
+     * 
+     * @param terrain The terrain, may be null.
+     */
+    public void saveCopy(Terrain terrain) {
+        if (terrain != null && !this.canCopy(terrain)) {
+            this.clear();
+            return;
+        }
+        this.save(terrain == null ? null : new Terrain(terrain));
+    }
+    
+    private boolean canCopy(Terrain terrain) {
+        if (terrain.isCopyOnWrite()) {
+            return true;
+        }
+        if (!this.full_copies || terrain.getStorageType() == Terrain.StorageType.MAPPED) {
+            return false;
+        }
+        return (long) terrain.getWidth() * terrain.getLength() <= MAX_FULL_COPY_TILES;
+    }
+    
+    /**
+     * Save the terrain before it is replaced with another terrain.
+     * <p>
+     * The terrain is saved as is, so it must not be modified afterwards. Clears the redo history.
+     * 
+     * @param terrain The terrain, may be null in which case only the redo history is cleared.
+     */
+    public void save(Terrain terrain) {
+        this.redo.clear();
+        if (terrain == null) {
+            return;
+        }
+        push(this.undo, terrain);
+        while (this.undo.size() > MAX_SNAPSHOTS) {
+            this.undo.removeLast();
+        }
+    }
+    
+    /**
+     * Return the terrain before the last modification, and save the current terrain for redo.
+     * 
+     * @param current The current terrain.
+     * @return        The previous terrain, or null if there is nothing to undo.
+     */
+    public Terrain undo(Terrain current) {
+        return move(this.undo, this.redo, current);
+    }
+    
+    /**
+     * Return the terrain undone last, and save the current terrain for undo.
+     * 
+     * @param current The current terrain.
+     * @return        The next terrain, or null if there is nothing to redo.
+     */
+    public Terrain redo(Terrain current) {
+        return move(this.redo, this.undo, current);
+    }
+    
+    /**
+     * Return true if there is something to undo.
+     * 
+     * @return True if undo() would return a terrain.
+     */
+    public boolean canUndo() {
+        return peek(this.undo) != null;
+    }
+    
+    /**
+     * Return true if there is something to redo.
+     * 
+     * @return True if redo() would return a terrain.
+     */
+    public boolean canRedo() {
+        return peek(this.redo) != null;
+    }
+    
+    /**
+     * Remove all the snapshots.
+     */
+    public void clear() {
+        this.undo.clear();
+        this.redo.clear();
+    }
+    
+    private static void push(Deque<SoftReference<Terrain>> stack, Terrain terrain) {
+        stack.push(new SoftReference<>(terrain));
+    }
+    
+    /**
+     * Return the top-most terrain of the stack, the stack is cleared if the snapshot has been released.
+     */
+    private static Terrain peek(Deque<SoftReference<Terrain>> stack) {
+        SoftReference<Terrain> top = stack.peek();
+        if (top == null) {
+            return null;
+        }
+        Terrain terrain = top.get();
+        if (terrain == null) {
+            stack.clear();
+        }
+        return terrain;
+    }
+    
+    private static Terrain move(Deque<SoftReference<Terrain>> from, Deque<SoftReference<Terrain>> to, Terrain current) {
+        Terrain terrain = peek(from);
+        if (terrain == null) {
+            return null;
+        }
+        from.pop();
+        push(to, current);
+        return terrain;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Vector;
+
+/**
+ * Altitude statistics of a terrain, maintained incrementally.
+ * <p>
+ * The statistics are kept per chunk, and only the chunks modified since the previous query are
+ * calculated again, so a query after a small change costs a pass over the chunks instead of the tiles.
+ * The totals are combined from the chunks with the parallel variance formula of Chan et al.,
+ * which keeps the variance accurate also for terrains far above zero.
+ * <p>
+ * The altitudes do not include the water.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainStatistics {
+    private final TileStorage   tiles;
+    private final ChangeTracker changes;
+    private final int           consumer;
+    private final double[]      buffer;
+    // Per chunk statistics, indexed by ChangeTracker.getChunkIndex():
+    private final int[]         chunk_count;
+    private final double[]      chunk_min;
+    private final double[]      chunk_max;
+    private final double[]      chunk_mean;
+    private final double[]      chunk_m2;    // The sum of the squared differences from the mean.
+    // Totals:
+    private double              min;
+    private double              max;
+    private double              mean;
+    private double              m2;
+    
+    TerrainStatistics(TileStorage tiles, ChangeTracker changes) {
+        this.tiles       = tiles;
+        this.changes     = changes;
+        this.consumer    = changes.addConsumer();
+        this.buffer      = new double[Terrain.CHUNK_SIZE * Terrain.CHUNK_SIZE];
+        this.chunk_count = new int[changes.getChunkCount()];
+        this.chunk_min   = new double[this.chunk_count.length];
+        this.chunk_max   = new double[this.chunk_count.length];
+        this.chunk_mean  = new double[this.chunk_count.length];
+        this.chunk_m2    = new double[this.chunk_count.length];
+    }
+    
+    /**
+     * Return the lowest altitude.
+     * 
+     * @return The lowest altitude.
+     */
+    public synchronized double getMin() {
+        this.update();
+        return this.min;
+    }
+    
+    /**
+     * Return the highest altitude.
+     * 
+     * @return The highest altitude.
+     */
+    public synchronized double getMax() {
+        this.update();
+        return this.max;
+    }
+    
+    /**
+     * Return the lowest and the highest altitude.
+     * 
+     * @return Vector whose X -component contains the minimum altitude, and Y contains the maximum.
+     */
+    public synchronized Vector getRange() {
+        this.update();
+        return new Vector(this.min, this.max);
+    }
+    
+    /**
+     * Return the average altitude.
+     * 
+     * @return The average altitude.
+     */
+    public synchronized double getMean() {
+        this.update();
+        return this.mean;
+    }
+    
+    /**
+     * Return the (population) variance of the altitudes.
+     * 
+     * @return The variance.
+     */
+    public synchronized double getVariance() {
+        this.update();
+        return this.tiles.size() > 0 ? this.m2 / this.tiles.size() : 0.0;
+    }
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(this.getVariance());
+    }
+    
+    /**
+     * Calculate the statistics of the changed chunks, and the totals if any chunk changed.
+     */
+    private void update() {
+        boolean[] changed = { false };
+        this.changes.forEachChanged(this.consumer, (x, y, width, length) -> {
+            this.updateChunk(this.changes.getChunkIndex(x, y), x, y, width, length);
+            changed[0] = true;
+        });
+        if (changed[0]) {
+            this.updateTotals();
+        }
+    }
+    
+    private void updateChunk(int chunk, int x, int y, int width, int length) {
+        int count = width * length;
+        this.tiles.getAltitudes(x, y, width, length, this.buffer, false);
+        double cmin = this.buffer[0];
+        double cmax = this.buffer[0];
+        double sum  = 0.0;
+        for (int i = 0; i < count; i++) {
+            cmin = Math.min(cmin, this.buffer[i]);
+            cmax = Math.max(cmax, this.buffer[i]);
+            sum += this.buffer[i];
+        }
+        double cmean = sum / count;
+        double cm2   = 0.0;
+        for (int i = 0; i < count; i++) {
+            double d = this.buffer[i] - cmean;
+            cm2 += d * d;
+        }
+        this.chunk_count[chunk] = count;
+        this.chunk_min[chunk]   = cmin;
+        this.chunk_max[chunk]   = cmax;
+        this.chunk_mean[chunk]  = cmean;
+        this.chunk_m2[chunk]    = cm2;
+    }
+    
+    private void updateTotals() {
+        long count = 0;
+        this.min  = Double.POSITIVE_INFINITY;
+        this.max  = Double.NEGATIVE_INFINITY;
+        this.mean = 0.0;
+        this.m2   = 0.0;
+        for (int i = 0; i < this.chunk_count.length; i++) {
+            long   total = count + this.chunk_count[i];
+            double delta = this.chunk_mean[i] - this.mean;
+            this.mean += delta * this.chunk_count[i] / total;
+            this.m2   += this.chunk_m2[i] + delta * delta * count * this.chunk_count[i] / total;
+            this.min   = Math.min(this.min, this.chunk_min[i]);
+            this.max   = Math.max(this.max, this.chunk_max[i]);
+            count = total;
+        }
+    }
+}
@@ -16,20 +16,29 @@
  */
 package plortz.terrain;
 
-import java.util.ArrayList;
 import plortz.util.Position;
-import java.util.List;
 import plortz.util.Vector;
 
 /**
  * A single tile in the Terrain.
+ * <p>
+ * The soil layer rules are implemented on top of a small set of package-private layer accessors,
+ * so that the packed terrain storages can present their data as lightweight Tile views
+ * by overriding only those accessors.
+ * <p>
+ * The soil layers are kept in a compact SoilLayerStack, the SoilLayer objects returned
+ * by the tile are lightweight views into the stack.
+ * The altitude (the sum of the soil layers) is cached, and updated whenever a soil layer changes.
+ * A tile belonging to a terrain reports its changes to the change tracker of the terrain.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class Tile {
-    private final List<SoilLayer> soil_layers;
-    private double                water_height; // The depth of the water in this tile, the surface of the water is at surface_level + water_height.
-    private final Position        position;
+    private final SoilLayerStack soil_layers;
+    private double               altitude;     // The sum of the soil layers, maintained by updateAltitude().
+    private double               water_height; // The depth of the water in this tile, the surface of the water is at surface_level + water_height.
+    private final Position       position;
+    private ChangeTracker        changes;
     
     /**
      * Constructor.
@@ -38,10 +47,11 @@ public class Tile {
      * @param amount   The amount of soil in the initial bottom layer.
      */
     public Tile(Position position, SoilLayer.Type type, double amount) {
-        this.soil_layers  = new ArrayList<>();
-        this.soil_layers.add(new SoilLayer(type, amount));
+        this.soil_layers  = new SoilLayerStack(type, amount);
         this.water_height = -1;
         this.position     = new Position(position);
+        this.changes      = null;
+        this.updateAltitude();
     }
     
     /**
@@ -49,33 +59,120 @@ public class Tile {
      * @param source The source tile to copy from.
      */
     public Tile(Tile source) {
-        this.soil_layers = new ArrayList<>();
-        for (SoilLayer layer : source.soil_layers) {
-            this.soil_layers.add(new SoilLayer(layer));
+        this.soil_layers = new SoilLayerStack(source.getLayerType(0), source.getLayerAmount(0));
+        for (int i = 1; i < source.getLayerCount(); i++) {
+            this.soil_layers.insert(i, source.getLayerType(i), source.getLayerAmount(i));
         }
-        this.water_height = source.water_height;
-        this.position     = new Position(source.position);
+        this.updateAltitude();
+        this.water_height = source.getWater();
+        this.position     = new Position(source.getPosition());
+        this.changes      = null;
+    }
+    
+    /**
+     * Constructor for the views into packed storages, the view must override all the data accessors.
+     */
+    Tile() {
+        this.soil_layers  = null;
+        this.water_height = -1;
+        this.position     = null;
+        this.changes      = null;
     }
     
     @Override
     public String toString() {
-        return "Tile[position=" + this.position + "]";
+        return "Tile[position=" + this.getPosition() + "]";
+    }
+    
+    /**
+     * Return the number of soil layers, always at least one.
+     * @return The number of soil layers.
+     */
+    int getLayerCount() {
+        return this.soil_layers.size();
+    }
+    
+    SoilLayer.Type getLayerType(int layer) {
+        return this.soil_layers.getType(layer);
+    }
+    
+    double getLayerAmount(int layer) {
+        return this.soil_layers.getAmount(layer);
+    }
+    
+    void setLayerAmount(int layer, double amount) {
+        this.soil_layers.setAmount(layer, amount);
+        this.updateAltitude();
+        this.markChanged();
+    }
+    
+    /**
+     * Insert a new layer, the layers at and above the given index are moved up.
+     * @param layer  The index of the new layer.
+     * @param type   The soil type of the new layer.
+     * @param amount The amount of soil in the new layer.
+     */
+    void insertLayer(int layer, SoilLayer.Type type, double amount) {
+        this.soil_layers.insert(layer, type, amount);
+        this.updateAltitude();
+        this.markChanged();
+    }
+    
+    void removeTopLayer() {
+        this.soil_layers.removeTop();
+        this.updateAltitude();
+        this.markChanged();
+    }
+    
+    /**
+     * Set the change tracker of the terrain this tile belongs to.
+     * 
+     * @param changes The tracker, or null.
+     */
+    void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+    
+    private void markChanged() {
+        if (this.changes != null) {
+            this.changes.markChanged(this.position.getX(), this.position.getY());
+        }
+    }
+    
+    /**
+     * Recalculate the cached altitude.
+     * <p>
+     * Called whenever any of the soil layers change.
+     * The whole sum is recalculated instead of adjusting the previous value,
+     * so the cached value is always exactly the same as the sum of the layers.
+     */
+    private void updateAltitude() {
+        this.altitude = this.soil_layers.getSum();
     }
     
     /**
      * Get the top-most soil layer.
+     * <p>
+     * The layer is a view into the tile referring to the layer by its index,
+     * after a layer has been inserted below it or the top layer has been replaced
+     * it refers to the layer now at that index.
+     * 
      * @return The top-most soil layer.
      */
     public SoilLayer getTopSoil() {
-        return this.soil_layers.get(this.soil_layers.size() - 1);
+        return new TileSoilLayer(this, this.getLayerCount() - 1);
     }
     
     /**
      * Get the bottom soil layer.
+     * <p>
+     * The layer is a view into the tile, after a layer has been inserted
+     * at the bottom it refers to the new bottom layer.
+     * 
      * @return The bottom soil layer.
      */
     public SoilLayer getBottomSoil() {
-        return this.soil_layers.get(0);
+        return new TileSoilLayer(this, 0);
     }
     
     /**
@@ -104,10 +201,7 @@ public class Tile {
      * @return           The total altitude of this tile.
      */
     public double getAltitude(boolean with_water) {
-        double alt = 0.0;
-        for (SoilLayer layer : this.soil_layers) {
-            alt += layer.getAmount();
-        }
+        double alt = this.altitude;
         if (with_water && this.water_height > 0.0) {
             alt += this.water_height;
         }
@@ -123,14 +217,11 @@ public class Tile {
      * @param amount The new soil amount.
      */
     public void setTopSoilAmount(double amount) {
-        if (amount > 0.0) {
-            this.getTopSoil().setAmount(amount);
+        int top = this.getLayerCount() - 1;
+        if (amount > 0.0 || top == 0) {
+            this.setLayerAmount(top, amount);
         } else {
-            if (this.soil_layers.size() == 1) {
-                this.getTopSoil().setAmount(amount);
-            } else {
-                this.soil_layers.remove(this.soil_layers.size() - 1);
-            }
+            this.removeTopLayer();
         }
     }
     
@@ -139,7 +230,7 @@ public class Tile {
      * @param change How much to change.
      */
     public void adjustTopSoilAmount(double change) {
-        this.setTopSoilAmount(this.getTopSoil().getAmount() + change);
+        this.setTopSoilAmount(this.getLayerAmount(this.getLayerCount() - 1) + change);
     }
     
 
@@ -155,11 +246,11 @@ public class Tile {
         if (amount <= 0.0) {
             throw new IllegalArgumentException();
         }
-        SoilLayer top = this.getTopSoil();
-        if (top.getType() == type) {
-            top.adjustAmount(amount);
+        int top = this.getLayerCount() - 1;
+        if (this.getLayerType(top) == type) {
+            this.setLayerAmount(top, this.getLayerAmount(top) + amount);
         } else {
-            this.soil_layers.add(new SoilLayer(type, amount));
+            this.insertLayer(top + 1, type, amount);
         }
     }
     
@@ -176,19 +267,17 @@ public class Tile {
         if (amount <= 0.0) {
             throw new IllegalArgumentException();
         }
-        if (layer < 0 || layer > this.soil_layers.size()) {
+        if (layer < 0 || layer > this.getLayerCount()) {
             throw new IndexOutOfBoundsException();
         }
-        if (layer == this.soil_layers.size()) { // Inserting at top is same as adding
+        if (layer == this.getLayerCount()) { // Inserting at top is same as adding
             this.addSoil(type, amount);
             return;
         }
-        SoilLayer soil = this.soil_layers.get(layer);
-        if (soil.getType() == type) {
-            soil.adjustAmount(amount);
+        if (this.getLayerType(layer) == type) {
+            this.setLayerAmount(layer, this.getLayerAmount(layer) + amount);
         } else {
-            soil = new SoilLayer(type, amount);
-            this.soil_layers.add(layer, soil);
+            this.insertLayer(layer, type, amount);
         }
     }
     
@@ -200,9 +289,9 @@ public class Tile {
         if (factor <= 0) {
             throw new IllegalArgumentException();
         }
-        this.soil_layers.forEach((SoilLayer layer) ->
-                layer.setAmount(layer.getAmount() * factor)
-        );
+        for (int i = 0; i < this.getLayerCount(); i++) {
+            this.setLayerAmount(i, this.getLayerAmount(i) * factor);
+        }
     }
 
     /**
@@ -217,15 +306,17 @@ public class Tile {
      */
     public void setWater(double water_height) {
         this.water_height = water_height;
+        this.markChanged();
     }
     
     public void adjustWater(double amount) {
-        if (this.water_height < 0.0) {
+        double water = this.getWater();
+        if (water < 0.0) {
             if (amount > 0.0) {
-                this.water_height = amount;
+                this.setWater(amount);
             }
         } else {
-            this.water_height += amount;
+            this.setWater(water + amount);
         }
     }
     
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+/**
+ * Lightweight SoilLayer view into a layer of a Tile.
+ * <p>
+ * The tiles do not hold SoilLayer objects, the layers returned by the tiles are views,
+ * all the reads and writes go directly to the tile.
+ * The view refers to the layer by its index counting from the bottom, not by identity.
+ * Adding soil on top of the tile does not affect a view, but after a layer has been
+ * inserted below it, the view refers to the layer that moved to its index. Likewise,
+ * if the top layer is removed and a new layer added, a view of the removed layer
+ * refers to the new top layer.
+ * <p>
+ * While there is no layer at the index of the view, the view acts like the removed
+ * layer: it has no soil left and the writes to it are ignored.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class TileSoilLayer extends SoilLayer {
+    private final Tile tile;
+    private final int  layer;
+    
+    TileSoilLayer(Tile tile, int layer) {
+        super(tile.getLayerType(layer), 0.0);
+        this.tile  = tile;
+        this.layer = layer;
+    }
+
+    @Override
+    public Type getType() {
+        if (this.isRemoved()) {
+            return super.getType();
+        }
+        return this.tile.getLayerType(this.layer);
+    }
+
+    @Override
+    public double getAmount() {
+        if (this.isRemoved()) {
+            return 0.0;
+        }
+        return this.tile.getLayerAmount(this.layer);
+    }
+
+    @Override
+    public void setAmount(double amount) {
+        if (this.isRemoved()) {
+            return;
+        }
+        this.tile.setLayerAmount(this.layer, amount);
+    }
+
+    @Override
+    public void adjustAmount(double adjustment) {
+        this.setAmount(this.getAmount() + adjustment);
+    }
+    
+    private boolean isRemoved() {
+        return this.layer >= this.tile.getLayerCount();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof TileSoilLayer)) {
+            return false;
+        }
+        TileSoilLayer other = (TileSoilLayer) obj;
+        return this.tile.equals(other.tile) && this.layer == other.layer;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.tile.hashCode() * 31 + this.layer;
+    }
+}
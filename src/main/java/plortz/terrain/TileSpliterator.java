@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the tiles of a storage in row-major order, see TerrainConcurrency.parallelStream().
+ * <p>
+ * The range of positions is split in halves at the row boundaries, so each part processes whole rows
+ * and the parts stay in separate chunks of the CHUNKED storage as far as possible.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+class TileSpliterator implements Spliterator<Tile> {
+    private static final int MIN_SPLIT_TILES = 4096; // Smaller ranges are not split, the overhead would exceed the work.
+    
+    private final TileStorage tiles;
+    private int               position; // The next position, x + y * width.
+    private final int         end;
+    
+    /**
+     * Constructor.
+     * 
+     * @param tiles The storage.
+     * @param start The first position, x + y * width.
+     * @param end   The position after the last position.
+     */
+    TileSpliterator(TileStorage tiles, int start, int end) {
+        this.tiles    = tiles;
+        this.position = start;
+        this.end      = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Tile> action) {
+        if (this.position >= this.end) {
+            return false;
+        }
+        action.accept(this.getTile(this.position));
+        this.position++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Tile> action) {
+        int width = this.tiles.getWidth();
+        int x     = this.position % width;
+        int y     = this.position / width;
+        for (int i = this.position; i < this.end; i++) {
+            action.accept(this.tiles.getTile(this.tiles.getIndex(x, y)));
+            x++;
+            if (x == width) {
+                x = 0;
+                y++;
+            }
+        }
+        this.position = this.end;
+    }
+    
+    private Tile getTile(int position) {
+        int width = this.tiles.getWidth();
+        return this.tiles.getTile(this.tiles.getIndex(position % width, position / width));
+    }
+
+    @Override
+    public Spliterator<Tile> trySplit() {
+        int remaining = this.end - this.position;
+        if (remaining < 2 * MIN_SPLIT_TILES) {
+            return null;
+        }
+        int width  = this.tiles.getWidth();
+        int middle = this.position + remaining / 2;
+        if (remaining >= 2 * width) {
+            middle -= middle % width;
+        }
+        Spliterator<Tile> first = new TileSpliterator(this.tiles, this.position, middle);
+        this.position = middle;
+        return first;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.end - this.position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Iterator;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
+import plortz.util.Position;
+
+/**
+ * Storage engine holding the tile data of a terrain.
+ * <p>
+ * The tiles are addressed by index, the indices run from 0 to size() - 1 and getIndex()
+ * returns the index of a tile at (x, y). The order is decided by the storage, by default
+ * the tiles are in row-major order.
+ * Besides returning the tiles, the storage provides index based access to the
+ * individual fields of the tiles, which allows the terrain to work on the data
+ * without going through Tile objects.
+ * <p>
+ * The bulk methods reading the data into arrays always use row-major order.
+ * <p>
+ * All the writes are reported to the change tracker of the storage, if it has one.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+abstract class TileStorage implements Iterable<Tile> {
+    private final int     width;
+    private final int     length;
+    private ChangeTracker changes;
+    
+    TileStorage(int width, int length) {
+        this.width   = width;
+        this.length  = length;
+        this.changes = null;
+    }
+    
+    /**
+     * Create a new storage of the given type.
+     * 
+     * @param width        Width (x-axis).
+     * @param length       Length (y-axis).
+     * @param bottom_layer The soil type of the bottom layer.
+     * @param storage_type The storage engine to use.
+     * @return             The new storage.
+     */
+    static TileStorage create(int width, int length, SoilLayer.Type bottom_layer, Terrain.StorageType storage_type) {
+        switch (storage_type) {
+            case COLUMNS:
+                return new ColumnTileStorage(width, length, bottom_layer);
+            case CHUNKED:
+                return new ChunkedTileStorage(width, length, bottom_layer);
+            case FLOAT:
+                return new FloatColumnTileStorage(width, length, bottom_layer);
+            case MAPPED:
+                return MappedTileStorage.createTemporary(width, length, bottom_layer);
+            default:
+                return new ObjectTileStorage(width, length, bottom_layer);
+        }
+    }
+    
+    /**
+     * Set the change tracker receiving the positions of the modified tiles.
+     * <p>
+     * The copies of the storage do not share the tracker.
+     * 
+     * @param changes The tracker, or null to stop tracking.
+     */
+    void setChangeTracker(ChangeTracker changes) {
+        this.changes = changes;
+    }
+    
+    ChangeTracker getChangeTracker() {
+        return this.changes;
+    }
+    
+    /**
+     * Report the tile at the given index as modified, called by the implementations on every write.
+     * 
+     * @param index The index of the tile.
+     */
+    protected void markChanged(int index) {
+        if (this.changes != null) {
+            this.changes.markChanged(index % this.width, index / this.width);
+        }
+    }
+    
+    public int getWidth() {
+        return this.width;
+    }
+    
+    public int getLength() {
+        return this.length;
+    }
+    
+    /**
+     * Return the number of tiles in this storage.
+     * 
+     * @return The number of tiles.
+     */
+    public int size() {
+        return this.width * this.length;
+    }
+    
+    /**
+     * Throw IllegalArgumentException if an array of the given size can not hold a value for every tile.
+     * 
+     * @param size The size of the array.
+     */
+    void checkArraySize(int size) {
+        if (size < this.size()) {
+            throw new IllegalArgumentException("Array is too small for the terrain.");
+        }
+    }
+    
+    /**
+     * Throw IndexOutOfBoundsException if the rectangle is not inside the storage,
+     * and IllegalArgumentException if an array of the given size can not hold a value for every tile of it.
+     */
+    void checkRectangle(int x, int y, int width, int length, int size) {
+        if (x < 0 || y < 0 || width < 0 || length < 0 || x + width > this.width || y + length > this.length) {
+            throw new IndexOutOfBoundsException("The rectangle is not inside the terrain.");
+        }
+        if (size < width * length) {
+            throw new IllegalArgumentException("Array is too small for the rectangle.");
+        }
+    }
+    
+    public boolean isValidPosition(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.length;
+    }
+    
+    public boolean isValidPosition(Position position) {
+        if (position == null) {
+            return false;
+        }
+        return this.isValidPosition(position.getX(), position.getY());
+    }
+    
+    /**
+     * Return the index of the tile at the given position.
+     * <p>
+     * The order of the tiles in the index space is decided by the storage,
+     * by default the index of a tile at (x, y) is x + y * width.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The index.
+     */
+    public int getIndex(int x, int y) {
+        return x + y * this.width;
+    }
+    
+    /**
+     * Return the position of the tile at the given index, the reverse of getIndex().
+     * 
+     * @param index The index of the tile.
+     * @return      The position of the tile.
+     */
+    public Position getPosition(int index) {
+        return new Position(index % this.width, index / this.width);
+    }
+    
+    /**
+     * Return an iterator over the tiles, the tiles are returned in row-major order regardless of the index order.
+     * 
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<Tile> iterator() {
+        return new Iterator<Tile>() {
+            private int x = 0;
+            private int y = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return y < length && width > 0;
+            }
+            
+            @Override
+            public Tile next() {
+                Tile t = getTile(getIndex(x, y));
+                x++;
+                if (x >= width) {
+                    x = 0;
+                    y++;
+                }
+                return t;
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("not supported");
+            }
+        };
+    }
+    
+    /**
+     * Return a deep copy of this storage.
+     * 
+     * @return The copy.
+     */
+    public abstract TileStorage copy();
+    
+    /**
+     * Return true if copy() is copy-on-write, so that copying is cheap.
+     * 
+     * @return True if the copies share the data until modified.
+     */
+    public boolean isCopyOnWrite() {
+        return false;
+    }
+    
+    /**
+     * Write any pending changes to the backing store, if the storage has one.
+     */
+    public void flush() {
+    }
+    
+    /**
+     * Return true if different tiles can be read and modified from multiple threads at the same time.
+     * 
+     * @return True if the tiles can be processed in parallel.
+     */
+    public boolean isThreadSafe() {
+        return true;
+    }
+    
+    /**
+     * Return the tile at the given index, does not check the validity of the index.
+     * <p>
+     * Depending on the storage, the returned tile is either the stored object,
+     * or a lightweight view into the storage.
+     * 
+     * @param index The index of the tile.
+     * @return      The tile.
+     */
+    public abstract Tile getTile(int index);
+    
+    /**
+     * Replace the tile at the given index.
+     * <p>
+     * Storages not holding Tile objects copy the contents of the given tile.
+     * 
+     * @param index The index of the tile.
+     * @param tile  The new tile.
+     */
+    public abstract void setTile(int index, Tile tile);
+    
+    public abstract int getLayerCount(int index);
+    
+    public abstract SoilLayer.Type getLayerType(int index, int layer);
+    
+    public abstract double getLayerAmount(int index, int layer);
+    
+    public abstract void setLayerAmount(int index, int layer, double amount);
+    
+    /**
+     * Insert a new soil layer for the tile, the layers at and above the given layer are moved up.
+     * 
+     * @param index  The index of the tile.
+     * @param layer  The index of the new layer.
+     * @param type   The soil type of the new layer.
+     * @param amount The amount of soil in the new layer.
+     */
+    public abstract void insertLayer(int index, int layer, SoilLayer.Type type, double amount);
+    
+    public abstract void removeTopLayer(int index);
+    
+    public abstract double getWater(int index);
+    
+    public abstract void setWater(int index, double water);
+    
+    /**
+     * Return the total altitude of the tile.
+     * 
+     * @param index      The index of the tile.
+     * @param with_water If true, the water is included.
+     * @return           The total altitude.
+     */
+    public double getAltitude(int index, boolean with_water) {
+        double alt = 0.0;
+        for (int i = 0; i < this.getLayerCount(index); i++) {
+            alt += this.getLayerAmount(index, i);
+        }
+        double water = this.getWater(index);
+        if (with_water && water > 0.0) {
+            alt += water;
+        }
+        return alt;
+    }
+    
+    /**
+     * Adjust the amount of soil in the top soil layer of the tile, see Tile.adjustTopSoilAmount().
+     * 
+     * @param index  The index of the tile.
+     * @param change The amount to add, can be negative.
+     */
+    public void adjustTopSoilAmount(int index, double change) {
+        this.getTile(index).adjustTopSoilAmount(change);
+    }
+    
+    /**
+     * Fill the given array with the altitudes of all the tiles, in row-major order.
+     * 
+     * @param altitudes  The destination, must hold at least size() elements.
+     * @param with_water If true, the water is included.
+     */
+    public void getAltitudes(double[] altitudes, boolean with_water) {
+        this.getAltitudes(0, 0, this.width, this.length, altitudes, with_water);
+    }
+    
+    /**
+     * Fill the given array with the altitudes of the tiles in the given rectangle, in row-major order.
+     * <p>
+     * The rectangle must be inside the storage, the altitude of the tile at (x + dx, y + dy)
+     * is stored at dx + dy * width.
+     * 
+     * @param x          The x-coordinate of the top-left corner.
+     * @param y          The y-coordinate of the top-left corner.
+     * @param width      The width of the rectangle.
+     * @param length     The length of the rectangle.
+     * @param altitudes  The destination, must hold at least width * length elements.
+     * @param with_water If true, the water is included.
+     */
+    public void getAltitudes(int x, int y, int width, int length, double[] altitudes, boolean with_water) {
+        for (int dy = 0; dy < length; dy++) {
+            for (int dx = 0; dx < width; dx++) {
+                altitudes[dx + dy * width] = this.getAltitude(this.getIndex(x + dx, y + dy), with_water);
+            }
+        }
+    }
+    
+    /**
+     * Fill the given array with the altitudes of all the tiles, in row-major order.
+     * 
+     * @param altitudes  The destination, must hold at least size() elements.
+     * @param with_water If true, the water is included.
+     */
+    public void getAltitudes(float[] altitudes, boolean with_water) {
+        for (int y = 0; y < this.length; y++) {
+            for (int x = 0; x < this.width; x++) {
+                altitudes[x + y * this.width] = (float) this.getAltitude(this.getIndex(x, y), with_water);
+            }
+        }
+    }
+    
+    /**
+     * Fill the given array with the water depths of all the tiles, in row-major order.
+     * <p>
+     * Tiles without water have the depth of zero.
+     * 
+     * @param depths The destination, must hold at least size() elements.
+     */
+    public void getWaterDepths(double[] depths) {
+        for (int y = 0; y < this.length; y++) {
+            for (int x = 0; x < this.width; x++) {
+                depths[x + y * this.width] = Math.max(this.getWater(this.getIndex(x, y)), 0.0);
+            }
+        }
+    }
+    
+    /**
+     * Adjust the top soil amounts of the tiles in the given rectangle, see Terrain.applyAltitudeDeltas().
+     * 
+     * @param area   The rectangle.
+     * @param deltas The changes in row-major order within the rectangle.
+     */
+    void applyAltitudeDeltas(Rectangle area, double[] deltas) {
+        int i = 0;
+        for (int y = area.getY(); y < area.getY() + area.getLength(); y++) {
+            for (int x = area.getX(); x < area.getX() + area.getWidth(); x++) {
+                this.adjustTopSoilAmount(this.getIndex(x, y), deltas[i++]);
+            }
+        }
+    }
+    
+    /**
+     * Change the sea level of the tiles in the given band, see Terrain.setSeaLevel().
+     * <p>
+     * If the new sea level is lower, the water at or below the old sea level is removed first.
+     * Then every tile below the new sea level is filled with water up to it.
+     * 
+     * @param band      The rows to process.
+     * @param old_level The old sea level.
+     * @param new_level The new sea level.
+     */
+    void applySeaLevel(Rectangle band, double old_level, double new_level) {
+        for (int y = band.getY(); y < band.getY() + band.getLength(); y++) {
+            for (int x = band.getX(); x < band.getX() + band.getWidth(); x++) {
+                int index = this.getIndex(x, y);
+                if (new_level < old_level && this.getAltitude(index, true) <= old_level) {
+                    this.setWater(index, -1);
+                }
+                double water = new_level - this.getAltitude(index, false);
+                if (new_level > 0.0 && water > 0.0) {
+                    this.setWater(index, water);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Raise the bottom soil layer of all the tiles so that it doesn't contain negative amounts, see Terrain.zeroBottomSoilLayer().
+     * <p>
+     * The tiles are processed in parallel, in bands of at least the given number of tiles.
+     * 
+     * @param band_size The minimum number of tiles per band.
+     */
+    void zeroBottomSoilLayer(int band_size) {
+        double minamount = Parallel.reduceBands(this.size(), band_size, (start, end) -> {
+            double min = 0.0;
+            for (int i = start; i < end; i++) {
+                double amt = this.getLayerAmount(i, 0);
+                if (amt < min) {
+                    min = amt;
+                }
+            }
+            return min;
+        }, Math::min);
+        if (minamount < 0.0) {
+            double adjustment = -minamount;
+            Parallel.forEachBand(this.size(), band_size, (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    this.setLayerAmount(i, 0, this.getLayerAmount(i, 0) + adjustment);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Copy the soil layers and the water of the tile into the given index.
+     * 
+     * @param index The index of the destination.
+     * @param tile  The source tile.
+     */
+    protected void copyFrom(int index, Tile tile) {
+        while (this.getLayerCount(index) > 1) {
+            this.removeTopLayer(index);
+        }
+        this.insertLayer(index, 0, tile.getLayerType(0), tile.getLayerAmount(0));
+        this.removeTopLayer(index);
+        for (int i = 1; i < tile.getLayerCount(); i++) {
+            this.insertLayer(index, i, tile.getLayerType(i), tile.getLayerAmount(i));
+        }
+        this.setWater(index, tile.getWater());
+    }
+}
@@ -16,13 +16,12 @@
  */
 package plortz.tool;
 
-import java.util.ArrayList;
-import java.util.List;
 import plortz.util.Position;
 import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
 import plortz.terrain.Tile;
 import plortz.util.Circle;
+import plortz.util.Rectangle;
 
 /**
  * Tool to add new layers of soil on top of existing.
@@ -80,33 +79,31 @@ public class AddSoilLayer extends Tool {
     
     @Override
     public void apply(Terrain terrain) {
-        for (Position pos : this.getPositions()) {
-            this.processTile(terrain, pos);
-        }
-        terrain.changed();
-    }
-
-    private List<Position> getPositions() {
-        List<Position> positions = null;
         switch (this.area_type) {
             case Rectangle:
-                positions = new ArrayList<>();
                 for (int dy = 0; dy < this.length; dy++) {
                     for (int dx = 0; dx < this.width; dx++) {
-                        positions.add(new Position(this.center, dx, dy));
+                        this.processTile(terrain, this.center.getX() + dx, this.center.getY() + dy);
                     }
                 }
                 break;
             case Circle:
-                Circle circle = new Circle(this.center, this.width);
-                positions = circle.getPositions();
+                Circle.forEach(this.center.getX(), this.center.getY(), this.width, (x, y) -> this.processTile(terrain, x, y));
                 break;
         }
-        return positions;
+        terrain.changed();
+    }
+    
+    @Override
+    public Rectangle getFootprint(Terrain terrain) {
+        if (this.area_type == AreaType.Circle) {
+            return new Rectangle(this.center.getX() - this.width, this.center.getY() - this.width, 2 * this.width + 1, 2 * this.width + 1);
+        }
+        return new Rectangle(this.center.getX(), this.center.getY(), this.width, this.length);
     }
     
-    protected void processTile(Terrain terrain, Position position) {
-        Tile t = terrain.getTile(position);
+    protected void processTile(Terrain terrain, int x, int y) {
+        Tile t = terrain.getTile(x, y);
         if (t != null) {
             t.addSoil(this.soil_type, this.amount);
         }
@@ -18,6 +18,7 @@ package plortz.tool;
 
 import java.util.ArrayList;
 import java.util.List;
+import plortz.util.LongArrayList;
 import plortz.util.Position;
 import plortz.terrain.Terrain;
 import plortz.terrain.Tile;
@@ -63,8 +64,9 @@ public class AddWater extends Tool {
     private final Position initial_water_source_position;
     private final double   initial_water_source_amount;
     // "runtime" parameters:
-    private Position water_position;
-    private double   water_amount;
+    private Position  water_position;
+    private double    water_amount;
+    private FloodFill flood_fill; // Reused by all the lakes to avoid allocating its arrays again.
     
     
     public AddWater(Position position, double amount) {
@@ -79,9 +81,11 @@ public class AddWater extends Tool {
     public void apply(Terrain terrain) {
         this.water_position = this.initial_water_source_position;
         this.water_amount   = this.initial_water_source_amount;
+        this.flood_fill     = new FloodFill();
         while (this.water_position != null && this.water_amount > 0) {
             this.addRiver(terrain);
         }
+        this.flood_fill = null;
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
@@ -244,7 +248,7 @@ public class AddWater extends Tool {
                         if (dx == 0 && dy == 0) {
                             continue;
                         }
-                        Tile neighbor = terrain.getTile(new Position(position, dx, dy));
+                        Tile neighbor = terrain.getTile(position.getX() + dx, position.getY() + dy);
                         if (neighbor != null && neighbor.getAltitude(true) < curalt) {
                             return false;
                         }
@@ -277,17 +281,27 @@ public class AddWater extends Tool {
             private final Terrain terrain;
             private final double  water_level;
             
-            public List<Position> filled;
+            public LongArrayList filled; // The positions packed with Position.pack().
             
             public LakeFinder(Terrain terrain, double water_level) {
                 this.terrain     = terrain;
                 this.water_level = water_level;
-                this.filled      = new ArrayList<>();
+                this.filled      = new LongArrayList();
             }
             
             @Override
             public boolean isPositionIn(Position position) {
-                Tile tile = this.terrain.getTile(position);
+                return this.isPositionIn(position.getX(), position.getY());
+            }
+
+            @Override
+            public void fill(Position position) {
+                this.fill(position.getX(), position.getY());
+            }
+            
+            @Override
+            public boolean isPositionIn(int x, int y) {
+                Tile tile = this.terrain.getTile(x, y);
                 if (tile == null) {
                     return false;
                 }
@@ -298,13 +312,13 @@ public class AddWater extends Tool {
             }
 
             @Override
-            public void fill(Position position) {
-                this.filled.add(position);
+            public void fill(int x, int y) {
+                this.filled.add(Position.pack(x, y));
             }
         }
         // Find all positions belonging to the lake:
         LakeFinder lakefinder = new LakeFinder(terrain, terrain.getTile(this.water_position).getAltitude(true));
-        FloodFill ff = new FloodFill();
+        FloodFill ff = this.flood_fill;
         ff.fill(terrain.getWidth(), terrain.getLength(), this.water_position, lakefinder);
 
         // Find the location from where to start flooding out if there is extra water:
@@ -326,8 +340,9 @@ public class AddWater extends Tool {
         }
         // Fill the lake:
         if (amount_per_tile > 0.0) {
-            for (Position pos : lakefinder.filled) {
-                terrain.getTile(pos).adjustWater(amount_per_tile);
+            for (int i = 0; i < lakefinder.filled.size(); i++) {
+                long pos = lakefinder.filled.get(i);
+                terrain.getTile(Position.unpackX(pos), Position.unpackY(pos)).adjustWater(amount_per_tile);
                 this.water_amount -= amount_per_tile;
             }
         }
@@ -338,7 +353,12 @@ public class AddWater extends Tool {
     
     private void carveTile(Tile tile, double target_water_altitude) {
         while (tile.getAltitude(true) > target_water_altitude) {
-            tile.adjustTopSoilAmount(target_water_altitude - tile.getAltitude(true));
+            double altitude = tile.getAltitude(true);
+            tile.adjustTopSoilAmount(target_water_altitude - altitude);
+            if (tile.getAltitude(true) >= altitude) {
+                // The storage can not represent the altitude any closer to the target, for example with single precision.
+                break;
+            }
         }
     }
 }
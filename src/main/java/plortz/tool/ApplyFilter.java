@@ -17,7 +17,6 @@
 package plortz.tool;
 
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
 import plortz.tool.filters.Filter;
 
 /**
@@ -36,15 +35,16 @@ public class ApplyFilter extends Tool {
     
     @Override
     public void apply(Terrain terrain) {
+        this.filter.setUp(terrain);
         this.preFilter(terrain);
         this.filter(terrain);
-        // Apply results:
-        for (int y = 0; y < terrain.getLength(); y++) {
-            for (int x = 0; x < terrain.getWidth(); x++) {
-                Tile tile = terrain.getTile(x, y);
-                tile.adjustTopSoilAmount(this.new_amounts[x + y * terrain.getWidth()] - tile.getAltitude(false));
-            }
+        // Apply results as changes to the current altitudes:
+        double[] altitudes = new double[this.new_amounts.length];
+        terrain.getAltitudes(altitudes, false);
+        for (int i = 0; i < altitudes.length; i++) {
+            this.new_amounts[i] -= altitudes[i];
         }
+        terrain.applyAltitudeDeltas(this.new_amounts);
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
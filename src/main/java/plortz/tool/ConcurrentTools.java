@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.terrain.RegionLock;
+import plortz.terrain.Terrain;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
+
+/**
+ * Tool to apply several tools concurrently on the disjoint areas of the terrain.
+ * <p>
+ * The tools are applied in rounds. Each round locks the footprints of the pending tools in order with
+ * TerrainConcurrency.tryLock(), and applies the tools it got the locks for in parallel. A tool overlapping
+ * an earlier tool that is still pending waits for the next round, so the result is the same as
+ * when applying the tools one after another in order, as long as the tools stay inside their footprints.
+ * The change notifications of the tools are coalesced into a single one at the end.
+ * <p>
+ * If the storage of the terrain is not thread safe, the tools are applied one after another.
+ * <p>
+ * ConcurrentTools can not be nested, or applied on an area that is locked elsewhere:
+ * if none of the footprints of a round can be locked, the application fails.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ConcurrentTools extends Tool {
+    private final List<Tool> tools;
+    
+    /**
+     * Constructor.
+     * 
+     * @param tools The tools, in the order they would be applied one after another.
+     */
+    public ConcurrentTools(List<Tool> tools) {
+        this.tools = new ArrayList<>(tools);
+    }
+    
+    /**
+     * Apply the tools.
+     * 
+     * @param terrain The terrain.
+     * @throws IllegalStateException If none of the pending tools can be locked, the tools applied before are not undone.
+     */
+    @Override
+    public void apply(Terrain terrain) {
+        if (!terrain.getConcurrency().isThreadSafe()) {
+            this.tools.forEach(tool -> tool.apply(terrain));
+            terrain.changed();
+            return;
+        }
+        List<Tool> pending = this.tools;
+        while (!pending.isEmpty()) {
+            List<Tool>       round    = new ArrayList<>();
+            List<RegionLock> locks    = new ArrayList<>();
+            List<Tool>       deferred = this.lockRound(terrain, pending, round, locks);
+            if (round.isEmpty()) {
+                throw new IllegalStateException("The footprints of the tools are locked, ConcurrentTools can not be nested.");
+            }
+            try {
+                Parallel.forEachBand(round.size(), 1, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        round.get(i).apply(terrain);
+                        locks.get(i).close();
+                    }
+                });
+            } finally {
+                locks.forEach(lock -> lock.close());
+            }
+            pending = deferred;
+        }
+        terrain.changed();
+    }
+    
+    /**
+     * Lock the footprints of the pending tools that do not overlap the earlier tools left pending.
+     * 
+     * @return The tools left pending.
+     */
+    private List<Tool> lockRound(Terrain terrain, List<Tool> pending, List<Tool> round, List<RegionLock> locks) {
+        List<Tool>      deferred = new ArrayList<>();
+        List<Rectangle> blocked  = new ArrayList<>();
+        for (Tool tool : pending) {
+            Rectangle footprint = tool.getFootprint(terrain);
+            RegionLock lock = overlapsAny(blocked, footprint) ? null : terrain.getConcurrency().tryLock(footprint);
+            if (lock == null) {
+                deferred.add(tool);
+                blocked.add(footprint);
+            } else {
+                round.add(tool);
+                locks.add(lock);
+            }
+        }
+        return deferred;
+    }
+    
+    private static boolean overlapsAny(List<Rectangle> areas, Rectangle area) {
+        for (Rectangle other : areas) {
+            if (!other.intersection(area).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -18,23 +18,38 @@ package plortz.tool;
 
 import java.security.InvalidParameterException;
 import java.util.Random;
-import plortz.util.Position;
 import plortz.terrain.Terrain;
-import plortz.terrain.ValidPositionList;
+import plortz.util.CoordinateHash;
+import plortz.util.Parallel;
 
 /**
  * Adjusts the altitudes using the diamond-square algorithm.
  * <p>
  * Altitude changes are in the range [-scale, +scale].
+ * <p>
+ * The random value of each point is hashed from its coordinates and a seed drawn from the random number generator,
+ * so the points of a step can be calculated in any order. The rows of each step are processed in parallel,
+ * and the result depends only on the seed, not on the number of threads.
  * 
  * @see <a href="https://en.wikipedia.org/wiki/Diamond-square_algorithm">https://en.wikipedia.org/wiki/Diamond-square_algorithm</a>
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class DiamondSquare extends Tool {
+    
+    private static final int MIN_PARALLEL_POINTS = 16 * 1024;
+    
+    // The neighbors of a point in units of half the distance, in the order they are summed:
+    private static final int[] DIAMOND_DX     = { -1, 1, -1, 1 };
+    private static final int[] DIAMOND_DY     = { -1, -1, 1, 1 };
+    private static final int[] SQUARE_ROW_DX  = { -1, 0, 1, 0 }; // The points between two corners on a row.
+    private static final int[] SQUARE_ROW_DY  = { 0, -1, 0, 1 };
+    private static final int[] SQUARE_COL_DX  = { 0, -1, 1, 0 }; // The points between two corners on a column.
+    private static final int[] SQUARE_COL_DY  = { -1, 0, 0, 1 };
 
     private final double scale;
     private final Random random;
-    private double       current_scale;
+    private long         seed;
+    private int          size;
     private double[]     altitudes;
 
     /**
@@ -57,96 +72,95 @@ public class DiamondSquare extends Tool {
             throw new InvalidParameterException("Invalid terrain dimensions (must be 2^n+1)");
         }
         
-        this.runAlgorithm(terrain);
-        
-        // Apply the results to the terrain:
-        for (int y = 0; y < terrain.getLength(); y++) {
-            for (int x = 0; x < terrain.getWidth(); x++) {
-                terrain.getTile(x, y).adjustTopSoilAmount(this.altitudes[x + y * terrain.getWidth()]);
-            }
-        }
+        this.runAlgorithm(terrain.getWidth());
+        terrain.applyAltitudeDeltas(this.altitudes);
+        this.altitudes = null;
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
 
     
-    private void runAlgorithm(Terrain terrain) {
-        this.current_scale = this.scale;
-        this.altitudes = new double[terrain.getWidth() * terrain.getLength()];
-
-        this.setAltitude(terrain, 0,                      0,                       this.random.nextDouble() * this.current_scale);
-        this.setAltitude(terrain, terrain.getWidth() - 1, 0,                       this.random.nextDouble() * this.current_scale);
-        this.setAltitude(terrain, terrain.getWidth() - 1, terrain.getLength() - 1, this.random.nextDouble() * this.current_scale);
-        this.setAltitude(terrain, 0,                      terrain.getLength() - 1, this.random.nextDouble() * this.current_scale);
+    private void runAlgorithm(int size) {
+        this.seed      = this.random.nextLong();
+        this.size      = size;
+        this.altitudes = new double[size * size];
         
-        for (int distance = terrain.getWidth() - 1; distance > 1; distance /= 2) {
-            diamondStep(terrain, distance);
-            squareStep(terrain, distance);
-            this.current_scale *= 0.5;
+        int last = size - 1;
+        for (int corner = 0; corner < 4; corner++) {
+            int x = corner == 1 || corner == 2 ? last : 0;
+            int y = corner >= 2 ? last : 0;
+            this.altitudes[x + y * size] = CoordinateHash.uniform(this.seed, x, y) * this.scale;
+        }
+        
+        double current_scale = this.scale;
+        for (int distance = last; distance > 1; distance /= 2) {
+            this.runStep(distance, current_scale);
+            current_scale *= 0.5;
         }
     }
     
-    private void diamondStep(Terrain terrain, int distance) {
-        ValidPositionList positions = new ValidPositionList(terrain);
-        Position middle = new Position(0, 0);
-        for (int y = 0; y <= terrain.getLength() - distance; y += distance) {
-            for (int x = 0; x <= terrain.getWidth() - distance; x += distance) {
-                positions.clear();
-                positions.add(x,            y);
-                positions.add(x + distance, y);
-                positions.add(x,            y + distance);
-                positions.add(x + distance, y + distance);
-                middle.set(x + distance / 2, y + distance / 2);
-                this.setAltitude(terrain, middle, this.getAltitudeChange(terrain, positions));
+    /**
+     * Run the diamond step and the square step for the given distance, each in parallel row bands.
+     */
+    private void runStep(int distance, double current_scale) {
+        int half     = distance / 2;
+        int rows     = (this.size - 1) / distance;
+        int min_rows = Math.max(1, MIN_PARALLEL_POINTS / Math.max(1, rows));
+        Parallel.forEachBand(rows, min_rows, (start, end) -> {
+            for (int row = start; row < end; row++) {
+                this.diamondRow(half + row * distance, distance, current_scale);
             }
-        }
+        });
+        Parallel.forEachBand(2 * rows + 1, min_rows, (start, end) -> {
+            for (int row = start; row < end; row++) {
+                this.squareRow(row * half, distance, current_scale);
+            }
+        });
     }
-
     
-    private void squareStep(Terrain terrain, int distance) {
-        ValidPositionList positions = new ValidPositionList(terrain);
-        Position middle = new Position(0, 0);
-        for (int y = 0; y < terrain.getLength(); y += distance) {
-            for (int x = 0; x < terrain.getWidth(); x += distance) {
-                // The middle is centered to the right of x, y:
-                middle.set(x + distance / 2, y);
-                if (terrain.isValidTilePosition(middle)) {
-                    positions.clear();
-                    positions.add(x,                y);
-                    positions.add(x + distance / 2, y - distance / 2);
-                    positions.add(x + distance,     y);
-                    positions.add(x + distance / 2, y + distance / 2);
-                    this.setAltitude(terrain, middle, this.getAltitudeChange(terrain, positions));
-                }
-                // The middle is centered to below of x, y:
-                middle.set(x, y + distance / 2);
-                if (terrain.isValidTilePosition(middle)) {
-                    positions.clear();
-                    positions.add(x,                y);
-                    positions.add(x - distance / 2, y + distance / 2);
-                    positions.add(x + distance / 2, y + distance / 2);
-                    positions.add(x,                y + distance);
-                    this.setAltitude(terrain, middle, this.getAltitudeChange(terrain, positions));
-                }
-            }
+    /**
+     * Set the middle points of the squares whose middles are on the row y.
+     */
+    private void diamondRow(int y, int distance, double current_scale) {
+        int half = distance / 2;
+        for (int x = half; x < this.size; x += distance) {
+            this.setPoint(x, y, half, DIAMOND_DX, DIAMOND_DY, current_scale);
         }
     }
 
-    private void setAltitude(Terrain terrain, int x, int y, double altitude) {
-        this.altitudes[x + y * terrain.getWidth()] = altitude;
-    }
-    
-    private void setAltitude(Terrain terrain, Position position, double altitude) {
-        this.setAltitude(terrain, position.getX(), position.getY(), altitude);
+    /**
+     * Set the middle points of the diamonds on the row y, they are between the corners on the rows
+     * at multiples of the distance, and between the middles of the squares on the other rows.
+     */
+    private void squareRow(int y, int distance, double current_scale) {
+        int half = distance / 2;
+        if (y % distance == 0) {
+            for (int x = half; x < this.size; x += distance) {
+                this.setPoint(x, y, half, SQUARE_ROW_DX, SQUARE_ROW_DY, current_scale);
+            }
+        } else {
+            for (int x = 0; x < this.size; x += distance) {
+                this.setPoint(x, y, half, SQUARE_COL_DX, SQUARE_COL_DY, current_scale);
+            }
+        }
     }
     
-    private double getAltitudeChange(Terrain terrain, ValidPositionList positions) {
-        double average = 0.0;
-        for (Position p : positions) {
-            average += this.altitudes[p.getX() + p.getY() * terrain.getWidth()];
+    /**
+     * Set the point to the average of its neighbors inside the terrain, adjusted by a random value.
+     */
+    private void setPoint(int x, int y, int half, int[] dx, int[] dy, double current_scale) {
+        double sum   = 0.0;
+        int    count = 0;
+        for (int i = 0; i < dx.length; i++) {
+            int nx = x + dx[i] * half;
+            int ny = y + dy[i] * half;
+            if (nx >= 0 && nx < this.size && ny >= 0 && ny < this.size) {
+                sum += this.altitudes[nx + ny * this.size];
+                count++;
+            }
         }
-        average /= (double) positions.size();
-        return average + (this.random.nextDouble() * 2.0 - 1.0) * this.current_scale;
+        double random_value = CoordinateHash.uniform(this.seed, x, y) * 2.0 - 1.0;
+        this.altitudes[x + y * this.size] = sum / (double) count + random_value * current_scale;
     }
     
     
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.Random;
+import plortz.terrain.Terrain;
+import plortz.tool.noise.Fractal;
+import plortz.tool.noise.GradientNoise;
+import plortz.tool.noise.Noise;
+import plortz.tool.noise.ScratchRows;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
+
+/**
+ * Adjusts the altitudes using multi-octave fractal noise.
+ * <p>
+ * Altitude changes are in range [-scale, scale]. The frequency is the number of noise features per tile
+ * for the first octave, each following octave doubles the frequency and halves the amplitude.
+ * The noise is evaluated a row at a time into an array, in parallel row bands.
+ * <p>
+ * The tile (x, y) of the terrain samples the noise at the world coordinates (origin_x + x, origin_y + y).
+ * With a basis that does not repeat, such as HashedGradientNoise, terrains generated with the same basis
+ * at adjacent origins continue each other seamlessly, so a large world can be generated a chunk at a time.
+ * <p>
+ * Without an origin the terrain is raised afterwards by its lowest bottom soil amount, like with the other tools.
+ * Raising each chunk by its own minimum would break the seams, so with an origin every chunk is raised by
+ * the scale instead, the deepest change the noise can make. The chunks generated on equal terrains,
+ * such as new ones, then continue each other.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class FractalNoise extends Tool {
+    
+    /**
+     * The frequency multiplier between the octaves.
+     */
+    public static final double LACUNARITY = 2.0;
+    
+    /**
+     * The amplitude multiplier between the octaves.
+     */
+    public static final double GAIN = 0.5;
+    
+    private final double       scale;
+    private final double       frequency;
+    private final Fractal.Type type;
+    private final int          octaves;
+    private final Noise        basis;
+    private final int          origin_x;
+    private final int          origin_y;
+    private final boolean      piece;     // True if an origin was given, see the class description.
+    
+    /**
+     * Constructor, uses GradientNoise generated with the given random number generator as the basis.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param random    Random number generator.
+     */
+    public FractalNoise(double scale, double frequency, Fractal.Type type, int octaves, Random random) {
+        this(scale, frequency, type, octaves, new GradientNoise(random), 0, 0, false);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param basis     The noise used for the octaves.
+     * @param origin_x  The world x-coordinate of the first column of the terrain.
+     * @param origin_y  The world y-coordinate of the first row of the terrain.
+     */
+    public FractalNoise(double scale, double frequency, Fractal.Type type, int octaves, Noise basis, int origin_x, int origin_y) {
+        this(scale, frequency, type, octaves, basis, origin_x, origin_y, true);
+    }
+    
+    /**
+     * Constructor for the subclasses, which may or may not have an origin.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param basis     The noise used for the octaves.
+     * @param origin_x  The world x-coordinate of the first column of the terrain.
+     * @param origin_y  The world y-coordinate of the first row of the terrain.
+     * @param piece     True if the origin was given, the terrain is raised by the scale instead of by its lowest point.
+     */
+    protected FractalNoise(double scale, double frequency, Fractal.Type type, int octaves, Noise basis, int origin_x, int origin_y, boolean piece) {
+        if (octaves < 1) {
+            throw new IllegalArgumentException("The number of octaves must be at least 1.");
+        }
+        this.scale     = scale;
+        this.frequency = frequency;
+        this.type      = type;
+        this.octaves   = octaves;
+        this.basis     = basis;
+        this.origin_x  = origin_x;
+        this.origin_y  = origin_y;
+        this.piece     = piece;
+    }
+    
+    @Override
+    public void apply(Terrain terrain) {
+        Noise noise = this.createNoise();
+        Parallel.run(() -> terrain.getConcurrency().rowBands().forEach(band -> this.addNoise(terrain, band, noise)));
+        if (!this.piece) {
+            terrain.zeroBottomSoilLayer();
+        }
+        terrain.changed();
+    }
+    
+    /**
+     * Create the noise evaluated at the tiles, the fractal sum of the octaves of the basis.
+     * The coordinates of the noise are the world coordinates multiplied by the frequency.
+     * 
+     * @return The noise.
+     */
+    protected Noise createNoise() {
+        return new Fractal(this.basis, this.type, this.octaves, LACUNARITY, GAIN);
+    }
+    
+    private void addNoise(Terrain terrain, Rectangle band, Noise noise) {
+        int         width   = band.getWidth();
+        double[]    deltas  = new double[width * band.getLength()];
+        ScratchRows scratch = new ScratchRows();
+        double      x       = (double) this.origin_x + band.getX();
+        double      base    = this.piece ? Math.abs(this.scale) : 0.0;
+        for (int row = 0; row < band.getLength(); row++) {
+            int    offset = row * width;
+            double y      = (double) this.origin_y + band.getY() + row;
+            noise.fillRow(x * this.frequency, y * this.frequency, this.frequency, deltas, offset, width, scratch);
+            for (int i = offset; i < offset + width; i++) {
+                deltas[i] = deltas[i] * this.scale + base;
+            }
+        }
+        terrain.applyAltitudeDeltas(band, deltas);
+    }
+}
@@ -18,12 +18,16 @@ package plortz.tool;
 
 import java.util.Random;
 import plortz.terrain.Terrain;
-import plortz.util.Vector;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
 
 /**
  * Adjusts the altitudes using perlin noise.
  * <p>
  * Altitude changes are in range [-scale, scale].
+ * <p>
+ * The gradients are generated first, then the tiles are evaluated in parallel row bands.
+ * The noise of a tile depends only on the gradients, so the result is the same with any number of threads.
  * 
  * @see <a href="https://en.wikipedia.org/wiki/Perlin_noise">https://en.wikipedia.org/wiki/Perlin_noise</a>
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
@@ -36,7 +40,8 @@ public class PerlinNoise extends Tool {
     
     private int      gradient_width;
     private int      gradient_length;
-    private Vector[] gradients;
+    private double[] gradients_x;
+    private double[] gradients_y;
     
     public PerlinNoise(double scale, double density, Random random) {
         this.scale   = scale;
@@ -47,31 +52,39 @@ public class PerlinNoise extends Tool {
     @Override
     public void apply(Terrain terrain) {
         this.setupGradients(terrain);
-        for (int y = 0; y < terrain.getLength(); y++) {
-            for (int x = 0; x < terrain.getWidth(); x++) {
-                double noise = this.getPerlinNoiseAt(terrain, x, y);
-                terrain.getTile(x, y).adjustTopSoilAmount(noise * this.scale);
-            }
-        }
+        Parallel.run(() -> terrain.getConcurrency().rowBands().forEach(band -> this.addNoise(terrain, band)));
+        this.gradients_x = null;
+        this.gradients_y = null;
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
     
+    private void addNoise(Terrain terrain, Rectangle band) {
+        double[] deltas = new double[band.getWidth() * band.getLength()];
+        int i = 0;
+        for (int y = band.getY(); y < band.getY() + band.getLength(); y++) {
+            for (int x = band.getX(); x < band.getX() + band.getWidth(); x++) {
+                deltas[i++] = this.getPerlinNoiseAt(terrain, x, y) * this.scale;
+            }
+        }
+        terrain.applyAltitudeDeltas(band, deltas);
+    }
+    
     private double getPerlinNoiseAt(Terrain terrain, int x, int y) {
         // Candidate is the location of the current tile in the gradient space.
         // The maximum x and y coordinates are one less than the gradient size because there must always be a gradient around all sides of the candidate point.
-        Vector candidate = new Vector((double) x / (double) (terrain.getWidth())  * (gradient_width  - 1),
-                                      (double) y / (double) (terrain.getLength()) * (gradient_length - 1));
-        int cx = (int) candidate.getX();
-        int cy = (int) candidate.getY();
+        double candidate_x = (double) x / (double) (terrain.getWidth())  * (gradient_width  - 1);
+        double candidate_y = (double) y / (double) (terrain.getLength()) * (gradient_length - 1);
+        int cx = (int) candidate_x;
+        int cy = (int) candidate_y;
 
-        double topleft     = this.getGradientDotProduct(cx + 0, cy + 0, candidate);
-        double topright    = this.getGradientDotProduct(cx + 1, cy + 0, candidate);
-        double bottomleft  = this.getGradientDotProduct(cx + 0, cy + 1, candidate);
-        double bottomright = this.getGradientDotProduct(cx + 1, cy + 1, candidate);
+        double topleft     = this.getGradientDotProduct(cx + 0, cy + 0, candidate_x, candidate_y);
+        double topright    = this.getGradientDotProduct(cx + 1, cy + 0, candidate_x, candidate_y);
+        double bottomleft  = this.getGradientDotProduct(cx + 0, cy + 1, candidate_x, candidate_y);
+        double bottomright = this.getGradientDotProduct(cx + 1, cy + 1, candidate_x, candidate_y);
 
-        double lerpweight_x = this.smootherstep(0, 1, candidate.getX() - (double) cx);
-        double lerpweight_y = this.smootherstep(0, 1, candidate.getY() - (double) cy);
+        double lerpweight_x = this.smootherstep(0, 1, candidate_x - (double) cx);
+        double lerpweight_y = this.smootherstep(0, 1, candidate_y - (double) cy);
 
         double top    = this.lerp(topleft,    topright,    lerpweight_x);
         double bottom = this.lerp(bottomleft, bottomright, lerpweight_x);
@@ -81,10 +94,9 @@ public class PerlinNoise extends Tool {
     }
     
     
-    private double getGradientDotProduct(int gradient_x, int gradient_y, Vector for_point) {
-        Vector gradient = this.gradients[gradient_x + gradient_y * this.gradient_width];
-        Vector offset   = for_point.subtract(new Vector(gradient_x, gradient_y));
-        return gradient.getDotProduct(offset);
+    private double getGradientDotProduct(int gradient_x, int gradient_y, double point_x, double point_y) {
+        int index = gradient_x + gradient_y * this.gradient_width;
+        return this.gradients_x[index] * (point_x - gradient_x) + this.gradients_y[index] * (point_y - gradient_y);
     }
     
 
@@ -93,14 +105,12 @@ public class PerlinNoise extends Tool {
     }
 
     
-    private Vector generateRandomUnitVector() {
-        double[] coords = {
-            this.random.nextDouble() * 2.0 - 1.0,
-            this.random.nextDouble() * 2.0 - 1.0
-        };
-        Vector v = new Vector(coords);
-        v.normalize();
-        return v;
+    private void generateRandomUnitVector(int index) {
+        double x = this.random.nextDouble() * 2.0 - 1.0;
+        double y = this.random.nextDouble() * 2.0 - 1.0;
+        double multiplier = 1.0 / Math.sqrt(x * x + y * y);
+        this.gradients_x[index] = x * multiplier;
+        this.gradients_y[index] = y * multiplier;
     }
     
 
@@ -142,9 +152,10 @@ public class PerlinNoise extends Tool {
             this.gradient_length = 2;
         }
 
-        this.gradients = new Vector[this.gradient_width * this.gradient_length];
-        for (int i = 0; i < this.gradients.length; i++) {
-            this.gradients[i] = this.generateRandomUnitVector();
+        this.gradients_x = new double[this.gradient_width * this.gradient_length];
+        this.gradients_y = new double[this.gradient_width * this.gradient_length];
+        for (int i = 0; i < this.gradients_x.length; i++) {
+            this.generateRandomUnitVector(i);
         }
     }
 
@@ -18,12 +18,17 @@ package plortz.tool;
 
 import java.util.Random;
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
+import plortz.util.CoordinateHash;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
 
 /**
  * Adjust altitudes with random values.
  * <p>
  * Altitude changes are in the range [-scale, +scale].
+ * <p>
+ * The random generator only gives a seed, the change of each tile is hashed from the seed and the position of the tile.
+ * So the rows are processed in parallel, and the result is the same with any number of threads.
  *
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
@@ -39,11 +44,19 @@ public class RandomNoise extends Tool {
     
     @Override
     public void apply(Terrain terrain) {
-        for (Tile t : terrain) {
-            double amount = (this.random.nextDouble() * 2.0 - 1.0) * this.scale;
-            t.adjustTopSoilAmount(amount);
-        }
+        // The amount of each tile is hashed from its position, so the result does not depend on the number of threads:
+        long seed = this.random.nextLong();
+        Parallel.run(() -> terrain.getConcurrency().rowBands().forEach(band -> this.addNoise(terrain, band, seed)));
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
+    
+    private void addNoise(Terrain terrain, Rectangle band, long seed) {
+        for (int y = band.getY(); y < band.getY() + band.getLength(); y++) {
+            for (int x = band.getX(); x < band.getX() + band.getWidth(); x++) {
+                double amount = (CoordinateHash.uniform(seed, x, y) * 2.0 - 1.0) * this.scale;
+                terrain.getTile(x, y).adjustTopSoilAmount(amount);
+            }
+        }
+    }
 }
@@ -17,7 +17,7 @@
 package plortz.tool;
 
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
+import plortz.util.Parallel;
 
 /**
  * Removes water from the given area.
@@ -28,9 +28,7 @@ public class RemoveWater extends Tool {
 
     @Override
     public void apply(Terrain terrain) {
-        for (Tile tile : terrain) {
-            tile.setWater(-1);
-        }
+        Parallel.run(() -> terrain.getConcurrency().parallelStream().forEach(tile -> tile.setWater(-1)));
         terrain.changed();
     }
 }
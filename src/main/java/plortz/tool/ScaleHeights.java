@@ -17,7 +17,7 @@
 package plortz.tool;
 
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
+import plortz.util.Parallel;
 
 /**
  * A tool to scale all the soil layers by a factor.
@@ -34,9 +34,7 @@ public class ScaleHeights extends Tool {
     
     @Override
     public void apply(Terrain terrain) {
-        for (Tile tile : terrain) {
-            tile.scaleSoilLayers(this.factor);
-        }
+        Parallel.run(() -> terrain.getConcurrency().parallelStream().forEach(tile -> tile.scaleSoilLayers(this.factor)));
         terrain.changed();
     }
     
@@ -35,13 +35,16 @@ import plortz.terrain.Tile;
 public class SheetErosion extends Tool {
 
     private final Random   random;
-    private Tile[]         tiles;  // All the tiles sorted by altitude (highest first).
+    private int[]          tiles;  // Indices (x + y * width) of all the tiles sorted by altitude (highest first).
     private boolean[]      moving; // True for tiles that are rolling (decides whether to use static of kinetic friction).
     private List<Position> neighbor_offsets; // Randomized offsets to the neighbor tiles
-    private Tile[]         tmp_tiles;
+    private int[]          tmp_tiles;
+    private double[]       altitudes; // The altitudes used for sorting the tiles.
+    private final double[] neighborhood; // The altitudes of the 3x3 neighborhood of the current tile.
 
     public SheetErosion(Random random) {
-        this.random = random;
+        this.random       = random;
+        this.neighborhood = new double[3 * 3];
     }
     
     @Override
@@ -50,25 +53,31 @@ public class SheetErosion extends Tool {
         this.setupTiles(terrain);
         this.moving = new boolean[terrain.getWidth() * terrain.getLength()];
         
-        for (Tile tile : this.tiles) {
-            Tile neighbor = this.getLowestNeighborTile(terrain, tile);
-            if (neighbor != null) {
-                this.erode(terrain, tile, neighbor);
+        for (int index : this.tiles) {
+            int x = index % terrain.getWidth();
+            int y = index / terrain.getWidth();
+            Position offset = this.getLowestNeighborOffset(terrain, x, y);
+            if (offset != null) {
+                this.erode(terrain, x, y, offset);
             }
         }
+        this.tiles     = null;
+        this.tmp_tiles = null;
         terrain.zeroBottomSoilLayer();
         terrain.changed();
     }
     
     private void setupTiles(Terrain terrain) {
-        this.tiles = new Tile[terrain.getWidth() * terrain.getLength()];
-        this.tmp_tiles = new Tile[terrain.getWidth() * terrain.getLength()];
-        int i = 0;
-        for (Tile tile : terrain) {
-            this.tiles[i++] = tile;
+        this.altitudes = new double[terrain.getWidth() * terrain.getLength()];
+        terrain.getAltitudes(this.altitudes, false);
+        this.tiles = new int[this.altitudes.length];
+        this.tmp_tiles = new int[this.altitudes.length];
+        for (int i = 0; i < this.tiles.length; i++) {
+            this.tiles[i] = i;
         }
         
         this.sortTilesByAltitude(0, this.tiles.length - 1);
+        this.altitudes = null;
     }
     
     private void setupNeighborOffsets(Terrain terrain) {
@@ -115,7 +124,7 @@ public class SheetErosion extends Tool {
         int pos1 = start1;
         int pos2 = start2;
         for (int i = start1; i <= end2; i++) {
-            if (pos2 > end2 || (pos1 <= end1 && this.tiles[pos1].getAltitude(false) > this.tiles[pos2].getAltitude(false))) {
+            if (pos2 > end2 || (pos1 <= end1 && this.altitudes[this.tiles[pos1]] > this.altitudes[this.tiles[pos2]])) {
                 this.tmp_tiles[i] = this.tiles[pos1];
                 pos1++;
             } else {
@@ -130,15 +139,17 @@ public class SheetErosion extends Tool {
     
     
     
-    private void erode(Terrain terrain, Tile source, Tile destination) {
-        double angle_of_repose = source.getTopSoil().getAngleOfRepose(this.moving[source.getPosition().getX() + source.getPosition().getY() * terrain.getWidth()]);
+    private void erode(Terrain terrain, int x, int y, Position offset) {
+        Tile source      = terrain.getTile(x, y);
+        Tile destination = terrain.getTile(x + offset.getX(), y + offset.getY());
+        double angle_of_repose = source.getTopSoil().getAngleOfRepose(this.moving[x + y * terrain.getWidth()]);
         if (angle_of_repose > 90.0) {
             return;
         }
         double slope = angle_of_repose * Math.PI / 180.0; // to radians
         slope = Math.tan(slope); // to slope
         
-        double distance = source.getDistance(destination);
+        double distance = Math.sqrt(offset.getX() * offset.getX() + offset.getY() * offset.getY());
         
         // slope = altitude_change / distance
         // -> slope * distance = altitude_change
@@ -161,24 +172,40 @@ public class SheetErosion extends Tool {
         destination.addSoil(source.getTopSoil().getType(), amount);
         source.adjustTopSoilAmount(-amount);
         
-        this.moving[destination.getPosition().getX() + destination.getPosition().getY() * terrain.getWidth()] = true;
+        this.moving[x + offset.getX() + (y + offset.getY()) * terrain.getWidth()] = true;
     }
     
     
-    private Tile getLowestNeighborTile(Terrain terrain, Tile tile) {
-        Tile lowest = null;
-        int x = tile.getPosition().getX();
-        int y = tile.getPosition().getY();
+    /**
+     * Return the offset to the lowest neighbor that is lower than the given tile.
+     * 
+     * @param terrain The terrain.
+     * @param x       The x-coordinate of the tile.
+     * @param y       The y-coordinate of the tile.
+     * @return        The offset to the lowest neighbor, or null if there are no lower neighbors.
+     */
+    private Position getLowestNeighborOffset(Terrain terrain, int x, int y) {
+        // Read the 3x3 neighborhood clamped to the terrain:
+        int x0 = Math.max(x - 1, 0);
+        int y0 = Math.max(y - 1, 0);
+        int width  = Math.min(x + 1, terrain.getWidth() - 1) - x0 + 1;
+        int length = Math.min(y + 1, terrain.getLength() - 1) - y0 + 1;
+        terrain.getAltitudes(x0, y0, width, length, this.neighborhood, false);
+        double altitude = this.neighborhood[(x - x0) + (y - y0) * width];
+        
+        Position lowest = null;
+        double lowest_altitude = 0.0;
         for (Position offset : this.neighbor_offsets) {
-            Tile tmp = terrain.getTile(x + offset.getX(), y + offset.getY());
-            if (tmp == null) {
+            int nx = x + offset.getX() - x0;
+            int ny = y + offset.getY() - y0;
+            if (nx < 0 || nx >= width || ny < 0 || ny >= length) {
                 continue;
             }
-            if (tmp.getAltitude(false) < tile.getAltitude(false)) {
-                if (lowest == null || tmp.getAltitude(false) < lowest.getAltitude(false)) {
-                    // todo: change to get the tile where the slope is the most steep (downhill)?
-                    lowest = tmp;
-                }
+            double tmp = this.neighborhood[nx + ny * width];
+            if (tmp < altitude && (lowest == null || tmp < lowest_altitude)) {
+                // todo: change to get the tile where the slope is the most steep (downhill)?
+                lowest = offset;
+                lowest_altitude = tmp;
             }
         }
         
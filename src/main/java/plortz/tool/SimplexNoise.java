@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.Random;
+import plortz.tool.noise.Fractal;
+
+/**
+ * Adjusts the altitudes using fractal simplex noise.
+ * <p>
+ * Works like FractalNoise, with the octaves of simplex noise instead of gradient noise.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SimplexNoise extends FractalNoise {
+    
+    /**
+     * Constructor, places the terrain at the origin of the noise.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param random    Random number generator, used to draw the seed.
+     */
+    public SimplexNoise(double scale, double frequency, Fractal.Type type, int octaves, Random random) {
+        super(scale, frequency, type, octaves, new plortz.tool.noise.SimplexNoise(random.nextLong()), 0, 0, false);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param seed      The seed of the noise.
+     * @param origin_x  The world x-coordinate of the first column of the terrain.
+     * @param origin_y  The world y-coordinate of the first row of the terrain.
+     */
+    public SimplexNoise(double scale, double frequency, Fractal.Type type, int octaves, long seed, int origin_x, int origin_y) {
+        super(scale, frequency, type, octaves, new plortz.tool.noise.SimplexNoise(seed), origin_x, origin_y);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Random;
+import plortz.terrain.Terrain;
+import plortz.util.CoordinateHash;
+import plortz.util.Parallel;
+
+/**
+ * Adjusts the altitudes using the diamond-square algorithm in square blocks, for terrains of any size.
+ * <p>
+ * The infinite plane is divided into blocks of block_size x block_size tiles, block_size must be 2^n+1,
+ * and the neighboring blocks share their edges. The corners of the blocks are random values, and the edges
+ * are calculated from the two corners of the edge only, with midpoint displacement. The inside of each block
+ * is calculated with the diamond-square algorithm. So every block depends only on the seed and its position,
+ * and the blocks can be generated independently, in parallel, and in separate runs, and still fit together.
+ * <p>
+ * The random values are hashed from the global coordinates of the points and a seed drawn from the given
+ * random number generator when the tool is created. The terrain shows the plane starting from the given origin,
+ * only the blocks overlapping the terrain are generated.
+ * <p>
+ * Without an origin the terrain is raised afterwards by its lowest bottom soil amount, like with the other tools.
+ * With an origin the terrain is a piece of a larger map, and raising each piece by its own minimum would break
+ * the seams. Instead every piece is raised by the same base, 2 * scale, or 3 * |scale| for a negative scale,
+ * which is more than the deepest change the algorithm can make, so the pieces generated on equal terrains,
+ * such as new ones, continue each other.
+ * 
+ * @see DiamondSquare
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TiledDiamondSquare extends Tool {
+    
+    private static final int[] DIAMOND_DX    = { -1, 1, -1, 1 };
+    private static final int[] DIAMOND_DY    = { -1, -1, 1, 1 };
+    private static final int[] SQUARE_DX     = { -1, 0, 1, 0 };
+    private static final int[] SQUARE_DY     = { 0, -1, 0, 1 };
+    private static final int[] HORIZONTAL_DX = { -1, 1 };
+    private static final int[] HORIZONTAL_DY = { 0, 0 };
+    private static final int[] VERTICAL_DX   = { 0, 0 };
+    private static final int[] VERTICAL_DY   = { -1, 1 };
+    
+    private final double  scale;
+    private final int     block_size;
+    private final int     origin_x;
+    private final int     origin_y;
+    private final long    seed;
+    private final boolean piece;  // True if an origin was given, see the class description.
+    
+    /**
+     * Constructor for the blocks starting from the top-left corner of the terrain.
+     * 
+     * @param scale      Scaling factor.
+     * @param block_size The width and length of the blocks, must be 2^n+1 and at least 3.
+     * @param random     Random number generator.
+     */
+    public TiledDiamondSquare(double scale, int block_size, Random random) {
+        this(scale, block_size, 0, 0, false, random);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param scale      Scaling factor.
+     * @param block_size The width and length of the blocks, must be 2^n+1 and at least 3.
+     * @param origin_x   The x-coordinate on the plane of the left edge of the terrain.
+     * @param origin_y   The y-coordinate on the plane of the top edge of the terrain.
+     * @param random     Random number generator.
+     */
+    public TiledDiamondSquare(double scale, int block_size, int origin_x, int origin_y, Random random) {
+        this(scale, block_size, origin_x, origin_y, true, random);
+    }
+    
+    private TiledDiamondSquare(double scale, int block_size, int origin_x, int origin_y, boolean piece, Random random) {
+        if (block_size < 3 || !DiamondSquare.checkSize(block_size)) {
+            throw new InvalidParameterException("Invalid block size (must be 2^n+1)");
+        }
+        this.scale      = scale;
+        this.block_size = block_size;
+        this.origin_x   = origin_x;
+        this.origin_y   = origin_y;
+        this.seed       = random.nextLong();
+        this.piece      = piece;
+    }
+    
+    @Override
+    public void apply(Terrain terrain) {
+        int      step     = this.block_size - 1;
+        int      first_x  = Math.floorDiv(this.origin_x, step);
+        int      first_y  = Math.floorDiv(this.origin_y, step);
+        int      blocks_x = Math.max(1, Math.floorDiv(this.origin_x + terrain.getWidth() - 2, step) - first_x + 1);
+        int      blocks_y = Math.max(1, Math.floorDiv(this.origin_y + terrain.getLength() - 2, step) - first_y + 1);
+        double[] deltas   = new double[terrain.getWidth() * terrain.getLength()];
+        Parallel.forEachBand(blocks_x * blocks_y, 1, (start, end) -> {
+            double[] block = new double[this.block_size * this.block_size];
+            for (int i = start; i < end; i++) {
+                int block_x = first_x + i % blocks_x;
+                int block_y = first_y + i / blocks_x;
+                this.generateBlock(block_x, block_y, block);
+                this.copyBlock(terrain, block_x, block_y, block, deltas, i % blocks_x == blocks_x - 1, i / blocks_x == blocks_y - 1);
+            }
+        });
+        if (this.piece) {
+            // The corners are between 0 and the scale, and the displacements add less than 2 * |scale| to them.
+            double base = 2.0 * Math.abs(this.scale) + Math.max(0.0, -this.scale);
+            Arrays.setAll(deltas, i -> deltas[i] + base);
+        }
+        terrain.applyAltitudeDeltas(deltas);
+        if (!this.piece) {
+            terrain.zeroBottomSoilLayer();
+        }
+        terrain.changed();
+    }
+    
+    /**
+     * Generate the altitude changes of the given block.
+     * <p>
+     * The block covers the points from (block_x * (block_size - 1), block_y * (block_size - 1))
+     * to ((block_x + 1) * (block_size - 1), (block_y + 1) * (block_size - 1)) on the plane, inclusive.
+     * The change of the point (x, y) of the block is stored at index x + y * block_size.
+     * The origin of the tool does not affect the blocks.
+     * 
+     * @param block_x   The x-coordinate of the block.
+     * @param block_y   The y-coordinate of the block.
+     * @param altitudes The destination array, must hold at least block_size * block_size elements.
+     */
+    public void generateBlock(int block_x, int block_y, double[] altitudes) {
+        int last = this.block_size - 1;
+        for (int corner = 0; corner < 4; corner++) {
+            int x = corner == 1 || corner == 2 ? last : 0;
+            int y = corner >= 2 ? last : 0;
+            altitudes[x + y * this.block_size] = this.getRandom(block_x, block_y, x, y) * this.scale;
+        }
+        double current_scale = this.scale;
+        for (int distance = last; distance > 1; distance /= 2) {
+            int half = distance / 2;
+            for (int y = half; y < last; y += distance) {
+                for (int x = half; x < last; x += distance) {
+                    this.setPoint(altitudes, block_x, block_y, x, y, half, DIAMOND_DX, DIAMOND_DY, current_scale);
+                }
+            }
+            for (int y = 0; y <= last; y += half) {
+                for (int x = y % distance == 0 ? half : 0; x <= last; x += distance) {
+                    this.setSquarePoint(altitudes, block_x, block_y, x, y, half, current_scale);
+                }
+            }
+            current_scale *= 0.5;
+        }
+    }
+    
+    /**
+     * Set a point of the square step, the points on the edges of the block use only the neighbors on the edge.
+     */
+    private void setSquarePoint(double[] altitudes, int block_x, int block_y, int x, int y, int half, double current_scale) {
+        int last = this.block_size - 1;
+        if (y == 0 || y == last) {
+            this.setPoint(altitudes, block_x, block_y, x, y, half, HORIZONTAL_DX, HORIZONTAL_DY, current_scale);
+        } else if (x == 0 || x == last) {
+            this.setPoint(altitudes, block_x, block_y, x, y, half, VERTICAL_DX, VERTICAL_DY, current_scale);
+        } else {
+            this.setPoint(altitudes, block_x, block_y, x, y, half, SQUARE_DX, SQUARE_DY, current_scale);
+        }
+    }
+    
+    /**
+     * Set the point to the average of the given neighbors, adjusted by a random value.
+     */
+    private void setPoint(double[] altitudes, int block_x, int block_y, int x, int y, int half, int[] dx, int[] dy, double current_scale) {
+        double sum = 0.0;
+        for (int i = 0; i < dx.length; i++) {
+            sum += altitudes[x + dx[i] * half + (y + dy[i] * half) * this.block_size];
+        }
+        double random_value = this.getRandom(block_x, block_y, x, y) * 2.0 - 1.0;
+        altitudes[x + y * this.block_size] = sum / (double) dx.length + random_value * current_scale;
+    }
+    
+    private double getRandom(int block_x, int block_y, int x, int y) {
+        int step = this.block_size - 1;
+        return CoordinateHash.uniform(this.seed, block_x * step + x, block_y * step + y);
+    }
+    
+    /**
+     * Copy the part of the block inside the terrain to the deltas.
+     * <p>
+     * The right and bottom edges of a block are the left and top edges of the next blocks,
+     * they are copied only from the last blocks.
+     */
+    private void copyBlock(Terrain terrain, int block_x, int block_y, double[] block, double[] deltas, boolean last_x, boolean last_y) {
+        int step = this.block_size - 1;
+        int x0   = Math.max(0, block_x * step - this.origin_x);
+        int y0   = Math.max(0, block_y * step - this.origin_y);
+        int x1   = Math.min(terrain.getWidth(), block_x * step - this.origin_x + (last_x ? this.block_size : step));
+        int y1   = Math.min(terrain.getLength(), block_y * step - this.origin_y + (last_y ? this.block_size : step));
+        for (int y = y0; y < y1; y++) {
+            int block_row = (y + this.origin_y - block_y * step) * this.block_size;
+            for (int x = x0; x < x1; x++) {
+                deltas[x + y * terrain.getWidth()] = block[x + this.origin_x - block_x * step + block_row];
+            }
+        }
+    }
+}
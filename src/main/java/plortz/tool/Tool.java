@@ -17,6 +17,7 @@
 package plortz.tool;
 
 import plortz.terrain.Terrain;
+import plortz.util.Rectangle;
 
 /**
  * The abstract base class for all the tools.
@@ -36,4 +37,17 @@ public abstract class Tool {
      * @param terrain The terrain to apply this tool over.
      */
     public abstract void apply(Terrain terrain);
+    
+    /**
+     * Return the area of the given terrain this tool reads and modifies when applied to it.
+     * <p>
+     * Tools with a footprint smaller than the terrain can be applied concurrently on disjoint areas,
+     * see ConcurrentTools. By default the footprint is the whole terrain.
+     * 
+     * @param terrain The terrain the tool is going to be applied to.
+     * @return        The footprint, may extend outside the terrain.
+     */
+    public Rectangle getFootprint(Terrain terrain) {
+        return new Rectangle(0, 0, terrain.getWidth(), terrain.getLength());
+    }
 }
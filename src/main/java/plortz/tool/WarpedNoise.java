@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.Random;
+import plortz.tool.noise.DomainWarp;
+import plortz.tool.noise.Fractal;
+import plortz.tool.noise.Noise;
+import plortz.tool.noise.SimplexNoise;
+import plortz.util.CoordinateHash;
+
+/**
+ * Adjusts the altitudes using domain warped fractal simplex noise.
+ * <p>
+ * Works like FractalNoise with simplex noise, but every tile samples the noise at a point displaced
+ * by two other fractal simplex noises, by at most the strength in tiles. The displacements and the noise
+ * are evaluated in the same pass, a row at a time, so the memory use does not grow with the warping.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class WarpedNoise extends FractalNoise {
+    
+    /**
+     * The number of octaves of the noises displacing the coordinates.
+     */
+    public static final int WARP_OCTAVES = 3;
+    
+    private final Noise  warp_x;
+    private final Noise  warp_y;
+    private final double strength;
+    
+    /**
+     * Constructor, places the terrain at the origin of the noise.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param strength  The largest displacement of the sampled points, in tiles.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param random    Random number generator, used to draw the seed.
+     */
+    public WarpedNoise(double scale, double frequency, double strength, Fractal.Type type, int octaves, Random random) {
+        this(scale, frequency, strength, type, octaves, random.nextLong(), 0, 0, false);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave, in noise features per tile.
+     * @param strength  The largest displacement of the sampled points, in tiles.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves, at least 1.
+     * @param seed      The seed of the noises.
+     * @param origin_x  The world x-coordinate of the first column of the terrain.
+     * @param origin_y  The world y-coordinate of the first row of the terrain.
+     */
+    public WarpedNoise(double scale, double frequency, double strength, Fractal.Type type, int octaves, long seed, int origin_x, int origin_y) {
+        this(scale, frequency, strength, type, octaves, seed, origin_x, origin_y, true);
+    }
+    
+    private WarpedNoise(double scale, double frequency, double strength, Fractal.Type type, int octaves, long seed, int origin_x, int origin_y, boolean piece) {
+        super(scale, frequency, type, octaves, new SimplexNoise(seed), origin_x, origin_y, piece);
+        this.warp_x   = createWarp(CoordinateHash.hash(seed, 1, 0));
+        this.warp_y   = createWarp(CoordinateHash.hash(seed, 0, 1));
+        this.strength = strength * frequency;
+    }
+    
+    private static Noise createWarp(long seed) {
+        return new Fractal(new SimplexNoise(seed), Fractal.Type.FBM, WARP_OCTAVES, LACUNARITY, GAIN);
+    }
+    
+    @Override
+    protected Noise createNoise() {
+        return new DomainWarp(super.createNoise(), this.warp_x, this.warp_y, this.strength);
+    }
+}
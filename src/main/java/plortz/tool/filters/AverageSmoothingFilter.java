@@ -17,10 +17,11 @@
 package plortz.tool.filters;
 
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
 
 /**
  * Smoothing filter using averaging.
+ * <p>
+ * The averages are calculated using a summed-area table, so the cost per tile does not depend on the window size.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
@@ -32,17 +33,7 @@ public class AverageSmoothingFilter extends Filter {
 
     @Override
     public double filter(Terrain terrain, int x, int y) {
-        int count = 0;
-        double average = 0.0;
-        for (int dy = -this.half_window_size; dy <= this.half_window_size; dy++) {
-            for (int dx = -this.half_window_size; dx <= this.half_window_size; dx++) {
-                Tile t = terrain.getTile(x + dx, y + dy);
-                if (t != null) {
-                    count++;
-                    average += t.getAltitude(false);
-                }
-            }
-        }
-        return average / (double) count;
+        this.ensureSetUp(terrain);
+        return this.getWindowAverage(x, y);
     }
 }
@@ -17,8 +17,8 @@
 package plortz.tool.filters;
 
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
-import plortz.util.Static2dArray;
+import plortz.util.DoubleGrid;
+import plortz.util.Grid;
 import plortz.util.Vector;
 
 /**
@@ -44,8 +44,8 @@ public class EdgeDetectingSmoothingFilter extends Filter {
          0,  0,  0,
         -1, -2, -1
     };
-    private Static2dArray<Double> edge_weights;
-    private Vector                minmax;
+    private DoubleGrid edge_weights;
+    private Vector     minmax;
 
     public EdgeDetectingSmoothingFilter(int window_size) {
         super(window_size);
@@ -53,6 +53,16 @@ public class EdgeDetectingSmoothingFilter extends Filter {
         this.edge_weights = null;
     }
 
+    @Override
+    public void setUp(Terrain terrain) {
+        super.setUp(terrain);
+        this.edge_weights = new DoubleGrid(this.width, this.length);
+        this.minmax       = terrain.getAltitudeRange();
+        // The positions outside the terrain are at the lowest altitude, which is normalized to zero:
+        this.altitudes.setBorder(Grid.Border.CONSTANT);
+        this.altitudes.setBorderValue(this.minmax.getX());
+    }
+
     /**
      * Fill the edge_weights using Sobel operator with values in [0, 1] where 1 is the most edgy.
      * 
@@ -62,27 +72,21 @@ public class EdgeDetectingSmoothingFilter extends Filter {
      */
     @Override
     public void preFilter(Terrain terrain, int x, int y) {
-        if (this.edge_weights == null) {
-            this.edge_weights = new Static2dArray<>(terrain.getWidth(), terrain.getLength(), 0.0);
-            this.minmax       = terrain.getAltitudeRange();
-        }
-        double sx = this.applyConvolutionMatrix(terrain, x, y, this.sobel_x) / 4.0; // 1+2+1 = 4
-        double sy = this.applyConvolutionMatrix(terrain, x, y, this.sobel_y) / 4.0;
+        this.ensureSetUp(terrain);
+        double sx = this.applyConvolutionMatrix(x, y, this.sobel_x) / 4.0; // 1+2+1 = 4
+        double sy = this.applyConvolutionMatrix(x, y, this.sobel_y) / 4.0;
         double weight = Math.sqrt(sx * sx + sy * sy);
         this.edge_weights.set(x, y, weight);
     }
     
-    private double applyConvolutionMatrix(Terrain terrain, int x, int y, double[] matrix) {
+    private double applyConvolutionMatrix(int x, int y, double[] matrix) {
         double rv = 0.0;
         for (int dy = -1; dy <= 1; dy++) {
             for (int dx = -1; dx <= 1; dx++) {
-                Tile t = terrain.getTile(x + dx, y + dy);
-                if (t != null) {
-                    double altitude = t.getAltitude(false);
-                    altitude -= this.minmax.getX();
-                    altitude /= this.minmax.getY() - this.minmax.getX();
-                    rv += altitude * matrix[(dx + 1) + (dy + 1) * 3];
-                }
+                double altitude = this.altitudes.sample(x + dx, y + dy);
+                altitude -= this.minmax.getX();
+                altitude /= this.minmax.getY() - this.minmax.getX();
+                rv += altitude * matrix[(dx + 1) + (dy + 1) * 3];
             }
         }
         return rv;
@@ -90,20 +94,10 @@ public class EdgeDetectingSmoothingFilter extends Filter {
     
     @Override
     public double filter(Terrain terrain, int x, int y) {
+        this.ensureSetUp(terrain);
         double edge_weight = this.edge_weights.get(x, y);
-        double average = 0.0;
-        int count = 0;
-        for (int dy = -this.half_window_size; dy <= this.half_window_size; dy++) {
-            for (int dx = -this.half_window_size; dx <= this.half_window_size; dx++) {
-                Tile t = terrain.getTile(x + dx, y + dy);
-                if (t != null) {
-                    average += t.getAltitude(false);
-                    count++;
-                }
-            }
-        }
-        average = average / (double) count;
-        double center = terrain.getTile(x, y).getAltitude(false);
+        double average     = this.getWindowAverage(x, y);
+        double center      = this.getAltitude(x, y);
         return lerp(center, average, edge_weight);
     }
     
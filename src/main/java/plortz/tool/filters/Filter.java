@@ -17,6 +17,9 @@
 package plortz.tool.filters;
 
 import plortz.terrain.Terrain;
+import plortz.util.DoubleGrid;
+import plortz.util.Grid;
+import plortz.util.SummedAreaTable;
 
 /**
  * Abstract base class for filters.
@@ -28,6 +31,11 @@ import plortz.terrain.Terrain;
 public abstract class Filter {
     protected final int half_window_size;
     private boolean     prefilter;
+    private Terrain     terrain;    // The terrain the altitudes were taken from.
+    protected DoubleGrid altitudes; // The altitudes of the terrain.
+    private SummedAreaTable summed_altitudes; // Created from the altitudes when first needed.
+    protected int       width;
+    protected int       length;
 
     /**
      * The size of the window to operate on, must be a non-even number.
@@ -39,6 +47,82 @@ public abstract class Filter {
         }
         this.half_window_size = window_size / 2;
         this.prefilter        = false;
+        this.terrain          = null;
+        this.altitudes        = null;
+        this.summed_altitudes = null;
+    }
+    
+    /**
+     * Prepare the filter for the given terrain, called before the filtering starts.
+     * <p>
+     * Takes a snapshot of the altitudes of the terrain, the filters read the altitudes from the snapshot.
+     * 
+     * @param terrain The terrain.
+     */
+    public void setUp(Terrain terrain) {
+        this.terrain = terrain;
+        this.width   = terrain.getWidth();
+        this.length  = terrain.getLength();
+        if (this.altitudes == null || this.altitudes.getWidth() != this.width || this.altitudes.getLength() != this.length) {
+            this.altitudes = new DoubleGrid(this.width, this.length);
+        }
+        this.altitudes.setBorder(Grid.Border.CLAMP);
+        terrain.getAltitudes(this.altitudes.getValues(), false);
+        this.summed_altitudes = null;
+    }
+    
+    /**
+     * Call setUp() unless it has already been called for the given terrain.
+     * 
+     * @param terrain The terrain.
+     */
+    protected final void ensureSetUp(Terrain terrain) {
+        if (this.terrain != terrain) {
+            this.setUp(terrain);
+        }
+    }
+    
+    /**
+     * Return the altitude of the given position from the snapshot, the position must be valid.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The altitude without water.
+     */
+    protected final double getAltitude(int x, int y) {
+        return this.altitudes.get(x, y);
+    }
+    
+    /**
+     * Return a summed-area table of the altitudes in the snapshot.
+     * <p>
+     * The table is created on the first call after setUp(), without the squared altitudes.
+     * 
+     * @return The table.
+     */
+    protected final SummedAreaTable getSummedAltitudes() {
+        if (this.summed_altitudes == null) {
+            this.summed_altitudes = new SummedAreaTable(this.altitudes.getValues(), this.width, this.length, false);
+        }
+        return this.summed_altitudes;
+    }
+    
+    /**
+     * Return the average altitude of the window centered at the given position.
+     * <p>
+     * The window is clipped to the terrain. The average is calculated from the summed-area table,
+     * so the cost does not depend on the window size.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The average altitude.
+     */
+    protected final double getWindowAverage(int x, int y) {
+        int x0 = Math.max(x - this.half_window_size, 0);
+        int x1 = Math.min(x + this.half_window_size, this.width - 1);
+        int y0 = Math.max(y - this.half_window_size, 0);
+        int y1 = Math.min(y + this.half_window_size, this.length - 1);
+        return this.getSummedAltitudes().getAverage(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
     }
     
     /**
@@ -16,11 +16,8 @@
  */
 package plortz.tool.filters;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 import plortz.terrain.Terrain;
-import plortz.terrain.Tile;
 
 /**
  * Smoothing filter using median.
@@ -28,31 +25,26 @@ import plortz.terrain.Tile;
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class MedianSmoothingFilter extends Filter {
-    private final List<Double>      window;
-    private final List<Double>      tmp_window;
+    private final double[] window;
 
     public MedianSmoothingFilter(int window_size) {
         super(window_size);
-        this.window = new ArrayList<>();
-        this.tmp_window = new ArrayList<>();
-        // Reserve space for the temporary array required by the sort:
-        for (int i = 0; i < window_size * window_size; i++) {
-            this.tmp_window.add(0.0);
-        }
+        this.window = new double[window_size * window_size];
     }
 
     @Override
     public double filter(Terrain terrain, int x, int y) {
-        window.clear();
-        for (int dy = -this.half_window_size; dy <= this.half_window_size; dy++) {
-            for (int dx = -this.half_window_size; dx <= this.half_window_size; dx++) {
-                Tile t = terrain.getTile(x + dx, y + dy);
-                if (t != null) {
-                    this.window.add(t.getAltitude(false));
-                }
-            }
+        this.ensureSetUp(terrain);
+        int x0 = Math.max(x - this.half_window_size, 0);
+        int x1 = Math.min(x + this.half_window_size, this.width - 1);
+        int y0 = Math.max(y - this.half_window_size, 0);
+        int y1 = Math.min(y + this.half_window_size, this.length - 1);
+        int count = 0;
+        for (int wy = y0; wy <= y1; wy++) {
+            this.altitudes.getRow(wy, x0, x1 - x0 + 1, this.window, count);
+            count += x1 - x0 + 1;
         }
-        Collections.sort(this.window);
-        return this.window.get(this.window.size() / 2);
+        Arrays.sort(this.window, 0, count);
+        return this.window[count / 2];
     }
 }
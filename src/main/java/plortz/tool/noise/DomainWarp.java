@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+/**
+ * Domain warping, noise sampled at coordinates displaced by two other noises.
+ * <p>
+ * The value at (x, y) is base(x + strength * warp_x(x, y), y + strength * warp_y(x, y)), which bends
+ * the features of the base noise into more natural, flowing shapes. A row is evaluated in a single pass:
+ * the displacements are filled into row sized buffers, and the base noise is evaluated at the displaced
+ * points, so no arrays larger than a row are needed, and the scratch rows are reused for the following rows.
+ * 
+ * @see <a href="https://iquilezles.org/articles/warp/">https://iquilezles.org/articles/warp/</a>
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class DomainWarp implements Noise {
+    
+    private final Noise  base;
+    private final Noise  warp_x;
+    private final Noise  warp_y;
+    private final double strength;
+    
+    /**
+     * Constructor.
+     * 
+     * @param base     The noise that is sampled.
+     * @param warp_x   The noise displacing the x-coordinates.
+     * @param warp_y   The noise displacing the y-coordinates.
+     * @param strength The largest displacement, in the units of the noise.
+     */
+    public DomainWarp(Noise base, Noise warp_x, Noise warp_y, double strength) {
+        this.base     = base;
+        this.warp_x   = warp_x;
+        this.warp_y   = warp_y;
+        this.strength = strength;
+    }
+    
+    @Override
+    public double get(double x, double y) {
+        return this.base.get(x + this.strength * this.warp_x.get(x, y), y + this.strength * this.warp_y.get(x, y));
+    }
+    
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        this.fillRow(x, y, step, values, offset, count, new ScratchRows());
+    }
+    
+    /**
+     * Fill a row of values, the x-displacements are kept in the destination array until they are replaced by the values,
+     * and the y-displacements in a scratch row.
+     */
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count, ScratchRows scratch) {
+        double[] displacements_y = scratch.take(count);
+        this.warp_x.fillRow(x, y, step, values, offset, count, scratch);
+        this.warp_y.fillRow(x, y, step, displacements_y, 0, count, scratch);
+        for (int i = 0; i < count; i++) {
+            double warped_x = x + i * step + this.strength * values[offset + i];
+            double warped_y = y + this.strength * displacements_y[i];
+            values[offset + i] = this.base.get(warped_x, warped_y);
+        }
+        scratch.release();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+/**
+ * Multi-octave fractal noise.
+ * <p>
+ * Sums octaves of a basis noise, each octave with the frequency multiplied by the lacunarity
+ * and the amplitude multiplied by the gain compared to the previous one. The octaves are sampled
+ * at different offsets so their lattices do not line up. The sum is divided by the total amplitude,
+ * so the values stay in range [-1, 1].
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class Fractal implements Noise {
+    
+    /**
+     * The way the octaves are combined.
+     */
+    public enum Type {
+        /**
+         * Fractional Brownian motion, the plain sum of the octaves.
+         */
+        FBM,
+        /**
+         * Sharp ridges where the octaves cross zero, 1 - |noise| squared.
+         */
+        RIDGED,
+        /**
+         * Rounded bumps with sharp valleys, |noise|.
+         */
+        BILLOW
+    };
+    
+    private static final double OCTAVE_OFFSET = 31.7; // Moves the lattice points of each octave off the previous ones.
+    
+    private final Noise  basis;
+    private final Type   type;
+    private final int    octaves;
+    private final double lacunarity;
+    private final double gain;
+    private final double normalize;
+    
+    /**
+     * Constructor.
+     * 
+     * @param basis      The noise used for every octave.
+     * @param type       The way the octaves are combined.
+     * @param octaves    The number of octaves, at least 1.
+     * @param lacunarity The frequency multiplier between octaves, usually 2.
+     * @param gain       The amplitude multiplier between octaves, usually 0.5.
+     */
+    public Fractal(Noise basis, Type type, int octaves, double lacunarity, double gain) {
+        if (octaves < 1) {
+            throw new IllegalArgumentException("The number of octaves must be at least 1.");
+        }
+        this.basis      = basis;
+        this.type       = type;
+        this.octaves    = octaves;
+        this.lacunarity = lacunarity;
+        this.gain       = gain;
+        double total = 0.0;
+        double amplitude = 1.0;
+        for (int i = 0; i < octaves; i++) {
+            total += amplitude;
+            amplitude *= gain;
+        }
+        this.normalize = 1.0 / total;
+    }
+    
+    @Override
+    public double get(double x, double y) {
+        double sum       = 0.0;
+        double amplitude = 1.0;
+        double frequency = 1.0;
+        for (int i = 0; i < this.octaves; i++) {
+            double offset = i * OCTAVE_OFFSET;
+            sum += amplitude * this.shape(this.basis.get(x * frequency + offset, y * frequency + offset));
+            amplitude *= this.gain;
+            frequency *= this.lacunarity;
+        }
+        return sum * this.normalize;
+    }
+    
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        this.fillRow(x, y, step, values, offset, count, new ScratchRows());
+    }
+    
+    /**
+     * Fill a row of values, one octave at a time with fillRow() of the basis.
+     * With several octaves, the octaves are filled into a scratch row.
+     */
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count, ScratchRows scratch) {
+        double[] octave    = this.octaves > 1 ? scratch.take(count) : values;
+        int      start     = this.octaves > 1 ? 0 : offset;
+        double   amplitude = 1.0;
+        double   frequency = 1.0;
+        for (int i = 0; i < this.octaves; i++) {
+            double shift = i * OCTAVE_OFFSET;
+            this.basis.fillRow(x * frequency + shift, y * frequency + shift, step * frequency, octave, start, count, scratch);
+            for (int j = 0; j < count; j++) {
+                double value = amplitude * this.shape(octave[start + j]) * this.normalize;
+                values[offset + j] = i == 0 ? value : values[offset + j] + value;
+            }
+            amplitude *= this.gain;
+            frequency *= this.lacunarity;
+        }
+        if (this.octaves > 1) {
+            scratch.release();
+        }
+    }
+    
+    /**
+     * Shape the value of a single octave according to the type, the result is in range [-1, 1].
+     */
+    private double shape(double value) {
+        switch (this.type) {
+            case RIDGED:
+                double ridge = 1.0 - Math.abs(value);
+                return 2.0 * ridge * ridge - 1.0;
+            case BILLOW:
+                return 2.0 * Math.abs(value) - 1.0;
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import java.util.Random;
+
+/**
+ * Perlin gradient noise using precomputed tables.
+ * <p>
+ * The gradients of the integer lattice points are picked from a table of TABLE_SIZE random unit vectors
+ * through a random permutation, so the noise repeats every TABLE_SIZE units. The evaluation uses only
+ * primitive math, and does not allocate.
+ * 
+ * @see <a href="https://en.wikipedia.org/wiki/Perlin_noise">https://en.wikipedia.org/wiki/Perlin_noise</a>
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class GradientNoise implements Noise {
+    
+    /**
+     * The number of gradients, and the period of the noise.
+     */
+    public static final int TABLE_SIZE = 256;
+    
+    private static final int    MASK      = TABLE_SIZE - 1;
+    private static final double NORMALIZE = Math.sqrt(2.0); // The values of the 2d noise are within +-sqrt(0.5).
+    
+    private final int[]    permutation;
+    private final double[] gradients_x;
+    private final double[] gradients_y;
+    
+    /**
+     * Constructor, the tables are generated with the given random number generator.
+     * 
+     * @param random Random number generator.
+     */
+    public GradientNoise(Random random) {
+        this.permutation = new int[TABLE_SIZE * 2];
+        this.gradients_x = new double[TABLE_SIZE];
+        this.gradients_y = new double[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            double angle = random.nextDouble() * 2.0 * Math.PI;
+            this.gradients_x[i] = Math.cos(angle);
+            this.gradients_y[i] = Math.sin(angle);
+            this.permutation[i] = i;
+        }
+        for (int i = TABLE_SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = this.permutation[i];
+            this.permutation[i] = this.permutation[j];
+            this.permutation[j] = tmp;
+        }
+        System.arraycopy(this.permutation, 0, this.permutation, TABLE_SIZE, TABLE_SIZE);
+    }
+    
+    @Override
+    public double get(double x, double y) {
+        int    cell_x = floor(x);
+        int    cell_y = floor(y);
+        double fx     = x - cell_x;
+        double fy     = y - cell_y;
+        int    ix     = cell_x & MASK;
+        int    iy     = cell_y & MASK;
+        int    row0   = this.permutation[iy];
+        int    row1   = this.permutation[iy + 1];
+        double n00    = this.dot(this.permutation[row0 + ix],     fx,       fy);
+        double n10    = this.dot(this.permutation[row0 + ix + 1], fx - 1.0, fy);
+        double n01    = this.dot(this.permutation[row1 + ix],     fx,       fy - 1.0);
+        double n11    = this.dot(this.permutation[row1 + ix + 1], fx - 1.0, fy - 1.0);
+        double u      = fade(fx);
+        double v      = fade(fy);
+        double top    = n00 + u * (n10 - n00);
+        double bottom = n01 + u * (n11 - n01);
+        return NORMALIZE * (top + v * (bottom - top));
+    }
+    
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = this.get(x + i * step, y);
+        }
+    }
+    
+    private double dot(int gradient, double dx, double dy) {
+        return this.gradients_x[gradient] * dx + this.gradients_y[gradient] * dy;
+    }
+    
+    /**
+     * Return the largest integer not greater than the value, faster than Math.floor().
+     * 
+     * @param value The value.
+     * @return      The floor of the value.
+     */
+    static int floor(double value) {
+        int truncated = (int) value;
+        return value < truncated ? truncated - 1 : truncated;
+    }
+    
+    /**
+     * The smootherstep curve 6t^5 - 15t^4 + 10t^3 used to interpolate between the lattice points.
+     * 
+     * @param t The value, in range [0, 1].
+     * @return  The interpolation weight.
+     */
+    static double fade(double t) {
+        return t * t * t * (t * (t * 6.0 - 15.0) + 10.0);
+    }
+}
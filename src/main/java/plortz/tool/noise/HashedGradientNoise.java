@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+/**
+ * Perlin gradient noise with the gradients hashed from the coordinates of the lattice points.
+ * <p>
+ * Unlike GradientNoise, there are no tables generated from a random number generator, the gradient of
+ * every lattice point is picked with an integer hash of the seed and the coordinates of the point.
+ * So the noise does not repeat, and any point of the plane can be evaluated on its own,
+ * for example to generate the chunks of a large world independently, in any order.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class HashedGradientNoise implements Noise {
+    
+    /**
+     * The unit gradients, at evenly spaced angles.
+     */
+    static final double[] GRADIENTS_X = new double[256];
+    static final double[] GRADIENTS_Y = new double[256];
+    
+    private static final int    GRADIENT_COUNT = GRADIENTS_X.length;
+    private static final int    MIX_1          = 0x7feb352d;
+    private static final int    MIX_2          = 0x846ca68b;
+    private static final double NORMALIZE      = Math.sqrt(2.0);
+    
+    static {
+        for (int i = 0; i < GRADIENT_COUNT; i++) {
+            double angle = 2.0 * Math.PI * i / GRADIENT_COUNT;
+            GRADIENTS_X[i] = Math.cos(angle);
+            GRADIENTS_Y[i] = Math.sin(angle);
+        }
+    }
+    
+    private final int seed;
+    
+    /**
+     * Constructor.
+     * 
+     * @param seed The seed, the same seed gives the same noise.
+     */
+    public HashedGradientNoise(long seed) {
+        this.seed = foldSeed(seed);
+    }
+    
+    @Override
+    public double get(double x, double y) {
+        int    cell_x = GradientNoise.floor(x);
+        int    cell_y = GradientNoise.floor(y);
+        double fx     = x - cell_x;
+        double fy     = y - cell_y;
+        double n00    = this.dot(cell_x,     cell_y,     fx,       fy);
+        double n10    = this.dot(cell_x + 1, cell_y,     fx - 1.0, fy);
+        double n01    = this.dot(cell_x,     cell_y + 1, fx,       fy - 1.0);
+        double n11    = this.dot(cell_x + 1, cell_y + 1, fx - 1.0, fy - 1.0);
+        double u      = GradientNoise.fade(fx);
+        double v      = GradientNoise.fade(fy);
+        double top    = n00 + u * (n10 - n00);
+        double bottom = n01 + u * (n11 - n01);
+        return NORMALIZE * (top + v * (bottom - top));
+    }
+    
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = this.get(x + i * step, y);
+        }
+    }
+    
+    /**
+     * Return the dot product of the gradient of the lattice point and the offset from it.
+     */
+    private double dot(int lattice_x, int lattice_y, double dx, double dy) {
+        int gradient = gradient(this.seed, lattice_x, lattice_y);
+        return GRADIENTS_X[gradient] * dx + GRADIENTS_Y[gradient] * dy;
+    }
+    
+    /**
+     * Return the index of the gradient of a lattice point.
+     * 
+     * @param seed      The seed returned by foldSeed().
+     * @param lattice_x The x-coordinate of the lattice point.
+     * @param lattice_y The y-coordinate of the lattice point.
+     * @return          Index to GRADIENTS_X and GRADIENTS_Y.
+     */
+    static int gradient(int seed, int lattice_x, int lattice_y) {
+        return mix(mix(seed ^ lattice_x) ^ lattice_y) >>> 24;
+    }
+    
+    /**
+     * Mix the bits of an integer.
+     * <p>
+     * The seed and the coordinates are mixed in one at a time, adding them together before mixing
+     * would make every seed a translation of the same noise, and the noise periodic. The seed is mixed
+     * before the x-coordinate is combined with it, otherwise the seeds differing in a single bit
+     * would only swap blocks of the same noise.
+     * 
+     * @param h The integer.
+     * @return  The mixed integer.
+     */
+    private static int mix(int h) {
+        h = (h ^ (h >>> 16)) * MIX_1;
+        h = (h ^ (h >>> 15)) * MIX_2;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Fold a 64-bit seed into the 32-bit seed used by gradient(), and mix it.
+     * 
+     * @param seed The seed.
+     * @return     The folded seed.
+     */
+    static int foldSeed(long seed) {
+        return mix((int) (seed ^ (seed >>> 32)));
+    }
+}
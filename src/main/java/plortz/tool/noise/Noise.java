@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+/**
+ * A two dimensional noise function.
+ * <p>
+ * The noise is continuous, its features are about one unit apart, and the values are in range [-1, 1].
+ * The implementations are immutable and can be evaluated from multiple threads.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public interface Noise {
+    
+    /**
+     * Return the value of the noise at the given point.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The value, in range [-1, 1].
+     */
+    double get(double x, double y);
+    
+    /**
+     * Fill a row of values with the noise at the points (x + i * step, y) for i in [0, count).
+     * <p>
+     * GradientNoise, HashedGradientNoise and SimplexNoise override this with a copy of the same loop.
+     * With only this default, the call to get() is no longer inlined once three kinds of noise have used it:
+     * filling 2049 rows of 2049 samples after the two other noises took 200ms for SimplexNoise, and 110-140ms
+     * with its own copy of the loop.
+     * 
+     * @param x      The x-coordinate of the first point.
+     * @param y      The y-coordinate of the points.
+     * @param step   The distance between the points.
+     * @param values The destination array.
+     * @param offset The index of the first value in the array.
+     * @param count  The number of points.
+     */
+    default void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = this.get(x + i * step, y);
+        }
+    }
+    
+    /**
+     * Fill a row of values like fillRow(), taking the arrays for the intermediate values from the given scratch rows.
+     * <p>
+     * The noises combining other noises override this, so that filling many rows allocates no arrays.
+     * 
+     * @param x       The x-coordinate of the first point.
+     * @param y       The y-coordinate of the points.
+     * @param step    The distance between the points.
+     * @param values  The destination array.
+     * @param offset  The index of the first value in the array.
+     * @param count   The number of points.
+     * @param scratch The scratch rows.
+     */
+    default void fillRow(double x, double y, double step, double[] values, int offset, int count, ScratchRows scratch) {
+        this.fillRow(x, y, step, values, offset, count);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reusable arrays for the intermediate rows of Noise.fillRow().
+ * <p>
+ * A noise takes the rows it needs while filling a row, and releases them in the reverse order before returning,
+ * so the same arrays are reused for every row filled with the same scratch rows.
+ * Not thread safe, every thread needs its own.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public final class ScratchRows {
+    private final List<double[]> rows;
+    private int                  used;
+    
+    /**
+     * Constructor, the rows are allocated when they are first needed.
+     */
+    public ScratchRows() {
+        this.rows = new ArrayList<>();
+        this.used = 0;
+    }
+    
+    /**
+     * Take a row, it must be released with release() when it is no longer needed.
+     * 
+     * @param count The number of values needed.
+     * @return      An array of at least count values, the contents are undefined.
+     */
+    public double[] take(int count) {
+        if (this.used == this.rows.size()) {
+            this.rows.add(new double[count]);
+        } else if (this.rows.get(this.used).length < count) {
+            this.rows.set(this.used, new double[count]);
+        }
+        return this.rows.get(this.used++);
+    }
+    
+    /**
+     * Release the row taken last.
+     */
+    public void release() {
+        this.used--;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+/**
+ * Two-dimensional simplex noise with hashed gradients.
+ * <p>
+ * The plane is divided into triangles instead of squares, so each sample sums the contributions of three
+ * lattice points instead of four, with a radial falloff instead of interpolation, and the noise has fewer
+ * axis-aligned artefacts than Perlin noise. The gradients are picked like in HashedGradientNoise,
+ * so the noise does not repeat and any point can be evaluated on its own.
+ * 
+ * @see <a href="https://weber.itn.liu.se/~stegu/simplexnoise/simplexnoise.pdf">Simplex noise demystified</a>
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SimplexNoise implements Noise {
+    
+    private static final double SKEW      = 0.5 * (Math.sqrt(3.0) - 1.0);
+    private static final double UNSKEW    = (3.0 - Math.sqrt(3.0)) / 6.0;
+    private static final double NORMALIZE = 99.2; // The sum of the contributions of unit gradients is at most 1/99.204.
+    
+    private final int seed;
+    
+    /**
+     * Constructor.
+     * 
+     * @param seed The seed, the same seed gives the same noise.
+     */
+    public SimplexNoise(long seed) {
+        this.seed = HashedGradientNoise.foldSeed(seed);
+    }
+    
+    @Override
+    public double get(double x, double y) {
+        double skew   = (x + y) * SKEW;
+        int    cell_x = GradientNoise.floor(x + skew);
+        int    cell_y = GradientNoise.floor(y + skew);
+        double unskew = (cell_x + cell_y) * UNSKEW;
+        double x0     = x - cell_x + unskew;
+        double y0     = y - cell_y + unskew;
+        // The middle corner of the triangle depends on which half of the skewed cell the point is in:
+        int    i1     = x0 > y0 ? 1 : 0;
+        int    j1     = 1 - i1;
+        double sum    = this.contribution(cell_x, cell_y, x0, y0);
+        sum += this.contribution(cell_x + i1, cell_y + j1, x0 - i1 + UNSKEW, y0 - j1 + UNSKEW);
+        sum += this.contribution(cell_x + 1, cell_y + 1, x0 - 1.0 + 2.0 * UNSKEW, y0 - 1.0 + 2.0 * UNSKEW);
+        return NORMALIZE * sum;
+    }
+    
+    @Override
+    public void fillRow(double x, double y, double step, double[] values, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = this.get(x + i * step, y);
+        }
+    }
+    
+    /**
+     * Return the contribution of a lattice point at the given offset from it.
+     */
+    private double contribution(int lattice_x, int lattice_y, double dx, double dy) {
+        double t = 0.5 - dx * dx - dy * dy;
+        t = t > 0.0 ? t : 0.0;
+        int gradient = HashedGradientNoise.gradient(this.seed, lattice_x, lattice_y);
+        t *= t;
+        return t * t * (HashedGradientNoise.GRADIENTS_X[gradient] * dx + HashedGradientNoise.GRADIENTS_Y[gradient] * dy);
+    }
+}
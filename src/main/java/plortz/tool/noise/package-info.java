@@ -0,0 +1,4 @@
+/**
+ * Noise functions used by the noise tools, and the fractal combination of their octaves.
+ */
+package plortz.tool.noise;
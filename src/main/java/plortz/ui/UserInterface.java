@@ -22,6 +22,8 @@ import plortz.util.MersenneTwister;
 import plortz.observer.Observer;
 import plortz.observer.Subject;
 import plortz.terrain.Terrain;
+import plortz.terrain.TerrainHistory;
+import plortz.util.Rectangle;
 
 /**
  * The abstract base class for the user interface implementations.
@@ -35,21 +37,25 @@ public abstract class UserInterface {
     private final CommandHistory command_history;
     private final String         command_history_filename;
     private Terrain              terrain;
+    private final TerrainHistory terrain_history;
     private final Subject        on_terrain_change;
     private final Subject        on_message;
     private String               message; // Current message
     private final Random         random_generator;
     private boolean              output_timing;
+    private Rectangle            region; // The region the tools are restricted to, null for the whole terrain.
     
     public UserInterface() {
         this.running           = true;
         this.command_history   = new CommandHistory();
         this.command_history_filename = ".plortz_history";
         this.terrain           = null;
+        this.terrain_history   = new TerrainHistory();
         this.on_terrain_change = new Subject();
         this.on_message        = new Subject();
         this.random_generator  = new MersenneTwister();
         this.output_timing     = false;
+        this.region            = null;
         
         try {
             this.command_history.load(this.command_history_filename);
@@ -100,6 +106,14 @@ public abstract class UserInterface {
         this.on_terrain_change.notifyObservers();
     }
     
+    /**
+     * Return the undo/redo history of the terrain.
+     * @return The terrain history.
+     */
+    public final TerrainHistory getTerrainHistory() {
+        return this.terrain_history;
+    }
+    
     /**
      * Register an observer to be called whenever the terrain reference is changed.
      * <p>
@@ -167,4 +181,20 @@ public abstract class UserInterface {
     public boolean getOutputTiming() {
         return this.output_timing;
     }
+    
+    /**
+     * Restrict the tools applied by the commands to a region of the terrain.
+     * @param region The region, or null for the whole terrain.
+     */
+    public void setRegion(Rectangle region) {
+        this.region = region;
+    }
+    
+    /**
+     * Return the region the tools applied by the commands are restricted to.
+     * @return The region, or null for the whole terrain.
+     */
+    public Rectangle getRegion() {
+        return this.region;
+    }
 }
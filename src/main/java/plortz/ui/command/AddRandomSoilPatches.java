@@ -22,11 +22,14 @@ import java.util.Random;
 import plortz.util.Position;
 import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
+import plortz.tool.ConcurrentTools;
 import plortz.tool.Tool;
 import plortz.ui.UserInterface;
 
 /**
  * Command to add randomly generated circular soil layers.
+ * <p>
+ * The patches not overlapping each other are added concurrently, the result is the same as when adding them in order.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
@@ -54,18 +57,23 @@ public class AddRandomSoilPatches extends Command {
     }
     
     private void addPatches(UserInterface ui, int count, int radius, double depth) {
+        Terrain terrain = this.getTargetTerrain(ui);
+        if (terrain == null) {
+            return;
+        }
+        ui.getTerrainHistory().saveCopy(ui.getTerrain());
         this.startApplyingTools();
-        Terrain terrain = ui.getTerrain();
         Random random = ui.getRandom();
         SoilLayer.Type[] types = SoilLayer.Type.values();
+        List<Tool> tools = new ArrayList<>();
         for (int i = 0; i < count; i++) {
             SoilLayer.Type type = types[random.nextInt(types.length - 1)];
             double r = (double) radius * (0.5 + random.nextDouble());
             Position pos = new Position(random.nextInt(terrain.getWidth() - 1),
                                         random.nextInt(terrain.getLength() - 1));
-            Tool tool = new plortz.tool.AddSoilLayer(type, depth, pos, (int) r);
-            tool.apply(terrain);
+            tools.add(new plortz.tool.AddSoilLayer(type, depth, pos, (int) r));
         }
+        this.applyToTarget(ui, terrain, new ConcurrentTools(tools));
         this.endApplyingTools(ui);
     }
     
@@ -19,8 +19,11 @@ package plortz.ui.command;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import plortz.terrain.Terrain;
 import plortz.tool.Tool;
 import plortz.ui.UserInterface;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
 
 /**
  * The abstract base class for all the commands.
@@ -69,16 +72,84 @@ public abstract class Command {
     }
     
     /**
-     * Apply a single tool to the user interfaces terrain.
+     * Return the terrain the tools of this command should be applied to.
+     * <p>
+     * This is the region of the user interfaces terrain set with the command "region",
+     * clipped to the terrain, or the whole terrain if no region has been set.
+     * If the region is completely outside the terrain, a message is shown and null returned.
+     * 
+     * @param ui The user interface.
+     * @return   The target terrain, or null if there is nothing to apply the tools to.
+     */
+    protected Terrain getTargetTerrain(UserInterface ui) {
+        Terrain terrain = ui.getTerrain();
+        if (ui.getRegion() == null) {
+            return terrain;
+        }
+        Rectangle region = ui.getRegion().intersection(new Rectangle(0, 0, terrain.getWidth(), terrain.getLength()));
+        if (region.isEmpty()) {
+            ui.showMessage("The region is outside the terrain, use \"region off\" to apply the tools to the whole terrain.");
+            return null;
+        }
+        if (region.getWidth() == terrain.getWidth() && region.getLength() == terrain.getLength()) {
+            return terrain;
+        }
+        return terrain.getRegion(region);
+    }
+    
+    /**
+     * Apply a single tool to the user interfaces terrain, or to the region of it if one is set.
+     * <p>
+     * A snapshot of the terrain is saved for undo before applying the tool.
+     * Nothing is done if the region is outside the terrain.
+     * 
      * @param ui   The user interface.
      * @param tool The tool to apply.
      */
     protected void applyTool(UserInterface ui, Tool tool) {
+        Terrain target = this.getTargetTerrain(ui);
+        if (target == null) {
+            return;
+        }
+        ui.getTerrainHistory().saveCopy(ui.getTerrain());
         this.startApplyingTools();
-        tool.apply(ui.getTerrain());
+        this.applyToTarget(ui, target, tool);
         this.endApplyingTools(ui);
     }
     
+    /**
+     * Apply a single tool like applyTool(), using the given number of threads for the parallel parts of the tool.
+     * <p>
+     * The number of threads of Parallel is restored afterwards.
+     * 
+     * @param ui      The user interface.
+     * @param tool    The tool to apply.
+     * @param threads The number of threads, at least 1.
+     */
+    protected void applyTool(UserInterface ui, Tool tool, int threads) {
+        int default_threads = Parallel.getThreads();
+        Parallel.setThreads(threads);
+        try {
+            this.applyTool(ui, tool);
+        } finally {
+            Parallel.setThreads(default_threads);
+        }
+    }
+    
+    /**
+     * Apply a tool to the target terrain, and notify the observers of the user interfaces terrain if the target is a region.
+     * 
+     * @param ui     The user interface.
+     * @param target The target terrain returned by getTargetTerrain().
+     * @param tool   The tool to apply.
+     */
+    protected void applyToTarget(UserInterface ui, Terrain target, Tool tool) {
+        tool.apply(target);
+        if (target != ui.getTerrain()) {
+            ui.getTerrain().changed();
+        }
+    }
+    
     /**
      * Start applying multiple tools.
      */
@@ -45,10 +45,14 @@ public class CommandFactory {
         this.commands.put("dump",          WriteToConsole.class);
         this.commands.put("save",          WriteToTargaFile.class);
         this.commands.put("new",           NewTerrain.class);
+        this.commands.put("open",          OpenMappedTerrain.class);
         this.commands.put("gauss",         GaussianDistribution.class);
         this.commands.put("ds",            DiamondSquare.class);
         this.commands.put("random",        RandomNoise.class);
         this.commands.put("perlin",        PerlinNoise.class);
+        this.commands.put("fractal",       FractalNoise.class);
+        this.commands.put("simplex",       SimplexNoise.class);
+        this.commands.put("warp",          WarpedNoise.class);
         this.commands.put("sheet_erosion", SheetErosion.class);
         this.commands.put("add_soil",      AddSoilLayer.class);
         this.commands.put("insert_soil",   InsertSoilAtBottom.class);
@@ -65,6 +69,9 @@ public class CommandFactory {
         this.commands.put("#",             Comment.class);
         this.commands.put("remove_water",  RemoveWater.class);
         this.commands.put("sea",           SetSeaLevel.class);
+        this.commands.put("undo",          Undo.class);
+        this.commands.put("redo",          Redo.class);
+        this.commands.put("region",        Region.class);
     }
     
     public Command create(String string) {
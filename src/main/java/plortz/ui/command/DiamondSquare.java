@@ -18,15 +18,19 @@ package plortz.ui.command;
 
 import java.util.ArrayList;
 import java.util.List;
-import plortz.tool.Tool;
+import plortz.terrain.Terrain;
 import plortz.ui.UserInterface;
 
 /**
  * Command to execute the DiamondSquare tool over the terrain.
+ * <p>
+ * With a block size, or when the terrain is not square and 2^n+1, the TiledDiamondSquare tool is used instead.
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class DiamondSquare extends Command {
+    
+    private static final int DEFAULT_BLOCK_SIZE = 257;
 
     @Override
     public void execute(UserInterface ui) {
@@ -34,27 +38,42 @@ public class DiamondSquare extends Command {
             return;
         }
         
-        if (this.args.size() != 2) {
+        if (this.args.size() != 2 && this.args.size() != 3 && this.args.size() != 5) {
             ui.showMessage("Incorrect number of arguments.");
             this.showUsage(ui);
             return;
         }
         
         double scale;
+        int block_size, origin_x, origin_y;
         try {
-            scale = Double.parseDouble(this.args.get(1));
+            scale      = Double.parseDouble(this.args.get(1));
+            block_size = this.args.size() >= 3 ? Integer.parseInt(this.args.get(2)) : 0;
+            origin_x   = this.args.size() == 5 ? Integer.parseInt(this.args.get(3)) : 0;
+            origin_y   = this.args.size() == 5 ? Integer.parseInt(this.args.get(4)) : 0;
         } catch (Exception e) {
             ui.showMessage("Failed to parse arguments: " + e.getMessage());
             return;
         }
         
-        if (ui.getTerrain().getWidth() != ui.getTerrain().getLength() || !plortz.tool.DiamondSquare.checkSize(ui.getTerrain().getWidth())) {
-            ui.showMessage("The terrain size is not suitable for diamond-square algorithm. Width must equal length, and both be (2^n)+1.");
+        Terrain target = this.getTargetTerrain(ui);
+        if (target == null) {
             return;
         }
-        
-        Tool tool = new plortz.tool.DiamondSquare(scale, ui.getRandom());
-        this.applyTool(ui, tool);
+        if (block_size == 0 && target.getWidth() == target.getLength() && plortz.tool.DiamondSquare.checkSize(target.getWidth())) {
+            this.applyTool(ui, new plortz.tool.DiamondSquare(scale, ui.getRandom()));
+            return;
+        }
+        if (block_size != 0 && (block_size < 3 || !plortz.tool.DiamondSquare.checkSize(block_size))) {
+            ui.showMessage("The block size must be (2^n)+1 and at least 3.");
+            return;
+        }
+        block_size = block_size != 0 ? block_size : DEFAULT_BLOCK_SIZE;
+        if (this.args.size() != 5) {
+            this.applyTool(ui, new plortz.tool.TiledDiamondSquare(scale, block_size, ui.getRandom()));
+            return;
+        }
+        this.applyTool(ui, new plortz.tool.TiledDiamondSquare(scale, block_size, origin_x, origin_y, ui.getRandom()));
     }
     
     @Override
@@ -65,7 +84,12 @@ public class DiamondSquare extends Command {
     @Override
     public List<String> getUsage() {
         List<String> rv = new ArrayList<>();
-        rv.add("Usage: " + this.args.get(0) + " <scale>");
+        rv.add("Usage: " + this.args.get(0) + " <scale> [<block size> [<x> <y>]]");
+        rv.add("Without a block size the terrain must be square, and the size (2^n)+1.");
+        rv.add("Otherwise the terrain is generated in blocks of the given size, " + DEFAULT_BLOCK_SIZE + " by default,");
+        rv.add("the blocks fit together seamlessly, x and y give the position of the terrain on the plane of the blocks.");
+        rv.add("With x and y the terrain is raised by 2 * scale instead of by its lowest point, so the pieces fit together,");
+        rv.add("or by 3 * |scale| if the scale is negative.");
         return rv;
     }
 }
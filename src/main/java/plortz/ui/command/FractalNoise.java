@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.tool.Tool;
+import plortz.tool.noise.Fractal;
+import plortz.tool.noise.HashedGradientNoise;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to execute the fractal noise tool.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class FractalNoise extends Command {
+
+    @Override
+    public void execute(UserInterface ui) {
+        if (!this.requireTerrain(ui)) {
+            return;
+        }
+        int extra = this.getExtraArgumentCount();
+        if (this.args.size() > 7 + extra || this.args.size() == 6 + extra) {
+            this.showUsage(ui);
+            return;
+        }
+        
+        double scale, frequency;
+        int    octaves, origin_x, origin_y;
+        try {
+            scale     = this.args.size() >= 2 ? Double.parseDouble(this.args.get(1)) : 1.0;
+            frequency = this.args.size() >= 3 ? Double.parseDouble(this.args.get(2)) : 1.0 / 64.0;
+            this.parseExtraArguments();
+            octaves   = this.args.size() >= 4 + extra ? Integer.parseInt(this.args.get(3 + extra)) : 6;
+            origin_x  = this.hasOrigin() ? Integer.parseInt(this.args.get(5 + extra)) : 0;
+            origin_y  = this.hasOrigin() ? Integer.parseInt(this.args.get(6 + extra)) : 0;
+        } catch (Exception e) {
+            ui.showMessage("Failed to parse arguments: " + e.getMessage());
+            return;
+        }
+        Fractal.Type type = this.parseType(ui, 4 + extra);
+        if (type == null) {
+            return;
+        }
+        if (octaves < 1) {
+            ui.showMessage("The number of octaves must be at least 1.");
+            return;
+        }
+        this.applyTool(ui, this.createTool(ui, scale, frequency, type, octaves, origin_x, origin_y));
+    }
+    
+    /**
+     * Return the number of arguments of a subclass between [frequency] and [octaves].
+     * 
+     * @return The number of extra arguments, 0 by default.
+     */
+    protected int getExtraArgumentCount() {
+        return 0;
+    }
+    
+    /**
+     * Parse the arguments between [frequency] and [octaves], starting from index 3.
+     * 
+     * @throws NumberFormatException If an argument is not a valid number.
+     */
+    protected void parseExtraArguments() {
+    }
+    
+    /**
+     * Return true if the coordinates &lt;x&gt; &lt;y&gt; were given.
+     * 
+     * @return True if the terrain is placed at given world coordinates.
+     */
+    protected boolean hasOrigin() {
+        return this.args.size() == 7 + this.getExtraArgumentCount();
+    }
+    
+    /**
+     * Create the tool from the parsed arguments.
+     * 
+     * @param ui        The user interface.
+     * @param scale     Scaling factor.
+     * @param frequency The frequency of the first octave.
+     * @param type      The way the octaves are combined.
+     * @param octaves   The number of octaves.
+     * @param origin_x  The world x-coordinate of the terrain, 0 if not given.
+     * @param origin_y  The world y-coordinate of the terrain, 0 if not given.
+     * @return          The tool.
+     */
+    protected Tool createTool(UserInterface ui, double scale, double frequency, Fractal.Type type, int octaves, int origin_x, int origin_y) {
+        if (!this.hasOrigin()) {
+            return new plortz.tool.FractalNoise(scale, frequency, type, octaves, ui.getRandom());
+        }
+        HashedGradientNoise basis = new HashedGradientNoise(ui.getRandom().nextLong());
+        return new plortz.tool.FractalNoise(scale, frequency, type, octaves, basis, origin_x, origin_y);
+    }
+    
+    private Fractal.Type parseType(UserInterface ui, int index) {
+        if (this.args.size() <= index) {
+            return Fractal.Type.FBM;
+        }
+        for (Fractal.Type type : Fractal.Type.values()) {
+            if (type.name().toLowerCase().equals(this.args.get(index))) {
+                return type;
+            }
+        }
+        ui.showMessage("Unknown fractal type: " + this.args.get(index));
+        return null;
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Adjusts the altitudes using multi-octave fractal noise.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + this.args.get(0) + " [scale] [frequency] [octaves] [type] [<x> <y>]");
+        rv.add("Where [type] is one of: fbm, ridged, billow");
+        rv.add("With <x> <y>, the terrain is placed at world coordinates (x, y) of non-repeating hashed noise.");
+        rv.add("The terrain is then raised by the scale instead of by its lowest point, so the pieces fit together.");
+        rv.add("Defaults: scale=1, frequency=0.015625 (features per tile), octaves=6, type=fbm");
+        return rv;
+    }
+}
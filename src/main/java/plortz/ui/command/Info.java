@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import plortz.util.Vector;
 import plortz.terrain.Terrain;
+import plortz.terrain.TerrainStatistics;
 import plortz.ui.UserInterface;
 
 /**
@@ -31,6 +32,11 @@ public class Info extends Command {
 
     @Override
     public void execute(UserInterface ui) {
+        if (this.args.size() > 2 || (this.args.size() == 2 && !this.args.get(1).equals("memory"))) {
+            ui.showMessage("Incorrect arguments.");
+            this.showUsage(ui);
+            return;
+        }
         if (!this.requireTerrain(ui)) {
             return;
         }
@@ -40,6 +46,30 @@ public class Info extends Command {
         Vector minmax = terrain.getAltitudeRange();
         ui.showMessage(" lowest point: " + minmax.getX());
         ui.showMessage(" highest point: " + minmax.getY());
+        TerrainStatistics statistics = terrain.getStatistics();
+        ui.showMessage(" average altitude: " + statistics.getMean());
+        ui.showMessage(" standard deviation: " + statistics.getStandardDeviation());
+        if (this.args.size() == 2) {
+            this.showMemoryUsage(ui, terrain);
+        }
+    }
+    
+    /**
+     * Show the heap usage.
+     * <p>
+     * The heap usage includes everything else in the heap too, including garbage not
+     * collected yet, so the bytes per tile figure is only an upper bound.
+     * 
+     * @param ui      The user interface.
+     * @param terrain The terrain.
+     */
+    private void showMemoryUsage(UserInterface ui, Terrain terrain) {
+        Runtime runtime = Runtime.getRuntime();
+        long used  = runtime.totalMemory() - runtime.freeMemory();
+        long tiles = (long) terrain.getWidth() * terrain.getLength();
+        ui.showMessage(" storage: " + terrain.getStorageType().name().toLowerCase());
+        ui.showMessage(" heap used: " + (used / (1024 * 1024)) + " MiB");
+        ui.showMessage(" heap used per tile: " + (used / tiles) + " bytes");
     }
 
     @Override
@@ -50,7 +80,8 @@ public class Info extends Command {
     @Override
     public List<String> getUsage() {
         List<String> rv = new ArrayList<>();
-        rv.add("Usage: " + args.get(0));
+        rv.add("Usage: " + args.get(0) + " [memory]");
+        rv.add("With memory, the heap usage is also shown.");
         return rv;
     }
 }
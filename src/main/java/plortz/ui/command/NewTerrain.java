@@ -16,8 +16,11 @@
  */
 package plortz.ui.command;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
 import plortz.ui.UserInterface;
 
@@ -30,7 +33,7 @@ public class NewTerrain extends Command {
 
     @Override
     public void execute(UserInterface ui) {
-        if (this.args.size() != 3) {
+        if (this.args.size() < 3 || this.args.size() > 5) {
             ui.showMessage("Incorrect number of arguments.");
             this.showUsage(ui);
             return;
@@ -45,6 +48,14 @@ public class NewTerrain extends Command {
             return;
         }
         
+        Terrain.StorageType storage_type = Terrain.StorageType.OBJECTS;
+        if (this.args.size() >= 4) {
+            storage_type = this.parseStorageTypeArg(ui);
+            if (storage_type == null) {
+                return;
+            }
+        }
+        
         if (width <= 0) {
             ui.showMessage("Minimum width is 1.");
             return;
@@ -54,10 +65,31 @@ public class NewTerrain extends Command {
             return;
         }
         
+        if (this.args.size() == 5 && storage_type != Terrain.StorageType.MAPPED) {
+            ui.showMessage("Only the storage type mapped takes a file.");
+            return;
+        }
+        
         this.startApplyingTools();
-        ui.setTerrain(new Terrain(width, length));
+        Terrain terrain = this.createTerrain(ui, width, length, storage_type);
+        if (terrain != null) {
+            ui.getTerrainHistory().save(ui.getTerrain());
+            ui.setTerrain(terrain);
+        }
         this.endApplyingTools(ui);
     }
+    
+    private Terrain createTerrain(UserInterface ui, int width, int length, Terrain.StorageType storage_type) {
+        if (this.args.size() < 5) {
+            return new Terrain(width, length, SoilLayer.Type.CLIFF, storage_type);
+        }
+        try {
+            return Terrain.createMapped(Paths.get(this.args.get(4)), width, length, SoilLayer.Type.CLIFF, Terrain.DEFAULT_MAPPED_MAX_LAYERS);
+        } catch (IOException e) {
+            ui.showMessage("Failed to create file " + this.args.get(4) + ": " + e.getMessage());
+            return null;
+        }
+    }
 
     @Override
     public String getShortDescription() {
@@ -67,7 +99,22 @@ public class NewTerrain extends Command {
     @Override
     public List<String> getUsage() {
         List<String> rv = new ArrayList<>();
-        rv.add("Usage: " + args.get(0) + " <width> <length>");
+        rv.add("Usage: " + args.get(0) + " <width> <length> [storage] [file]");
+        rv.add("Where [storage] is one of: objects, columns, chunked, float, mapped");
+        rv.add("      [file] is the file for the mapped storage, the file is overwritten");
+        rv.add("Without [file], the mapped storage uses a temporary file.");
+        rv.add("The mapped storage allows at most " + Terrain.DEFAULT_MAPPED_MAX_LAYERS + " soil layers per tile.");
+        rv.add("Defaults: storage=objects");
         return rv;
     }
+    
+    private Terrain.StorageType parseStorageTypeArg(UserInterface ui) {
+        for (Terrain.StorageType t : Terrain.StorageType.values()) {
+            if (t.name().toLowerCase().equals(this.args.get(3))) {
+                return t;
+            }
+        }
+        ui.showMessage("Unknown storage type: " + this.args.get(3));
+        return null;
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import plortz.terrain.Terrain;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to open a terrain stored in a memory-mapped file, the previous terrain is destroyed.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class OpenMappedTerrain extends Command {
+
+    @Override
+    public void execute(UserInterface ui) {
+        if (this.args.size() != 2) {
+            this.showUsage(ui);
+            return;
+        }
+        
+        String filename = this.args.get(1);
+        Terrain terrain;
+        try {
+            terrain = Terrain.openMapped(Paths.get(filename));
+        } catch (Exception e) {
+            ui.showMessage("Failed to open '" + filename + "': " + e.getMessage());
+            return;
+        }
+        this.startApplyingTools();
+        ui.getTerrainHistory().save(ui.getTerrain());
+        ui.setTerrain(terrain);
+        this.endApplyingTools(ui);
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Destroys the current terrain and opens a terrain file created with \"new <width> <length> mapped <file>\".";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + args.get(0) + " <filename>");
+        rv.add("The changes made to the terrain are written to the file.");
+        return rv;
+    }
+}
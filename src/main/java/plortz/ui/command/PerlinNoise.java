@@ -33,9 +33,15 @@ public class PerlinNoise extends Command {
         if (!this.requireTerrain(ui)) {
             return;
         }
+        if (this.args.size() > 4) {
+            ui.showMessage("Incorrect number of arguments.");
+            this.showUsage(ui);
+            return;
+        }
         
         double scale   = 1.0;
         double density = 0.5;
+        int    threads = 0;
         try {
             if (this.args.size() >= 2) {
                 scale = Double.parseDouble(this.args.get(1));
@@ -43,12 +49,23 @@ public class PerlinNoise extends Command {
             if (this.args.size() >= 3) {
                 density = Double.parseDouble(this.args.get(2));
             }
+            if (this.args.size() >= 4) {
+                threads = Integer.parseInt(this.args.get(3));
+            }
         } catch (Exception e) {
             ui.showMessage("Failed to parse arguments: " + e.getMessage());
             return;
         }
+        if (this.args.size() >= 4 && threads < 1) {
+            ui.showMessage("Invalid number of threads '" + this.args.get(3) + "', it must be at least 1.");
+            return;
+        }
         Tool tool = new plortz.tool.PerlinNoise(scale, density, ui.getRandom());
-        this.applyTool(ui, tool);
+        if (this.args.size() >= 4) {
+            this.applyTool(ui, tool, threads);
+        } else {
+            this.applyTool(ui, tool);
+        }
     }
 
     @Override
@@ -59,7 +76,8 @@ public class PerlinNoise extends Command {
     @Override
     public List<String> getUsage() {
         List<String> rv = new ArrayList<>();
-        rv.add("Usage: " + args.get(0) + " [scale] [density]");
+        rv.add("Usage: " + args.get(0) + " [scale] [density] [threads]");
+        rv.add("The tiles are evaluated in parallel, [threads] overrides the number of threads for this command.");
         return rv;
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.terrain.Terrain;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to redo the last undone change.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class Redo extends Command {
+
+    @Override
+    public void execute(UserInterface ui) {
+        if (this.args.size() != 1) {
+            this.showUsage(ui);
+            return;
+        }
+        Terrain terrain = ui.getTerrainHistory().redo(ui.getTerrain());
+        if (terrain == null) {
+            ui.showMessage("Nothing to redo.");
+            return;
+        }
+        ui.setTerrain(terrain);
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Redoes the last undone change to the terrain.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + args.get(0));
+        return rv;
+    }
+}
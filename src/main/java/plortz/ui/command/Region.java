@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.ui.UserInterface;
+import plortz.util.Rectangle;
+
+/**
+ * Command to restrict the tools applied by the other commands to a rectangular region of the terrain.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class Region extends Command {
+
+    @Override
+    public void execute(UserInterface ui) {
+        if (this.args.size() == 1 || this.args.size() == 2 && this.args.get(1).equals("off")) {
+            ui.setRegion(null);
+            ui.showMessage("The tools are applied to the whole terrain.");
+            return;
+        }
+        if (this.args.size() != 5) {
+            ui.showMessage("Incorrect number of arguments.");
+            this.showUsage(ui);
+            return;
+        }
+        Rectangle region;
+        try {
+            region = new Rectangle(Integer.parseInt(this.args.get(1)), Integer.parseInt(this.args.get(2)),
+                                   Integer.parseInt(this.args.get(3)), Integer.parseInt(this.args.get(4)));
+        } catch (Exception e) {
+            ui.showMessage("Failed to parse arguments: " + e.getMessage());
+            return;
+        }
+        if (region.isEmpty() || region.getX() < 0 || region.getY() < 0) {
+            ui.showMessage("The region must have a positive size and a non-negative position.");
+            return;
+        }
+        ui.setRegion(region);
+        ui.showMessage("The tools are applied to the region at " + region.getX() + ", " + region.getY()
+                       + " of size " + region.getWidth() + "x" + region.getLength() + ".");
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Restrict the tools to a region of the terrain.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + this.args.get(0) + " <x> <y> <width> <length>");
+        rv.add("   or: " + this.args.get(0) + " off");
+        rv.add("The region is clipped to the terrain, and the positions given to the other commands are relative to it.");
+        return rv;
+    }
+}
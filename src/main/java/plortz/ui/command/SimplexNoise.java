@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.tool.Tool;
+import plortz.tool.noise.Fractal;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to execute the simplex noise tool.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SimplexNoise extends FractalNoise {
+
+    @Override
+    protected Tool createTool(UserInterface ui, double scale, double frequency, Fractal.Type type, int octaves, int origin_x, int origin_y) {
+        if (!this.hasOrigin()) {
+            return new plortz.tool.SimplexNoise(scale, frequency, type, octaves, ui.getRandom());
+        }
+        return new plortz.tool.SimplexNoise(scale, frequency, type, octaves, ui.getRandom().nextLong(), origin_x, origin_y);
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Adjusts the altitudes using multi-octave simplex noise.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + this.args.get(0) + " [scale] [frequency] [octaves] [type] [<x> <y>]");
+        rv.add("Where [type] is one of: fbm, ridged, billow");
+        rv.add("With <x> <y>, the terrain is placed at world coordinates (x, y) of the noise.");
+        rv.add("The terrain is then raised by the scale instead of by its lowest point, so the pieces fit together.");
+        rv.add("Defaults: scale=1, frequency=0.015625 (features per tile), octaves=6, type=fbm");
+        return rv;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.terrain.Terrain;
+import plortz.terrain.TerrainHistory;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to undo the last change to the terrain.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class Undo extends Command {
+
+    @Override
+    public void execute(UserInterface ui) {
+        if (this.args.size() == 3 && this.args.get(1).equals("copies")) {
+            this.setFullCopies(ui);
+            return;
+        }
+        if (this.args.size() != 1) {
+            this.showUsage(ui);
+            return;
+        }
+        Terrain terrain = ui.getTerrainHistory().undo(ui.getTerrain());
+        if (terrain == null) {
+            ui.showMessage("Nothing to undo.");
+            return;
+        }
+        ui.setTerrain(terrain);
+    }
+
+    private void setFullCopies(UserInterface ui) {
+        if (!this.args.get(2).equals("on") && !this.args.get(2).equals("off")) {
+            this.showUsage(ui);
+            return;
+        }
+        ui.getTerrainHistory().setFullCopies(this.args.get(2).equals("on"));
+        ui.showMessage("Full copies for the undo history: " + this.args.get(2));
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Undoes the last change to the terrain.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + args.get(0) + " [copies on|off]");
+        rv.add("At most " + TerrainHistory.MAX_SNAPSHOTS + " changes can be undone.");
+        rv.add("The history is kept cheaply for the columns, chunked and float storages.");
+        rv.add("For the objects storage the terrain must be copied before every change, which is done");
+        rv.add("only after \"" + args.get(0) + " copies on\", and for terrains of at most " + TerrainHistory.MAX_FULL_COPY_TILES + " tiles.");
+        rv.add("The history is never kept for the mapped storage.");
+        return rv;
+    }
+}
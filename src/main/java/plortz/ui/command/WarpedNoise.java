@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.ui.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import plortz.tool.Tool;
+import plortz.tool.noise.Fractal;
+import plortz.ui.UserInterface;
+
+/**
+ * Command to execute the domain warped noise tool.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class WarpedNoise extends FractalNoise {
+    
+    private double strength;
+
+    @Override
+    protected int getExtraArgumentCount() {
+        return 1;
+    }
+
+    @Override
+    protected void parseExtraArguments() {
+        this.strength = this.args.size() >= 4 ? Double.parseDouble(this.args.get(3)) : 32.0;
+    }
+
+    @Override
+    protected Tool createTool(UserInterface ui, double scale, double frequency, Fractal.Type type, int octaves, int origin_x, int origin_y) {
+        if (!this.hasOrigin()) {
+            return new plortz.tool.WarpedNoise(scale, frequency, this.strength, type, octaves, ui.getRandom());
+        }
+        return new plortz.tool.WarpedNoise(scale, frequency, this.strength, type, octaves, ui.getRandom().nextLong(), origin_x, origin_y);
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "Adjusts the altitudes using domain warped multi-octave simplex noise.";
+    }
+
+    @Override
+    public List<String> getUsage() {
+        List<String> rv = new ArrayList<>();
+        rv.add("Usage: " + this.args.get(0) + " [scale] [frequency] [strength] [octaves] [type] [<x> <y>]");
+        rv.add("Where [strength] is the largest displacement of the sampled points in tiles,");
+        rv.add("and [type] is one of: fbm, ridged, billow");
+        rv.add("With <x> <y>, the terrain is placed at world coordinates (x, y) of the noise.");
+        rv.add("The terrain is then raised by the scale instead of by its lowest point, so the pieces fit together.");
+        rv.add("Defaults: scale=1, frequency=0.015625 (features per tile), strength=32, octaves=6, type=fbm");
+        return rv;
+    }
+}
@@ -17,8 +17,6 @@
 package plortz.ui.lwjgui;
 
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.List;
 import lwjgui.event.KeyEvent;
 import lwjgui.event.MouseEvent;
 import lwjgui.event.ScrollEvent;
@@ -36,11 +34,13 @@ import lwjgui.scene.layout.OpenGLPane;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFW;
+import plortz.observer.Observer;
 import plortz.util.Vector;
 import plortz.terrain.Terrain;
 import plortz.terrain.Tile;
 import plortz.ui.UserInterface;
 import plortz.util.Camera;
+import plortz.util.Rectangle;
 
 /**
  * Widget showing the current terrain in 3d.
@@ -52,9 +52,16 @@ public class TerrainView3d extends Widget implements Renderer {
     // The user interface this widget is part of:
     private UserInterface user_interface;
 
+    private static final int FLOATS_PER_VERTEX = 3 + 4 + 3; // Position, color and normal.
+    
     // The terrain size for which the current mesh is constructed for:
     private int vertex_count;
-    private boolean dirty;
+    private int mesh_width;
+    private int mesh_length;
+    private float mesh_min_altitude; // The lowest altitude when the mesh was constructed, the mesh starts from zero.
+    private boolean dirty;           // True if the whole mesh needs to be constructed again.
+    private Rectangle dirty_region;  // The tiles changed since the mesh was updated.
+    private final Observer terrain_observer;
     
     // OpenGL objects:
     private Shader shader;
@@ -95,11 +102,25 @@ public class TerrainView3d extends Widget implements Renderer {
         this.moving_forward        = 0;
         this.moving_right          = 0;
         
+        // The same observer is used for all the terrains, so that a terrain restored with undo/redo is not observed twice.
+        // Only the changed parts of the mesh are updated when the terrain tells what changed.
+        this.dirty_region = Rectangle.EMPTY;
+        this.terrain_observer = new Observer() {
+            @Override
+            public void update() {
+                dirty = true;
+            }
+
+            @Override
+            public void update(Rectangle region) {
+                addDirtyRegion(region);
+            }
+        };
         ui.listenOnTerrainChange(() -> {
             this.dirty = true;
-            this.user_interface.getTerrain().listenOnChange(() -> {
-                this.dirty = true;
-            });
+            if (this.user_interface.getTerrain() != null) {
+                this.user_interface.getTerrain().listenOnChange(this.terrain_observer);
+            }
         });
 
         this.updateGeometry();
@@ -129,83 +150,51 @@ public class TerrainView3d extends Widget implements Renderer {
     
     
     private void updateGeometry() {
-        if (!this.dirty) {
-            return;
-        }
+        boolean   full   = this.dirty;
+        Rectangle region = this.takeDirtyRegion();
         this.dirty = false;
 
         Terrain terrain = this.user_interface.getTerrain();
-        if (terrain == null) {
+        if (terrain == null || (!full && region.isEmpty())) {
             return;
         }
-        Vector minmax = terrain.getAltitudeRange();
-        float offsetx = -terrain.getWidth() / 2;
-        float offsety = -terrain.getLength() / 2;
-        var points = new ArrayList<Float>();
-        var colors = new ArrayList<Vector>();
-        for (int y = 0; y < terrain.getLength(); y++) {
-            for (int x = 0; x < terrain.getWidth(); x++) {
-                Tile t = terrain.getTile(x, y);
-                points.add(offsetx + x);
-                points.add(offsety + y);
-                points.add((float) (t.getAltitude(true) - minmax.getX()));
-                colors.add(this.getTileColor(t));
-            }
-        }
-        var normals = new ArrayList<Vector3f>();
-        for (int y = 0; y < terrain.getLength(); y++) {
-            for (int x = 0; x < terrain.getWidth(); x++) {
-                if (y == terrain.getLength() - 1 || x == terrain.getWidth() - 1) {
-                    normals.add(new Vector3f(0, 0, 1));
-                    continue;
-                }
-                int a = x + y * terrain.getWidth();
-                int b = a + 1;
-                int c = a + terrain.getWidth();
-                int d = c + 1;
-                
-                var v1 = new Vector3f(0, 0, points.get(a * 3 + 2));
-                var v2 = new Vector3f(0, 1, points.get(c * 3 + 2));
-                var v3 = new Vector3f(1, 0, points.get(b * 3 + 2));
-                normals.add(this.calculateNormal(v1, v2, v3));
-            }
+        float min = (float) terrain.getAltitudeRange().getX();
+        if (full || min != this.mesh_min_altitude || terrain.getWidth() != this.mesh_width || terrain.getLength() != this.mesh_length) {
+            this.rebuildMesh(terrain, min);
+        } else {
+            this.updateMesh(terrain, region);
         }
-        
-        this.vertex_count = (terrain.getWidth() - 1) * (terrain.getLength() - 1) * 2 * 3;
+    }
+    
+    private synchronized void addDirtyRegion(Rectangle region) {
+        this.dirty_region = this.dirty_region.union(region);
+    }
+    
+    private synchronized Rectangle takeDirtyRegion() {
+        Rectangle region = this.dirty_region;
+        this.dirty_region = Rectangle.EMPTY;
+        return region;
+    }
+    
+    private void rebuildMesh(Terrain terrain, float min_altitude) {
+        this.mesh_width        = terrain.getWidth();
+        this.mesh_length       = terrain.getLength();
+        this.mesh_min_altitude = min_altitude;
+        this.vertex_count = Math.max(this.mesh_width - 1, 0) * Math.max(this.mesh_length - 1, 0) * 2 * 3;
                  
         int vertSize = 3;
         int colorSize = 4;
         int normalSize = 3;
-        int size = vertSize + colorSize + normalSize; // Stride length
+        int size = FLOATS_PER_VERTEX; // Stride length
         int bytes = Float.BYTES; // Bytes per element (float)
 
-        FloatBuffer buffer = MemoryUtil.memAllocFloat(vertex_count * size);
-        for (int y = 0; y < terrain.getLength() - 1; y++) {
-            for (int x = 0; x < terrain.getWidth() - 1; x++) {
-                /*
-                * Generate a quad from two triangles:
-                * AB
-                * CD
-                */
-                // Point indices:
-                int a = x + y * terrain.getWidth();
-                int b = a + 1;
-                int c = a + terrain.getWidth();
-                int d = c + 1;
-                // The triangles:
-                this.addPoint(buffer, points, colors.get(a), normals.get(a), a);
-                this.addPoint(buffer, points, colors.get(b), normals.get(b), b);
-                this.addPoint(buffer, points, colors.get(c), normals.get(c), c);
-
-                this.addPoint(buffer, points, colors.get(b), normals.get(b), b);
-                this.addPoint(buffer, points, colors.get(d), normals.get(d), d);
-                this.addPoint(buffer, points, colors.get(c), normals.get(c), c);
-            }
-        }
+        FloatBuffer buffer = MemoryUtil.memAllocFloat(this.vertex_count * size);
+        this.writeQuads(buffer, terrain, new Rectangle(0, 0, this.mesh_width - 1, this.mesh_length - 1));
         buffer.flip();
 
         glBindBuffer(GL_ARRAY_BUFFER, this.vbo);
-        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
+        glBufferData(GL_ARRAY_BUFFER, buffer, GL_DYNAMIC_DRAW);
+        MemoryUtil.memFree(buffer);
 
         glBindVertexArray(this.vao);
         glEnableVertexAttribArray(0); // layout 0 shader
@@ -223,18 +212,111 @@ public class TerrainView3d extends Widget implements Renderer {
         glBindVertexArray(0);
     }
     
+    /**
+     * Replace the quads affected by the changed tiles, leaving the rest of the vertex buffer untouched.
+     * 
+     * @param terrain The terrain.
+     * @param region  The changed tiles.
+     */
+    private void updateMesh(Terrain terrain, Rectangle region) {
+        // The vertices of a tile depend on the next tiles through the normal, and each vertex is used by the quads on both sides:
+        Rectangle quads = new Rectangle(region.getX() - 2, region.getY() - 2, region.getWidth() + 2, region.getLength() + 2)
+                .intersection(new Rectangle(0, 0, this.mesh_width - 1, this.mesh_length - 1));
+        if (quads.isEmpty()) {
+            return;
+        }
+        int row_size = quads.getWidth() * 2 * 3 * FLOATS_PER_VERTEX;
+        FloatBuffer buffer = MemoryUtil.memAllocFloat(row_size * quads.getLength());
+        this.writeQuads(buffer, terrain, quads);
+
+        glBindBuffer(GL_ARRAY_BUFFER, this.vbo);
+        for (int y = 0; y < quads.getLength(); y++) {
+            buffer.limit((y + 1) * row_size);
+            buffer.position(y * row_size);
+            long first_quad = (long) (quads.getY() + y) * (this.mesh_width - 1) + quads.getX();
+            glBufferSubData(GL_ARRAY_BUFFER, first_quad * 2 * 3 * FLOATS_PER_VERTEX * Float.BYTES, buffer);
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        MemoryUtil.memFree(buffer);
+    }
+    
+    /**
+     * Write the triangles of the given quads into the buffer, in row-major order.
+     * <p>
+     * The quad at (x, y) is formed by the tiles from (x, y) to (x + 1, y + 1).
+     * 
+     * @param buffer  The destination.
+     * @param terrain The terrain.
+     * @param quads   The quads to write.
+     */
+    private void writeQuads(FloatBuffer buffer, Terrain terrain, Rectangle quads) {
+        int stride = quads.getWidth() + 1;
+        float[] vertices = this.getVertices(terrain, new Rectangle(quads.getX(), quads.getY(), stride, quads.getLength() + 1));
+        for (int y = 0; y < quads.getLength(); y++) {
+            for (int x = 0; x < quads.getWidth(); x++) {
+                /*
+                * Generate a quad from two triangles:
+                * AB
+                * CD
+                */
+                // Vertex offsets:
+                int a = (x + y * stride) * FLOATS_PER_VERTEX;
+                int b = a + FLOATS_PER_VERTEX;
+                int c = a + stride * FLOATS_PER_VERTEX;
+                int d = c + FLOATS_PER_VERTEX;
+                // The triangles:
+                buffer.put(vertices, a, FLOATS_PER_VERTEX).put(vertices, b, FLOATS_PER_VERTEX).put(vertices, c, FLOATS_PER_VERTEX);
+                buffer.put(vertices, b, FLOATS_PER_VERTEX).put(vertices, d, FLOATS_PER_VERTEX).put(vertices, c, FLOATS_PER_VERTEX);
+            }
+        }
+    }
+    
+    /**
+     * Return the vertex data (position, color and normal) of the given tiles, in row-major order.
+     * 
+     * @param terrain The terrain.
+     * @param tiles   The tiles.
+     * @return        FLOATS_PER_VERTEX floats for each tile.
+     */
+    private float[] getVertices(Terrain terrain, Rectangle tiles) {
+        // The normals need the altitudes of the next tiles too:
+        int width  = Math.min(tiles.getWidth() + 1, terrain.getWidth() - tiles.getX());
+        int length = Math.min(tiles.getLength() + 1, terrain.getLength() - tiles.getY());
+        double[] altitudes = new double[width * length];
+        terrain.getAltitudes(tiles.getX(), tiles.getY(), width, length, altitudes, true);
+        float offsetx = -terrain.getWidth() / 2;
+        float offsety = -terrain.getLength() / 2;
+        float[] vertices = new float[tiles.getWidth() * tiles.getLength() * FLOATS_PER_VERTEX];
+        for (int y = 0; y < tiles.getLength(); y++) {
+            for (int x = 0; x < tiles.getWidth(); x++) {
+                int   i   = x + y * width;
+                int   pos = (x + y * tiles.getWidth()) * FLOATS_PER_VERTEX;
+                float z   = (float) altitudes[i] - this.mesh_min_altitude;
+                Vector3f normal = new Vector3f(0, 0, 1);
+                if (x + 1 < width && y + 1 < length) {
+                    var v1 = new Vector3f(0, 0, z);
+                    var v2 = new Vector3f(0, 1, (float) altitudes[i + width] - this.mesh_min_altitude);
+                    var v3 = new Vector3f(1, 0, (float) altitudes[i + 1] - this.mesh_min_altitude);
+                    normal = this.calculateNormal(v1, v2, v3);
+                }
+                Vector color = this.getTileColor(terrain.getTile(tiles.getX() + x, tiles.getY() + y));
+                float[] vertex = {
+                    offsetx + tiles.getX() + x, offsety + tiles.getY() + y, z,
+                    (float) color.getX(), (float) color.getY(), (float) color.getZ(), 1.0f,
+                    normal.x, normal.y, normal.z
+                };
+                System.arraycopy(vertex, 0, vertices, pos, FLOATS_PER_VERTEX);
+            }
+        }
+        return vertices;
+    }
+    
     private Vector3f calculateNormal(Vector3f a, Vector3f b, Vector3f c) {
         Vector3f ca = new Vector3f(c).sub(a);
         Vector3f ba = new Vector3f(b).sub(a);
         return ca.cross(ba).normalize();
     }
     
-    private void addPoint(FloatBuffer buffer, List<Float> points, Vector color, Vector3f normal, int pos) {
-        buffer.put(points.get(pos * 3 + 0)).put(points.get(pos * 3 + 1)).put(points.get(pos * 3 + 2));
-        buffer.put((float) color.getX()).put((float) color.getY()).put((float) color.getZ()).put(1.0f);
-        buffer.put(normal.x).put(normal.y).put(normal.z);
-    }
-    
     @Override
     public void render(Context context, int width, int height) {
         if (this.proj_window_width != width || this.proj_window_height != height) {
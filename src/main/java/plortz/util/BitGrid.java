@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.Arrays;
+
+/**
+ * 2d grid of bits, the packed counterpart of Static2dArray&lt;Boolean&gt;.
+ * <p>
+ * The bits are packed 64 per long in row-major order, so the grid uses one bit per position.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class BitGrid extends Grid {
+    private final long[] bits;
+    private boolean      border_value;
+    
+    /**
+     * Constructor, the bits are initially cleared.
+     * 
+     * @param width  The width of the grid.
+     * @param length The length of the grid.
+     */
+    public BitGrid(int width, int length) {
+        super(width, length);
+        this.bits         = new long[(width * length + 63) / 64];
+        this.border_value = false;
+    }
+    
+    /**
+     * Return the bit at the given position, does not check the validity of the position.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  The bit.
+     */
+    public boolean get(int x, int y) {
+        return this.get(x + y * this.width);
+    }
+    
+    /**
+     * Return the bit at the given index, does not check the validity of the index.
+     * 
+     * @param index The index.
+     * @return      The bit.
+     */
+    public boolean get(int index) {
+        return (this.bits[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * Return the bit at the given position, or the bit chosen by the border mode if the position is outside the grid.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  The bit.
+     */
+    public boolean sample(int x, int y) {
+        int index = this.getBorderIndex(x, y);
+        return index >= 0 ? this.get(index) : this.border_value;
+    }
+    
+    /**
+     * Set the bit at the given position.
+     * 
+     * @param x     The x coordinate.
+     * @param y     The y coordinate.
+     * @param value The new bit.
+     */
+    public void set(int x, int y, boolean value) {
+        this.checkPosition(x, y);
+        this.set(x + y * this.width, value);
+    }
+    
+    /**
+     * Set the bit at the given index, does not check the validity of the index.
+     * 
+     * @param index The index.
+     * @param value The new bit.
+     */
+    public void set(int index, boolean value) {
+        if (value) {
+            this.bits[index >>> 6] |= 1L << index;
+        } else {
+            this.bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+    
+    /**
+     * Clear all the bits.
+     */
+    public void clear() {
+        Arrays.fill(this.bits, 0L);
+    }
+    
+    /**
+     * Return the index of the first set bit at or after the given index.
+     * 
+     * @param from The index to start from.
+     * @return     The index of the set bit, or -1 if there are no set bits after the given index.
+     */
+    public int nextSetIndex(int from) {
+        int word = from >>> 6;
+        if (from < 0 || word >= this.bits.length) {
+            return -1;
+        }
+        long current = this.bits[word] & (-1L << from);
+        while (current == 0) {
+            word++;
+            if (word == this.bits.length) {
+                return -1;
+            }
+            current = this.bits[word];
+        }
+        return word * 64 + Long.numberOfTrailingZeros(current);
+    }
+    
+    /**
+     * Copy a slice of a row into the given array.
+     * 
+     * @param y             The row.
+     * @param x             The first column of the slice.
+     * @param count         The number of bits to copy.
+     * @param target        The target array.
+     * @param target_offset The index in the target array of the first bit.
+     */
+    public void getRow(int y, int x, int count, boolean[] target, int target_offset) {
+        this.checkRowSlice(y, x, count);
+        int start = x + y * this.width;
+        for (int i = 0; i < count; i++) {
+            target[target_offset + i] = this.get(start + i);
+        }
+    }
+    
+    /**
+     * Copy bits from the given array into a slice of a row.
+     * 
+     * @param y             The row.
+     * @param x             The first column of the slice.
+     * @param count         The number of bits to copy.
+     * @param source        The source array.
+     * @param source_offset The index in the source array of the first bit.
+     */
+    public void setRow(int y, int x, int count, boolean[] source, int source_offset) {
+        this.checkRowSlice(y, x, count);
+        int start = x + y * this.width;
+        for (int i = 0; i < count; i++) {
+            this.set(start + i, source[source_offset + i]);
+        }
+    }
+    
+    public boolean getBorderValue() {
+        return this.border_value;
+    }
+    
+    /**
+     * Set the value returned by sample() for the positions outside the grid when the border mode is CONSTANT.
+     * 
+     * @param border_value The border value.
+     */
+    public void setBorderValue(boolean border_value) {
+        this.border_value = border_value;
+    }
+}
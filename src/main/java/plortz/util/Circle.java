@@ -21,16 +21,14 @@ import java.util.List;
 
 /**
  * Generates positions inside a circle.
+ * <p>
+ * The positions can be visited without creating position objects with forEach().
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class Circle {
 
-    private final Position       center;
-    private final int            radius;
     private final List<Position> positions;
-    private final int            processed_size; // The number of elements in processed array is processed_size * processed_size.
-    private final boolean[]      processed;      // Holds true for each position already processed, used to avoid adding same position multiple times.
     
     /**
      * Constructor.
@@ -39,25 +37,8 @@ public class Circle {
      * @param radius The radius of the circle.
      */
     public Circle(Position center, int radius) {
-        this.center = center;
-        this.radius = radius;
-        this.positions      = new ArrayList<>();
-        this.processed_size = 2 * this.radius + 1; // +1 for the center
-        this.processed      = new boolean[this.processed_size * this.processed_size];
-        for (int dy = 0; dy <= this.radius; dy++) {
-            for (int dx = dy; dx <= this.radius; dx++) {
-                if ((dx * dx) + (dy * dy) <= (this.radius * this.radius)) {
-                    this.add(+dx, +dy);
-                    this.add(+dx, -dy);
-                    this.add(-dx, +dy);
-                    this.add(-dx, -dy);
-                    this.add(+dy, +dx);
-                    this.add(+dy, -dx);
-                    this.add(-dy, +dx);
-                    this.add(-dy, -dx);
-                }
-            }
-        }
+        this.positions = new ArrayList<>();
+        forEach(center.getX(), center.getY(), radius, (x, y) -> this.positions.add(new Position(x, y)));
     }
     
     /**
@@ -69,12 +50,29 @@ public class Circle {
         return this.positions;
     }
     
-    private void add(int dx, int dy) {
-        int pos = (this.radius + dx) + (this.radius + dy) * this.processed_size;
-        if (this.processed[pos]) {
-            return;
+    /**
+     * Visit the positions enclosed by the circle, row by row.
+     * <p>
+     * The visited positions are the ones within the radius from the center, each is visited once.
+     * 
+     * @param center_x The x-coordinate of the center of the circle.
+     * @param center_y The y-coordinate of the center of the circle.
+     * @param radius   The radius of the circle.
+     * @param visitor  The visitor called for each position.
+     */
+    public static void forEach(int center_x, int center_y, int radius, Position.Visitor visitor) {
+        int half_width = radius;
+        for (int dy = -radius; dy <= radius; dy++) {
+            // Find the half width of this row, it grows until the center row and shrinks after it:
+            while (half_width > 0 && half_width * half_width + dy * dy > radius * radius) {
+                half_width--;
+            }
+            while (dy <= 0 && (half_width + 1) * (half_width + 1) + dy * dy <= radius * radius) {
+                half_width++;
+            }
+            for (int dx = -half_width; dx <= half_width; dx++) {
+                visitor.visit(center_x + dx, center_y + dy);
+            }
         }
-        this.processed[pos] = true;
-        this.positions.add(new Position(this.center, dx, dy));
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+/**
+ * Stateless pseudo-random values for grid coordinates.
+ * <p>
+ * The value of a coordinate depends only on the seed and the coordinate, so the coordinates can be processed
+ * in any order and in any number of threads with the same results, unlike with a shared Random.
+ * The coordinates are mixed with the finalizer of the SplitMix64 generator.
+ * 
+ * @see <a href="https://prng.di.unimi.it/splitmix64.c">https://prng.di.unimi.it/splitmix64.c</a>
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public final class CoordinateHash {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    
+    private CoordinateHash() {
+    }
+    
+    /**
+     * Return a pseudo-random 64-bit value for the given coordinates.
+     * 
+     * @param seed The seed.
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @return     The value.
+     */
+    public static long hash(long seed, int x, int y) {
+        return mix(mix(seed + x * GOLDEN_GAMMA) + y * GOLDEN_GAMMA);
+    }
+    
+    /**
+     * Return a pseudo-random value in range [0, 1) for the given coordinates.
+     * 
+     * @param seed The seed.
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @return     The value.
+     */
+    public static double uniform(long seed, int x, int y) {
+        return (hash(seed, x, y) >>> 11) * 0x1.0p-53;
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.Arrays;
+
+/**
+ * 2d grid of primitive double values, the unboxed counterpart of Static2dArray&lt;Double&gt;.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class DoubleGrid extends Grid {
+    private final double[] values;
+    private double         border_value;
+    
+    /**
+     * Constructor, the values are initially 0.0.
+     * 
+     * @param width  The width of the grid.
+     * @param length The length of the grid.
+     */
+    public DoubleGrid(int width, int length) {
+        this(new double[width * length], width, length);
+    }
+    
+    /**
+     * Constructor with an initial value.
+     * 
+     * @param width         The width of the grid.
+     * @param length        The length of the grid.
+     * @param initial_value The initial value of every position.
+     */
+    public DoubleGrid(int width, int length, double initial_value) {
+        this(width, length);
+        Arrays.fill(this.values, initial_value);
+    }
+    
+    /**
+     * Constructor using the given array as the storage of the grid, the array is not copied.
+     * 
+     * @param values The values in row-major order, must contain at least width * length values.
+     * @param width  The width of the grid.
+     * @param length The length of the grid.
+     */
+    public DoubleGrid(double[] values, int width, int length) {
+        super(width, length);
+        if (values.length < width * length) {
+            throw new IllegalArgumentException("Array is too small for the grid.");
+        }
+        this.values       = values;
+        this.border_value = 0.0;
+    }
+    
+    /**
+     * Return the value at the given position, does not check the validity of the position.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  The value.
+     */
+    public double get(int x, int y) {
+        return this.values[x + y * this.width];
+    }
+    
+    /**
+     * Return the value at the given index, does not check the validity of the index.
+     * 
+     * @param index The index.
+     * @return      The value.
+     */
+    public double get(int index) {
+        return this.values[index];
+    }
+    
+    /**
+     * Return the value at the given position, or the value chosen by the border mode if the position is outside the grid.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  The value.
+     */
+    public double sample(int x, int y) {
+        int index = this.getBorderIndex(x, y);
+        return index >= 0 ? this.values[index] : this.border_value;
+    }
+    
+    /**
+     * Set the value at the given position.
+     * 
+     * @param x     The x coordinate.
+     * @param y     The y coordinate.
+     * @param value The new value.
+     */
+    public void set(int x, int y, double value) {
+        this.checkPosition(x, y);
+        this.values[x + y * this.width] = value;
+    }
+    
+    /**
+     * Set the value at the given index, does not check the validity of the index.
+     * 
+     * @param index The index.
+     * @param value The new value.
+     */
+    public void set(int index, double value) {
+        this.values[index] = value;
+    }
+    
+    /**
+     * Set every value of the grid.
+     * 
+     * @param value The new value.
+     */
+    public void fill(double value) {
+        Arrays.fill(this.values, 0, this.size(), value);
+    }
+    
+    /**
+     * Copy a slice of a row into the given array.
+     * 
+     * @param y             The row.
+     * @param x             The first column of the slice.
+     * @param count         The number of values to copy.
+     * @param target        The target array.
+     * @param target_offset The index in the target array of the first value.
+     */
+    public void getRow(int y, int x, int count, double[] target, int target_offset) {
+        this.checkRowSlice(y, x, count);
+        System.arraycopy(this.values, x + y * this.width, target, target_offset, count);
+    }
+    
+    /**
+     * Copy values from the given array into a slice of a row.
+     * 
+     * @param y             The row.
+     * @param x             The first column of the slice.
+     * @param count         The number of values to copy.
+     * @param source        The source array.
+     * @param source_offset The index in the source array of the first value.
+     */
+    public void setRow(int y, int x, int count, double[] source, int source_offset) {
+        this.checkRowSlice(y, x, count);
+        System.arraycopy(source, source_offset, this.values, x + y * this.width, count);
+    }
+    
+    /**
+     * Return the array storing the values, the value of (x, y) is at x + y * width.
+     * 
+     * @return The array, not a copy.
+     */
+    public double[] getValues() {
+        return this.values;
+    }
+    
+    public double getBorderValue() {
+        return this.border_value;
+    }
+    
+    /**
+     * Set the value returned by sample() for the positions outside the grid when the border mode is CONSTANT.
+     * 
+     * @param border_value The border value.
+     */
+    public void setBorderValue(double border_value) {
+        this.border_value = border_value;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+/**
+ * Abstract base class for the 2d grids of primitive values.
+ * <p>
+ * The values are stored in row-major order, the index of (x, y) is x + y * width like in Static2dArray.
+ * The plain accessors require valid positions, the sample() methods of the subclasses accept any position
+ * and handle the positions outside the grid according to the border mode.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public abstract class Grid {
+    
+    /**
+     * The handling of the positions outside the grid by the sample() methods.
+     */
+    public enum Border {
+        /**
+         * Use the value of the closest position inside the grid.
+         */
+        CLAMP,
+        /**
+         * Wrap around, the grid repeats in every direction.
+         */
+        WRAP,
+        /**
+         * Use a constant border value, see the setBorderValue() methods of the subclasses.
+         */
+        CONSTANT
+    }
+    
+    protected final int width;
+    protected final int length;
+    private Border      border;
+    
+    /**
+     * Constructor, the border mode is initially CLAMP.
+     * 
+     * @param width  The width of the grid.
+     * @param length The length of the grid.
+     */
+    protected Grid(int width, int length) {
+        if (width < 0 || length < 0) {
+            throw new IllegalArgumentException("Negative grid size " + width + "x" + length + ".");
+        }
+        this.width  = width;
+        this.length = length;
+        this.border = Border.CLAMP;
+    }
+    
+    public int getWidth() {
+        return this.width;
+    }
+    
+    public int getLength() {
+        return this.length;
+    }
+    
+    /**
+     * Return the number of values in the grid.
+     * 
+     * @return The number of values.
+     */
+    public int size() {
+        return this.width * this.length;
+    }
+    
+    public Border getBorder() {
+        return this.border;
+    }
+    
+    public void setBorder(Border border) {
+        this.border = border;
+    }
+    
+    /**
+     * Check if the given position is valid for this grid.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  True if the given position is valid.
+     */
+    public boolean isValidPosition(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.length;
+    }
+    
+    /**
+     * Check if the given position is valid for this grid.
+     * 
+     * @param position The position to check.
+     * @return         True if the given position is valid.
+     */
+    public boolean isValidPosition(Position position) {
+        if (position == null) {
+            return false;
+        }
+        return this.isValidPosition(position.getX(), position.getY());
+    }
+    
+    /**
+     * Return the index of the given position, does not check the validity of the position.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return  The index.
+     */
+    public int getIndex(int x, int y) {
+        return x + y * this.width;
+    }
+    
+    /**
+     * Return the index of the value to use for the given position according to the border mode.
+     * 
+     * @param x The x coordinate, may be outside the grid.
+     * @param y The y coordinate, may be outside the grid.
+     * @return  The index, or -1 if the border value should be used.
+     */
+    protected final int getBorderIndex(int x, int y) {
+        if (this.isValidPosition(x, y)) {
+            return x + y * this.width;
+        }
+        switch (this.border) {
+            case CLAMP:
+                return Math.min(Math.max(x, 0), this.width - 1) + Math.min(Math.max(y, 0), this.length - 1) * this.width;
+            case WRAP:
+                return Math.floorMod(x, this.width) + Math.floorMod(y, this.length) * this.width;
+            default:
+                return -1;
+        }
+    }
+    
+    /**
+     * Check that the given row slice is inside the grid, and throw IndexOutOfBoundsException if not.
+     * 
+     * @param y     The row.
+     * @param x     The first column of the slice.
+     * @param count The number of values in the slice.
+     */
+    protected final void checkRowSlice(int y, int x, int count) {
+        if (y < 0 || y >= this.length || x < 0 || count < 0 || x + count > this.width) {
+            throw new IndexOutOfBoundsException("Row slice " + x + "+" + count + " of row " + y + " is outside the grid.");
+        }
+    }
+    
+    /**
+     * Throw IndexOutOfBoundsException if the given position is not valid.
+     * 
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    protected final void checkPosition(int x, int y) {
+        if (!this.isValidPosition(x, y)) {
+            throw new IndexOutOfBoundsException("Position " + x + ", " + y + " is outside the grid.");
+        }
+    }
+}
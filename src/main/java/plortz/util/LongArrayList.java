@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive longs, for example coordinates packed with Position.pack().
+ * <p>
+ * Unlike List&lt;Long&gt; the elements are not boxed, so adding an element does not create an object.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class LongArrayList {
+    private long[] data;
+    private int    size;
+    
+    public LongArrayList() {
+        this.data = new long[16];
+        this.size = 0;
+    }
+    
+    /**
+     * Append a value at the end of the list.
+     * 
+     * @param value The value.
+     */
+    public void add(long value) {
+        if (this.size == this.data.length) {
+            this.data = Arrays.copyOf(this.data, this.data.length * 2);
+        }
+        this.data[this.size++] = value;
+    }
+    
+    /**
+     * Return the value at the given index.
+     * 
+     * @param index The index.
+     * @return      The value.
+     */
+    public long get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return this.data[index];
+    }
+    
+    /**
+     * Remove and return the last value of the list.
+     * 
+     * @return The removed value.
+     */
+    public long removeLast() {
+        if (this.size == 0) {
+            throw new IndexOutOfBoundsException("The list is empty.");
+        }
+        return this.data[--this.size];
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    
+    public void clear() {
+        this.size = 0;
+    }
+}
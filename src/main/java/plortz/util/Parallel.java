@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Helpers to run work split into bands in parallel using a fork-join pool.
+ * <p>
+ * The range [0, count) is split into consecutive bands, each band is processed by a single thread.
+ * Used for example to process the rows of a terrain in row bands.
+ * The number of threads used is global, and defaults to the number of available processors.
+ * With a single thread, or when the range is too small to be split, the work is done in the calling thread.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public final class Parallel {
+    
+    /**
+     * The work done for a single band.
+     */
+    public interface Band {
+        /**
+         * Process the band.
+         * 
+         * @param start The first index of the band.
+         * @param end   The index after the last index of the band.
+         */
+        void run(int start, int end);
+    }
+    
+    /**
+     * The work done for a single band, returning a result.
+     */
+    public interface BandFunction {
+        /**
+         * Process the band.
+         * 
+         * @param start The first index of the band.
+         * @param end   The index after the last index of the band.
+         * @return      The result for the band.
+         */
+        double apply(int start, int end);
+    }
+    
+    private static final int BANDS_PER_THREAD = 4; // More bands than threads balance the load when some bands are slower.
+    
+    private static int          threads = Runtime.getRuntime().availableProcessors();
+    private static ForkJoinPool pool    = null;
+    
+    private Parallel() {
+    }
+    
+    /**
+     * Set the number of threads used.
+     * 
+     * @param threads The number of threads, at least 1.
+     */
+    public static synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1.");
+        }
+        if (threads != Parallel.threads && pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        Parallel.threads = threads;
+    }
+    
+    /**
+     * Return the number of threads used.
+     * 
+     * @return The number of threads.
+     */
+    public static synchronized int getThreads() {
+        return threads;
+    }
+    
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+    
+    private static int getBandCount(int count, int min_band_size) {
+        int max_bands = count / Math.max(min_band_size, 1);
+        return Math.max(1, Math.min(getThreads() * BANDS_PER_THREAD, max_bands));
+    }
+    
+    /**
+     * Process the range [0, count) in bands in parallel, and wait for all the bands to finish.
+     * 
+     * @param count         The size of the range.
+     * @param min_band_size The minimum size of a band, smaller ranges are not split.
+     * @param band          The work for a band.
+     */
+    public static void forEachBand(int count, int min_band_size, Band band) {
+        int bands = getBandCount(count, min_band_size);
+        if (bands == 1 || getThreads() == 1) {
+            band.run(0, count);
+            return;
+        }
+        getPool().invoke(new BandAction(count, bands, 0, bands, band));
+    }
+    
+    /**
+     * Process the range [0, count) in bands in parallel, and combine the results of the bands.
+     * 
+     * @param count         The size of the range.
+     * @param min_band_size The minimum size of a band, smaller ranges are not split.
+     * @param function      The work for a band.
+     * @param combiner      Combines the results of two bands, must be associative.
+     * @return              The combined result.
+     */
+    public static double reduceBands(int count, int min_band_size, BandFunction function, DoubleBinaryOperator combiner) {
+        int bands = getBandCount(count, min_band_size);
+        if (bands == 1 || getThreads() == 1) {
+            return function.apply(0, count);
+        }
+        return getPool().invoke(new BandTask(count, bands, 0, bands, function, combiner));
+    }
+    
+    /**
+     * Run the given task in the pool of this class, and wait for it to finish.
+     * <p>
+     * The parallel streams started by the task, for example TerrainConcurrency.parallelStream(), use the same pool,
+     * so they respect the number of threads set with setThreads() instead of using the common pool.
+     * With a single thread the task is run in the calling thread.
+     * 
+     * @param task The task.
+     */
+    public static void run(Runnable task) {
+        if (getThreads() == 1 || ForkJoinTask.inForkJoinPool()) {
+            task.run();
+            return;
+        }
+        getPool().invoke(ForkJoinTask.adapt(task));
+    }
+    
+    private static int getBandStart(int count, int bands, int band) {
+        return (int) ((long) count * band / bands);
+    }
+    
+    /**
+     * Processes the bands [first, last) by splitting them in halves until a single band remains.
+     */
+    private static class BandAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int  count;
+        private final int  bands;
+        private final int  first;
+        private final int  last;
+        private final Band band;
+        
+        BandAction(int count, int bands, int first, int last, Band band) {
+            this.count = count;
+            this.bands = bands;
+            this.first = first;
+            this.last  = last;
+            this.band  = band;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.last - this.first == 1) {
+                this.band.run(getBandStart(this.count, this.bands, this.first), getBandStart(this.count, this.bands, this.last));
+                return;
+            }
+            int middle = (this.first + this.last) / 2;
+            invokeAll(new BandAction(this.count, this.bands, this.first, middle, this.band),
+                      new BandAction(this.count, this.bands, middle, this.last, this.band));
+        }
+    }
+    
+    /**
+     * Like BandAction, but combines the results of the bands.
+     */
+    private static class BandTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+        
+        private final int                  count;
+        private final int                  bands;
+        private final int                  first;
+        private final int                  last;
+        private final BandFunction         function;
+        private final DoubleBinaryOperator combiner;
+        
+        BandTask(int count, int bands, int first, int last, BandFunction function, DoubleBinaryOperator combiner) {
+            this.count    = count;
+            this.bands    = bands;
+            this.first    = first;
+            this.last     = last;
+            this.function = function;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected Double compute() {
+            if (this.last - this.first == 1) {
+                return this.function.apply(getBandStart(this.count, this.bands, this.first), getBandStart(this.count, this.bands, this.last));
+            }
+            int middle = (this.first + this.last) / 2;
+            BandTask low  = new BandTask(this.count, this.bands, this.first, middle, this.function, this.combiner);
+            BandTask high = new BandTask(this.count, this.bands, middle, this.last, this.function, this.combiner);
+            high.fork();
+            double result = low.compute();
+            return this.combiner.applyAsDouble(result, high.join());
+        }
+    }
+}
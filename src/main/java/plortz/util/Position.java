@@ -18,10 +18,32 @@ package plortz.util;
 
 /**
  * Simple class to wrap x and y coordinates as a location object for code readability.
+ * <p>
+ * The hot loops avoid creating position objects by packing the coordinates into a single long with pack(),
+ * or by visiting the coordinates with a Visitor, for example the neighbors with forEachNeighbor().
  * 
  * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
  */
 public class Position {
+    
+    /**
+     * Callback receiving coordinates without wrapping them into position objects.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Called for each visited coordinate.
+         * 
+         * @param x The x-coordinate.
+         * @param y The y-coordinate.
+         */
+        public void visit(int x, int y);
+    }
+    
+    // The offsets of the 8 neighbors, row by row.
+    private static final int[] NEIGHBOR_DX = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    private static final int[] NEIGHBOR_DY = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    
     private int x;
     private int y;
 
@@ -96,4 +118,63 @@ public class Position {
     public int hashCode() {
         return 73 * 73 * Integer.hashCode(this.x) + 73 * Integer.hashCode(this.y);
     }
+    
+    /**
+     * Pack the coordinates into a single long, the x-coordinate in the low 32 bits and the y-coordinate in the high 32 bits.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  The packed coordinates.
+     */
+    public static long pack(int x, int y) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+    
+    /**
+     * Return the x-coordinate of packed coordinates.
+     * 
+     * @param packed The coordinates packed with pack().
+     * @return       The x-coordinate.
+     */
+    public static int unpackX(long packed) {
+        return (int) packed;
+    }
+    
+    /**
+     * Return the y-coordinate of packed coordinates.
+     * 
+     * @param packed The coordinates packed with pack().
+     * @return       The y-coordinate.
+     */
+    public static int unpackY(long packed) {
+        return (int) (packed >> 32);
+    }
+    
+    /**
+     * Return the packed coordinates as a new position object.
+     * 
+     * @param packed The coordinates packed with pack().
+     * @return       The position.
+     */
+    public static Position unpack(long packed) {
+        return new Position(unpackX(packed), unpackY(packed));
+    }
+    
+    /**
+     * Visit the neighbors of the given coordinates, in the same order as the position objects returned by PathFinderHeuristic.getNeighbors().
+     * <p>
+     * The neighbors are not checked against any bounds.
+     * 
+     * @param x         The x-coordinate.
+     * @param y         The y-coordinate.
+     * @param diagonals True to visit all the 8 neighbors, false to visit only the 4 straight neighbors.
+     * @param visitor   The visitor called for each neighbor.
+     */
+    public static void forEachNeighbor(int x, int y, boolean diagonals, Visitor visitor) {
+        for (int i = 0; i < NEIGHBOR_DX.length; i++) {
+            if (diagonals || NEIGHBOR_DX[i] == 0 || NEIGHBOR_DY[i] == 0) {
+                visitor.visit(x + NEIGHBOR_DX[i], y + NEIGHBOR_DY[i]);
+            }
+        }
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+/**
+ * Immutable axis-aligned rectangle of tiles.
+ * <p>
+ * The rectangle covers the tiles from (x, y) to (x + width - 1, y + length - 1),
+ * a rectangle with zero width or length is empty.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class Rectangle {
+    /**
+     * The empty rectangle.
+     */
+    public static final Rectangle EMPTY = new Rectangle(0, 0, 0, 0);
+    
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int length;
+    
+    /**
+     * Constructor.
+     * 
+     * @param x      The x-coordinate of the top-left corner.
+     * @param y      The y-coordinate of the top-left corner.
+     * @param width  The width (x-axis), negative values are treated as zero.
+     * @param length The length (y-axis), negative values are treated as zero.
+     */
+    public Rectangle(int x, int y, int width, int length) {
+        this.x      = x;
+        this.y      = y;
+        this.width  = Math.max(width, 0);
+        this.length = Math.max(length, 0);
+    }
+    
+    public int getX() {
+        return this.x;
+    }
+    
+    public int getY() {
+        return this.y;
+    }
+    
+    public int getWidth() {
+        return this.width;
+    }
+    
+    public int getLength() {
+        return this.length;
+    }
+    
+    public boolean isEmpty() {
+        return this.width == 0 || this.length == 0;
+    }
+    
+    /**
+     * Return true if the given position is inside this rectangle.
+     * 
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return  True if the position is inside.
+     */
+    public boolean contains(int x, int y) {
+        return x >= this.x && x < this.x + this.width && y >= this.y && y < this.y + this.length;
+    }
+    
+    /**
+     * Return the smallest rectangle containing both this and the other rectangle.
+     * <p>
+     * Empty rectangles are ignored.
+     * 
+     * @param other The other rectangle.
+     * @return      The bounding rectangle of the two.
+     */
+    public Rectangle union(Rectangle other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return other;
+        }
+        int left   = Math.min(this.x, other.x);
+        int top    = Math.min(this.y, other.y);
+        int right  = Math.max(this.x + this.width, other.x + other.width);
+        int bottom = Math.max(this.y + this.length, other.y + other.length);
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+    
+    /**
+     * Return the area covered by both this and the other rectangle.
+     * 
+     * @param other The other rectangle.
+     * @return      The intersection, empty if the rectangles do not overlap.
+     */
+    public Rectangle intersection(Rectangle other) {
+        int left   = Math.max(this.x, other.x);
+        int top    = Math.max(this.y, other.y);
+        int right  = Math.min(this.x + this.width, other.x + other.width);
+        int bottom = Math.min(this.y + this.length, other.y + other.length);
+        if (right <= left || bottom <= top) {
+            return EMPTY;
+        }
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Rectangle)) {
+            return false;
+        }
+        Rectangle other = (Rectangle) obj;
+        if (this.isEmpty() || other.isEmpty()) {
+            return this.isEmpty() && other.isEmpty();
+        }
+        return this.x == other.x && this.y == other.y && this.width == other.width && this.length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+        if (this.isEmpty()) {
+            return 0;
+        }
+        return ((this.x * 31 + this.y) * 31 + this.width) * 31 + this.length;
+    }
+    
+    @Override
+    public String toString() {
+        return "Rectangle[" + this.x + ", " + this.y + ", " + this.width + "x" + this.length + "]";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+/**
+ * Summed-area table, for calculating the sum of the values inside any rectangle in constant time.
+ * <p>
+ * The table holds the sums of the values above and to the left of each position,
+ * the sum over a rectangle is then calculated from the sums at its four corners.
+ * The sums of the squared values can be included for calculating variances.
+ * <p>
+ * To keep the sums accurate also when the values are large, the average of all the values is
+ * subtracted from the values before summing them.
+ * 
+ * @see <a href="https://en.wikipedia.org/wiki/Summed-area_table">https://en.wikipedia.org/wiki/Summed-area_table</a>
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SummedAreaTable {
+    private final int      width;
+    private final int      length;
+    private final double   offset;  // Subtracted from the values before summing.
+    private final double[] sums;    // The sum of the values in [0, x) x [0, y) is at x + y * (width + 1).
+    private final double[] squares; // The same for the squared values, null if not requested.
+    
+    /**
+     * Constructor.
+     * 
+     * @param values       The values, the value at (x, y) is at x + y * width.
+     * @param width        The width (x-axis).
+     * @param length       The length (y-axis).
+     * @param with_squares If true, the sums of the squared values are also calculated, see getVariance().
+     */
+    public SummedAreaTable(double[] values, int width, int length, boolean with_squares) {
+        this.width   = width;
+        this.length  = length;
+        this.offset  = getAverage(values, width * length);
+        this.sums    = new double[(width + 1) * (length + 1)];
+        this.squares = with_squares ? new double[this.sums.length] : null;
+        for (int y = 0; y < length; y++) {
+            this.sumRow(values, y);
+        }
+    }
+    
+    private static double getAverage(double[] values, int count) {
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return count > 0 ? sum / count : 0.0;
+    }
+    
+    private void sumRow(double[] values, int y) {
+        int    stride     = this.width + 1;
+        int    above      = y * stride;
+        int    row        = above + stride;
+        double row_sum    = 0.0;
+        double row_square = 0.0;
+        for (int x = 0; x < this.width; x++) {
+            double value = values[x + y * this.width] - this.offset;
+            row_sum += value;
+            this.sums[row + x + 1] = this.sums[above + x + 1] + row_sum;
+            if (this.squares != null) {
+                row_square += value * value;
+                this.squares[row + x + 1] = this.squares[above + x + 1] + row_square;
+            }
+        }
+    }
+    
+    public int getWidth() {
+        return this.width;
+    }
+    
+    public int getLength() {
+        return this.length;
+    }
+    
+    /**
+     * Return the sum of the values inside the rectangle, the rectangle must be inside the table.
+     * 
+     * @param x      The x-coordinate of the top-left corner.
+     * @param y      The y-coordinate of the top-left corner.
+     * @param width  The width of the rectangle.
+     * @param length The length of the rectangle.
+     * @return       The sum.
+     */
+    public double getSum(int x, int y, int width, int length) {
+        return this.getOffsetSum(this.sums, x, y, width, length) + this.offset * width * length;
+    }
+    
+    /**
+     * Return the average of the values inside the rectangle, the rectangle must be inside the table and not empty.
+     * 
+     * @param x      The x-coordinate of the top-left corner.
+     * @param y      The y-coordinate of the top-left corner.
+     * @param width  The width of the rectangle.
+     * @param length The length of the rectangle.
+     * @return       The average.
+     */
+    public double getAverage(int x, int y, int width, int length) {
+        return this.getOffsetSum(this.sums, x, y, width, length) / (width * length) + this.offset;
+    }
+    
+    /**
+     * Return the (population) variance of the values inside the rectangle.
+     * <p>
+     * The rectangle must be inside the table and not empty, and the table must be created with the squares.
+     * 
+     * @param x      The x-coordinate of the top-left corner.
+     * @param y      The y-coordinate of the top-left corner.
+     * @param width  The width of the rectangle.
+     * @param length The length of the rectangle.
+     * @return       The variance.
+     */
+    public double getVariance(int x, int y, int width, int length) {
+        if (this.squares == null) {
+            throw new IllegalStateException("The table does not have the squared values.");
+        }
+        int    count = width * length;
+        double mean  = this.getOffsetSum(this.sums, x, y, width, length) / count;
+        double var   = this.getOffsetSum(this.squares, x, y, width, length) / count - mean * mean;
+        return Math.max(var, 0.0);
+    }
+    
+    private double getOffsetSum(double[] table, int x, int y, int width, int length) {
+        int stride = this.width + 1;
+        int top    = y * stride;
+        int bottom = (y + length) * stride;
+        return table[bottom + x + width] - table[bottom + x] - table[top + x + width] + table[top + x];
+    }
+}
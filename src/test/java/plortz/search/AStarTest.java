@@ -79,4 +79,24 @@ public class AStarTest {
         assertEquals(new Position(4, 3), path.get(2));
         assertEquals(new Position(5, 3), path.get(3));
     }
+    
+    @Test(timeout = 10000)
+    public void cheaperPathToClosedPositionDoesNotCreateLoop() {
+        // Reaching the start again from its neighbor is cheaper than the start itself was,
+        // re-parenting the closed start would make the path loop between the first two positions.
+        String[] map = new String[] { "   " };
+        PathFinderTestHeuristic h = new PathFinderTestHeuristic(map, new Position(2, 0)) {
+            @Override
+            public double estimateCost(Position previous, Position current) {
+                if (previous == null) {
+                    return 10.0;
+                }
+                return current.getX() == 0 ? 1.0 : 4.0 + current.getX();
+            }
+        };
+        List<Position> path = path_finder.find(new Position(0, 0), h);
+        assertEquals(3, path.size());
+        assertEquals(new Position(0, 0), path.get(0));
+        assertEquals(new Position(2, 0), path.get(2));
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.util.Position;
+import plortz.util.Rectangle;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class AltitudePyramidTest {
+    
+    private Random random;
+    
+    public AltitudePyramidTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        random = new Random(7);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void randomize(Terrain terrain, int count) {
+        for (int i = 0; i < count; i++) {
+            Tile t = terrain.getTile(random.nextInt(terrain.getWidth()), random.nextInt(terrain.getLength()));
+            t.getBottomSoil().setAmount(random.nextDouble() * 100.0);
+        }
+    }
+    
+    private void assertMatchesTiles(Terrain terrain, Rectangle area) {
+        double min   = Double.POSITIVE_INFINITY;
+        double max   = Double.NEGATIVE_INFINITY;
+        double sum   = 0.0;
+        int    count = 0;
+        for (int y = Math.max(area.getY(), 0); y < Math.min(area.getY() + area.getLength(), terrain.getLength()); y++) {
+            for (int x = Math.max(area.getX(), 0); x < Math.min(area.getX() + area.getWidth(), terrain.getWidth()); x++) {
+                double altitude = terrain.getTile(x, y).getAltitude(false);
+                min = Math.min(min, altitude);
+                max = Math.max(max, altitude);
+                sum += altitude;
+                count++;
+            }
+        }
+        AltitudePyramid pyramid = terrain.getAltitudePyramid();
+        assertEquals(min, pyramid.getMin(area), 0.0);
+        assertEquals(max, pyramid.getMax(area), 0.0);
+        assertEquals(sum / count, pyramid.getAverage(area), 1e-9);
+        Position lowest = pyramid.findLowest(area);
+        assertTrue(area.contains(lowest.getX(), lowest.getY()));
+        assertEquals(min, terrain.getTile(lowest).getAltitude(false), 0.0);
+    }
+    
+    private Rectangle randomRectangle(Terrain terrain) {
+        int x = random.nextInt(terrain.getWidth() + 20) - 10;
+        int y = random.nextInt(terrain.getLength() + 20) - 10;
+        return new Rectangle(x, y, random.nextInt(terrain.getWidth()) + 1, random.nextInt(terrain.getLength()) + 1)
+                .intersection(new Rectangle(0, 0, terrain.getWidth(), terrain.getLength()))
+                .union(new Rectangle(Math.max(x, 0) % terrain.getWidth(), Math.max(y, 0) % terrain.getLength(), 1, 1));
+    }
+
+    @Test
+    public void queriesMatchTheTiles() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain terrain = new Terrain(150, 70, SoilLayer.Type.DIRT, storage_type);
+            randomize(terrain, 3000);
+            for (int i = 0; i < 50; i++) {
+                assertMatchesTiles(terrain, randomRectangle(terrain));
+            }
+            assertMatchesTiles(terrain, new Rectangle(0, 0, 150, 70));
+        }
+    }
+    
+    @Test
+    public void queriesFollowTheChanges() {
+        Terrain terrain = new Terrain(300, 200, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        randomize(terrain, 5000);
+        for (int round = 0; round < 10; round++) {
+            randomize(terrain, 10);
+            for (int i = 0; i < 10; i++) {
+                assertMatchesTiles(terrain, randomRectangle(terrain));
+            }
+        }
+    }
+    
+    @Test
+    public void emptyAreaHasNoTiles() {
+        Terrain terrain = new Terrain(10, 10);
+        AltitudePyramid pyramid = terrain.getAltitudePyramid();
+        assertNull(pyramid.findLowest(new Rectangle(20, 20, 5, 5)));
+        assertTrue(Double.isNaN(pyramid.getAverage(new Rectangle(-5, 0, 5, 5))));
+        assertFalse(pyramid.isAnyAbove(new Rectangle(20, 20, 5, 5), 0.0));
+        assertTrue(pyramid.isAnyAbove(new Rectangle(0, 0, 1, 1), 0.5));
+    }
+}
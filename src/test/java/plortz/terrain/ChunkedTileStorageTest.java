@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import plortz.util.Position;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ChunkedTileStorageTest {
+    
+    private Terrain objects;
+    private Terrain chunked;
+    private double  testdelta;
+    
+    public ChunkedTileStorageTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        objects   = new Terrain(150, 70, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+        chunked   = new Terrain(150, 70, SoilLayer.Type.DIRT, Terrain.StorageType.CHUNKED);
+        testdelta = 0.00001;
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void modify(Terrain terrain) {
+        for (int y = 0; y < terrain.getLength(); y++) {
+            for (int x = 0; x < terrain.getWidth(); x++) {
+                Tile t = terrain.getTile(x, y);
+                t.adjustTopSoilAmount((x % 13) * 0.5 - (y % 7));
+                t.addSoil(SoilLayer.Type.SAND, 0.25 + x % 5);
+                if ((x + y) % 2 == 0) {
+                    t.insertSoil(1, SoilLayer.Type.CLIFF, 2.0);
+                }
+                t.setWater(x % 4 - 2);
+            }
+        }
+        terrain.zeroBottomSoilLayer();
+    }
+    
+    private void assertSameTiles(Terrain a, Terrain b) {
+        for (int y = 0; y < a.getLength(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                Tile ta = a.getTile(x, y);
+                Tile tb = b.getTile(x, y);
+                assertEquals(ta.getLayerCount(), tb.getLayerCount());
+                for (int i = 0; i < ta.getLayerCount(); i++) {
+                    assertEquals(ta.getLayerType(i), tb.getLayerType(i));
+                    assertEquals(ta.getLayerAmount(i), tb.getLayerAmount(i), testdelta);
+                }
+                assertEquals(ta.getWater(), tb.getWater(), testdelta);
+                assertEquals(ta.getAltitude(true), tb.getAltitude(true), testdelta);
+            }
+        }
+    }
+    
+    @Test
+    public void indicesAreUniqueAndReversible() {
+        int[][] sizes = { { 1, 1 }, { 64, 64 }, { 65, 3 }, { 3, 65 }, { 150, 70 }, { 128, 129 } };
+        for (int[] size : sizes) {
+            ChunkedTileStorage storage = new ChunkedTileStorage(size[0], size[1], SoilLayer.Type.DIRT);
+            Set<Integer> indices = new HashSet<>();
+            for (int y = 0; y < size[1]; y++) {
+                for (int x = 0; x < size[0]; x++) {
+                    int index = storage.getIndex(x, y);
+                    assertTrue(index >= 0 && index < storage.size());
+                    assertTrue(indices.add(index));
+                    assertEquals(new Position(x, y), storage.getPosition(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writesMarkTheChunkOfTheTile() {
+        ChunkedTileStorage storage  = new ChunkedTileStorage(150, 70, SoilLayer.Type.DIRT);
+        ChangeTracker      changes  = new ChangeTracker(150, 70);
+        int                consumer = changes.addConsumer();
+        storage.setChangeTracker(changes);
+        changes.forEachChanged(consumer, (x, y, width, length) -> { });
+        for (int y = 0; y < 70; y++) {
+            for (int x = 0; x < 150; x++) {
+                storage.setWater(storage.getIndex(x, y), 1.0);
+                List<Position> marked = new ArrayList<>();
+                changes.forEachChanged(consumer, (cx, cy, width, length) -> marked.add(new Position(cx, cy)));
+                assertEquals(1, marked.size());
+                assertEquals(new Position(x / Terrain.CHUNK_SIZE * Terrain.CHUNK_SIZE, y / Terrain.CHUNK_SIZE * Terrain.CHUNK_SIZE), marked.get(0));
+            }
+        }
+    }
+    
+    @Test
+    public void modifiedTerrainsAreIdentical() {
+        modify(objects);
+        modify(chunked);
+        assertSameTiles(objects, chunked);
+    }
+    
+    @Test
+    public void iterationIsInRowMajorOrder() {
+        int i = 0;
+        for (Tile t : chunked) {
+            assertEquals(new Position(i % chunked.getWidth(), i / chunked.getWidth()), t.getPosition());
+            i++;
+        }
+        assertEquals(chunked.getWidth() * chunked.getLength(), i);
+    }
+    
+    @Test
+    public void bulkArraysAreInRowMajorOrder() {
+        modify(objects);
+        modify(chunked);
+        int size = objects.getWidth() * objects.getLength();
+        double[] expected = new double[size];
+        double[] actual   = new double[size];
+        for (boolean with_water : new boolean[] { false, true }) {
+            objects.getAltitudes(expected, with_water);
+            chunked.getAltitudes(actual, with_water);
+            assertArrayEquals(expected, actual, 0.0);
+        }
+        objects.getWaterDepths(expected);
+        chunked.getWaterDepths(actual);
+        assertArrayEquals(expected, actual, 0.0);
+        float[] expected_floats = new float[size];
+        float[] actual_floats   = new float[size];
+        objects.getAltitudes(expected_floats, true);
+        chunked.getAltitudes(actual_floats, true);
+        assertArrayEquals(expected_floats, actual_floats, 0.0f);
+    }
+    
+    @Test
+    public void rectangleCrossingChunksIsRead() {
+        modify(objects);
+        modify(chunked);
+        double[] expected = new double[90 * 20];
+        double[] actual   = new double[90 * 20];
+        objects.getAltitudes(50, 40, 90, 20, expected, true);
+        chunked.getAltitudes(50, 40, 90, 20, actual, true);
+        assertArrayEquals(expected, actual, 0.0);
+        assertEquals(chunked.getTile(51, 42).getAltitude(true), actual[1 + 2 * 90], 0.0);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rectangleOutsideTerrainThrows() {
+        chunked.getAltitudes(140, 0, 11, 1, new double[11], false);
+    }
+    
+    @Test
+    public void applyAltitudeDeltasUsesRowMajorOrder() {
+        double[] deltas = new double[chunked.getWidth() * chunked.getLength()];
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i] = i;
+        }
+        chunked.applyAltitudeDeltas(deltas);
+        assertEquals(1.0 + 5 + 3 * chunked.getWidth(), chunked.getTile(5, 3).getAltitude(false), testdelta);
+        assertEquals(1.0 + 100 + 66 * chunked.getWidth(), chunked.getTile(100, 66).getAltitude(false), testdelta);
+    }
+    
+    @Test
+    public void copyConstructorKeepsTheLayout() {
+        modify(chunked);
+        Terrain copy = new Terrain(chunked);
+        assertEquals(Terrain.StorageType.CHUNKED, copy.getStorageType());
+        assertSameTiles(chunked, copy);
+    }
+    
+    @Test
+    public void forEachChunkCoversTheTerrainOnce() {
+        int[] counts = new int[chunked.getWidth() * chunked.getLength()];
+        chunked.forEachChunk((x, y, width, length) -> {
+            assertTrue(width <= Terrain.CHUNK_SIZE && length <= Terrain.CHUNK_SIZE);
+            for (int dy = 0; dy < length; dy++) {
+                for (int dx = 0; dx < width; dx++) {
+                    counts[x + dx + (y + dy) * chunked.getWidth()]++;
+                }
+            }
+        });
+        for (int count : counts) {
+            assertEquals(1, count);
+        }
+    }
+}
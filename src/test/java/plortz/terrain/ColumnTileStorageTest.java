@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import plortz.util.Position;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ColumnTileStorageTest {
+    
+    private Terrain objects;
+    private Terrain columns;
+    private double  testdelta;
+    
+    public ColumnTileStorageTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        objects   = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+        columns   = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        testdelta = 0.00001;
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void modify(Terrain terrain) {
+        for (int y = 0; y < terrain.getLength(); y++) {
+            for (int x = 0; x < terrain.getWidth(); x++) {
+                Tile t = terrain.getTile(x, y);
+                t.adjustTopSoilAmount(x * 0.5 - y);
+                t.addSoil(SoilLayer.Type.SAND, 0.25 + x);
+                if ((x + y) % 2 == 0) {
+                    t.insertSoil(1, SoilLayer.Type.CLIFF, 2.0);
+                }
+                if (y % 3 == 0) {
+                    t.adjustTopSoilAmount(-100.0);
+                }
+                t.setWater(x - 2);
+            }
+        }
+        terrain.zeroBottomSoilLayer();
+    }
+    
+    private void assertSameTiles(Terrain a, Terrain b) {
+        for (int y = 0; y < a.getLength(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                Tile ta = a.getTile(x, y);
+                Tile tb = b.getTile(x, y);
+                assertEquals(ta.getLayerCount(), tb.getLayerCount());
+                for (int i = 0; i < ta.getLayerCount(); i++) {
+                    assertEquals(ta.getLayerType(i), tb.getLayerType(i));
+                    assertEquals(ta.getLayerAmount(i), tb.getLayerAmount(i), testdelta);
+                }
+                assertEquals(ta.getWater(), tb.getWater(), testdelta);
+                assertEquals(ta.getAltitude(false), tb.getAltitude(false), testdelta);
+                assertEquals(ta.getAltitude(true), tb.getAltitude(true), testdelta);
+            }
+        }
+    }
+
+    @Test
+    public void newTerrainsAreIdentical() {
+        assertSameTiles(objects, columns);
+    }
+    
+    @Test
+    public void modifiedTerrainsAreIdentical() {
+        modify(objects);
+        modify(columns);
+        assertSameTiles(objects, columns);
+    }
+    
+    @Test
+    public void storageTypeIsRetained() {
+        assertEquals(Terrain.StorageType.COLUMNS, columns.getStorageType());
+        assertEquals(Terrain.StorageType.COLUMNS, new Terrain(columns).getStorageType());
+    }
+    
+    @Test
+    public void copyConstructorDoesDeepCopy() {
+        modify(columns);
+        Terrain copy = new Terrain(columns);
+        assertSameTiles(columns, copy);
+        copy.getTile(1, 1).addSoil(SoilLayer.Type.SAND, 5.0);
+        assertTrue(copy.getTile(1, 1).getAltitude(false) - columns.getTile(1, 1).getAltitude(false) > 1.0);
+    }
+    
+    @Test
+    public void viewsWriteThrough() {
+        columns.getTile(2, 3).getTopSoil().adjustAmount(3.0);
+        assertEquals(4.0, columns.getTile(2, 3).getAltitude(false), testdelta);
+        assertEquals(columns.getTile(2, 3), columns.getTile(new Position(2, 3)));
+        assertEquals(new Position(2, 3), columns.getTile(2, 3).getPosition());
+    }
+    
+    @Test
+    public void setTileCopiesTheTile() {
+        Tile t = new Tile(new Position(0, 0), SoilLayer.Type.SAND, 5);
+        t.addSoil(SoilLayer.Type.DIRT, 2);
+        t.setWater(1);
+        columns.setTile(new Position(3, 4), t);
+        objects.setTile(new Position(3, 4), new Tile(t));
+        assertSameTiles(objects, columns);
+    }
+    
+    @Test
+    public void iterationVisitsAllTiles() {
+        int count = 0;
+        for (Tile t : columns) {
+            assertEquals(1.0, t.getAltitude(false), testdelta);
+            count++;
+        }
+        assertEquals(35, count);
+    }
+    
+    @Test
+    public void copiesAreIndependentInBothDirections() {
+        for (Terrain.StorageType storage_type : new Terrain.StorageType[] { Terrain.StorageType.COLUMNS, Terrain.StorageType.CHUNKED }) {
+            Terrain source = new Terrain(100, 90, SoilLayer.Type.DIRT, storage_type);
+            modify(source);
+            Terrain copy = new Terrain(source);
+            assertTrue(copy.isCopyOnWrite());
+            Terrain expected = new Terrain(100, 90, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+            modify(expected);
+            source.getTile(5, 5).addSoil(SoilLayer.Type.CLIFF, 3.0);
+            source.getTile(99, 89).setWater(7.0);
+            copy.getTile(50, 50).insertSoil(0, SoilLayer.Type.SAND, 2.0);
+            assertEquals(expected.getTile(5, 5).getAltitude(false), copy.getTile(5, 5).getAltitude(false), testdelta);
+            assertEquals(expected.getTile(99, 89).getWater(), copy.getTile(99, 89).getWater(), testdelta);
+            assertEquals(expected.getTile(50, 50).getAltitude(false), source.getTile(50, 50).getAltitude(false), testdelta);
+            assertEquals(expected.getTile(50, 50).getLayerCount(), source.getTile(50, 50).getLayerCount());
+            assertEquals(expected.getTile(50, 50).getLayerCount() + 1, copy.getTile(50, 50).getLayerCount());
+        }
+    }
+}
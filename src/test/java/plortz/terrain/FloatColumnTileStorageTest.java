@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class FloatColumnTileStorageTest {
+    
+    private Terrain doubles;
+    private Terrain floats;
+    
+    public FloatColumnTileStorageTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        doubles = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        floats  = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.FLOAT);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void modify(Terrain terrain) {
+        for (int y = 0; y < terrain.getLength(); y++) {
+            for (int x = 0; x < terrain.getWidth(); x++) {
+                Tile t = terrain.getTile(x, y);
+                t.adjustTopSoilAmount(x * 0.1 - y);
+                t.addSoil(SoilLayer.Type.SAND, 0.3 + x);
+                if ((x + y) % 2 == 0) {
+                    t.insertSoil(1, SoilLayer.Type.CLIFF, 2.0);
+                }
+                t.setWater(x * 0.7 - 2);
+            }
+        }
+        terrain.zeroBottomSoilLayer();
+    }
+    
+    @Test
+    public void storageTypeIsRetained() {
+        assertEquals(Terrain.StorageType.FLOAT, floats.getStorageType());
+        assertEquals(Terrain.StorageType.FLOAT, new Terrain(floats).getStorageType());
+    }
+    
+    @Test
+    public void valuesAreRoundedToFloats() {
+        Tile t = floats.getTile(1, 2);
+        t.setTopSoilAmount(0.1);
+        t.setWater(0.2);
+        assertEquals((double) 0.1f, t.getTopSoil().getAmount(), 0.0);
+        assertEquals((double) 0.2f, t.getWater(), 0.0);
+        assertEquals((double) 0.1f, t.getAltitude(false), 0.0);
+        assertEquals((double) 0.1f + (double) 0.2f, t.getAltitude(true), 0.0);
+    }
+    
+    @Test
+    public void modifiedTerrainsStayClose() {
+        modify(doubles);
+        modify(floats);
+        for (int y = 0; y < doubles.getLength(); y++) {
+            for (int x = 0; x < doubles.getWidth(); x++) {
+                Tile a = doubles.getTile(x, y);
+                Tile b = floats.getTile(x, y);
+                assertEquals(a.getLayerCount(), b.getLayerCount());
+                for (int i = 0; i < a.getLayerCount(); i++) {
+                    assertEquals(a.getLayerType(i), b.getLayerType(i));
+                    assertEquals(a.getLayerAmount(i), b.getLayerAmount(i), 0.00001);
+                }
+                assertEquals(a.getAltitude(true), b.getAltitude(true), 0.00001);
+            }
+        }
+    }
+    
+    @Test
+    public void bulkReadsMatchTheTiles() {
+        modify(floats);
+        double[] altitudes = new double[35];
+        float[]  surface   = new float[35];
+        double[] depths    = new double[35];
+        floats.getAltitudes(altitudes, true);
+        floats.getAltitudes(surface, false);
+        floats.getWaterDepths(depths);
+        for (int y = 0; y < floats.getLength(); y++) {
+            for (int x = 0; x < floats.getWidth(); x++) {
+                Tile t = floats.getTile(x, y);
+                assertEquals(t.getAltitude(true), altitudes[x + y * 7], 0.0);
+                assertEquals((float) t.getAltitude(false), surface[x + y * 7], 0.0f);
+                assertEquals(Math.max(t.getWater(), 0.0), depths[x + y * 7], 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void copyConstructorDoesDeepCopy() {
+        modify(floats);
+        Terrain copy = new Terrain(floats);
+        copy.getTile(1, 1).addSoil(SoilLayer.Type.SAND, 5.0);
+        assertEquals(floats.getTile(1, 1).getAltitude(false) + 5.0, copy.getTile(1, 1).getAltitude(false), 0.00001);
+        assertEquals(floats.getTile(2, 1).getAltitude(false), copy.getTile(2, 1).getAltitude(false), 0.0);
+    }
+    
+    @Test
+    public void copiesAreCopyOnWriteInBothDirections() {
+        modify(floats);
+        Terrain copy = new Terrain(floats);
+        assertTrue(copy.isCopyOnWrite());
+        double source_altitude = floats.getTile(3, 2).getAltitude(false);
+        double copy_water      = copy.getTile(6, 4).getWater();
+        floats.getTile(6, 4).setWater(7.0);
+        copy.getTile(3, 2).insertSoil(0, SoilLayer.Type.SAND, 2.0);
+        assertEquals(source_altitude, floats.getTile(3, 2).getAltitude(false), 0.0);
+        assertEquals(source_altitude + 2.0, copy.getTile(3, 2).getAltitude(false), 0.00001);
+        assertEquals(copy_water, copy.getTile(6, 4).getWater(), 0.0);
+        assertEquals(7.0, floats.getTile(6, 4).getWater(), 0.0);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import plortz.util.Position;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class MappedTileStorageTest {
+    
+    private Path    file;
+    private Terrain objects;
+    private Terrain mapped;
+    private double  testdelta;
+    
+    public MappedTileStorageTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() throws IOException {
+        file      = Files.createTempFile("plortz-test", ".terrain");
+        objects   = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+        mapped    = Terrain.createMapped(file, 7, 5, SoilLayer.Type.DIRT, 4);
+        testdelta = 0.00001;
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        file.toFile().deleteOnExit();
+    }
+    
+    private void modify(Terrain terrain) {
+        for (int y = 0; y < terrain.getLength(); y++) {
+            for (int x = 0; x < terrain.getWidth(); x++) {
+                Tile t = terrain.getTile(x, y);
+                t.adjustTopSoilAmount(x * 0.5 - y);
+                t.addSoil(SoilLayer.Type.SAND, 0.25 + x);
+                if ((x + y) % 2 == 0) {
+                    t.insertSoil(1, SoilLayer.Type.CLIFF, 2.0);
+                }
+                if (y % 3 == 0) {
+                    t.adjustTopSoilAmount(-100.0);
+                }
+                t.setWater(x - 2);
+            }
+        }
+        terrain.zeroBottomSoilLayer();
+    }
+    
+    private void assertSameTiles(Terrain a, Terrain b) {
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getLength(), b.getLength());
+        for (int y = 0; y < a.getLength(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                Tile ta = a.getTile(x, y);
+                Tile tb = b.getTile(x, y);
+                assertEquals(ta.getLayerCount(), tb.getLayerCount());
+                for (int i = 0; i < ta.getLayerCount(); i++) {
+                    assertEquals(ta.getLayerType(i), tb.getLayerType(i));
+                    assertEquals(ta.getLayerAmount(i), tb.getLayerAmount(i), testdelta);
+                }
+                assertEquals(ta.getWater(), tb.getWater(), testdelta);
+                assertEquals(ta.getAltitude(false), tb.getAltitude(false), testdelta);
+                assertEquals(ta.getAltitude(true), tb.getAltitude(true), testdelta);
+            }
+        }
+    }
+
+    @Test
+    public void newTerrainsAreIdentical() {
+        assertSameTiles(objects, mapped);
+    }
+    
+    @Test
+    public void modifiedTerrainsAreIdentical() {
+        modify(objects);
+        modify(mapped);
+        assertSameTiles(objects, mapped);
+    }
+    
+    @Test
+    public void reopenedTerrainIsIdentical() throws IOException {
+        modify(objects);
+        modify(mapped);
+        mapped.flush();
+        Terrain reopened = Terrain.openMapped(file);
+        assertEquals(Terrain.StorageType.MAPPED, reopened.getStorageType());
+        assertSameTiles(objects, reopened);
+    }
+    
+    @Test
+    public void copyConstructorDoesDeepCopy() {
+        modify(mapped);
+        Terrain copy = new Terrain(mapped);
+        assertEquals(Terrain.StorageType.MAPPED, copy.getStorageType());
+        assertSameTiles(mapped, copy);
+        copy.getTile(1, 1).addSoil(SoilLayer.Type.SAND, 5.0);
+        assertTrue(copy.getTile(1, 1).getAltitude(false) - mapped.getTile(1, 1).getAltitude(false) > 1.0);
+    }
+    
+    @Test
+    public void setTileCopiesTheTile() {
+        Tile t = new Tile(new Position(0, 0), SoilLayer.Type.SAND, 5);
+        t.addSoil(SoilLayer.Type.DIRT, 2);
+        t.setWater(1);
+        mapped.setTile(new Position(3, 4), t);
+        objects.setTile(new Position(3, 4), new Tile(t));
+        assertSameTiles(objects, mapped);
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void tooManySoilLayersThrows() {
+        Tile t = mapped.getTile(2, 2);
+        for (int i = 0; i < 4; i++) {
+            t.addSoil(i % 2 == 0 ? SoilLayer.Type.SAND : SoilLayer.Type.CLIFF, 1.0);
+        }
+    }
+    
+    @Test(expected = IOException.class)
+    public void openingOtherFileThrows() throws IOException {
+        Path other = Files.createTempFile("plortz-test", ".txt");
+        other.toFile().deleteOnExit();
+        Files.write(other, "not a terrain".getBytes());
+        Terrain.openMapped(other);
+    }
+    
+    @Test
+    public void temporaryMappedTerrainWorks() {
+        Terrain temporary = new Terrain(7, 5, SoilLayer.Type.DIRT, Terrain.StorageType.MAPPED);
+        modify(objects);
+        modify(temporary);
+        assertSameTiles(objects, temporary);
+    }
+}
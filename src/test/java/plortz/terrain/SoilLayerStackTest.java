@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SoilLayerStackTest {
+    
+    private SoilLayerStack stack;
+    
+    public SoilLayerStackTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        stack = new SoilLayerStack(SoilLayer.Type.CLIFF, 1.0);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private SoilLayer.Type typeOf(int layer) {
+        SoilLayer.Type[] types = SoilLayer.Type.values();
+        return types[layer % types.length];
+    }
+    
+    @Test
+    public void newStackHasOneLayer() {
+        assertEquals(1, stack.size());
+        assertEquals(SoilLayer.Type.CLIFF, stack.getType(0));
+        assertEquals(1.0, stack.getAmount(0), 0.0);
+        assertEquals(1.0, stack.getSum(), 0.0);
+    }
+    
+    @Test
+    public void pushingAndPoppingAcrossTheInlineLayersKeepsTheData() {
+        for (int i = 1; i < 10; i++) {
+            stack.insert(i, typeOf(i), i + 1);
+        }
+        assertEquals(10, stack.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i == 0 ? SoilLayer.Type.CLIFF : typeOf(i), stack.getType(i));
+            assertEquals(i + 1, stack.getAmount(i), 0.0);
+        }
+        assertEquals(55.0, stack.getSum(), 0.0);
+        for (int i = 9; i > 0; i--) {
+            stack.removeTop();
+            assertEquals(i, stack.size());
+            assertEquals(i * (i + 1) / 2, stack.getSum(), 0.0);
+        }
+    }
+    
+    @Test
+    public void insertingAtTheBottomMovesTheLayersUp() {
+        for (int i = 0; i < 5; i++) {
+            stack.insert(0, typeOf(i), 10 + i);
+        }
+        assertEquals(6, stack.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(typeOf(4 - i), stack.getType(i));
+            assertEquals(14 - i, stack.getAmount(i), 0.0);
+        }
+        assertEquals(SoilLayer.Type.CLIFF, stack.getType(5));
+        assertEquals(1.0, stack.getAmount(5), 0.0);
+    }
+    
+    @Test
+    public void settingAmountsChangesOnlyTheGivenLayer() {
+        for (int i = 1; i < 6; i++) {
+            stack.insert(i, SoilLayer.Type.SAND, 1.0);
+        }
+        stack.setAmount(4, 7.0);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i == 4 ? 7.0 : 1.0, stack.getAmount(i), 0.0);
+        }
+        assertEquals(12.0, stack.getSum(), 0.0);
+    }
+}
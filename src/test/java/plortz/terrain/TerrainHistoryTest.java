@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainHistoryTest {
+    
+    private TerrainHistory history;
+    private Terrain        terrain;
+    
+    public TerrainHistoryTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        history = new TerrainHistory();
+        terrain = new Terrain(10, 10, SoilLayer.Type.DIRT, Terrain.StorageType.CHUNKED);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void modify(double amount) {
+        history.saveCopy(terrain);
+        terrain.getTile(3, 4).addSoil(SoilLayer.Type.SAND, amount);
+    }
+    
+    private double getAltitude() {
+        return terrain.getTile(3, 4).getAltitude(false);
+    }
+    
+    @Test
+    public void emptyHistoryHasNothingToUndoOrRedo() {
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        assertNull(history.undo(terrain));
+        assertNull(history.redo(terrain));
+    }
+    
+    @Test
+    public void undoAndRedoRestoreTheTerrains() {
+        modify(1.0);
+        modify(2.0);
+        assertEquals(4.0, getAltitude(), 0.0);
+        terrain = history.undo(terrain);
+        assertEquals(2.0, getAltitude(), 0.0);
+        terrain = history.undo(terrain);
+        assertEquals(1.0, getAltitude(), 0.0);
+        assertFalse(history.canUndo());
+        terrain = history.redo(terrain);
+        assertEquals(2.0, getAltitude(), 0.0);
+        terrain = history.redo(terrain);
+        assertEquals(4.0, getAltitude(), 0.0);
+        assertFalse(history.canRedo());
+    }
+    
+    @Test
+    public void modifyingClearsTheRedoHistory() {
+        modify(1.0);
+        terrain = history.undo(terrain);
+        assertTrue(history.canRedo());
+        modify(5.0);
+        assertFalse(history.canRedo());
+        assertEquals(6.0, getAltitude(), 0.0);
+    }
+    
+    @Test
+    public void replacedTerrainIsRestored() {
+        Terrain old = terrain;
+        history.save(old);
+        terrain = new Terrain(5, 5);
+        assertSame(old, history.undo(terrain));
+    }
+    
+    @Test
+    public void historyDepthIsLimited() {
+        for (int i = 0; i < TerrainHistory.MAX_SNAPSHOTS + 5; i++) {
+            modify(1.0);
+        }
+        int count = 0;
+        while (history.canUndo()) {
+            terrain = history.undo(terrain);
+            count++;
+        }
+        assertEquals(TerrainHistory.MAX_SNAPSHOTS, count);
+        assertEquals(6.0, getAltitude(), 0.0);
+    }
+    
+    @Test
+    public void terrainsWithoutCopyOnWriteAreSavedOnlyWithFullCopies() {
+        modify(1.0);
+        terrain = new Terrain(10, 10, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+        history.saveCopy(terrain);
+        assertFalse(history.canUndo());
+        history.setFullCopies(true);
+        double altitude = getAltitude();
+        modify(2.0);
+        assertTrue(history.canUndo());
+        terrain = history.undo(terrain);
+        assertEquals(altitude, getAltitude(), 0.0);
+    }
+    
+    @Test
+    public void largeTerrainsWithoutCopyOnWriteAreNotSaved() {
+        history.setFullCopies(true);
+        modify(1.0);
+        terrain = new Terrain(1025, 1025, SoilLayer.Type.DIRT, Terrain.StorageType.OBJECTS);
+        history.saveCopy(terrain);
+        assertFalse(history.canUndo());
+    }
+    
+    @Test
+    public void seaLevelIsRestored() {
+        terrain.setSeaLevel(1.0);
+        history.saveCopy(terrain);
+        terrain.setSeaLevel(2.0);
+        terrain = history.undo(terrain);
+        assertEquals(1.0, terrain.getSeaLevel(), 0.0);
+    }
+}
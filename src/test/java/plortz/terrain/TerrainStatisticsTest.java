@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TerrainStatisticsTest {
+    
+    private Random random;
+    
+    public TerrainStatisticsTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        random = new Random(42);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private void assertMatchesTiles(Terrain terrain) {
+        double min  = Double.POSITIVE_INFINITY;
+        double max  = Double.NEGATIVE_INFINITY;
+        double sum  = 0.0;
+        int    size = terrain.getWidth() * terrain.getLength();
+        for (Tile t : terrain) {
+            min = Math.min(min, t.getAltitude(false));
+            max = Math.max(max, t.getAltitude(false));
+            sum += t.getAltitude(false);
+        }
+        double mean = sum / size;
+        double m2   = 0.0;
+        for (Tile t : terrain) {
+            m2 += (t.getAltitude(false) - mean) * (t.getAltitude(false) - mean);
+        }
+        TerrainStatistics statistics = terrain.getStatistics();
+        assertEquals(min, statistics.getMin(), 0.0);
+        assertEquals(max, statistics.getMax(), 0.0);
+        assertEquals(mean, statistics.getMean(), 1e-9);
+        assertEquals(m2 / size, statistics.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void statisticsFollowTheChanges() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain terrain = new Terrain(150, 100, SoilLayer.Type.DIRT, storage_type);
+            assertMatchesTiles(terrain);
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 20; i++) {
+                    Tile t = terrain.getTile(random.nextInt(150), random.nextInt(100));
+                    if (i % 2 == 0) {
+                        t.addSoil(SoilLayer.Type.SAND, random.nextDouble() * 10.0);
+                    } else {
+                        t.adjustTopSoilAmount(-random.nextDouble());
+                    }
+                }
+                assertMatchesTiles(terrain);
+            }
+            terrain.getTile(149, 99).getBottomSoil().setAmount(-5.0);
+            assertEquals(-5.0, terrain.getAltitudeRange().getX(), 0.0);
+            terrain.zeroBottomSoilLayer();
+            assertMatchesTiles(terrain);
+        }
+    }
+    
+    @Test
+    public void varianceIsAccurateFarFromZero() {
+        Terrain terrain = new Terrain(100, 100, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        for (Tile t : terrain) {
+            t.getBottomSoil().setAmount(1e9 + (t.getPosition().getX() % 2));
+        }
+        assertEquals(1e9 + 0.5, terrain.getStatistics().getMean(), 1e-6);
+        assertEquals(0.25, terrain.getStatistics().getVariance(), 1e-6);
+    }
+    
+    @Test
+    public void copiesHaveTheirOwnStatistics() {
+        Terrain terrain = new Terrain(70, 70);
+        terrain.getAltitudeRange();
+        Terrain copy = new Terrain(terrain);
+        copy.getTile(5, 5).getBottomSoil().setAmount(10.0);
+        assertEquals(10.0, copy.getAltitudeRange().getY(), 0.0);
+        assertEquals(1.0, terrain.getAltitudeRange().getY(), 0.0);
+    }
+}
@@ -23,6 +23,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import plortz.observer.Observer;
+import plortz.tool.ApplyFilter;
+import plortz.tool.ScaleHeights;
+import plortz.tool.filters.AverageSmoothingFilter;
+import plortz.util.Parallel;
+import plortz.util.Rectangle;
 import plortz.util.Vector;
 
 /**
@@ -34,6 +40,7 @@ public class TerrainTest {
     private Terrain terrain;
     private double  testdelta;
     private boolean was_called;
+    private Rectangle changed_region;
     
     public TerrainTest() {
     }
@@ -131,6 +138,24 @@ public class TerrainTest {
         assertEquals(t, terrain.getTile(pos));
     }
 
+    @Test
+    public void setTileCopiesTilesBetweenStorageTypes() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain source = new Terrain(3, 2, SoilLayer.Type.DIRT, storage_type);
+            source.getTile(2, 1).addSoil(SoilLayer.Type.SAND, 4.0);
+            source.getTile(2, 1).setWater(1.5);
+            Position pos = new Position(0, 1);
+            terrain.setTile(pos, source.getTile(2, 1));
+            assertEquals(SoilLayer.Type.SAND, terrain.getTile(pos).getTopSoil().getType());
+            assertEquals(source.getTile(2, 1).getAltitude(true), terrain.getTile(pos).getAltitude(true), 1e-9);
+            assertEquals(pos, terrain.getTile(pos).getPosition());
+            if (storage_type != Terrain.StorageType.OBJECTS) {
+                source.getTile(2, 1).setWater(0.0);
+                assertEquals(1.5, terrain.getTile(pos).getWater(), 1e-9);
+            }
+        }
+    }
+
     @Test
     public void setTileWithIncorrectParametersThrowsException() {
         Position pos = new Position(0, 1);
@@ -204,6 +229,51 @@ public class TerrainTest {
         assertTrue(was_called);
     }
     
+    @Test
+    public void changeListenerReceivesTheModifiedRegion() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain t = new Terrain(300, 200, SoilLayer.Type.DIRT, storage_type);
+            t.listenOnChange(new Observer() {
+                @Override
+                public void update() {
+                }
+
+                @Override
+                public void update(Rectangle region) {
+                    changed_region = region;
+                }
+            });
+            t.getTile(130, 70).addSoil(SoilLayer.Type.SAND, 1.0);
+            t.getTile(140, 10).setWater(1.0);
+            t.changed();
+            assertEquals(new Rectangle(128, 0, Terrain.CHUNK_SIZE, 128), changed_region);
+            t.changed();
+            assertTrue(changed_region.isEmpty());
+            t.getTile(299, 199).getTopSoil().setAmount(2.0);
+            t.changed();
+            assertEquals(new Rectangle(256, 192, 44, 8), changed_region);
+        }
+    }
+    
+    @Test
+    public void copiesDoNotReportChangesToTheSource() {
+        terrain.changed();
+        Terrain copy = new Terrain(terrain);
+        copy.getTile(1, 1).setWater(1.0);
+        terrain.listenOnChange(new Observer() {
+            @Override
+            public void update() {
+            }
+
+            @Override
+            public void update(Rectangle region) {
+                changed_region = region;
+            }
+        });
+        terrain.changed();
+        assertTrue(changed_region.isEmpty());
+    }
+    
     @Test
     public void settingHighEnoughSeaLevelMakesAllTilesHaveWater() {
         var alts = terrain.getAltitudeRange();
@@ -222,4 +292,219 @@ public class TerrainTest {
             assertTrue(tile.getWater() < 0.0);
         }
     }
+    
+    private Terrain createBumpyTerrain(Terrain.StorageType storage_type) {
+        Terrain t = new Terrain(4, 3, SoilLayer.Type.DIRT, storage_type);
+        for (int y = 0; y < t.getLength(); y++) {
+            for (int x = 0; x < t.getWidth(); x++) {
+                t.getTile(x, y).addSoil(SoilLayer.Type.SAND, 1.0 + x + y * 0.5);
+            }
+        }
+        t.setSeaLevel(3.0);
+        return t;
+    }
+    
+    @Test
+    public void getAltitudesMatchesTiles() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain t = this.createBumpyTerrain(storage_type);
+            double[] without = new double[t.getWidth() * t.getLength()];
+            double[] with    = new double[without.length];
+            float[]  floats  = new float[without.length];
+            double[] water   = new double[without.length];
+            t.getAltitudes(without, false);
+            t.getAltitudes(with, true);
+            t.getAltitudes(floats, true);
+            t.getWaterDepths(water);
+            for (int y = 0; y < t.getLength(); y++) {
+                for (int x = 0; x < t.getWidth(); x++) {
+                    Tile tile = t.getTile(x, y);
+                    int i = x + y * t.getWidth();
+                    assertEquals(tile.getAltitude(false), without[i], 0.0);
+                    assertEquals(tile.getAltitude(true), with[i], 0.0);
+                    assertEquals((float) tile.getAltitude(true), floats[i], 0.0f);
+                    assertEquals(Math.max(tile.getWater(), 0.0), water[i], 0.0);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void applyAltitudeDeltasAdjustsTopSoil() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain t = this.createBumpyTerrain(storage_type);
+            Terrain expected = new Terrain(t);
+            double[] deltas = new double[t.getWidth() * t.getLength()];
+            for (int i = 0; i < deltas.length; i++) {
+                deltas[i] = i % 3 == 0 ? -100.0 : i * 0.25;
+                expected.getTile(i % t.getWidth(), i / t.getWidth()).adjustTopSoilAmount(deltas[i]);
+            }
+            t.applyAltitudeDeltas(deltas);
+            for (int y = 0; y < t.getLength(); y++) {
+                for (int x = 0; x < t.getWidth(); x++) {
+                    assertEquals(expected.getTile(x, y).getAltitude(false), t.getTile(x, y).getAltitude(false), 0.0);
+                    assertEquals(expected.getTile(x, y).getTopSoil().getType(), t.getTile(x, y).getTopSoil().getType());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void applyAltitudeDeltasToRectangleAdjustsOnlyTheRectangle() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain t = this.createBumpyTerrain(storage_type);
+            Terrain expected = new Terrain(t);
+            Rectangle area = new Rectangle(1, 1, 2, 2);
+            double[] deltas = new double[area.getWidth() * area.getLength()];
+            for (int i = 0; i < deltas.length; i++) {
+                deltas[i] = i % 3 == 0 ? -100.0 : i * 0.25;
+                expected.getTile(area.getX() + i % area.getWidth(), area.getY() + i / area.getWidth()).adjustTopSoilAmount(deltas[i]);
+            }
+            t.applyAltitudeDeltas(area, deltas);
+            for (int y = 0; y < t.getLength(); y++) {
+                for (int x = 0; x < t.getWidth(); x++) {
+                    assertEquals(expected.getTile(x, y).getAltitude(false), t.getTile(x, y).getAltitude(false), 0.0);
+                    assertEquals(expected.getTile(x, y).getTopSoil().getType(), t.getTile(x, y).getTopSoil().getType());
+                }
+            }
+        }
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void applyAltitudeDeltasRejectsRectangleOutside() {
+        Terrain t = new Terrain(10, 10);
+        t.applyAltitudeDeltas(new Rectangle(5, 5, 6, 2), new double[12]);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void getAltitudesRejectsTooSmallArray() {
+        terrain.getAltitudes(new double[terrain.getWidth() * terrain.getLength() - 1], false);
+    }
+    
+    @Test
+    public void parallelOperationsProcessAllTiles() {
+        int default_threads = Parallel.getThreads();
+        Parallel.setThreads(4);
+        try {
+            for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+                Terrain t = new Terrain(300, 700, SoilLayer.Type.DIRT, storage_type);
+                t.getTile(299, 699).getBottomSoil().setAmount(-2.0);
+                Terrain copy = new Terrain(t);
+                copy.zeroBottomSoilLayer();
+                for (int i = 0; i < 300 * 700; i++) {
+                    Tile tile = copy.getTile(i % 300, i / 300);
+                    assertEquals(i == 300 * 700 - 1 ? 0.0 : 3.0, tile.getAltitude(false), 0.0);
+                    assertEquals(new Position(i % 300, i / 300), tile.getPosition());
+                }
+                assertEquals(-2.0, t.getTile(299, 699).getAltitude(false), 0.0);
+            }
+        } finally {
+            Parallel.setThreads(default_threads);
+        }
+    }
+    
+    @Test
+    public void toolsAppliedToRegionChangeOnlyTheRegion() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain t = new Terrain(12, 10, SoilLayer.Type.DIRT, storage_type);
+            for (int i = 0; i < 12 * 10; i++) {
+                t.getTile(i % 12, i / 12).addSoil(SoilLayer.Type.SAND, 1.0 + (i * 7) % 5);
+            }
+            Terrain original = new Terrain(t);
+            Rectangle region = new Rectangle(3, 2, 5, 4);
+            t.changed();
+            t.listenOnChange(new Observer() {
+                @Override
+                public void update() {
+                }
+
+                @Override
+                public void update(Rectangle changed) {
+                    changed_region = changed;
+                }
+            });
+            Terrain view = t.getRegion(region);
+            new ScaleHeights(2.0).apply(view);
+            new ApplyFilter(new AverageSmoothingFilter(3)).apply(view);
+            t.changed();
+            assertEquals(region, region.intersection(changed_region));
+            assertNotEquals(original.getTile(4, 3).getAltitude(false), t.getTile(4, 3).getAltitude(false), 0.0);
+            assertEquals(view.getTile(1, 1).getAltitude(false), t.getTile(4, 3).getAltitude(false), 0.0);
+            for (int y = 0; y < 10; y++) {
+                for (int x = 0; x < 12; x++) {
+                    if (!region.contains(x, y)) {
+                        assertEquals(original.getTile(x, y).getAltitude(false), t.getTile(x, y).getAltitude(false), 0.0);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getRegionRejectsRegionOutsideTerrain() {
+        terrain.getRegion(new Rectangle(1, 1, terrain.getWidth(), 1));
+    }
+    
+    @Test
+    public void parallelStreamsCoverAllTiles() {
+        int default_threads = Parallel.getThreads();
+        Parallel.setThreads(4);
+        try {
+            for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+                Terrain t = new Terrain(300, 700, SoilLayer.Type.DIRT, storage_type);
+                Parallel.run(() -> t.getConcurrency().parallelStream().forEach(tile -> tile.adjustTopSoilAmount(1.0)));
+                assertTrue(t.getConcurrency().rowBands().allMatch(band -> band.getX() == 0 && band.getWidth() == 300));
+                assertEquals(700, t.getConcurrency().rowBands().mapToInt(band -> band.getLength()).sum());
+                assertEquals(300 * 700, t.spliterator().getExactSizeIfKnown());
+                for (int i = 0; i < 300 * 700; i++) {
+                    assertEquals(2.0, t.getTile(i % 300, i / 300).getAltitude(false), 0.0);
+                }
+            }
+        } finally {
+            Parallel.setThreads(default_threads);
+        }
+    }
+    
+    @Test
+    public void lockedChunksCanNotBeLockedAgain() {
+        Terrain t = new Terrain(200, 100);
+        RegionLock lock = t.getConcurrency().tryLock(new Rectangle(10, 10, 60, 10));
+        assertNotNull(lock);
+        assertNull(t.getConcurrency().tryLock(new Rectangle(120, 0, 10, 10)));
+        assertNull(t.getConcurrency().tryLock(new Rectangle(0, 60, 10, 10)));
+        RegionLock other = t.getConcurrency().tryLock(new Rectangle(128, 64, 80, 80));
+        assertNotNull(other);
+        assertEquals(new Rectangle(128, 64, 72, 36), other.getArea());
+        lock.close();
+        lock.close();
+        assertNull(t.getConcurrency().tryLock(new Rectangle(150, 70, 1, 1)));
+        RegionLock again = t.getConcurrency().tryLock(new Rectangle(0, 0, 128, 64));
+        assertNotNull(again);
+        again.close();
+        other.close();
+    }
+    
+    @Test
+    public void notificationsArePostponedWhileLocked() {
+        Terrain t = new Terrain(200, 100, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        t.changed();
+        t.listenOnChange(new Observer() {
+            @Override
+            public void update() {
+            }
+
+            @Override
+            public void update(Rectangle changed) {
+                changed_region = changed;
+            }
+        });
+        changed_region = null;
+        RegionLock lock = t.getConcurrency().tryLock(new Rectangle(0, 0, 10, 10));
+        t.getTile(5, 5).addSoil(SoilLayer.Type.SAND, 1.0);
+        t.changed();
+        assertNull(changed_region);
+        lock.close();
+        t.changed();
+        assertEquals(new Rectangle(0, 0, 64, 64), changed_region);
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.terrain;
+
+import java.util.Random;
+import plortz.util.Position;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.util.MersenneTwister;
+
+/**
+ * Tests that the cached altitude of the tiles never diverges from the sum of the soil layers.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TileAltitudeTest {
+    
+    private Random random;
+    private Tile   tile;
+    
+    public TileAltitudeTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        random = new MersenneTwister(0);
+        tile   = new Tile(new Position(0, 0), SoilLayer.Type.DIRT, 1.0);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private double sumOfLayers(Tile t) {
+        double sum = 0.0;
+        for (int i = 0; i < t.getLayerCount(); i++) {
+            sum += t.getLayerAmount(i);
+        }
+        return sum;
+    }
+    
+    private void assertAltitudeIsCorrect(Tile t) {
+        // The cached value is recalculated in the same order, so it must be exactly equal:
+        assertEquals(sumOfLayers(t), t.getAltitude(false), 0.0);
+        double water = t.getWater() > 0.0 ? t.getWater() : 0.0;
+        assertEquals(sumOfLayers(t) + water, t.getAltitude(true), 0.0);
+    }
+    
+    private SoilLayer.Type randomType() {
+        return SoilLayer.Type.values()[random.nextInt(SoilLayer.Type.values().length)];
+    }
+    
+    private void randomOperation(Tile t) {
+        switch (random.nextInt(8)) {
+            case 0:
+                t.addSoil(randomType(), 0.01 + random.nextDouble() * 10.0);
+                break;
+            case 1:
+                t.insertSoil(random.nextInt(t.getLayerCount() + 1), randomType(), 0.01 + random.nextDouble());
+                break;
+            case 2:
+                t.setTopSoilAmount(random.nextDouble() * 4.0 - 1.0);
+                break;
+            case 3:
+                t.adjustTopSoilAmount(random.nextDouble() * 4.0 - 2.0);
+                break;
+            case 4:
+                t.scaleSoilLayers(0.5 + random.nextDouble());
+                break;
+            case 5:
+                t.adjustWater(random.nextDouble() * 2.0 - 1.0);
+                break;
+            case 6:
+                t.getTopSoil().adjustAmount(random.nextDouble() - 0.5);
+                break;
+            default:
+                t.getBottomSoil().setAmount(random.nextDouble() * 3.0);
+                break;
+        }
+    }
+
+    @Test
+    public void newTileHasCorrectAltitude() {
+        assertAltitudeIsCorrect(tile);
+        assertEquals(1.0, tile.getAltitude(false), 0.0);
+    }
+    
+    @Test
+    public void randomOperationsKeepTheAltitudeCorrect() {
+        for (int i = 0; i < 10000; i++) {
+            randomOperation(tile);
+            assertAltitudeIsCorrect(tile);
+        }
+    }
+    
+    @Test
+    public void copiedTileHasCorrectAltitude() {
+        for (int i = 0; i < 100; i++) {
+            randomOperation(tile);
+        }
+        Tile copy = new Tile(tile);
+        assertAltitudeIsCorrect(copy);
+        assertEquals(tile.getAltitude(true), copy.getAltitude(true), 0.0);
+    }
+    
+    @Test
+    public void modifyingCopiedLayerDoesNotChangeTheAltitude() {
+        SoilLayer copy = new SoilLayer(tile.getTopSoil());
+        copy.setAmount(100.0);
+        assertAltitudeIsCorrect(tile);
+        assertEquals(1.0, tile.getAltitude(false), 0.0);
+    }
+    
+    @Test
+    public void modifyingRemovedLayerDoesNotChangeTheAltitude() {
+        tile.addSoil(SoilLayer.Type.SAND, 2.0);
+        SoilLayer removed = tile.getTopSoil();
+        tile.setTopSoilAmount(-1.0);
+        removed.setAmount(100.0);
+        assertAltitudeIsCorrect(tile);
+        assertEquals(1.0, tile.getAltitude(false), 0.0);
+    }
+    
+    @Test
+    public void terrainOperationsKeepTheAltitudesCorrect() {
+        // The mapped storage limits the number of soil layers, it is tested in MappedTileStorageTest.
+        for (Terrain.StorageType storage_type : new Terrain.StorageType[] { Terrain.StorageType.OBJECTS, Terrain.StorageType.COLUMNS }) {
+            Terrain terrain = new Terrain(10, 10, SoilLayer.Type.DIRT, storage_type);
+            for (Tile t : terrain) {
+                for (int i = 0; i < 20; i++) {
+                    randomOperation(t);
+                }
+            }
+            terrain.zeroBottomSoilLayer();
+            terrain.setSeaLevel(terrain.getAltitudeRange().getY() / 2.0);
+            for (Tile t : terrain) {
+                assertAltitudeIsCorrect(t);
+            }
+        }
+    }
+}
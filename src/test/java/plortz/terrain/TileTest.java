@@ -122,6 +122,36 @@ public class TileTest {
         assertEquals(dirt.getBottomSoil(), dirt.getTopSoil());
     }
     
+    @Test
+    public void bottomLayerRefersToInsertedLayer() {
+        SoilLayer bottom = dirt.getBottomSoil();
+        dirt.insertSoil(0, SoilLayer.Type.SAND, 1.0);
+        assertEquals(SoilLayer.Type.SAND, bottom.getType());
+        bottom.setAmount(2.0);
+        assertEquals(2.0, dirt.getBottomSoil().getAmount(), testdelta);
+    }
+    
+    @Test
+    public void topLayerIsNotAffectedByAddingSoilOnTop() {
+        SoilLayer top = dirt.getTopSoil();
+        double amount = top.getAmount();
+        dirt.addSoil(SoilLayer.Type.SAND, 1.0);
+        assertEquals(SoilLayer.Type.DIRT, top.getType());
+        assertEquals(amount, top.getAmount(), testdelta);
+    }
+    
+    @Test
+    public void removedLayerRefersToReplacingLayer() {
+        dirt.addSoil(SoilLayer.Type.SAND, 1.0);
+        SoilLayer removed = dirt.getTopSoil();
+        dirt.setTopSoilAmount(-1.0);
+        assertEquals(SoilLayer.Type.SAND, removed.getType());
+        assertEquals(0.0, removed.getAmount(), 0.0);
+        dirt.addSoil(SoilLayer.Type.CLIFF, 1.0);
+        assertEquals(SoilLayer.Type.CLIFF, removed.getType());
+        assertEquals(1.0, removed.getAmount(), testdelta);
+    }
+    
     @Test
     public void scalingChangesAltitudeProperly() {
         double orig = sand.getAltitude(false);
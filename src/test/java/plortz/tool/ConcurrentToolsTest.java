@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.terrain.Tile;
+import plortz.util.Parallel;
+import plortz.util.Position;
+import plortz.util.Rectangle;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ConcurrentToolsTest {
+    
+    private int default_threads;
+    private int notifications;
+    
+    public ConcurrentToolsTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        default_threads = Parallel.getThreads();
+        Parallel.setThreads(4);
+        notifications = 0;
+    }
+    
+    @After
+    public void tearDown() {
+        Parallel.setThreads(default_threads);
+    }
+    
+    private List<Tool> createPatches(Terrain terrain, int count) {
+        Random random = new Random(42);
+        SoilLayer.Type[] types = SoilLayer.Type.values();
+        List<Tool> tools = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Position center = new Position(random.nextInt(terrain.getWidth()), random.nextInt(terrain.getLength()));
+            tools.add(new AddSoilLayer(types[i % types.length], 1.0 + i, center, 5 + random.nextInt(40)));
+        }
+        return tools;
+    }
+
+    @Test
+    public void resultIsTheSameAsApplyingInOrder() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain concurrent = new Terrain(300, 200, SoilLayer.Type.CLIFF, storage_type);
+            Terrain sequential = new Terrain(concurrent);
+            List<Tool> tools = this.createPatches(concurrent, 60);
+            new ConcurrentTools(tools).apply(concurrent);
+            tools.forEach(tool -> tool.apply(sequential));
+            for (int y = 0; y < concurrent.getLength(); y++) {
+                for (int x = 0; x < concurrent.getWidth(); x++) {
+                    Tile a = concurrent.getTile(x, y);
+                    Tile b = sequential.getTile(x, y);
+                    assertEquals(b.getAltitude(false), a.getAltitude(false), 0.0);
+                    assertEquals(b.getTopSoil().getType(), a.getTopSoil().getType());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void notificationsAreCoalesced() {
+        Terrain terrain = new Terrain(300, 200, SoilLayer.Type.CLIFF, Terrain.StorageType.COLUMNS);
+        terrain.listenOnChange(() -> notifications++);
+        new ConcurrentTools(this.createPatches(terrain, 30)).apply(terrain);
+        assertEquals(1, notifications);
+        assertNotNull(terrain.getConcurrency().tryLock(new Rectangle(0, 0, 300, 200)));
+    }
+    
+    @Test
+    public void manyLayersAreAddedConcurrently() {
+        for (Terrain.StorageType storage_type : Terrain.StorageType.values()) {
+            Terrain concurrent = new Terrain(256, 64, SoilLayer.Type.CLIFF, storage_type);
+            Terrain sequential = new Terrain(concurrent);
+            List<Tool> tools = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                for (int x = 0; x < 256; x += 64) {
+                    SoilLayer.Type type = (i + x / 64) % 2 == 0 ? SoilLayer.Type.SAND : SoilLayer.Type.DIRT;
+                    tools.add(new AddSoilLayer(type, 1.0, new Position(x, 0), 64, 64));
+                }
+            }
+            new ConcurrentTools(tools).apply(concurrent);
+            tools.forEach(tool -> tool.apply(sequential));
+            for (int y = 0; y < concurrent.getLength(); y++) {
+                for (int x = 0; x < concurrent.getWidth(); x++) {
+                    assertEquals(sequential.getTile(x, y).getTopSoil().getType(), concurrent.getTile(x, y).getTopSoil().getType());
+                    assertEquals(sequential.getTile(x, y).getAltitude(false), concurrent.getTile(x, y).getAltitude(false), 0.0);
+                }
+            }
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void lockedFootprintsCanNotBeApplied() {
+        Terrain terrain = new Terrain(100, 100, SoilLayer.Type.CLIFF, Terrain.StorageType.COLUMNS);
+        terrain.getConcurrency().tryLock(new Rectangle(0, 0, 100, 100));
+        new ConcurrentTools(this.createPatches(terrain, 3)).apply(terrain);
+    }
+}
@@ -24,7 +24,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import plortz.util.Position;
+import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
+import plortz.util.MersenneTwister;
 
 /**
  *
@@ -82,11 +84,14 @@ public class DiamondSquareTest {
 
     @Test
     public void allTilesAreAltered() {
+        Terrain original = new Terrain(terrain);
         tool.apply(terrain);
+        double shift = terrain.getTile(0, 0).getAltitude(false) - original.getTile(0, 0).getAltitude(false);
         for (int y = 0; y < terrain.getLength(); y++) {
             for (int x = 0; x < terrain.getWidth(); x++) {
                 if (!isCorner(terrain, x, y)) {
-                    assertTrue(terrain.getTile(x, y).getAltitude(false) > testdelta);
+                    double change = terrain.getTile(x, y).getAltitude(false) - original.getTile(x, y).getAltitude(false);
+                    assertTrue(Math.abs(change - shift) > testdelta);
                 }
             }
         }
@@ -128,4 +133,10 @@ public class DiamondSquareTest {
             assertTrue(thrown);
         }
     }
+    
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        ToolAssert.assertSameWithThreadCounts(() -> new Terrain(513, 513, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS),
+                                              () -> new DiamondSquare(10.0, new MersenneTwister(5)));
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.tool.filters.AverageSmoothingFilter;
+import plortz.tool.filters.EdgeDetectingSmoothingFilter;
+import plortz.tool.filters.MedianSmoothingFilter;
+import plortz.util.MersenneTwister;
+import plortz.util.Position;
+
+/**
+ * Tests that the results of the tools on single-precision terrains stay close to the results on double-precision terrains.
+ * <p>
+ * Both terrains are first shaped with the same random noise, then the tool is applied to both,
+ * and the largest difference of the altitudes is compared to the altitude range of the terrain.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class FloatPrecisionTest {
+    
+    private static final int    SIZE      = 65;
+    private static final double MAX_DRIFT = 1e-6; // About eight times the precision of a float.
+    
+    public FloatPrecisionTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private Terrain createTerrain(Terrain.StorageType storage_type) {
+        Terrain terrain = new Terrain(SIZE, SIZE, SoilLayer.Type.DIRT, storage_type);
+        new DiamondSquare(10.0, new MersenneTwister(1)).apply(terrain);
+        new RandomNoise(1.0, new MersenneTwister(2)).apply(terrain);
+        return terrain;
+    }
+    
+    /**
+     * Apply the tool to both single and double precision terrains, and return the relative drift.
+     * 
+     * @param tool_factory Creates the tool, called once for each terrain.
+     * @return             The largest difference of the altitudes (with water) divided by the altitude range.
+     */
+    private double getRelativeDrift(Supplier<Tool> tool_factory) {
+        Terrain doubles = this.createTerrain(Terrain.StorageType.COLUMNS);
+        Terrain floats  = this.createTerrain(Terrain.StorageType.FLOAT);
+        tool_factory.get().apply(doubles);
+        tool_factory.get().apply(floats);
+        double[] expected = new double[SIZE * SIZE];
+        double[] actual   = new double[SIZE * SIZE];
+        doubles.getAltitudes(expected, true);
+        floats.getAltitudes(actual, true);
+        double max_difference = 0.0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < expected.length; i++) {
+            max_difference = Math.max(max_difference, Math.abs(expected[i] - actual[i]));
+            min = Math.min(min, expected[i]);
+            max = Math.max(max, expected[i]);
+        }
+        return max_difference / (max - min);
+    }
+    
+    private void assertDriftBelow(double limit, Supplier<Tool> tool_factory) {
+        double drift = this.getRelativeDrift(tool_factory);
+        assertTrue("Relative drift " + drift + " exceeds " + limit, drift <= limit);
+    }
+    
+    @Test
+    public void addSoilLayer() {
+        assertDriftBelow(MAX_DRIFT, () -> new AddSoilLayer(SoilLayer.Type.SAND, 1.5, new Position(32, 32), 20));
+    }
+    
+    @Test
+    public void insertSoilLayer() {
+        assertDriftBelow(MAX_DRIFT, () -> new InsertSoilLayer(0, SoilLayer.Type.SAND, 1.5, new Position(32, 32), 20));
+    }
+    
+    @Test
+    public void addWater() {
+        assertDriftBelow(MAX_DRIFT, () -> new AddWater(new Position(32, 32), 100.0));
+    }
+    
+    @Test
+    public void removeWater() {
+        assertDriftBelow(MAX_DRIFT, () -> new RemoveWater());
+    }
+    
+    @Test
+    public void diamondSquare() {
+        assertDriftBelow(MAX_DRIFT, () -> new DiamondSquare(5.0, new MersenneTwister(3)));
+    }
+    
+    @Test
+    public void gaussianDistribution() {
+        assertDriftBelow(MAX_DRIFT, () -> new GaussianDistribution(32, 32, 0.5, 20, 10));
+    }
+    
+    @Test
+    public void perlinNoise() {
+        assertDriftBelow(MAX_DRIFT, () -> new PerlinNoise(5.0, 4.0, new MersenneTwister(3)));
+    }
+    
+    @Test
+    public void randomNoise() {
+        assertDriftBelow(MAX_DRIFT, () -> new RandomNoise(1.0, new MersenneTwister(3)));
+    }
+    
+    @Test
+    public void scaleHeights() {
+        assertDriftBelow(MAX_DRIFT, () -> new ScaleHeights(2.5));
+    }
+    
+    @Test
+    public void sheetErosion() {
+        assertDriftBelow(MAX_DRIFT, () -> new SheetErosion(new MersenneTwister(3)));
+    }
+    
+    @Test
+    public void averageSmoothingFilter() {
+        assertDriftBelow(MAX_DRIFT, () -> new ApplyFilter(new AverageSmoothingFilter(3)));
+    }
+    
+    @Test
+    public void edgeDetectingSmoothingFilter() {
+        assertDriftBelow(MAX_DRIFT, () -> new ApplyFilter(new EdgeDetectingSmoothingFilter(5)));
+    }
+    
+    @Test
+    public void medianSmoothingFilter() {
+        assertDriftBelow(MAX_DRIFT, () -> new ApplyFilter(new MedianSmoothingFilter(3)));
+    }
+}
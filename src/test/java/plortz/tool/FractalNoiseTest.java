@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.terrain.Tile;
+import plortz.tool.noise.Fractal;
+import plortz.tool.noise.HashedGradientNoise;
+import plortz.util.MersenneTwister;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class FractalNoiseTest {
+    
+    public FractalNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private Terrain createTerrain() {
+        Terrain terrain = new Terrain(300, 400, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        for (Tile tile : terrain) {
+            tile.adjustTopSoilAmount(10.0);
+        }
+        return terrain;
+    }
+
+    @Test
+    public void changesAreWithinScale() {
+        for (Fractal.Type type : Fractal.Type.values()) {
+            Terrain terrain = this.createTerrain();
+            Terrain original = new Terrain(terrain);
+            new FractalNoise(2.0, 0.05, type, 4, new MersenneTwister(3)).apply(terrain);
+            boolean changed = false;
+            for (int y = 0; y < terrain.getLength(); y++) {
+                for (int x = 0; x < terrain.getWidth(); x++) {
+                    double change = terrain.getTile(x, y).getAltitude(false) - original.getTile(x, y).getAltitude(false);
+                    assertTrue(Math.abs(change) <= 2.0);
+                    changed |= change != 0.0;
+                }
+            }
+            assertTrue(changed);
+        }
+    }
+    
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        ToolAssert.assertSameWithThreadCounts(this::createTerrain,
+                                              () -> new FractalNoise(2.0, 0.05, Fractal.Type.RIDGED, 4, new MersenneTwister(3)));
+    }
+    
+    @Test
+    public void chunksContinueEachOther() {
+        HashedGradientNoise basis = new HashedGradientNoise(7);
+        ToolAssert.assertChunksContinueEachOther(300, 400, (x0, y0) -> new FractalNoise(2.0, 0.05, Fractal.Type.FBM, 4, basis, -1000 + x0, 5000 + y0));
+    }
+    
+    @Test
+    public void piecesOfTheManualExampleContinueEachOther() {
+        Terrain whole = new Terrain(500, 1000);
+        new FractalNoise(10.0, 0.01, Fractal.Type.FBM, 6, new HashedGradientNoise(7), 0, 0).apply(whole);
+        for (int origin_y = 0; origin_y < 1000; origin_y += 500) {
+            Terrain piece = new Terrain(500, 500);
+            new FractalNoise(10.0, 0.01, Fractal.Type.FBM, 6, new HashedGradientNoise(7), 0, origin_y).apply(piece);
+            ToolAssert.assertSameAltitudes(whole, 0, origin_y, piece, 1e-12);
+            for (Tile tile : piece) {
+                assertTrue(tile.getBottomSoil().getAmount() > 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void terrainWithoutOriginIsRaisedByItsLowestPoint() {
+        Terrain terrain = new Terrain(300, 400);
+        new FractalNoise(10.0, 0.05, Fractal.Type.FBM, 4, new MersenneTwister(3)).apply(terrain);
+        assertEquals(0.0, terrain.getAltitudeRange().getX(), 1e-12);
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 import plortz.util.MersenneTwister;
 import plortz.util.Position;
+import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
 
 /**
@@ -100,4 +101,10 @@ public class PerlinNoiseTest {
             }
         }
     }
+    
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        ToolAssert.assertSameWithThreadCounts(() -> new Terrain(500, 300, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS),
+                                              () -> new PerlinNoise(1.0, 0.1, new MersenneTwister(4)));
+    }
 }
@@ -23,7 +23,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import plortz.util.Position;
+import plortz.terrain.SoilLayer;
 import plortz.terrain.Terrain;
+import plortz.util.MersenneTwister;
 
 /**
  *
@@ -83,4 +85,10 @@ public class RandomNoiseTest {
             }
         }
     }
+    
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        ToolAssert.assertSameWithThreadCounts(() -> new Terrain(300, 700, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS),
+                                              () -> new RandomNoise(1, new MersenneTwister(42)));
+    }
 }
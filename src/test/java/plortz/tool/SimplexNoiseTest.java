@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.Terrain;
+import plortz.tool.noise.Fractal;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SimplexNoiseTest {
+    
+    public SimplexNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void chunksContinueEachOther() {
+        ToolAssert.assertChunksContinueEachOther(300, 400, (x0, y0) -> new SimplexNoise(2.0, 0.05, Fractal.Type.RIDGED, 4, 11L, 2000 + x0, -700 + y0));
+    }
+    
+    @Test
+    public void differentSeedsGiveDifferentChunks() {
+        Terrain first  = new Terrain(100, 100);
+        Terrain second = new Terrain(100, 100);
+        new SimplexNoise(2.0, 0.05, Fractal.Type.FBM, 4, 11L, 0, 0).apply(first);
+        new SimplexNoise(2.0, 0.05, Fractal.Type.FBM, 4, 12L, 0, 0).apply(second);
+        int same = 0;
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                if (first.getTile(x, y).getAltitude(false) == second.getTile(x, y).getAltitude(false)) {
+                    same++;
+                }
+            }
+        }
+        assertTrue(same < 100);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.security.InvalidParameterException;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.terrain.Tile;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class TiledDiamondSquareTest {
+    
+    public TiledDiamondSquareTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    @Test
+    public void neighboringBlocksShareTheirEdges() {
+        TiledDiamondSquare tool = new TiledDiamondSquare(10.0, 33, new Random(3));
+        double[][] blocks = new double[4][33 * 33];
+        for (int i = 0; i < blocks.length; i++) {
+            tool.generateBlock(-1 + i % 2, 5 + i / 2, blocks[i]);
+        }
+        for (int i = 0; i < 33; i++) {
+            assertEquals(blocks[0][32 + i * 33], blocks[1][i * 33], 0.0);
+            assertEquals(blocks[2][32 + i * 33], blocks[3][i * 33], 0.0);
+            assertEquals(blocks[0][i + 32 * 33], blocks[2][i], 0.0);
+            assertEquals(blocks[1][i + 32 * 33], blocks[3][i], 0.0);
+        }
+    }
+    
+    @Test
+    public void terrainsOfAnySizeCanBeGeneratedInParts() {
+        Terrain whole = new Terrain(100, 70, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        new TiledDiamondSquare(10.0, 17, 0, 0, new Random(5)).apply(whole);
+        Terrain part = new Terrain(37, 21, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        new TiledDiamondSquare(10.0, 17, 40, 33, new Random(5)).apply(part);
+        boolean altered = false;
+        for (int y = 0; y < part.getLength(); y++) {
+            for (int x = 0; x < part.getWidth(); x++) {
+                double altitude = part.getTile(x, y).getAltitude(false);
+                assertEquals(whole.getTile(40 + x, 33 + y).getAltitude(false), altitude, 0.0);
+                altered |= Math.abs(altitude - 21.0) > 0.000001;
+            }
+        }
+        assertTrue(altered);
+    }
+    
+    @Test
+    public void piecesOfTheManualExampleContinueEachOther() {
+        Terrain whole = new Terrain(1000, 500);
+        new TiledDiamondSquare(20.0, 257, 0, 0, new Random(7)).apply(whole);
+        for (int origin_x = 0; origin_x < 1000; origin_x += 500) {
+            Terrain piece = new Terrain(500, 500);
+            new TiledDiamondSquare(20.0, 257, origin_x, 0, new Random(7)).apply(piece);
+            for (int y = 0; y < 500; y++) {
+                for (int x = 0; x < 500; x++) {
+                    assertEquals(whole.getTile(origin_x + x, y).getAltitude(false), piece.getTile(x, y).getAltitude(false), 0.0);
+                    assertTrue(piece.getTile(x, y).getBottomSoil().getAmount() > 0.0);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void piecesWithNegativeScaleHaveNoNegativeSoil() {
+        Terrain piece = new Terrain(1000, 1000);
+        new TiledDiamondSquare(-20.0, 9, 0, 0, new Random(7)).apply(piece);
+        for (Tile tile : piece) {
+            assertTrue(tile.getBottomSoil().getAmount() > 0.0);
+        }
+    }
+    
+    @Test
+    public void terrainWithoutOriginIsRaisedByItsLowestPoint() {
+        Terrain terrain = new Terrain(100, 70);
+        new TiledDiamondSquare(10.0, 17, new Random(5)).apply(terrain);
+        assertEquals(0.0, terrain.getAltitudeRange().getX(), 0.000001);
+    }
+    
+    @Test(expected = InvalidParameterException.class)
+    public void invalidBlockSizeThrowsException() {
+        new TiledDiamondSquare(10.0, 16, new Random(1));
+    }
+}
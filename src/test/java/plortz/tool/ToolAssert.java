@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import static org.junit.Assert.*;
+import plortz.terrain.SoilLayer;
+import plortz.terrain.Terrain;
+import plortz.util.Parallel;
+
+/**
+ * Assertions shared by the tests of the tools.
+ * 
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public final class ToolAssert {
+    
+    private ToolAssert() {
+    }
+    
+    /**
+     * Assert that a tool gives exactly the same terrain with one and with four threads.
+     * 
+     * @param terrain Creates the terrain the tool is applied to.
+     * @param tool    Creates the tool, called once for each number of threads.
+     */
+    public static void assertSameWithThreadCounts(Supplier<Terrain> terrain, Supplier<Tool> tool) {
+        int default_threads = Parallel.getThreads();
+        Terrain[] results = new Terrain[2];
+        try {
+            for (int i = 0; i < results.length; i++) {
+                Parallel.setThreads(i == 0 ? 1 : 4);
+                results[i] = terrain.get();
+                tool.get().apply(results[i]);
+            }
+        } finally {
+            Parallel.setThreads(default_threads);
+        }
+        assertSameAltitudes(results[0], 0, 0, results[1], 0.0);
+    }
+    
+    /**
+     * Assert that a tool placed at world coordinates gives the same altitudes on a terrain
+     * as on the four quarters of it generated separately.
+     * 
+     * @param width  The width of the whole terrain, a multiple of 2.
+     * @param length The length of the whole terrain, a multiple of 2.
+     * @param tool   Creates the tool for the world coordinates of the top left corner of a terrain.
+     */
+    public static void assertChunksContinueEachOther(int width, int length, BiFunction<Integer, Integer, Tool> tool) {
+        Terrain whole = new Terrain(width, length, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+        tool.apply(0, 0).apply(whole);
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int     x0    = chunk % 2 * width / 2;
+            int     y0    = chunk / 2 * length / 2;
+            Terrain piece = new Terrain(width / 2, length / 2, SoilLayer.Type.DIRT, Terrain.StorageType.COLUMNS);
+            tool.apply(x0, y0).apply(piece);
+            assertSameAltitudes(whole, x0, y0, piece, 1e-12);
+        }
+    }
+    
+    /**
+     * Assert that the altitudes of a piece are the same as those of a larger terrain at the given offset.
+     * 
+     * @param whole The larger terrain.
+     * @param x0    The x-coordinate of the piece in the larger terrain.
+     * @param y0    The y-coordinate of the piece in the larger terrain.
+     * @param piece The piece.
+     * @param delta The largest allowed difference.
+     */
+    public static void assertSameAltitudes(Terrain whole, int x0, int y0, Terrain piece, double delta) {
+        for (int y = 0; y < piece.getLength(); y++) {
+            for (int x = 0; x < piece.getWidth(); x++) {
+                assertEquals(whole.getTile(x0 + x, y0 + y).getAltitude(false), piece.getTile(x, y).getAltitude(false), delta);
+            }
+        }
+    }
+}
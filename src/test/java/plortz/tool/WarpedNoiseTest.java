@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.terrain.Terrain;
+import plortz.tool.noise.Fractal;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class WarpedNoiseTest {
+    
+    public WarpedNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    @Test
+    public void zeroStrengthGivesTheSimplexNoise() {
+        Terrain simplex = new Terrain(200, 100);
+        Terrain still   = new Terrain(200, 100);
+        Terrain warped  = new Terrain(200, 100);
+        new SimplexNoise(2.0, 0.02, Fractal.Type.RIDGED, 4, 5L, -30, 70).apply(simplex);
+        new WarpedNoise(2.0, 0.02, 0.0, Fractal.Type.RIDGED, 4, 5L, -30, 70).apply(still);
+        new WarpedNoise(2.0, 0.02, 20.0, Fractal.Type.RIDGED, 4, 5L, -30, 70).apply(warped);
+        boolean differs = false;
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 200; x++) {
+                double altitude = simplex.getTile(x, y).getAltitude(false);
+                assertEquals(altitude, still.getTile(x, y).getAltitude(false), 1e-9);
+                differs |= Math.abs(altitude - warped.getTile(x, y).getAltitude(false)) > 1e-3;
+            }
+        }
+        assertTrue(differs);
+    }
+    
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        ToolAssert.assertSameWithThreadCounts(() -> new Terrain(300, 400),
+                                              () -> new WarpedNoise(2.0, 0.02, 20.0, Fractal.Type.FBM, 4, 5L, 100, -50));
+    }
+    
+    @Test
+    public void chunksContinueEachOther() {
+        ToolAssert.assertChunksContinueEachOther(200, 200, (x0, y0) -> new WarpedNoise(2.0, 0.02, 20.0, Fractal.Type.FBM, 4, 5L, 100 + x0, -50 + y0));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class DomainWarpTest {
+    
+    private Noise base;
+    private Noise warp_x;
+    private Noise warp_y;
+    
+    public DomainWarpTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        base   = new SimplexNoise(1);
+        warp_x = new Fractal(new SimplexNoise(2), Fractal.Type.FBM, 3, 2.0, 0.5);
+        warp_y = new Fractal(new SimplexNoise(3), Fractal.Type.FBM, 3, 2.0, 0.5);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void zeroStrengthGivesTheBaseNoise() {
+        DomainWarp warp = new DomainWarp(base, warp_x, warp_y, 0.0);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(base.get(i * 0.37, i * 0.11), warp.get(i * 0.37, i * 0.11), 0.0);
+        }
+    }
+    
+    @Test
+    public void pointsAreDisplacedByTheWarpNoises() {
+        DomainWarp warp = new DomainWarp(base, warp_x, warp_y, 2.5);
+        boolean differs = false;
+        for (int i = 0; i < 1000; i++) {
+            double x = i * 0.37;
+            double y = i * 0.11;
+            assertEquals(base.get(x + 2.5 * warp_x.get(x, y), y + 2.5 * warp_y.get(x, y)), warp.get(x, y), 0.0);
+            differs |= warp.get(x, y) != base.get(x, y);
+        }
+        assertTrue(differs);
+    }
+}
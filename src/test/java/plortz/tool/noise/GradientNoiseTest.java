@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.util.MersenneTwister;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class GradientNoiseTest {
+    
+    private GradientNoise noise;
+    
+    public GradientNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        noise = new GradientNoise(new MersenneTwister(1));
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void noiseIsZeroAtLatticePoints() {
+        for (int y = -5; y < 5; y++) {
+            for (int x = -5; x < 5; x++) {
+                assertEquals(0.0, noise.get(x, y), 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void valuesAreInRangeAndNotConstant() {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < 100000; i++) {
+            double value = noise.get(i * 0.0371 - 1000.0, i * 0.0123);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        assertTrue(min >= -1.0 && max <= 1.0);
+        assertTrue(min < -0.5 && max > 0.5);
+    }
+    
+    @Test
+    public void noiseRepeatsAfterTableSize() {
+        for (int i = 0; i < 100; i++) {
+            double x = i * 0.37;
+            double y = i * 0.53;
+            assertEquals(noise.get(x, y), noise.get(x + GradientNoise.TABLE_SIZE, y - GradientNoise.TABLE_SIZE), 1e-9);
+        }
+    }
+    
+    @Test
+    public void fractalValuesAreInRange() {
+        for (Fractal.Type type : Fractal.Type.values()) {
+            Fractal fractal = new Fractal(noise, type, 5, 2.0, 0.5);
+            for (int i = 0; i < 10000; i++) {
+                double value = fractal.get(i * 0.0371, i * 0.0123 + 50.0);
+                assertTrue(value >= -1.0 && value <= 1.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class HashedGradientNoiseTest {
+    
+    private HashedGradientNoise noise;
+    
+    public HashedGradientNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        noise = new HashedGradientNoise(42);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void noiseIsZeroAtLatticePoints() {
+        for (int y = -5; y < 5; y++) {
+            for (int x = -5; x < 5; x++) {
+                assertEquals(0.0, noise.get(x, y), 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void valuesAreInRangeAndNotConstant() {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < 100000; i++) {
+            double value = noise.get(i * 0.0371 - 1000.0, i * 0.0123);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        assertTrue(min >= -1.0 && max <= 1.0);
+        assertTrue(min < -0.5 && max > 0.5);
+    }
+    
+    @Test
+    public void sameSeedGivesSameNoiseFarFromOrigin() {
+        HashedGradientNoise other = new HashedGradientNoise(42);
+        HashedGradientNoise different = new HashedGradientNoise(43);
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            double x = 1e6 + i * 0.37;
+            double y = -1e6 - i * 0.53;
+            assertEquals(noise.get(x, y), other.get(x, y), 0.0);
+            differs |= noise.get(x, y) != different.get(x, y);
+        }
+        assertTrue(differs);
+    }
+    
+    @Test
+    public void noiseDoesNotRepeatAfterTableSize() {
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            double x = i * 0.37;
+            double y = i * 0.53;
+            differs |= noise.get(x, y) != noise.get(x + GradientNoise.TABLE_SIZE, y - GradientNoise.TABLE_SIZE);
+        }
+        assertTrue(differs);
+    }
+    
+    @Test
+    public void gradientsDoNotRepeatWithTranslation() {
+        int same = 0;
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 30; x++) {
+                if (HashedGradientNoise.gradient(42, x, y) == HashedGradientNoise.gradient(42, x + 33863, y - 40683)) {
+                    same++;
+                }
+            }
+        }
+        assertTrue(same < 20);
+    }
+    
+    @Test
+    public void seedsAreNotTranslationsOfEachOther() {
+        int same = 0;
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 30; x++) {
+                if (HashedGradientNoise.gradient(42 + 0x27d4eb2d, x, y) == HashedGradientNoise.gradient(42, x + 1, y)) {
+                    same++;
+                }
+            }
+        }
+        assertTrue(same < 20);
+    }
+    
+    @Test
+    public void seedsDifferingInOneBitDoNotSwapBlocks() {
+        for (int bit = 0; bit < 32; bit += 5) {
+            int seed  = HashedGradientNoise.foldSeed(42);
+            int other = HashedGradientNoise.foldSeed(42 ^ (1L << bit));
+            int same  = 0;
+            for (int y = 0; y < 30; y++) {
+                for (int x = 0; x < 30; x++) {
+                    if (HashedGradientNoise.gradient(seed, x, y) == HashedGradientNoise.gradient(other, x ^ (1 << bit), y)) {
+                        same++;
+                    }
+                }
+            }
+            assertTrue(same < 20);
+        }
+    }
+}
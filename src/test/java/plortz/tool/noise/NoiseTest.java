@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import plortz.util.MersenneTwister;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class NoiseTest {
+    
+    private Noise[] noises;
+    
+    public NoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        noises = new Noise[] {
+            new GradientNoise(new MersenneTwister(1)),
+            new HashedGradientNoise(2),
+            new SimplexNoise(3),
+            new Fractal(new SimplexNoise(4), Fractal.Type.FBM,    1, 2.0, 0.5),
+            new Fractal(new SimplexNoise(5), Fractal.Type.FBM,    4, 2.0, 0.5),
+            new Fractal(new SimplexNoise(6), Fractal.Type.RIDGED, 4, 2.0, 0.5),
+            new Fractal(new SimplexNoise(7), Fractal.Type.BILLOW, 4, 2.0, 0.5),
+            new DomainWarp(new SimplexNoise(8), new SimplexNoise(9), new SimplexNoise(10), 2.5)
+        };
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void fillRowMatchesSingleValues() {
+        for (Noise noise : noises) {
+            double[] row = new double[50];
+            noise.fillRow(3.5, 7.25, 0.1, row, 10, 40);
+            for (int i = 0; i < 40; i++) {
+                assertEquals(noise.get(3.5 + i * 0.1, 7.25), row[10 + i], 1e-12);
+            }
+        }
+    }
+    
+    @Test
+    public void fillRowWithScratchRowsMatchesSingleValues() {
+        ScratchRows scratch = new ScratchRows();
+        for (Noise noise : noises) {
+            double[] row = new double[50];
+            for (int y = 0; y < 3; y++) {
+                noise.fillRow(3.5, 7.25 + y, 0.1, row, 10, 40, scratch);
+                for (int i = 0; i < 40; i++) {
+                    assertEquals(noise.get(3.5 + i * 0.1, 7.25 + y), row[10 + i], 1e-12);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void fillRowReleasesTheScratchRows() {
+        ScratchRows scratch = new ScratchRows();
+        for (Noise noise : noises) {
+            double[] first = scratch.take(40);
+            scratch.release();
+            noise.fillRow(3.5, 7.25, 0.1, new double[40], 0, 40, scratch);
+            assertSame(first, scratch.take(40));
+            scratch.release();
+        }
+    }
+    
+    @Test
+    public void fillRowLeavesTheRestOfTheArrayUntouched() {
+        for (Noise noise : noises) {
+            double[] row = new double[50];
+            noise.fillRow(-20.0, 1e6, 0.37, row, 10, 30);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(0.0, row[i], 0.0);
+                assertEquals(0.0, row[40 + i], 0.0);
+            }
+        }
+    }
+}
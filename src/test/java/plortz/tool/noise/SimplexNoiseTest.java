@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.tool.noise;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SimplexNoiseTest {
+    
+    private SimplexNoise noise;
+    
+    public SimplexNoiseTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        noise = new SimplexNoise(42);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void noiseIsContinuous() {
+        for (int i = 0; i < 10000; i++) {
+            double x = i * 0.0371;
+            double y = i * 0.0123 - 20.0;
+            assertEquals(noise.get(x, y), noise.get(x + 1e-7, y - 1e-7), 1e-4);
+        }
+    }
+    
+    @Test
+    public void noiseIsContinuousAcrossTheEdgesOfTheTriangles() {
+        // The squares of the skewed lattice are split into two triangles along the lines where x - y is an integer.
+        for (int i = 0; i < 10000; i++) {
+            double x = i * 0.0371;
+            double y = x + i % 7 - 3;
+            assertEquals(noise.get(x + 1e-9, y), noise.get(x, y + 1e-9), 1e-6);
+        }
+    }
+}
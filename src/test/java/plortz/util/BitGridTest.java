@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class BitGridTest {
+    
+    private BitGrid grid;
+    
+    public BitGridTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        grid = new BitGrid(100, 7);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void bitsCanBeSetAndCleared() {
+        grid.set(63, 0, true);
+        grid.set(64, 0, true);
+        grid.set(99, 6, true);
+        assertTrue(grid.get(63, 0));
+        assertTrue(grid.get(64, 0));
+        assertTrue(grid.get(99, 6));
+        assertFalse(grid.get(65, 0));
+        grid.set(64, 0, false);
+        assertFalse(grid.get(64, 0));
+        assertTrue(grid.get(63, 0));
+        grid.clear();
+        assertFalse(grid.get(63, 0));
+    }
+    
+    @Test
+    public void nextSetIndexFindsTheSetBitsInOrder() {
+        int[] set = { 0, 5, 64, 200, 699 };
+        for (int index : set) {
+            grid.set(index, true);
+        }
+        int count = 0;
+        for (int i = grid.nextSetIndex(0); i >= 0; i = grid.nextSetIndex(i + 1)) {
+            assertEquals(set[count], i);
+            count++;
+        }
+        assertEquals(set.length, count);
+        assertEquals(-1, grid.nextSetIndex(700));
+    }
+    
+    @Test
+    public void sampleHandlesBordersAccordingToTheMode() {
+        grid.set(0, 0, true);
+        assertTrue(grid.sample(-1, -1));
+        grid.setBorder(Grid.Border.WRAP);
+        assertTrue(grid.sample(100, 7));
+        assertFalse(grid.sample(-1, 0));
+        grid.setBorder(Grid.Border.CONSTANT);
+        assertFalse(grid.sample(-1, -1));
+        grid.setBorderValue(true);
+        assertTrue(grid.sample(0, 7));
+    }
+    
+    @Test
+    public void rowSlicesAreCopied() {
+        grid.setRow(3, 60, 3, new boolean[] { true, false, true }, 0);
+        boolean[] row = new boolean[4];
+        grid.getRow(3, 59, 4, row, 0);
+        assertFalse(row[0]);
+        assertTrue(row[1]);
+        assertFalse(row[2]);
+        assertTrue(row[3]);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class DoubleGridTest {
+    
+    private DoubleGrid grid;
+    
+    public DoubleGridTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        grid = new DoubleGrid(4, 3);
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                grid.set(x, y, x + 10 * y);
+            }
+        }
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void valuesAreStoredInRowMajorOrder() {
+        assertEquals(23.0, grid.get(3, 2), 0.0);
+        assertEquals(23.0, grid.get(grid.getIndex(3, 2)), 0.0);
+        assertEquals(23.0, grid.getValues()[3 + 2 * 4], 0.0);
+        assertTrue(grid.isValidPosition(3, 2));
+        assertFalse(grid.isValidPosition(4, 2));
+    }
+    
+    @Test
+    public void sampleHandlesBordersAccordingToTheMode() {
+        assertEquals(0.0, grid.sample(-5, -1), 0.0);
+        assertEquals(23.0, grid.sample(10, 7), 0.0);
+        grid.setBorder(Grid.Border.WRAP);
+        assertEquals(23.0, grid.sample(-1, -1), 0.0);
+        assertEquals(11.0, grid.sample(5, 4), 0.0);
+        grid.setBorder(Grid.Border.CONSTANT);
+        grid.setBorderValue(-1.5);
+        assertEquals(-1.5, grid.sample(-1, 0), 0.0);
+        assertEquals(12.0, grid.sample(2, 1), 0.0);
+    }
+    
+    @Test
+    public void rowSlicesAreCopied() {
+        double[] row = new double[5];
+        grid.getRow(1, 1, 3, row, 2);
+        assertArrayEquals(new double[] { 0.0, 0.0, 11.0, 12.0, 13.0 }, row, 0.0);
+        grid.setRow(2, 0, 2, new double[] { 7.0, 8.0, 9.0 }, 1);
+        assertEquals(8.0, grid.get(0, 2), 0.0);
+        assertEquals(9.0, grid.get(1, 2), 0.0);
+        assertEquals(22.0, grid.get(2, 2), 0.0);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rowSliceOutsideTheGridThrows() {
+        grid.getRow(0, 2, 3, new double[3], 0);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void setOutsideTheGridThrows() {
+        grid.set(4, 0, 1.0);
+    }
+}
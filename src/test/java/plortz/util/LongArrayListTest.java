@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class LongArrayListTest {
+    
+    private LongArrayList list;
+    
+    public LongArrayListTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        list = new LongArrayList();
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void addedValuesAreKeptInOrder() {
+        for (long i = 0; i < 1000; i++) {
+            list.add(i * 3 - 7);
+        }
+        assertEquals(1000, list.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 3 - 7, list.get(i));
+        }
+    }
+    
+    @Test
+    public void removeLastWorksAsStack() {
+        list.add(1);
+        list.add(2);
+        assertEquals(2, list.removeLast());
+        list.add(3);
+        assertEquals(3, list.removeLast());
+        assertEquals(1, list.removeLast());
+        assertTrue(list.isEmpty());
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutsideTheListThrows() {
+        list.add(1);
+        list.get(1);
+    }
+}
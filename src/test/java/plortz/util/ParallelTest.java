@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class ParallelTest {
+    
+    private int default_threads;
+    
+    public ParallelTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        default_threads = Parallel.getThreads();
+        Parallel.setThreads(4);
+    }
+    
+    @After
+    public void tearDown() {
+        Parallel.setThreads(default_threads);
+    }
+    
+    @Test
+    public void everyIndexIsProcessedOnce() {
+        AtomicIntegerArray counts = new AtomicIntegerArray(10007);
+        Parallel.forEachBand(counts.length(), 10, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                counts.incrementAndGet(i);
+            }
+        });
+        for (int i = 0; i < counts.length(); i++) {
+            assertEquals(1, counts.get(i));
+        }
+    }
+    
+    @Test
+    public void smallRangesAreNotSplit() {
+        int[] calls = new int[1];
+        Parallel.forEachBand(100, 1000, (start, end) -> {
+            assertEquals(0, start);
+            assertEquals(100, end);
+            calls[0]++;
+        });
+        assertEquals(1, calls[0]);
+    }
+    
+    @Test
+    public void bandResultsAreCombined() {
+        double sum = Parallel.reduceBands(1000, 10, (start, end) -> {
+            double s = 0.0;
+            for (int i = start; i < end; i++) {
+                s += i;
+            }
+            return s;
+        }, (a, b) -> a + b);
+        assertEquals(999.0 * 1000.0 / 2.0, sum, 0.0);
+    }
+    
+    @Test
+    public void singleThreadRunsInTheCallingThread() {
+        Parallel.setThreads(1);
+        Thread caller = Thread.currentThread();
+        Parallel.forEachBand(10000, 1, (start, end) -> {
+            assertEquals(caller, Thread.currentThread());
+        });
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroThreadsIsRejected() {
+        Parallel.setThreads(0);
+    }
+}
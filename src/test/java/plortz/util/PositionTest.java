@@ -16,7 +16,9 @@
  */
 package plortz.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -88,4 +90,33 @@ public class PositionTest {
             assertTrue(counts.get(key) < 10);
         }
     }
+    
+    @Test
+    public void packedCoordinatesCanBeUnpacked() {
+        int[] values = { 0, 1, -1, 4097, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        for (int x : values) {
+            for (int y : values) {
+                long packed = Position.pack(x, y);
+                assertEquals(x, Position.unpackX(packed));
+                assertEquals(y, Position.unpackY(packed));
+                assertEquals(new Position(x, y), Position.unpack(packed));
+            }
+        }
+    }
+    
+    @Test
+    public void forEachNeighborVisitsTheNeighbors() {
+        List<Position> all = new ArrayList<>();
+        Position.forEachNeighbor(3, 5, true, (x, y) -> all.add(new Position(x, y)));
+        assertEquals(8, all.size());
+        assertEquals(new Position(2, 4), all.get(0));
+        assertEquals(new Position(4, 6), all.get(7));
+        assertFalse(all.contains(position));
+        List<Position> straight = new ArrayList<>();
+        Position.forEachNeighbor(3, 5, false, (x, y) -> straight.add(new Position(x, y)));
+        assertEquals(4, straight.size());
+        for (Position p : straight) {
+            assertEquals(1, Math.abs(p.getX() - 3) + Math.abs(p.getY() - 5));
+        }
+    }
 }
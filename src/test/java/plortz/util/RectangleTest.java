@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class RectangleTest {
+    
+    private Rectangle rectangle;
+    
+    public RectangleTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        rectangle = new Rectangle(2, 3, 4, 5);
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void containsWorks() {
+        assertTrue(rectangle.contains(2, 3));
+        assertTrue(rectangle.contains(5, 7));
+        assertFalse(rectangle.contains(6, 7));
+        assertFalse(rectangle.contains(5, 8));
+        assertFalse(rectangle.contains(1, 3));
+    }
+    
+    @Test
+    public void unionContainsBoth() {
+        assertEquals(new Rectangle(0, 3, 6, 9), rectangle.union(new Rectangle(0, 10, 1, 2)));
+    }
+    
+    @Test
+    public void unionIgnoresEmptyRectangles() {
+        assertEquals(rectangle, rectangle.union(Rectangle.EMPTY));
+        assertEquals(rectangle, Rectangle.EMPTY.union(rectangle));
+        assertTrue(Rectangle.EMPTY.union(new Rectangle(5, 5, 0, 3)).isEmpty());
+    }
+    
+    @Test
+    public void intersectionWorks() {
+        assertEquals(new Rectangle(4, 3, 2, 2), rectangle.intersection(new Rectangle(4, 0, 10, 5)));
+        assertTrue(rectangle.intersection(new Rectangle(6, 3, 1, 1)).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package plortz.util;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Joni Yrjana {@literal <joniyrjana@gmail.com>}
+ */
+public class SummedAreaTableTest {
+    
+    private final int width  = 23;
+    private final int length = 17;
+    private double[]  values;
+    
+    public SummedAreaTableTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+        Random random = new Random(3);
+        values = new double[width * length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e6 + random.nextDouble() * 10.0;
+        }
+    }
+    
+    @After
+    public void tearDown() {
+    }
+    
+    private double[] bruteForce(int x, int y, int w, int l) {
+        double sum = 0.0;
+        for (int dy = 0; dy < l; dy++) {
+            for (int dx = 0; dx < w; dx++) {
+                sum += values[x + dx + (y + dy) * width];
+            }
+        }
+        double mean = sum / (w * l);
+        double m2   = 0.0;
+        for (int dy = 0; dy < l; dy++) {
+            for (int dx = 0; dx < w; dx++) {
+                m2 += (values[x + dx + (y + dy) * width] - mean) * (values[x + dx + (y + dy) * width] - mean);
+            }
+        }
+        return new double[] { sum, mean, m2 / (w * l) };
+    }
+
+    @Test
+    public void rectanglesMatchBruteForce() {
+        SummedAreaTable table = new SummedAreaTable(values, width, length, true);
+        for (int y = 0; y < length; y += 3) {
+            for (int x = 0; x < width; x += 2) {
+                int w = Math.min(7, width - x);
+                int l = Math.min(5, length - y);
+                double[] expected = bruteForce(x, y, w, l);
+                assertEquals(expected[0], table.getSum(x, y, w, l), 1e-6);
+                assertEquals(expected[1], table.getAverage(x, y, w, l), 1e-8);
+                assertEquals(expected[2], table.getVariance(x, y, w, l), 1e-6);
+            }
+        }
+    }
+    
+    @Test
+    public void wholeTableAndSingleValues() {
+        SummedAreaTable table = new SummedAreaTable(values, width, length, false);
+        assertEquals(bruteForce(0, 0, width, length)[0], table.getSum(0, 0, width, length), 1e-6);
+        assertEquals(values[5 + 7 * width], table.getAverage(5, 7, 1, 1), 1e-8);
+        assertEquals(0.0, table.getSum(4, 4, 0, 3), 0.0);
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void varianceRequiresSquares() {
+        new SummedAreaTable(values, width, length, false).getVariance(0, 0, 2, 2);
+    }
+}